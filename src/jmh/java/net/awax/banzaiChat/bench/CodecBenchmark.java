@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.JoinSnapshot;
+import net.awax.banzaiChat.util.User;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Mesure l'encodage et le décodage des trames applicatives ({@link ChatFrame}
+ * et {@link JoinSnapshot}), ainsi que la lecture du texte d'un message reçu,
+ * décodé ou conservé sous sa forme encodée.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+	private static final String CHAT_ID = "General";
+	private static final String PSEUDO = "AwaX";
+
+	/** Longueur du texte des messages, en caractères */
+	@Param({ "32", "512" })
+	private int length;
+
+	private String text;
+	private byte[] message;
+	private byte[] snapshot;
+	private List<User> users;
+	private List<byte[]> frames;
+
+	@Setup
+	public void setup () {
+		StringBuilder sb = new StringBuilder(this.length);
+		for (int i = 0; i < this.length; i++) {
+			// Quelques caractères accentués pour les séquences multi-octets
+			sb.append(i % 16 == 15 ? 'é' : (char) ('a' + i % 26));
+		}
+		this.text = sb.toString();
+		this.message = ChatFrame.encodeMessage(CHAT_ID, 42, System.currentTimeMillis(), PSEUDO, this.text);
+		this.users = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			this.users.add(new User("user" + i, UserStatus.values()[i % UserStatus.values().length]));
+		}
+		this.frames = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			this.frames.add(ChatFrame.encodeMessage(CHAT_ID, i + 1, System.currentTimeMillis(), PSEUDO, this.text));
+		}
+		this.snapshot = JoinSnapshot.encode(CHAT_ID, this.users, this.frames);
+	}
+
+	@Benchmark
+	public byte[] encodeMessage () {
+		return ChatFrame.encodeMessage(CHAT_ID, 42, 0, PSEUDO, this.text);
+	}
+
+	@Benchmark
+	public ChatFrame decodeMessage () throws IOException {
+		return ChatFrame.decode(this.message);
+	}
+
+	@Benchmark
+	public long peekSequence () {
+		return ChatFrame.peekSequence(this.message);
+	}
+
+	@Benchmark
+	public String decodeText () throws IOException {
+		return ChatFrame.decode(this.message).getText();
+	}
+
+	@Benchmark
+	public int rawTextLength () throws IOException {
+		return ChatFrame.decode(this.message).getRawText().length();
+	}
+
+	@Benchmark
+	public byte[] encodeSnapshot () {
+		return JoinSnapshot.encode(CHAT_ID, this.users, this.frames);
+	}
+
+	@Benchmark
+	public JoinSnapshot decodeSnapshot () throws IOException {
+		return JoinSnapshot.decode(this.snapshot);
+	}
+}
\ No newline at end of file
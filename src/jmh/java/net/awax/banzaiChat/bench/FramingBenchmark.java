@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.awax.banzaiChat.net.FrameCodec;
+
+/**
+ * Mesure le découpage des trames sur la liaison TCP ({@link FrameCodec}),
+ * utilisé par <code>TcpClient.send()</code> et
+ * <code>TcpServerClient.receive()</code>, sur des flux en mémoire afin de ne
+ * mesurer que l'encodage et le décodage, sans le coût du réseau.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FramingBenchmark {
+
+	/** Nombre de trames concaténées dans le flux lu */
+	private static final int FRAMES = 64;
+
+	@Param({ "64", "1024", "16384" })
+	private int size;
+
+	private byte[] frame;
+	private ByteArrayOutputStream buffer;
+	private DataOutputStream out;
+	private ByteArrayInputStream in;
+	private int remaining;
+
+	@Setup
+	public void setup () throws IOException {
+		this.frame = new byte[this.size];
+		Arrays.fill(this.frame, (byte) 'a');
+		this.buffer = new ByteArrayOutputStream(FRAMES * (this.size + FrameCodec.HEADER_LENGTH));
+		this.out = new DataOutputStream(this.buffer);
+		for (int i = 0; i < FRAMES; i++) {
+			FrameCodec.write(this.out, this.frame);
+		}
+		this.in = new ByteArrayInputStream(this.buffer.toByteArray());
+		this.remaining = FRAMES;
+	}
+
+	@Benchmark
+	public int encode () throws IOException {
+		this.buffer.reset();
+		FrameCodec.write(this.out, this.frame);
+		this.out.flush();
+		return this.buffer.size();
+	}
+
+	@Benchmark
+	public byte[] decode () throws IOException {
+		// On relit le flux depuis le début une fois toutes les trames lues
+		if (this.remaining == 0) {
+			this.in.reset();
+			this.remaining = FRAMES;
+		}
+		this.remaining--;
+		return FrameCodec.read(this.in);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,420 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.bench;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.xml.DOMConfigurator;
+
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.EthernetEvent;
+import net.awax.banzaiChat.net.ServerConnectionException;
+import net.awax.banzaiChat.net.TcpClient;
+import net.awax.banzaiChat.net.TcpServer;
+import net.awax.banzaiChat.server.ChatRouter;
+import net.awax.banzaiChat.server.ServerModel;
+import net.awax.banzaiChat.util.ResourceManager;
+
+/**
+ * Banc de mesure de la latence de bout en bout. Un serveur est lancé sur la
+ * boucle locale avec son routeur, puis plusieurs clients TCP rejoignent le
+ * même salon et y publient chacun des messages à cadence fixe. Chaque message
+ * transporte sa date d'envoi prévue et sa date d'envoi effective ; la latence
+ * est mesurée à sa réception par chacun des membres du salon.
+ * <p>
+ * La latence corrigée est mesurée depuis la date d'envoi prévue par la
+ * cadence : un émetteur retardé par un serveur saturé n'envoie pas moins de
+ * messages, et le retard accumulé est compté dans la latence des messages
+ * suivants (correction de l'omission coordonnée). La latence brute, mesurée
+ * depuis l'envoi effectif, est également rapportée.
+ * <p>
+ * Les percentiles sont affichés en fin de mesure et ajoutés à un fichier CSV
+ * afin de comparer plusieurs versions. Options (valeurs par défaut entre
+ * parenthèses) : <code>-clients</code> (8), <code>-rate</code> messages par
+ * seconde et par client (100), <code>-warmup</code> secondes (5),
+ * <code>-duration</code> secondes (20), <code>-size</code> octets de texte
+ * (128), <code>-port</code> (50100), <code>-storage</code> (memory),
+ * <code>-csv</code> (latency.csv) et <code>-label</code> (dev).
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LatencyHarness {
+
+	private static final String ROOM = "bench";
+	private static final String CSV_HEADER = "date,label,clients,rate,size,duration,sent,expected,received,"
+			+ "throughput,p50_us,p99_us,p999_us,max_us,raw_p50_us,raw_p99_us,raw_p999_us,raw_max_us";
+	private static final long DRAIN_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+	private final Logger logger;
+	private final int clients;
+	private final int rate;
+	private final int warmup;
+	private final int duration;
+	private final int size;
+	private final int port;
+	private final String storage;
+	private final File csv;
+	private final String label;
+	private final LatencyRecorder corrected;
+	private final LatencyRecorder uncorrected;
+	private final AtomicLong sent;
+	private final AtomicLong received;
+	private final AtomicLong measuredSent;
+	private final AtomicLong measuredReceived;
+	private volatile long measureStart;
+
+	/**
+	 * Permet d'instancier le banc de mesure.
+	 * 
+	 * @param options
+	 *            Options de la ligne de commande, sans le tiret initial.
+	 */
+	public LatencyHarness (Map<String, String> options) {
+		this.logger = Logger.getLogger(getClass());
+		this.clients = getInt(options, "clients", 8);
+		this.rate = getInt(options, "rate", 100);
+		this.warmup = getInt(options, "warmup", 5);
+		this.duration = getInt(options, "duration", 20);
+		this.size = getInt(options, "size", 128);
+		this.port = getInt(options, "port", 50100);
+		this.storage = getString(options, "storage", "memory");
+		this.csv = new File(getString(options, "csv", "latency.csv"));
+		this.label = getString(options, "label", "dev");
+		this.corrected = new LatencyRecorder();
+		this.uncorrected = new LatencyRecorder();
+		this.sent = new AtomicLong();
+		this.received = new AtomicLong();
+		this.measuredSent = new AtomicLong();
+		this.measuredReceived = new AtomicLong();
+		this.measureStart = Long.MAX_VALUE;
+	}
+
+	public static void main (String[] args) throws Exception {
+		if (ResourceManager.LOG4J_FILE.exists()) {
+			DOMConfigurator.configure(ResourceManager.LOG4J_FILE.getPath());
+		}
+		// Les traces par message fausseraient la mesure
+		Logger.getRootLogger().setLevel(Level.WARN);
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			if (!args[i].startsWith("-")) {
+				throw new IllegalArgumentException("Unexpected argument : " + args[i]);
+			}
+			options.put(args[i].substring(1), args[i + 1]);
+		}
+		new LatencyHarness(options).run();
+	}
+
+	/**
+	 * Permet de lancer la mesure : démarrage du serveur et des clients, envoi
+	 * des messages, attente de leur réception puis rapport.
+	 * 
+	 * @throws IOException
+	 *             Si le serveur ne peut être lancé ou si le fichier CSV ne peut
+	 *             être écrit, une exception est lancée.
+	 * @throws ServerConnectionException
+	 *             Si un client ne peut se connecter au serveur, une exception
+	 *             est lancée.
+	 * @throws InterruptedException
+	 *             Si le thread est interrompu durant la mesure, une exception
+	 *             est lancée.
+	 */
+	public void run () throws IOException, ServerConnectionException, InterruptedException {
+		ResourceManager.getInstance().setProperty("server.storage", this.storage);
+		ServerModel model = new ServerModel();
+		TcpServer server = new TcpServer(this.port, Math.max(50, this.clients), model.getMetrics());
+		server.addListener(new ChatRouter(model));
+		server.start();
+
+		// Connexion des clients et entrée dans le salon
+		CountDownLatch joined = new CountDownLatch(this.clients);
+		List<TcpClient> tcpClients = new ArrayList<>(this.clients);
+		for (int i = 0; i < this.clients; i++) {
+			TcpClient client = new TcpClient("127.0.0.1", this.port, 1000);
+			client.addListener(new Receiver(joined));
+			client.start();
+			client.send(ChatFrame.encodeJoin(ROOM, "bench" + i));
+			tcpClients.add(client);
+		}
+		if (!joined.await(10, TimeUnit.SECONDS)) {
+			throw new IllegalStateException("Clients did not join the room in time");
+		}
+		System.out.println(String.format(Locale.ROOT, "%d clients, %d msg/s per client, %d bytes, %ds warmup + %ds",
+				this.clients, this.rate, this.size, this.warmup, this.duration));
+
+		// Envoi à cadence fixe, les émetteurs étant déphasés
+		long interval = TimeUnit.SECONDS.toNanos(1) / this.rate;
+		long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+		this.measureStart = start + TimeUnit.SECONDS.toNanos(this.warmup);
+		long end = this.measureStart + TimeUnit.SECONDS.toNanos(this.duration);
+		List<Thread> senders = new ArrayList<>(this.clients);
+		for (int i = 0; i < this.clients; i++) {
+			Thread sender = new Thread(new Sender(tcpClients.get(i), "bench" + i, start + interval * i / this.clients,
+					interval, end), "sender-" + i);
+			sender.start();
+			senders.add(sender);
+		}
+		for (Thread sender : senders) {
+			sender.join();
+		}
+
+		// Attente des derniers messages diffusés
+		long expected = this.sent.get() * this.clients;
+		long deadline = System.nanoTime() + DRAIN_TIMEOUT;
+		while (this.received.get() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		for (TcpClient client : tcpClients) {
+			client.stop();
+		}
+		server.stop();
+		report();
+	}
+
+	/**
+	 * Permet d'afficher les résultats de la mesure et de les ajouter au
+	 * fichier CSV.
+	 * 
+	 * @throws IOException
+	 *             Si le fichier CSV ne peut être écrit, une exception est
+	 *             lancée.
+	 */
+	private void report () throws IOException {
+		long[] latencies = this.corrected.drain();
+		long[] raw = this.uncorrected.drain();
+		long expected = this.measuredSent.get() * this.clients;
+		long delivered = this.measuredReceived.get();
+		double throughput = (double) delivered / this.duration;
+
+		System.out.println(String.format(Locale.ROOT, "sent %d, delivered %d/%d (%d lost), %.0f msg/s delivered",
+				this.measuredSent.get(), delivered, expected, expected - delivered, throughput));
+		System.out.println(String.format(Locale.ROOT, "%-12s %10s %10s %10s %10s", "latency (us)", "p50", "p99",
+				"p99.9", "max"));
+		System.out.println(String.format(Locale.ROOT, "%-12s %10d %10d %10d %10d", "corrected", micros(latencies, 50),
+				micros(latencies, 99), micros(latencies, 99.9), micros(latencies, 100)));
+		System.out.println(String.format(Locale.ROOT, "%-12s %10d %10d %10d %10d", "raw", micros(raw, 50),
+				micros(raw, 99), micros(raw, 99.9), micros(raw, 100)));
+
+		boolean header = !this.csv.exists() || this.csv.length() == 0;
+		try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(this.csv, true),
+				StandardCharsets.UTF_8))) {
+			if (header) {
+				out.println(CSV_HEADER);
+			}
+			out.println(String.format(Locale.ROOT, "%tFT%<tT,%s,%d,%d,%d,%d,%d,%d,%d,%.1f,%d,%d,%d,%d,%d,%d,%d,%d",
+					System.currentTimeMillis(), this.label, this.clients, this.rate, this.size, this.duration,
+					this.measuredSent.get(), expected, delivered, throughput, micros(latencies, 50),
+					micros(latencies, 99), micros(latencies, 99.9), micros(latencies, 100), micros(raw, 50),
+					micros(raw, 99), micros(raw, 99.9), micros(raw, 100)));
+		}
+		System.out.println("Results appended to " + this.csv.getAbsolutePath());
+	}
+
+	/**
+	 * Renvoie un percentile en microsecondes.
+	 * 
+	 * @param sorted
+	 *            Latences triées, en nanosecondes.
+	 * @param percentile
+	 *            Percentile souhaité.
+	 * @return Valeur du percentile en microsecondes.
+	 */
+	private static long micros (long[] sorted, double percentile) {
+		return TimeUnit.NANOSECONDS.toMicros(LatencyRecorder.percentile(sorted, percentile));
+	}
+
+	/**
+	 * Renvoie la valeur entière d'une option.
+	 * 
+	 * @param options
+	 *            Options de la ligne de commande.
+	 * @param key
+	 *            Nom de l'option.
+	 * @param defaultValue
+	 *            Valeur par défaut.
+	 * @return Valeur de l'option.
+	 */
+	private static int getInt (Map<String, String> options, String key, int defaultValue) {
+		String value = options.get(key);
+		return value != null ? Integer.parseInt(value) : defaultValue;
+	}
+
+	/**
+	 * Renvoie la valeur d'une option.
+	 * 
+	 * @param options
+	 *            Options de la ligne de commande.
+	 * @param key
+	 *            Nom de l'option.
+	 * @param defaultValue
+	 *            Valeur par défaut.
+	 * @return Valeur de l'option.
+	 */
+	private static String getString (Map<String, String> options, String key, String defaultValue) {
+		String value = options.get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Emetteur de messages à cadence fixe pour un client. Un message en retard
+	 * est envoyé dès que possible, sans décaler les suivants.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private class Sender implements Runnable {
+
+		private final TcpClient client;
+		private final String pseudo;
+		private final long start;
+		private final long interval;
+		private final long end;
+		private final StringBuilder text;
+
+		/**
+		 * Permet d'instancier un émetteur.
+		 * 
+		 * @param client
+		 *            Client TCP de l'émetteur.
+		 * @param pseudo
+		 *            Pseudonyme de l'émetteur.
+		 * @param start
+		 *            Date prévue du premier envoi, en nanosecondes.
+		 * @param interval
+		 *            Intervalle entre deux envois, en nanosecondes.
+		 * @param end
+		 *            Date de fin des envois, en nanosecondes.
+		 */
+		private Sender (TcpClient client, String pseudo, long start, long interval, long end) {
+			this.client = client;
+			this.pseudo = pseudo;
+			this.start = start;
+			this.interval = interval;
+			this.end = end;
+			this.text = new StringBuilder(LatencyHarness.this.size);
+		}
+
+		@Override
+		public void run () {
+			for (long k = 0;; k++) {
+				long intended = this.start + k * this.interval;
+				if (intended >= this.end) {
+					break;
+				}
+				long delay;
+				while ((delay = intended - System.nanoTime()) > 0) {
+					LockSupport.parkNanos(delay);
+				}
+				// Dates d'envoi prévue et effective, complétées jusqu'à la taille demandée
+				this.text.setLength(0);
+				this.text.append(intended).append(' ').append(System.nanoTime()).append(' ');
+				while (this.text.length() < LatencyHarness.this.size) {
+					this.text.append('x');
+				}
+				this.client.send(ChatFrame.encodeMessage(ROOM, 0, 0, this.pseudo, this.text.toString()));
+				LatencyHarness.this.sent.incrementAndGet();
+				if (intended >= LatencyHarness.this.measureStart) {
+					LatencyHarness.this.measuredSent.incrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Récepteur des trames d'un client : signale l'entrée dans le salon puis
+	 * enregistre la latence de chaque message reçu.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private class Receiver implements EthernetEvent {
+
+		private final CountDownLatch joined;
+		private boolean snapshot;
+
+		/**
+		 * Permet d'instancier un récepteur.
+		 * 
+		 * @param joined
+		 *            Décompte des clients entrés dans le salon.
+		 */
+		private Receiver (CountDownLatch joined) {
+			this.joined = joined;
+			this.snapshot = false;
+		}
+
+		@Override
+		public void onReceive (byte[] msg) {
+			long now = System.nanoTime();
+			byte type = ChatFrame.peekType(msg);
+			if (type == ChatFrame.TYPE_SNAPSHOT && !this.snapshot) {
+				this.snapshot = true;
+				this.joined.countDown();
+			} else if (type == ChatFrame.TYPE_MESSAGE) {
+				String text;
+				try {
+					text = ChatFrame.decode(msg).getText();
+				} catch (IOException e) {
+					LatencyHarness.this.logger.error("Cannot decode message", e);
+					return;
+				}
+				int first = text.indexOf(' ');
+				int second = text.indexOf(' ', first + 1);
+				long intended = Long.parseLong(text.substring(0, first));
+				long sentAt = Long.parseLong(text.substring(first + 1, second));
+				LatencyHarness.this.received.incrementAndGet();
+				if (intended >= LatencyHarness.this.measureStart) {
+					LatencyHarness.this.measuredReceived.incrementAndGet();
+					LatencyHarness.this.corrected.record(now - intended);
+					LatencyHarness.this.uncorrected.record(now - sentAt);
+				}
+			}
+		}
+
+		@Override
+		public void onError (int errorCode, String errorDesc) {
+			LatencyHarness.this.logger.error("Client error " + errorCode + " : " + errorDesc);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.bench;
+
+import java.util.Arrays;
+
+/**
+ * Enregistre des mesures de latence en nanosecondes et en calcule les
+ * percentiles. Toutes les mesures sont conservées puis triées lors de la
+ * lecture, ce qui donne des percentiles exacts pour la durée d'un banc de
+ * mesure. Les méthodes de cette classe sont synchronisées, les mesures étant
+ * enregistrées par les threads de réception des clients.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LatencyRecorder {
+
+	private long[] values;
+	private int count;
+
+	/**
+	 * Permet d'instancier un enregistreur vide.
+	 */
+	public LatencyRecorder () {
+		this.values = new long[1024];
+		this.count = 0;
+	}
+
+	/**
+	 * Permet d'enregistrer une mesure.
+	 * 
+	 * @param nanos
+	 *            Latence mesurée en nanosecondes.
+	 */
+	public synchronized void record (long nanos) {
+		if (this.count == this.values.length) {
+			this.values = Arrays.copyOf(this.values, this.count * 2);
+		}
+		this.values[this.count++] = nanos;
+	}
+
+	/**
+	 * Renvoie les mesures enregistrées puis les efface.
+	 * 
+	 * @return Mesures triées par ordre croissant.
+	 */
+	public synchronized long[] drain () {
+		long[] sorted = Arrays.copyOf(this.values, this.count);
+		this.count = 0;
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Renvoie les mesures enregistrées, sans les effacer.
+	 * 
+	 * @return Mesures triées par ordre croissant.
+	 */
+	public synchronized long[] snapshot () {
+		long[] sorted = Arrays.copyOf(this.values, this.count);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	public synchronized int getCount () {
+		return this.count;
+	}
+
+	/**
+	 * Renvoie le percentile spécifié d'une série de mesures triées (méthode
+	 * du rang le plus proche).
+	 * 
+	 * @param sorted
+	 *            Mesures triées par ordre croissant.
+	 * @param percentile
+	 *            Percentile souhaité, entre 0 et 100.
+	 * @return Valeur du percentile, ou <code>0</code> si la série est vide.
+	 */
+	public static long percentile (long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+		return sorted[Math.min(sorted.length - 1, Math.max(0, rank - 1))];
+	}
+}
\ No newline at end of file
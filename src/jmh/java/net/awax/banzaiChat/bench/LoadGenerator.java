@@ -0,0 +1,529 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.apache.log4j.xml.DOMConfigurator;
+
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.EthernetEvent;
+import net.awax.banzaiChat.net.FrameCodec;
+import net.awax.banzaiChat.net.ServerConnectionException;
+import net.awax.banzaiChat.net.TcpClient;
+import net.awax.banzaiChat.net.TcpServer;
+import net.awax.banzaiChat.server.ChatRouter;
+import net.awax.banzaiChat.server.ServerModel;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Générateur de charge en ligne de commande, sans interface graphique. Chaque
+ * utilisateur simulé dispose de sa propre connexion {@link TcpClient}, rejoint
+ * un ou plusieurs salons puis y publie des messages de taille aléatoire à
+ * cadence fixe. Les utilisateurs sont connectés progressivement selon un
+ * profil de montée en charge ; pendant la mesure, des utilisateurs pris au
+ * hasard se déconnectent puis rejoignent d'autres salons, et changent de
+ * statut. Le débit et les erreurs sont affichés à intervalle régulier.
+ * <p>
+ * Options (valeurs par défaut entre parenthèses) : <code>-host</code>
+ * (127.0.0.1), <code>-port</code> (50000), <code>-users</code> (1000),
+ * <code>-rooms</code> (10), <code>-roomsPerUser</code> (1), <code>-rate</code>
+ * messages par seconde et par utilisateur (0.5), <code>-minSize</code> et
+ * <code>-maxSize</code> octets de texte (16 et 256), <code>-ramp</code>
+ * profil <code>linear</code>, <code>step</code> ou <code>instant</code>
+ * (linear), <code>-rampUp</code> secondes (30), <code>-steps</code> paliers
+ * (5), <code>-duration</code> secondes depuis le lancement (120),
+ * <code>-churn</code> reconnexions par seconde (1), <code>-status</code>
+ * changements de statut par seconde (2), <code>-report</code> secondes (1),
+ * <code>-threads</code> (4) et <code>-embedded</code> pour lancer un serveur
+ * local (false).
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LoadGenerator {
+
+	private static final String ROOM_PREFIX = "load";
+	private static final UserStatus[] STATUSES = { UserStatus.CONNECTED, UserStatus.BUSY, UserStatus.ABSENT };
+
+	private final Logger logger;
+	private final String host;
+	private final int port;
+	private final int userCount;
+	private final int rooms;
+	private final int roomsPerUser;
+	private final double rate;
+	private final int minSize;
+	private final int maxSize;
+	private final String ramp;
+	private final int rampUp;
+	private final int steps;
+	private final int duration;
+	private final double churn;
+	private final double status;
+	private final int report;
+	private final int threads;
+	private final boolean embedded;
+	private final String text;
+	private final LongAdder connects;
+	private final LongAdder connectErrors;
+	private final LongAdder linkErrors;
+	private final LongAdder joins;
+	private final LongAdder churns;
+	private final LongAdder statusChanges;
+	private final LongAdder messagesSent;
+	private final LongAdder bytesSent;
+	private final LongAdder messagesReceived;
+	private final LongAdder framesReceived;
+	private final LongAdder bytesReceived;
+	private VirtualUser[] users;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Permet d'instancier le générateur de charge.
+	 * 
+	 * @param options
+	 *            Options de la ligne de commande, sans le tiret initial.
+	 */
+	public LoadGenerator (Map<String, String> options) {
+		this.logger = Logger.getLogger(getClass());
+		this.host = getString(options, "host", "127.0.0.1");
+		this.port = Integer.parseInt(getString(options, "port", "50000"));
+		this.userCount = Integer.parseInt(getString(options, "users", "1000"));
+		this.rooms = Integer.parseInt(getString(options, "rooms", "10"));
+		this.roomsPerUser = Math.min(this.rooms, Integer.parseInt(getString(options, "roomsPerUser", "1")));
+		this.rate = Double.parseDouble(getString(options, "rate", "0.5"));
+		this.minSize = Integer.parseInt(getString(options, "minSize", "16"));
+		this.maxSize = Math.max(this.minSize, Integer.parseInt(getString(options, "maxSize", "256")));
+		this.ramp = getString(options, "ramp", "linear");
+		this.rampUp = Integer.parseInt(getString(options, "rampUp", "30"));
+		this.steps = Math.max(1, Integer.parseInt(getString(options, "steps", "5")));
+		this.duration = Integer.parseInt(getString(options, "duration", "120"));
+		this.churn = Double.parseDouble(getString(options, "churn", "1"));
+		this.status = Double.parseDouble(getString(options, "status", "2"));
+		this.report = Math.max(1, Integer.parseInt(getString(options, "report", "1")));
+		this.threads = Integer.parseInt(getString(options, "threads", "4"));
+		this.embedded = Boolean.parseBoolean(getString(options, "embedded", "false"));
+		// Texte de remplissage dans lequel les messages sont découpés
+		StringBuilder sb = new StringBuilder(this.maxSize);
+		while (sb.length() < this.maxSize) {
+			sb.append("lorem ipsum dolor sit amet ");
+		}
+		this.text = sb.substring(0, this.maxSize);
+		this.connects = new LongAdder();
+		this.connectErrors = new LongAdder();
+		this.linkErrors = new LongAdder();
+		this.joins = new LongAdder();
+		this.churns = new LongAdder();
+		this.statusChanges = new LongAdder();
+		this.messagesSent = new LongAdder();
+		this.bytesSent = new LongAdder();
+		this.messagesReceived = new LongAdder();
+		this.framesReceived = new LongAdder();
+		this.bytesReceived = new LongAdder();
+	}
+
+	public static void main (String[] args) throws Exception {
+		if (ResourceManager.LOG4J_FILE.exists()) {
+			DOMConfigurator.configure(ResourceManager.LOG4J_FILE.getPath());
+		}
+		// Les traces par message satureraient la console
+		Logger.getRootLogger().setLevel(Level.WARN);
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i < args.length; i++) {
+			if (!args[i].startsWith("-")) {
+				throw new IllegalArgumentException("Unexpected argument : " + args[i]);
+			}
+			// Une option sans valeur est un drapeau
+			boolean flag = i + 1 == args.length || args[i + 1].startsWith("-") && !isNumber(args[i + 1]);
+			options.put(args[i].substring(1), flag ? "true" : args[++i]);
+		}
+		new LoadGenerator(options).run();
+	}
+
+	/**
+	 * Permet de lancer la génération de charge jusqu'à la fin de la durée
+	 * demandée, en affichant le débit à intervalle régulier.
+	 * 
+	 * @throws IOException
+	 *             Si le serveur local ne peut être lancé, une exception est
+	 *             lancée.
+	 * @throws ServerConnectionException
+	 *             Si le serveur local est déjà lancé, une exception est lancée.
+	 * @throws InterruptedException
+	 *             Si le thread est interrompu, une exception est lancée.
+	 */
+	public void run () throws IOException, ServerConnectionException, InterruptedException {
+		TcpServer server = null;
+		if (this.embedded) {
+			ResourceManager.getInstance().setProperty("server.storage", "memory");
+			ServerModel model = new ServerModel();
+			server = new TcpServer(this.port, Math.max(50, this.userCount), model.getMetrics());
+			server.addListener(new ChatRouter(model));
+			server.start();
+		}
+		System.out.println(String.format(Locale.ROOT,
+				"%d users on %s:%d, %d rooms (%d per user), %.2f msg/s per user, %d-%d bytes, %s ramp-up over %ds",
+				this.userCount, this.host, this.port, this.rooms, this.roomsPerUser, this.rate, this.minSize,
+				this.maxSize, this.ramp, this.rampUp));
+
+		// Montée en charge
+		this.scheduler = Executors.newScheduledThreadPool(this.threads);
+		this.users = new VirtualUser[this.userCount];
+		for (int i = 0; i < this.userCount; i++) {
+			final VirtualUser user = new VirtualUser(i);
+			this.users[i] = user;
+			this.scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run () {
+					user.connect();
+				}
+			}, getRampDelay(i), TimeUnit.MILLISECONDS);
+		}
+
+		// Déconnexions et changements de statut aléatoires
+		if (this.churn > 0) {
+			this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+				@Override
+				public void run () {
+					churn();
+				}
+			}, this.rampUp * 1000L, (long) (1e9 / this.churn), TimeUnit.NANOSECONDS);
+		}
+		if (this.status > 0) {
+			this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+				@Override
+				public void run () {
+					VirtualUser user = LoadGenerator.this.users[ThreadLocalRandom.current().nextInt(
+							LoadGenerator.this.userCount)];
+					user.flapStatus();
+				}
+			}, 0, (long) (1e9 / this.status), TimeUnit.NANOSECONDS);
+		}
+
+		printReport();
+		// Arrêt des envois avant les déconnexions
+		this.scheduler.shutdownNow();
+		this.scheduler.awaitTermination(5, TimeUnit.SECONDS);
+		for (VirtualUser user : this.users) {
+			user.disconnect();
+		}
+		if (server != null) {
+			server.stop();
+		}
+	}
+
+	/**
+	 * Permet d'afficher le débit et les erreurs à intervalle régulier, jusqu'à
+	 * la fin de la durée demandée, puis les totaux.
+	 * 
+	 * @throws InterruptedException
+	 *             Si le thread est interrompu, une exception est lancée.
+	 */
+	private void printReport () throws InterruptedException {
+		System.out.println(String.format(Locale.ROOT, "%6s %7s %9s %9s %10s %10s %8s %8s %8s", "time", "online",
+				"sent/s", "recv/s", "out KB/s", "in KB/s", "churns", "status", "errors"));
+		long start = System.nanoTime();
+		long end = start + TimeUnit.SECONDS.toNanos(this.duration);
+		long[] previous = new long[4];
+		long previousTime = start;
+		while (System.nanoTime() < end) {
+			Thread.sleep(this.report * 1000L);
+			long now = System.nanoTime();
+			long[] current = { this.messagesSent.sum(), this.messagesReceived.sum(), this.bytesSent.sum(),
+					this.bytesReceived.sum() };
+			double seconds = (now - previousTime) / 1e9;
+			System.out.println(String.format(Locale.ROOT, "%5ds %7d %9.0f %9.0f %10.1f %10.1f %8d %8d %8d",
+					TimeUnit.NANOSECONDS.toSeconds(now - start), getOnline(), (current[0] - previous[0]) / seconds,
+					(current[1] - previous[1]) / seconds, (current[2] - previous[2]) / seconds / 1024,
+					(current[3] - previous[3]) / seconds / 1024, this.churns.sum(), this.statusChanges.sum(),
+					this.connectErrors.sum() + this.linkErrors.sum()));
+			previous = current;
+			previousTime = now;
+		}
+		System.out.println(String.format(Locale.ROOT,
+				"total : %d connections (%d failed), %d joins, %d link errors, %d churns, %d status changes",
+				this.connects.sum(), this.connectErrors.sum(), this.joins.sum(), this.linkErrors.sum(),
+				this.churns.sum(), this.statusChanges.sum()));
+		System.out.println(String.format(Locale.ROOT,
+				"        %d messages sent (%d bytes), %d messages received, %d frames received (%d bytes)",
+				this.messagesSent.sum(), this.bytesSent.sum(), this.messagesReceived.sum(),
+				this.framesReceived.sum(), this.bytesReceived.sum()));
+	}
+
+	/**
+	 * Permet de déconnecter un utilisateur connecté pris au hasard, qui se
+	 * reconnecte peu après dans d'autres salons.
+	 */
+	private void churn () {
+		final VirtualUser user = this.users[ThreadLocalRandom.current().nextInt(this.userCount)];
+		if (user.isConnected()) {
+			user.disconnect();
+			this.churns.increment();
+			this.scheduler.schedule(new Runnable() {
+
+				@Override
+				public void run () {
+					user.connect();
+				}
+			}, 100 + ThreadLocalRandom.current().nextInt(900), TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Renvoie le délai de connexion d'un utilisateur selon le profil de montée
+	 * en charge.
+	 * 
+	 * @param index
+	 *            Indice de l'utilisateur.
+	 * @return Délai de connexion en millisecondes.
+	 */
+	private long getRampDelay (int index) {
+		long rampMillis = this.rampUp * 1000L;
+		switch (this.ramp) {
+			case "instant":
+				return 0;
+			case "step":
+				// Les utilisateurs arrivent par paliers, le premier dès le lancement
+				return index * (long) this.steps / this.userCount * rampMillis / this.steps;
+			case "linear":
+				return index * rampMillis / this.userCount;
+			default:
+				throw new IllegalArgumentException("Unknown ramp-up profile : " + this.ramp);
+		}
+	}
+
+	/**
+	 * Renvoie le nombre d'utilisateurs actuellement connectés.
+	 * 
+	 * @return Nombre d'utilisateurs connectés.
+	 */
+	private int getOnline () {
+		int online = 0;
+		for (VirtualUser user : this.users) {
+			if (user.isConnected()) {
+				online++;
+			}
+		}
+		return online;
+	}
+
+	/**
+	 * Renvoie la valeur d'une option.
+	 * 
+	 * @param options
+	 *            Options de la ligne de commande.
+	 * @param key
+	 *            Nom de l'option.
+	 * @param defaultValue
+	 *            Valeur par défaut.
+	 * @return Valeur de l'option.
+	 */
+	private static String getString (Map<String, String> options, String key, String defaultValue) {
+		String value = options.get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Indique si un argument est une valeur numérique (éventuellement
+	 * négative) plutôt qu'une option.
+	 * 
+	 * @param arg
+	 *            Argument de la ligne de commande.
+	 * @return <code>true</code> si l'argument est un nombre.
+	 */
+	private static boolean isNumber (String arg) {
+		try {
+			Double.parseDouble(arg);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Utilisateur simulé, avec sa propre connexion au serveur.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private class VirtualUser implements EthernetEvent {
+
+		private final String pseudo;
+		private final List<String> joined;
+		private volatile TcpClient client;
+		private ScheduledFuture<?> sending;
+
+		/**
+		 * Permet d'instancier un utilisateur simulé.
+		 * 
+		 * @param index
+		 *            Indice de l'utilisateur.
+		 */
+		private VirtualUser (int index) {
+			this.pseudo = "user" + index;
+			this.joined = new ArrayList<>();
+		}
+
+		/**
+		 * Permet de connecter l'utilisateur, de lui faire rejoindre des salons
+		 * pris au hasard puis de lancer l'envoi de ses messages.
+		 */
+		private synchronized void connect () {
+			if (this.client != null) {
+				return;
+			}
+			TcpClient tcpClient;
+			try {
+				tcpClient = new TcpClient(LoadGenerator.this.host, LoadGenerator.this.port, 1000);
+				tcpClient.addListener(this);
+				tcpClient.start();
+			} catch (IOException | ServerConnectionException e) {
+				LoadGenerator.this.connectErrors.increment();
+				LoadGenerator.this.logger.debug("Cannot connect " + this.pseudo, e);
+				return;
+			}
+			this.client = tcpClient;
+			LoadGenerator.this.connects.increment();
+
+			// Salons rejoints, distincts
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			this.joined.clear();
+			while (this.joined.size() < LoadGenerator.this.roomsPerUser) {
+				String room = ROOM_PREFIX + random.nextInt(LoadGenerator.this.rooms);
+				if (!this.joined.contains(room)) {
+					this.joined.add(room);
+					send(ChatFrame.encodeJoin(room, this.pseudo));
+					LoadGenerator.this.joins.increment();
+				}
+			}
+			if (LoadGenerator.this.rate > 0) {
+				long period = (long) (1e9 / LoadGenerator.this.rate);
+				this.sending = LoadGenerator.this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+					@Override
+					public void run () {
+						sendMessage();
+					}
+				}, random.nextLong(period), period, TimeUnit.NANOSECONDS);
+			}
+		}
+
+		/**
+		 * Permet de déconnecter l'utilisateur, ce qui le retire de ses salons.
+		 */
+		private synchronized void disconnect () {
+			if (this.sending != null) {
+				this.sending.cancel(false);
+				this.sending = null;
+			}
+			if (this.client != null) {
+				this.client.stop();
+				this.client = null;
+			}
+		}
+
+		/**
+		 * Permet de publier un message de taille aléatoire dans l'un des
+		 * salons rejoints.
+		 */
+		private synchronized void sendMessage () {
+			if (this.client == null || this.joined.isEmpty()) {
+				return;
+			}
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			String room = this.joined.get(random.nextInt(this.joined.size()));
+			int size = LoadGenerator.this.minSize
+					+ random.nextInt(LoadGenerator.this.maxSize - LoadGenerator.this.minSize + 1);
+			byte[] frame = ChatFrame.encodeMessage(room, 0, System.currentTimeMillis(), this.pseudo,
+					LoadGenerator.this.text.substring(0, size));
+			send(frame);
+			LoadGenerator.this.messagesSent.increment();
+		}
+
+		/**
+		 * Permet de changer le statut de l'utilisateur dans tous ses salons.
+		 */
+		private synchronized void flapStatus () {
+			if (this.client == null) {
+				return;
+			}
+			UserStatus userStatus = STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)];
+			for (String room : this.joined) {
+				send(ChatFrame.encodeStatus(room, userStatus));
+			}
+			LoadGenerator.this.statusChanges.increment();
+		}
+
+		/**
+		 * Permet d'envoyer une trame vers le serveur.
+		 * 
+		 * @param frame
+		 *            Trame à envoyer.
+		 */
+		private void send (byte[] frame) {
+			this.client.send(frame);
+			LoadGenerator.this.bytesSent.add(FrameCodec.HEADER_LENGTH + frame.length);
+		}
+
+		private boolean isConnected () {
+			TcpClient tcpClient = this.client;
+			return tcpClient != null && tcpClient.isRunning();
+		}
+
+		@Override
+		public void onReceive (byte[] msg) {
+			LoadGenerator.this.framesReceived.increment();
+			LoadGenerator.this.bytesReceived.add(FrameCodec.HEADER_LENGTH + msg.length);
+			if (ChatFrame.peekType(msg) == ChatFrame.TYPE_MESSAGE) {
+				LoadGenerator.this.messagesReceived.increment();
+			}
+		}
+
+		@Override
+		public void onError (int errorCode, String errorDesc) {
+			LoadGenerator.this.linkErrors.increment();
+			LoadGenerator.this.logger.warn(this.pseudo + " : " + errorDesc);
+		}
+	}
+}
\ No newline at end of file
@@ -1,202 +1,425 @@
-/*******************************************************************************
- * MIT License
- *
- * Copyright (c) 2017 Julien Le Sauce
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- *******************************************************************************/
-package net.awax.banzaiChat;
-
-import java.awt.Color;
-import java.awt.Font;
-import java.io.IOException;
-import java.util.Calendar;
-
-import javax.swing.JOptionPane;
-
-import net.awax.banzaiChat.gui.ChatPanel;
-
-import org.apache.log4j.Logger;
-
-import net.awax.banzaiChat.net.ServerConnectionException;
-import net.awax.banzaiChat.net.TcpClient;
-import net.awax.banzaiChat.util.LogStatus;
-
-/**
- * Contrôleur principal de l'application.
- * 
- * @author AwaX
- * @created 28 avr. 2014
- * @version 1.0
- */
-public class ApplicationController {
-
-	private final ApplicationModel model;
-	private final ApplicationView view;
-	private final Logger logger;
-
-	/**
-	 * Permet d'instancier le contrôleur principal de l'application.
-	 * 
-	 * @param model
-	 *            Modèle de données de l'application.
-	 */
-	public ApplicationController (final ApplicationModel appModel) {
-		this.model = appModel;
-		this.view = new ApplicationView(appModel, this);
-		this.logger = Logger.getLogger(getClass());
-		createChat("General");
-		appendChat("General", "Initialisation de la console générale");
-	}
-
-	/**
-	 * Renvoie le timestamp actuel au format hh:mm:ss.SSS.
-	 * 
-	 * @return Timestamp actuel au format hh:mm:ss.SSS.
-	 */
-	public static String getTimestamp () {
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTimeInMillis(System.currentTimeMillis());
-		return String.format("%02d:%02d:%02d.%03d", calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE),
-				calendar.get(Calendar.SECOND), calendar.get(Calendar.MILLISECOND));
-	}
-
-	/**
-	 * Permet d'afficher l'interface graphique de l'application.
-	 */
-	public void showGui () {
-		if (this.view != null) {
-			this.view.showGui();
-		} else {
-			throw new NullPointerException("ApplicationView is null");
-		}
-	}
-
-	/**
-	 * Permet de connecter l'utilisateur au serveur distant.
-	 */
-	public void connectClient () {
-		TcpClient client = this.model.getTcpClient();
-		if (client == null) {
-			this.logger.info("Connecting to server");
-			appendChat("General", "Connecting to server...", LogStatus.SERVER_MESSAGE);
-			try {
-				client = new TcpClient(this.model.getAddress(), this.model.getPort(), 2000);
-				client.start();
-				this.model.setTcpClient(client);
-				appendChat("General", "Client connection succeeded", LogStatus.SERVER_MESSAGE);
-			} catch (IOException e) {
-				this.logger.error("Cannot create TCP client", e);
-				appendChat("General", "Cannot create chat client : " + e.getMessage(), LogStatus.ERROR);
-				this.view.pop("Client Creation Failed", "Cannot create chat client.\n\n" + e.getMessage(),
-						JOptionPane.ERROR_MESSAGE);
-			} catch (ServerConnectionException e) {
-				this.logger.error("Cannot start client thread", e);
-				appendChat("General", "Cannot start chat client : " + e.getMessage(), LogStatus.ERROR);
-				this.view.pop("Client Connection Failed", "Cannot start chat client.\n\n" + e.getMessage(),
-						JOptionPane.ERROR_MESSAGE);
-			}
-		}
-	}
-
-	/**
-	 * Permet de déconnecter l'utilisateur du serveur distant.
-	 */
-	public void disconnectClient () {
-		if (this.model.getTcpClient() != null) {
-			this.logger.info("Disconnecting from server");
-			TcpClient client = this.model.getTcpClient();
-			client.stop();
-			this.model.setTcpClient(null);
-			appendChat("General", "Client disconnected successfully", LogStatus.SERVER_MESSAGE);
-		}
-	}
-
-	/**
-	 * Permet de créer un nouveau chat dans l'interface graphique.
-	 * 
-	 * @param id
-	 *            Identifiant du nouveau chat.
-	 * @return Instance du chat.
-	 */
-	public ChatPanel createChat (String id) {
-		if (id != null && !id.isEmpty()) {
-			if (!this.model.getChatPanels().containsKey(id)) {
-				ChatPanel chat = new ChatPanel(id);
-				this.model.getChatPanels().put(id, chat);
-				if (this.view != null) {
-					this.view.addChatPanel(chat);
-				}
-				return chat;
-			}
-			throw new IllegalArgumentException("Chat id already exists : " + id);
-		}
-		throw new NullPointerException("Id cannot be null or empty");
-	}
-
-	/**
-	 * Permet d'afficher du texte brut dans le chat spécifié.
-	 * 
-	 * @param chatId
-	 *            Identifiant du chat.
-	 * @param text
-	 *            Texte à afficher dans le chat.
-	 */
-	public void appendChat (String chatId, String text) {
-		ChatPanel chat = this.model.getChatPanel(chatId);
-		chat.append(getTimestamp() + "  ", Font.BOLD, Color.blue);
-		chat.append(text + "\n");
-	}
-
-	/**
-	 * Permet d'afficher du texte dans le chat spécifié en précisant le type de
-	 * message à afficher.
-	 * 
-	 * @param chatId
-	 *            Identifiant du chat.
-	 * @param text
-	 *            Texte à afficher dans le chat.
-	 * @param status
-	 *            Type de message à afficher.
-	 */
-	public void appendChat (String chatId, String text, LogStatus status) {
-		ChatPanel chat = this.model.getChatPanel(chatId);
-		chat.append(getTimestamp() + "  ", Font.BOLD, Color.blue);
-		Color color = Color.black;
-		Font font = ChatPanel.DEFAULT_FONT;
-		switch (status) {
-			case SERVER_MESSAGE:
-				color = Color.blue;
-				break;
-			case CLIENT_MESSAGE:
-				color = Color.green.darker();
-				break;
-			case ERROR:
-				color = Color.red;
-				font.deriveFont(Font.BOLD, font.getSize());
-				break;
-			case WARNING:
-				color = Color.orange;
-				break;
-			default:
-				break;
-		}
-		chat.append(text + "\n", font, color);
-	}
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import javax.swing.JOptionPane;
+import javax.swing.text.AttributeSet;
+
+import net.awax.banzaiChat.gui.ChatLine;
+import net.awax.banzaiChat.gui.ChatPanel;
+import net.awax.banzaiChat.gui.StyleCache;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.JoinSnapshot;
+import net.awax.banzaiChat.net.ServerConnectionException;
+import net.awax.banzaiChat.net.TcpClient;
+import net.awax.banzaiChat.util.LogStatus;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.TimestampFormat;
+import net.awax.banzaiChat.util.User;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Contrôleur principal de l'application.
+ * 
+ * @author AwaX
+ * @created 28 avr. 2014
+ * @version 1.0
+ */
+public class ApplicationController {
+
+	private final ApplicationModel model;
+	private final ApplicationView view;
+	private final Logger logger;
+	private final InboundDispatcher dispatcher;
+	private final ClientOutbox outbox;
+	private volatile LocalHistory history;
+
+	/**
+	 * Permet d'instancier le contrôleur principal de l'application.
+	 * 
+	 * @param model
+	 *            Modèle de données de l'application.
+	 */
+	public ApplicationController (final ApplicationModel appModel) {
+		this.model = appModel;
+		this.view = new ApplicationView(appModel, this);
+		this.logger = Logger.getLogger(getClass());
+		this.outbox = new ClientOutbox(appModel);
+		this.outbox.start();
+		this.dispatcher = new InboundDispatcher(this, appModel, this.outbox);
+		this.history = new LocalHistory(appModel.getAddress(), appModel.getPort());
+		createChat("General");
+		restoreHistory();
+		appendChat("General", "Initialisation de la console générale");
+	}
+
+	/**
+	 * Renvoie le timestamp actuel au format hh:mm:ss.SSS.
+	 * 
+	 * @return Timestamp actuel au format hh:mm:ss.SSS.
+	 */
+	public static String getTimestamp () {
+		return getTimestamp(System.currentTimeMillis());
+	}
+
+	/**
+	 * Renvoie le timestamp spécifié au format hh:mm:ss.SSS.
+	 * 
+	 * @param time
+	 *            Date en millisecondes.
+	 * @return Timestamp au format hh:mm:ss.SSS.
+	 */
+	public static String getTimestamp (long time) {
+		return TimestampFormat.format(time);
+	}
+
+	/**
+	 * Permet d'afficher l'interface graphique de l'application.
+	 */
+	public void showGui () {
+		if (this.view != null) {
+			this.view.showGui();
+		} else {
+			throw new NullPointerException("ApplicationView is null");
+		}
+	}
+
+	/**
+	 * Permet de connecter l'utilisateur au serveur distant.
+	 */
+	public void connectClient () {
+		TcpClient client = this.model.getTcpClient();
+		if (client == null) {
+			this.logger.info("Connecting to server");
+			appendChat("General", "Connecting to server...", LogStatus.SERVER_MESSAGE);
+			try {
+				if (!this.history.isFor(this.model.getAddress(), this.model.getPort())) {
+					this.history.close();
+					this.history = new LocalHistory(this.model.getAddress(), this.model.getPort());
+				}
+				client = new TcpClient(this.model.getAddress(), this.model.getPort(), 2000);
+				client.addListener(this.dispatcher);
+				this.dispatcher.start();
+				client.start();
+				this.model.setTcpClient(client);
+				appendChat("General", "Client connection succeeded", LogStatus.SERVER_MESSAGE);
+				synchronize(client);
+			} catch (IOException e) {
+				this.logger.error("Cannot create TCP client", e);
+				appendChat("General", "Cannot create chat client : " + e.getMessage(), LogStatus.ERROR);
+				this.view.pop("Client Creation Failed", "Cannot create chat client.\n\n" + e.getMessage(),
+						JOptionPane.ERROR_MESSAGE);
+			} catch (ServerConnectionException e) {
+				this.logger.error("Cannot start client thread", e);
+				appendChat("General", "Cannot start chat client : " + e.getMessage(), LogStatus.ERROR);
+				this.view.pop("Client Connection Failed", "Cannot start chat client.\n\n" + e.getMessage(),
+						JOptionPane.ERROR_MESSAGE);
+			}
+		}
+	}
+
+	/**
+	 * Permet de demander au serveur les messages plus récents que ceux du
+	 * cache local : le chat général est rejoint en indiquant son dernier
+	 * message en cache, et l'historique manquant des autres chats restaurés
+	 * est demandé page par page à partir du leur.
+	 * 
+	 * @param client
+	 *            Client connecté au serveur.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'envoi, une exception est
+	 *             lancée.
+	 */
+	private void synchronize (TcpClient client) throws IOException {
+		int pageLines = ResourceManager.getInstance().getInt("banzaichat.chat.pageLines");
+		for (String chatId : this.model.getChatPanels().keySet()) {
+			long last = this.history.getLastSequence(chatId);
+			if ("General".equals(chatId)) {
+				client.send(ChatFrame.encodeJoin(chatId, this.model.getPseudo(), last));
+			} else if (last > 0) {
+				this.dispatcher.requestHistory(client, chatId, last + 1, pageLines);
+			}
+		}
+	}
+
+	/**
+	 * Permet d'afficher immédiatement la dernière page de chaque chat présent
+	 * dans le cache local, sans attendre la réponse du serveur.
+	 */
+	private void restoreHistory () {
+		int pageLines = ResourceManager.getInstance().getInt("banzaichat.chat.pageLines");
+		for (String chatId : this.history.getChatIds()) {
+			List<ChatFrame> messages = this.history.tail(chatId, pageLines);
+			if (!messages.isEmpty()) {
+				ChatPanel chat = this.model.getChatPanel(chatId);
+				if (chat == null) {
+					chat = createChat(chatId);
+				}
+				List<ChatLine> lines = new ArrayList<>(messages.size());
+				for (ChatFrame msg : messages) {
+					lines.add(createLine(msg));
+				}
+				chat.append(lines);
+			}
+		}
+	}
+
+	/**
+	 * Permet de déconnecter l'utilisateur du serveur distant.
+	 */
+	public void disconnectClient () {
+		if (this.model.getTcpClient() != null) {
+			this.logger.info("Disconnecting from server");
+			TcpClient client = this.model.getTcpClient();
+			client.stop();
+			this.dispatcher.stop();
+			this.outbox.failPending();
+			this.model.setTcpClient(null);
+			appendChat("General", "Client disconnected successfully", LogStatus.SERVER_MESSAGE);
+		}
+	}
+
+	/**
+	 * Permet d'envoyer un message saisi par l'utilisateur dans le chat
+	 * spécifié. Le message est affiché immédiatement comme en attente puis
+	 * envoyé de façon asynchrone par la file d'envoi.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param text
+	 *            Texte du message.
+	 */
+	public void sendMessage (String chatId, String text) {
+		String message = text.trim();
+		ChatPanel chat = this.model.getChatPanel(chatId);
+		if (chat != null && !message.isEmpty()) {
+			this.outbox.submit(chat, this.model.getPseudo(), message);
+		}
+	}
+
+	/**
+	 * Permet de créer un nouveau chat dans l'interface graphique.
+	 * 
+	 * @param id
+	 *            Identifiant du nouveau chat.
+	 * @return Instance du chat.
+	 */
+	public ChatPanel createChat (String id) {
+		if (id != null && !id.isEmpty()) {
+			if (!this.model.getChatPanels().containsKey(id)) {
+				ChatPanel chat = new ChatPanel(id);
+				this.model.getChatPanels().put(id, chat);
+				if (this.view != null) {
+					this.view.addChatPanel(chat);
+				}
+				return chat;
+			}
+			throw new IllegalArgumentException("Chat id already exists : " + id);
+		}
+		throw new NullPointerException("Id cannot be null or empty");
+	}
+
+	/**
+	 * Permet d'initialiser un chat à partir du snapshot envoyé par le serveur
+	 * lors de l'entrée dans un salon : la liste des membres et les derniers
+	 * messages sont appliqués en une seule fois. Le chat est créé s'il
+	 * n'existe pas encore.
+	 * 
+	 * @param snapshot
+	 *            Snapshot reçu du serveur.
+	 * @return Instance du chat.
+	 */
+	public ChatPanel createChat (JoinSnapshot snapshot) {
+		return createChat(snapshot, snapshot.getMessages(), 0);
+	}
+
+	/**
+	 * Permet d'initialiser un chat à partir du snapshot envoyé par le serveur,
+	 * en n'affichant que les messages spécifiés. Si des messages manquent
+	 * entre le dernier message déjà affiché et le premier message du
+	 * snapshot, une ligne le signale.
+	 * 
+	 * @param snapshot
+	 *            Snapshot reçu du serveur.
+	 * @param messages
+	 *            Messages du snapshot à afficher.
+	 * @param knownSequence
+	 *            Numéro de séquence du dernier message déjà affiché, ou
+	 *            <code>0</code> si aucun.
+	 * @return Instance du chat.
+	 */
+	public ChatPanel createChat (JoinSnapshot snapshot, List<ChatFrame> messages, long knownSequence) {
+		ChatPanel chat = this.model.getChatPanel(snapshot.getChatId());
+		if (chat == null) {
+			chat = createChat(snapshot.getChatId());
+		}
+		List<ChatLine> lines = new ArrayList<>(messages.size() + 1);
+		if (knownSequence > 0 && !messages.isEmpty() && messages.get(0).getSequence() > knownSequence + 1) {
+			long missing = messages.get(0).getSequence() - knownSequence - 1;
+			ChatLine gap = new ChatLine();
+			gap.add(getTimestamp() + "  ", StyleCache.TIMESTAMP);
+			gap.add(missing + " messages not synchronized\n", StyleCache.get(LogStatus.WARNING));
+			lines.add(gap);
+		}
+		for (ChatFrame msg : messages) {
+			lines.add(createLine(msg));
+		}
+		chat.append(lines);
+		LinkedHashMap<String, User> users = this.model.getChatUsers(snapshot.getChatId());
+		users.clear();
+		for (User user : snapshot.getUsers()) {
+			users.put(user.getPseudo(), user);
+		}
+		if (this.view != null) {
+			this.view.updateUsersList(snapshot.getChatId());
+		}
+		return chat;
+	}
+
+	/**
+	 * Permet d'appliquer l'entrée d'un membre dans un chat ou son changement
+	 * de statut, annoncé par le serveur. Doit être appelée depuis l'EDT.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param pseudo
+	 *            Pseudonyme du membre.
+	 * @param status
+	 *            Statut du membre.
+	 */
+	public void onUserStatus (String chatId, String pseudo, UserStatus status) {
+		User user = new User(pseudo, status);
+		this.model.getChatUsers(chatId).put(pseudo, user);
+		if (this.view != null) {
+			this.view.addUser(chatId, user);
+		}
+	}
+
+	/**
+	 * Permet d'appliquer le départ d'un membre d'un chat, annoncé par le
+	 * serveur. Doit être appelée depuis l'EDT.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param pseudo
+	 *            Pseudonyme du membre.
+	 */
+	public void onUserLeft (String chatId, String pseudo) {
+		if (this.model.getChatUsers(chatId).remove(pseudo) != null && this.view != null) {
+			this.view.removeUser(chatId, pseudo);
+		}
+	}
+
+	/**
+	 * Permet de construire la ligne de chat affichant un message reçu du
+	 * serveur. Le texte du message reste encodé jusqu'à son affichage.
+	 * 
+	 * @param msg
+	 *            Message décodé.
+	 * @return Ligne à afficher.
+	 */
+	static ChatLine createLine (ChatFrame msg) {
+		return createLine(msg.getTimestamp(), msg.getPseudo(), msg.getRawText(), StyleCache.TEXT);
+	}
+
+	/**
+	 * Permet de construire la ligne de chat affichant un message.
+	 * 
+	 * @param timestamp
+	 *            Date d'émission du message en millisecondes.
+	 * @param pseudo
+	 *            Pseudonyme de l'émetteur.
+	 * @param text
+	 *            Texte du message.
+	 * @param textStyle
+	 *            Style du texte du message.
+	 * @return Ligne à afficher.
+	 */
+	static ChatLine createLine (long timestamp, String pseudo, CharSequence text, AttributeSet textStyle) {
+		ChatLine line = new ChatLine();
+		line.add(getTimestamp(timestamp) + "  ", StyleCache.TIMESTAMP);
+		line.add(pseudo + " : ", StyleCache.PSEUDO);
+		// Le texte n'est pas concaténé afin de ne pas être décodé
+		line.add(text, textStyle);
+		line.add("\n", textStyle);
+		return line;
+	}
+
+	public LocalHistory getHistory () {
+		return this.history;
+	}
+
+	/**
+	 * Permet d'afficher une erreur survenue sur la connexion au serveur.
+	 * 
+	 * @param errorCode
+	 *            Code de l'erreur.
+	 * @param errorDesc
+	 *            Description de l'erreur.
+	 */
+	public void onConnectionError (int errorCode, String errorDesc) {
+		appendChat("General", "Connection error " + errorCode + " : " + errorDesc, LogStatus.ERROR);
+	}
+
+	/**
+	 * Permet d'afficher du texte brut dans le chat spécifié.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param text
+	 *            Texte à afficher dans le chat.
+	 */
+	public void appendChat (String chatId, String text) {
+		ChatLine line = new ChatLine();
+		line.add(getTimestamp() + "  ", StyleCache.TIMESTAMP);
+		line.add(text + "\n", StyleCache.TEXT);
+		this.model.getChatPanel(chatId).append(line);
+	}
+
+	/**
+	 * Permet d'afficher du texte dans le chat spécifié en précisant le type de
+	 * message à afficher.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param text
+	 *            Texte à afficher dans le chat.
+	 * @param status
+	 *            Type de message à afficher.
+	 */
+	public void appendChat (String chatId, String text, LogStatus status) {
+		ChatLine line = new ChatLine();
+		line.add(getTimestamp() + "  ", StyleCache.TIMESTAMP);
+		line.add(text + "\n", StyleCache.get(status));
+		this.model.getChatPanel(chatId).append(line);
+	}
 }
\ No newline at end of file
@@ -1,254 +1,416 @@
-/*******************************************************************************
- * MIT License
- *
- * Copyright (c) 2017 Julien Le Sauce
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- *******************************************************************************/
-package net.awax.banzaiChat;
-
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-
-import javax.swing.JButton;
-import javax.swing.JFrame;
-import javax.swing.JOptionPane;
-import javax.swing.JSplitPane;
-import javax.swing.JTabbedPane;
-import javax.swing.SwingUtilities;
-
-import org.apache.log4j.Logger;
-
-import net.awax.banzaiChat.gui.ChatPanel;
-import net.awax.banzaiChat.gui.ConnectionPanel;
-import net.awax.banzaiChat.gui.HeaderPanel;
-import net.awax.banzaiChat.gui.MessagePanel;
-import net.awax.banzaiChat.gui.UsersPanel;
-import net.miginfocom.swing.MigLayout;
-
-/**
- * Interface graphique générale de l'application.
- * 
- * @author AwaX
- * @created 28 avr. 2014
- * @version 1.0
- */
-public class ApplicationView extends JFrame implements ActionListener, PropertyChangeListener {
-
-	private static final long serialVersionUID = 6188190248398326488L;
-
-	private final ApplicationModel model;
-	private final ApplicationController controller;
-	private final Logger logger;
-
-	private HeaderPanel headerPanel;
-	private ConnectionPanel connectionPanel;
-	private MessagePanel messagePanel;
-	private UsersPanel usersPanel;
-	private JTabbedPane chatTabs;
-	private JSplitPane splitNS;
-	private JSplitPane splitWE;
-
-	/**
-	 * Permet d'instancier la vue principale de l'application.
-	 * 
-	 * @param model
-	 *            Modèle de données de l'application.
-	 * @param controller
-	 *            Contrôleur principal de l'application.
-	 */
-	public ApplicationView (final ApplicationModel model, final ApplicationController controller) {
-		super(model.getAppName() + "  -  Version " + model.getAppVersion());
-		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		this.model = model;
-		this.controller = controller;
-		this.logger = Logger.getLogger(getClass());
-		createComponents();
-		createGui();
-		addListeners();
-	}
-
-	/**
-	 * Permet d'afficher l'application.
-	 */
-	public void showGui () {
-		setSize(1000, 800);
-		setState(JFrame.MAXIMIZED_BOTH);
-		setLocationRelativeTo(null);
-		setVisible(true);
-		adjustSplitPanes();
-	}
-
-	/**
-	 * Permet d'afficher une pop-up à l'utilisateur.
-	 * 
-	 * @param title
-	 *            Titre de la pop-up.
-	 * @param msg
-	 *            Message à afficher.
-	 * @param msgType
-	 *            Type de message, voir {@link JOptionPane}.
-	 */
-	public void pop (String title, String msg, int msgType) {
-		showMessageDialog(title, msg, msgType);
-	}
-
-	/**
-	 * Permet d'ajouter une nouvelle fenêtre de chat dans le panneau principal.
-	 * 
-	 * @param panel
-	 *            Fenêtre de chat à ajouter.
-	 */
-	public void addChatPanel (ChatPanel panel) {
-		this.chatTabs.add(panel.getChatId(), panel);
-	}
-
-	/**
-	 * Permet d'ajuster automatiquement les proportions des zones
-	 * redimensionnables.
-	 */
-	public void adjustSplitPanes () {
-		if (this.splitNS != null && this.splitWE != null) {
-			this.splitNS.setDividerLocation(0.7);
-			this.splitWE.setDividerLocation(0.8);
-		}
-	}
-
-	/**
-	 * Permet d'instancier les différents éléments qui composent l'interface
-	 * graphique.
-	 */
-	private void createComponents () {
-		this.headerPanel = new HeaderPanel();
-		this.connectionPanel = new ConnectionPanel();
-		this.messagePanel = new MessagePanel();
-		this.usersPanel = new UsersPanel();
-		this.usersPanel.updateUsersList(this.model.getConnectedUsers());
-		this.chatTabs = new JTabbedPane(JTabbedPane.BOTTOM, JTabbedPane.SCROLL_TAB_LAYOUT);
-		this.splitNS = new JSplitPane(JSplitPane.VERTICAL_SPLIT, this.chatTabs, this.messagePanel);
-		this.splitNS.setResizeWeight(1.0);
-		this.splitWE = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, this.splitNS, this.usersPanel);
-		this.splitWE.setResizeWeight(1.0);
-
-		// Création des chats déjà instanciés
-		for (ChatPanel chat : this.model.getChatPanels().values()) {
-			addChatPanel(chat);
-		}
-
-		// Initialisation des interfaces
-		this.connectionPanel.setProperty("Pseudo", this.model.getPseudo());
-		this.connectionPanel.setProperty("Address", this.model.getAddress());
-		this.connectionPanel.setProperty("Port", this.model.getPort());
-	}
-
-	/**
-	 * Permet de créer l'interface graphique à partir de tous les éléments qui
-	 * la compose.
-	 */
-	private void createGui () {
-		setLayout(new MigLayout("fill"));
-		add(this.headerPanel, "top, pushx, growx");
-		add(this.connectionPanel, "top, wrap");
-		add(this.splitWE, "pushy, span, grow");
-	}
-
-	/**
-	 * Permet d'ajouter les différents écouteurs aux composants de l'interface
-	 * graphique.
-	 */
-	private void addListeners () {
-		this.connectionPanel.addCommandListener(this);
-		this.connectionPanel.addPropertyListener(this);
-		this.messagePanel.addSendingListener(this);
-	}
-
-	/**
-	 * Permet d'afficher une pop-up à l'utilisateur.
-	 * 
-	 * @param title
-	 *            Titre de la pop-up.
-	 * @param msg
-	 *            Message à afficher.
-	 * @param msgType
-	 *            Type de message, voir {@link JOptionPane}.
-	 */
-	private void showMessageDialog (final String title, final String msg, final int msgType) {
-		SwingUtilities.invokeLater(new Runnable() {
-
-			@Override
-			public void run () {
-				JOptionPane.showMessageDialog(ApplicationView.this, msg, title, msgType);
-			}
-		});
-	}
-
-	@Override
-	public void actionPerformed (ActionEvent e) {
-		/*
-		 * JButton
-		 */
-		if (e.getSource() instanceof JButton) {
-			// Connect
-			if ("Connect".equals(e.getActionCommand())) {
-				this.controller.connectClient();
-			}
-			//Disconnect
-			else if ("Disconnect".equals(e.getActionCommand())) {
-				this.controller.disconnectClient();
-			}
-			// Send Message
-			else if ("Send".equals(e.getActionCommand())) {
-				this.logger.debug("Sending message");
-			}
-		}
-	}
-
-	@Override
-	public void propertyChange (PropertyChangeEvent e) {
-		Object newValue = e.getNewValue();
-		String name = e.getPropertyName();
-		/*
-		 * String
-		 */
-		if (newValue instanceof String) {
-			String s = (String) newValue;
-			// Pseudo
-			if (name.equals("Pseudo")) {
-				this.model.setPseudo(s);
-			}
-			// Address
-			else if (name.equals("Address")) {
-				this.model.setAddress(s);
-			}
-		}
-		/*
-		 * Integer
-		 */
-		else if (newValue instanceof Integer) {
-			Integer i = (Integer) newValue;
-
-			// Port
-			if (name.equals("Port")) {
-				this.model.setPort(i.intValue());
-			}
-		}
-	}
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat;
+
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+
+import javax.swing.AbstractAction;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTabbedPane;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.gui.ChatPanel;
+import net.awax.banzaiChat.gui.ConnectionPanel;
+import net.awax.banzaiChat.gui.HeaderPanel;
+import net.awax.banzaiChat.gui.MessagePanel;
+import net.awax.banzaiChat.gui.SearchPanel;
+import net.awax.banzaiChat.gui.UsersPanel;
+import net.awax.banzaiChat.util.User;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Interface graphique générale de l'application.
+ * 
+ * @author AwaX
+ * @created 28 avr. 2014
+ * @version 1.0
+ */
+public class ApplicationView extends JFrame implements ActionListener, PropertyChangeListener, ChangeListener {
+
+	private static final long serialVersionUID = 6188190248398326488L;
+
+	private final ApplicationModel model;
+	private final ApplicationController controller;
+	private final Logger logger;
+
+	private HeaderPanel headerPanel;
+	private ConnectionPanel connectionPanel;
+	private MessagePanel messagePanel;
+	private SearchPanel searchPanel;
+	private UsersPanel usersPanel;
+	private JTabbedPane chatTabs;
+	private JSplitPane splitNS;
+	private JSplitPane splitWE;
+
+	/**
+	 * Permet d'instancier la vue principale de l'application.
+	 * 
+	 * @param model
+	 *            Modèle de données de l'application.
+	 * @param controller
+	 *            Contrôleur principal de l'application.
+	 */
+	public ApplicationView (final ApplicationModel model, final ApplicationController controller) {
+		super(model.getAppName() + "  -  Version " + model.getAppVersion());
+		setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		this.model = model;
+		this.controller = controller;
+		this.logger = Logger.getLogger(getClass());
+		createComponents();
+		createGui();
+		addListeners();
+	}
+
+	/**
+	 * Permet d'afficher l'application.
+	 */
+	public void showGui () {
+		setSize(1000, 800);
+		setState(JFrame.MAXIMIZED_BOTH);
+		setLocationRelativeTo(null);
+		setVisible(true);
+		adjustSplitPanes();
+	}
+
+	/**
+	 * Permet d'afficher une pop-up à l'utilisateur.
+	 * 
+	 * @param title
+	 *            Titre de la pop-up.
+	 * @param msg
+	 *            Message à afficher.
+	 * @param msgType
+	 *            Type de message, voir {@link JOptionPane}.
+	 */
+	public void pop (String title, String msg, int msgType) {
+		showMessageDialog(title, msg, msgType);
+	}
+
+	/**
+	 * Permet d'ajouter une nouvelle fenêtre de chat dans le panneau principal.
+	 * Si son onglet n'est pas sélectionné, le chat est déchargé jusqu'à sa
+	 * sélection.
+	 * 
+	 * @param panel
+	 *            Fenêtre de chat à ajouter.
+	 */
+	public void addChatPanel (ChatPanel panel) {
+		JScrollPane scroll = new JScrollPane(panel);
+		this.chatTabs.add(panel.getChatId(), scroll);
+		if (this.chatTabs.getSelectedComponent() != scroll) {
+			panel.unload();
+		}
+	}
+
+	/**
+	 * Permet de rafraîchir la liste des utilisateurs à partir des membres du
+	 * chat sélectionné.
+	 */
+	public void updateUsersList () {
+		ChatPanel chat = getChatPanel(this.chatTabs.getSelectedComponent());
+		if (chat != null) {
+			this.usersPanel.updateUsersList(this.model.getChatUsers(chat.getChatId()));
+		}
+	}
+
+	/**
+	 * Permet de rafraîchir la liste des utilisateurs si le chat spécifié est
+	 * sélectionné.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat dont les membres ont changé.
+	 */
+	public void updateUsersList (String chatId) {
+		if (isSelected(chatId)) {
+			updateUsersList();
+		}
+	}
+
+	/**
+	 * Permet d'ajouter un membre à la liste des utilisateurs, ou de mettre à
+	 * jour son statut, si le chat spécifié est sélectionné.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param user
+	 *            Membre ajouté ou mis à jour.
+	 */
+	public void addUser (String chatId, User user) {
+		if (isSelected(chatId)) {
+			this.usersPanel.addUser(user);
+		}
+	}
+
+	/**
+	 * Permet de retirer un membre de la liste des utilisateurs si le chat
+	 * spécifié est sélectionné.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param pseudo
+	 *            Pseudonyme du membre retiré.
+	 */
+	public void removeUser (String chatId, String pseudo) {
+		if (isSelected(chatId)) {
+			this.usersPanel.removeUser(pseudo);
+		}
+	}
+
+	/**
+	 * Permet d'ajuster automatiquement les proportions des zones
+	 * redimensionnables.
+	 */
+	public void adjustSplitPanes () {
+		if (this.splitNS != null && this.splitWE != null) {
+			this.splitNS.setDividerLocation(0.7);
+			this.splitWE.setDividerLocation(0.8);
+		}
+	}
+
+	/**
+	 * Permet d'instancier les différents éléments qui composent l'interface
+	 * graphique.
+	 */
+	private void createComponents () {
+		this.headerPanel = new HeaderPanel();
+		this.connectionPanel = new ConnectionPanel();
+		this.messagePanel = new MessagePanel();
+		this.searchPanel = new SearchPanel();
+		this.usersPanel = new UsersPanel();
+		this.chatTabs = new JTabbedPane(JTabbedPane.BOTTOM, JTabbedPane.SCROLL_TAB_LAYOUT);
+		JPanel chatArea = new JPanel(new MigLayout("fill, insets 0", "[grow]", "[][grow]"));
+		chatArea.add(this.searchPanel, "growx, wrap");
+		chatArea.add(this.chatTabs, "grow");
+		this.splitNS = new JSplitPane(JSplitPane.VERTICAL_SPLIT, chatArea, this.messagePanel);
+		this.splitNS.setResizeWeight(1.0);
+		this.splitWE = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, this.splitNS, this.usersPanel);
+		this.splitWE.setResizeWeight(1.0);
+
+		// Création des chats déjà instanciés
+		for (ChatPanel chat : this.model.getChatPanels().values()) {
+			addChatPanel(chat);
+		}
+		updateUsersList();
+
+		// Initialisation des interfaces
+		this.connectionPanel.setProperty("Pseudo", this.model.getPseudo());
+		this.connectionPanel.setProperty("Address", this.model.getAddress());
+		this.connectionPanel.setProperty("Port", this.model.getPort());
+	}
+
+	/**
+	 * Permet de créer l'interface graphique à partir de tous les éléments qui
+	 * la compose.
+	 */
+	private void createGui () {
+		setLayout(new MigLayout("fill"));
+		add(this.headerPanel, "top, pushx, growx");
+		add(this.connectionPanel, "top, wrap");
+		add(this.splitWE, "pushy, span, grow");
+	}
+
+	/**
+	 * Permet d'ajouter les différents écouteurs aux composants de l'interface
+	 * graphique.
+	 */
+	private void addListeners () {
+		this.connectionPanel.addCommandListener(this);
+		this.connectionPanel.addPropertyListener(this);
+		this.messagePanel.addSendingListener(this);
+		this.searchPanel.addSearchListener(this);
+		this.chatTabs.addChangeListener(this);
+		// Raccourci CTRL + F vers la barre de recherche
+		getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(
+				KeyStroke.getKeyStroke(KeyEvent.VK_F, InputEvent.CTRL_DOWN_MASK), "Find");
+		getRootPane().getActionMap().put("Find", new AbstractAction() {
+
+			private static final long serialVersionUID = -2730524178516923386L;
+
+			@Override
+			public void actionPerformed (ActionEvent e) {
+				ApplicationView.this.searchPanel.focusQuery();
+			}
+		});
+	}
+
+	/**
+	 * Renvoie la fenêtre de chat contenue dans un onglet.
+	 * 
+	 * @param tab
+	 *            Composant de l'onglet.
+	 * @return Fenêtre de chat, ou <code>null</code> si l'onglet n'en contient
+	 *         pas.
+	 */
+	private static ChatPanel getChatPanel (Component tab) {
+		if (tab instanceof JScrollPane) {
+			Component view = ((JScrollPane) tab).getViewport().getView();
+			if (view instanceof ChatPanel) {
+				return (ChatPanel) view;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Indique si le chat spécifié est celui de l'onglet sélectionné.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @return <code>true</code> si le chat est sélectionné.
+	 */
+	private boolean isSelected (String chatId) {
+		ChatPanel chat = getChatPanel(this.chatTabs.getSelectedComponent());
+		return chat != null && chat.getChatId().equals(chatId);
+	}
+
+	/**
+	 * Permet d'afficher une pop-up à l'utilisateur.
+	 * 
+	 * @param title
+	 *            Titre de la pop-up.
+	 * @param msg
+	 *            Message à afficher.
+	 * @param msgType
+	 *            Type de message, voir {@link JOptionPane}.
+	 */
+	private void showMessageDialog (final String title, final String msg, final int msgType) {
+		SwingUtilities.invokeLater(new Runnable() {
+
+			@Override
+			public void run () {
+				JOptionPane.showMessageDialog(ApplicationView.this, msg, title, msgType);
+			}
+		});
+	}
+
+	@Override
+	public void actionPerformed (ActionEvent e) {
+		/*
+		 * JButton
+		 */
+		if (e.getSource() instanceof JButton) {
+			// Connect
+			if ("Connect".equals(e.getActionCommand())) {
+				this.controller.connectClient();
+			}
+			//Disconnect
+			else if ("Disconnect".equals(e.getActionCommand())) {
+				this.controller.disconnectClient();
+			}
+			// Send Message
+			else if ("Send".equals(e.getActionCommand())) {
+				this.logger.debug("Sending message");
+				ChatPanel chat = getChatPanel(this.chatTabs.getSelectedComponent());
+				if (chat != null) {
+					this.controller.sendMessage(chat.getChatId(), this.messagePanel.getMessage());
+				}
+			}
+		}
+		/*
+		 * SearchPanel
+		 */
+		else if (e.getSource() instanceof SearchPanel) {
+			ChatPanel chat = getChatPanel(this.chatTabs.getSelectedComponent());
+			if (chat != null) {
+				// Find Clear
+				if ("FindClear".equals(e.getActionCommand()) || this.searchPanel.getQuery().isEmpty()) {
+					chat.clearFind();
+					this.searchPanel.setResult(-1, 0);
+				}
+				// Find Next / Find Previous
+				else {
+					int count = chat.find(this.searchPanel.getQuery(), "FindPrevious".equals(e.getActionCommand()));
+					this.searchPanel.setResult(chat.getMatchPosition(), count);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void stateChanged (ChangeEvent e) {
+		// La liste des utilisateurs suit le chat sélectionné
+		updateUsersList();
+		// Seul le chat de l'onglet sélectionné conserve son document
+		int selected = this.chatTabs.getSelectedIndex();
+		for (int i = 0; i < this.chatTabs.getTabCount(); i++) {
+			ChatPanel chat = getChatPanel(this.chatTabs.getComponentAt(i));
+			if (chat != null) {
+				if (i == selected) {
+					chat.load();
+				} else {
+					chat.clearFind();
+					chat.unload();
+				}
+			}
+		}
+	}
+
+	@Override
+	public void propertyChange (PropertyChangeEvent e) {
+		Object newValue = e.getNewValue();
+		String name = e.getPropertyName();
+		/*
+		 * String
+		 */
+		if (newValue instanceof String) {
+			String s = (String) newValue;
+			// Pseudo
+			if (name.equals("Pseudo")) {
+				this.model.setPseudo(s);
+			}
+			// Address
+			else if (name.equals("Address")) {
+				this.model.setAddress(s);
+			}
+		}
+		/*
+		 * Integer
+		 */
+		else if (newValue instanceof Integer) {
+			Integer i = (Integer) newValue;
+
+			// Port
+			if (name.equals("Port")) {
+				this.model.setPort(i.intValue());
+			}
+		}
+	}
 }
\ No newline at end of file
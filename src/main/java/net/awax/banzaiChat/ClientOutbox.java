@@ -0,0 +1,373 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.gui.ChatPanel;
+import net.awax.banzaiChat.gui.StyleCache;
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.TcpClient;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.TraceStage;
+
+/**
+ * File d'envoi des messages saisis par l'utilisateur. Un message soumis est
+ * immédiatement affiché comme en attente dans son chat puis placé dans une
+ * file ; un thread dédié se charge de l'écrire sur la socket, de sorte que
+ * l'EDT n'attend jamais le réseau. Le message est marqué comme distribué à la
+ * réception de son accusé de réception, et la copie diffusée par le serveur
+ * n'est alors pas affichée une seconde fois. Un message dont l'écriture
+ * échoue, ou dont l'accusé de réception n'arrive pas dans le délai
+ * <code>banzaichat.outbox.ackTimeoutMillis</code>, est marqué comme non
+ * distribué.
+ * <p>
+ * Un message sur <code>banzaichat.trace.sampleEvery</code> est envoyé suivi :
+ * à réception de son accusé de réception, la durée de son envoi et
+ * l'aller-retour jusqu'au serveur sont remontés au serveur. La file achemine
+ * également les rapports de suivi des autres étapes mesurées par le client.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ClientOutbox implements Runnable {
+
+	/** Attribut identifiant le style propre à un message en attente */
+	private static final Object MESSAGE_ID = "banzaichat.outbox.messageId";
+
+	private static final AttributeSet PENDING_STYLE = StyleCache.get(Font.ITALIC, Color.gray);
+	private static final AttributeSet FAILED_STYLE = StyleCache.get(Font.ITALIC, Color.red);
+	/** Nombre maximum de diffusions attendues mémorisées */
+	private static final int MAX_ECHOES = 1024;
+
+	private final Logger logger;
+	private final ApplicationModel model;
+	private final LinkedBlockingQueue<Pending> queue;
+	private final Map<Long, Pending> pending;
+	private final Set<String> echoes;
+	private final AtomicLong nextId;
+	private final int sampleEvery;
+	private final long ackTimeout;
+	private Thread ownThread;
+
+	/**
+	 * Permet d'instancier la file d'envoi. Il est ensuite nécessaire de lancer
+	 * son thread via la méthode <code>start()</code>.
+	 * 
+	 * @param model
+	 *            Modèle de données de l'application.
+	 */
+	public ClientOutbox (final ApplicationModel model) {
+		this.logger = Logger.getLogger(getClass());
+		this.model = model;
+		this.queue = new LinkedBlockingQueue<>();
+		this.pending = new ConcurrentHashMap<>();
+		this.echoes = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<String, Boolean> eldest) {
+				return size() > MAX_ECHOES;
+			}
+		}));
+		this.nextId = new AtomicLong();
+		ResourceManager props = ResourceManager.getInstance();
+		this.sampleEvery = props.getInt("banzaichat.trace.sampleEvery");
+		this.ackTimeout = TimeUnit.MILLISECONDS.toNanos(props.getLong("banzaichat.outbox.ackTimeoutMillis"));
+		this.ownThread = null;
+	}
+
+	@Override
+	public void run () {
+		try {
+			long sweepPeriod = Math.max(1, this.ackTimeout / 2);
+			while (!Thread.currentThread().isInterrupted()) {
+				Pending msg = this.queue.poll(sweepPeriod, TimeUnit.NANOSECONDS);
+				if (msg != null) {
+					send(msg);
+				}
+				sweep();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Permet d'écrire un message ou un rapport de suivi sur la socket. Un
+	 * message qui ne peut être écrit est marqué comme non distribué ; un
+	 * rapport est simplement abandonné.
+	 * 
+	 * @param msg
+	 *            Message ou rapport à envoyer.
+	 */
+	private void send (Pending msg) {
+		TcpClient client = this.model.getTcpClient();
+		boolean connected = client != null && client.isRunning();
+		if (msg.report != null) {
+			if (connected) {
+				client.send(msg.report);
+			}
+		} else if (connected) {
+			byte[] frame = ChatFrame.encodeMessage(msg.chatId, msg.id, msg.timestamp, msg.pseudo, msg.text);
+			if (client.send(msg.traceId != 0 ? ChatFrame.encodeTrace(msg.traceId, frame) : frame)) {
+				msg.written = System.nanoTime();
+			} else {
+				fail(msg);
+			}
+		} else {
+			fail(msg);
+		}
+	}
+
+	/**
+	 * Permet de marquer comme non distribués les messages dont l'accusé de
+	 * réception n'est pas arrivé dans le délai imparti depuis leur soumission.
+	 */
+	private void sweep () {
+		long now = System.nanoTime();
+		for (Pending msg : this.pending.values()) {
+			if (now - msg.submitted > this.ackTimeout) {
+				fail(msg);
+			}
+		}
+	}
+
+	/**
+	 * Permet de lancer le thread d'envoi.
+	 */
+	public synchronized void start () {
+		if (this.ownThread == null) {
+			this.ownThread = new Thread(this, "ClientOutbox");
+			this.ownThread.setDaemon(true);
+			this.ownThread.start();
+		}
+	}
+
+	/**
+	 * Permet de soumettre un message à envoyer. Le message est affiché comme
+	 * en attente dans le chat spécifié, puis envoyé de façon asynchrone.
+	 * 
+	 * @param chat
+	 *            Chat dans lequel le message est envoyé.
+	 * @param pseudo
+	 *            Pseudonyme de l'utilisateur.
+	 * @param text
+	 *            Texte du message.
+	 * @return Identifiant local du message.
+	 */
+	public long submit (ChatPanel chat, String pseudo, String text) {
+		long id = this.nextId.incrementAndGet();
+		// Style propre au message, afin de le retrouver dans le chat
+		SimpleAttributeSet style = new SimpleAttributeSet(PENDING_STYLE);
+		style.addAttribute(MESSAGE_ID, Long.valueOf(id));
+		Pending msg = new Pending(chat, id, System.currentTimeMillis(), pseudo, text, style, nextTraceId());
+		this.pending.put(id, msg);
+		chat.append(ApplicationController.createLine(msg.timestamp, pseudo, text, style));
+		this.queue.offer(msg);
+		return id;
+	}
+
+	/**
+	 * Permet de traiter l'accusé de réception d'un message : le message est
+	 * marqué comme distribué et la diffusion de son numéro de séquence est
+	 * mémorisée afin d'être ignorée.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param clientId
+	 *            Identifiant local du message.
+	 * @param sequence
+	 *            Numéro de séquence attribué par le serveur.
+	 * @return <code>true</code> si le message était en attente.
+	 */
+	public boolean acknowledge (String chatId, long clientId, long sequence) {
+		Pending msg = this.pending.remove(clientId);
+		if (msg == null || !msg.chatId.equals(chatId)) {
+			this.logger.warn("Unexpected acknowledgement " + clientId + " for " + chatId);
+			return false;
+		}
+		this.echoes.add(chatId + "#" + sequence);
+		msg.chat.replaceStyle(msg.style, StyleCache.TEXT);
+		if (msg.traceId != 0 && msg.written > 0) {
+			report(chatId, msg.traceId, TraceStage.CLIENT_SEND, msg.written - msg.submitted);
+			report(chatId, msg.traceId, TraceStage.ROUND_TRIP, System.nanoTime() - msg.written);
+		}
+		return true;
+	}
+
+	/**
+	 * Permet de remonter au serveur la durée d'une étape mesurée sur un
+	 * message suivi. Le rapport est envoyé par le thread de la file.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat du message.
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @param stage
+	 *            Etape mesurée.
+	 * @param nanos
+	 *            Durée de l'étape en nanosecondes.
+	 */
+	public void report (String chatId, long traceId, TraceStage stage, long nanos) {
+		this.queue.offer(new Pending(ChatFrame.encodeTraceReport(chatId, traceId, stage, nanos)));
+	}
+
+	/**
+	 * Indique si le message diffusé par le serveur est la copie d'un message
+	 * envoyé depuis ce client et déjà affiché. La copie n'est signalée qu'une
+	 * seule fois.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param sequence
+	 *            Numéro de séquence du message diffusé.
+	 * @return <code>true</code> si le message ne doit pas être affiché.
+	 */
+	public boolean consumeEcho (String chatId, long sequence) {
+		return !this.echoes.isEmpty() && this.echoes.remove(chatId + "#" + sequence);
+	}
+
+	/**
+	 * Permet de marquer comme non distribués tous les messages en attente, par
+	 * exemple lors de la déconnexion.
+	 */
+	public void failPending () {
+		for (Pending msg : this.pending.values()) {
+			fail(msg);
+		}
+		this.queue.clear();
+		this.echoes.clear();
+	}
+
+	/**
+	 * Renvoie le nombre de messages en attente d'accusé de réception.
+	 * 
+	 * @return Nombre de messages en attente.
+	 */
+	public int getPendingCount () {
+		return this.pending.size();
+	}
+
+	/**
+	 * Renvoie l'identifiant de suivi d'un nouveau message, tiré au hasard
+	 * pour un message sur <code>banzaichat.trace.sampleEvery</code>.
+	 * 
+	 * @return Identifiant de suivi, ou <code>0</code> si le message n'est pas
+	 *         suivi.
+	 */
+	private long nextTraceId () {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (this.sampleEvery <= 0 || random.nextInt(this.sampleEvery) != 0) {
+			return 0;
+		}
+		long traceId;
+		do {
+			traceId = random.nextLong();
+		} while (traceId == 0);
+		return traceId;
+	}
+
+	/**
+	 * Permet de marquer un message comme non distribué.
+	 * 
+	 * @param msg
+	 *            Message en attente.
+	 */
+	private void fail (Pending msg) {
+		if (this.pending.remove(msg.id) != null) {
+			this.logger.warn("Message " + msg.id + " to " + msg.chatId + " not delivered");
+			msg.chat.replaceStyle(msg.style, FAILED_STYLE);
+		}
+	}
+
+	/**
+	 * Message en attente d'envoi ou d'accusé de réception, ou rapport de suivi
+	 * à envoyer.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Pending {
+
+		private final ChatPanel chat;
+		private final String chatId;
+		private final long id;
+		private final long timestamp;
+		private final String pseudo;
+		private final String text;
+		private final AttributeSet style;
+		private final long traceId;
+		private final long submitted;
+		private final byte[] report;
+		private volatile long written;
+
+		private Pending (ChatPanel chat, long id, long timestamp, String pseudo, String text, AttributeSet style,
+				long traceId) {
+			this.chat = chat;
+			this.chatId = chat.getChatId();
+			this.id = id;
+			this.timestamp = timestamp;
+			this.pseudo = pseudo;
+			this.text = text;
+			this.style = style;
+			this.traceId = traceId;
+			this.submitted = System.nanoTime();
+			this.report = null;
+			this.written = 0;
+		}
+
+		private Pending (byte[] report) {
+			this.chat = null;
+			this.chatId = null;
+			this.id = 0;
+			this.timestamp = 0;
+			this.pseudo = null;
+			this.text = null;
+			this.style = null;
+			this.traceId = 0;
+			this.submitted = 0;
+			this.report = report;
+			this.written = 0;
+		}
+	}
+}
\ No newline at end of file
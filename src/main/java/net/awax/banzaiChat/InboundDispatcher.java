@@ -0,0 +1,538 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import javax.swing.SwingUtilities;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.gui.ChatLine;
+import net.awax.banzaiChat.gui.ChatPanel;
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.EthernetEvent;
+import net.awax.banzaiChat.net.JoinSnapshot;
+import net.awax.banzaiChat.net.TcpClient;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.TraceStage;
+
+/**
+ * Étage de distribution des trames reçues du serveur. Le thread de lecture de
+ * la socket se contente de placer les trames dans une file ; un thread dédié
+ * les retire par lots, les décode, regroupe les lignes obtenues par
+ * identifiant de chat, puis les transmet en une fois à chaque
+ * {@link ChatPanel}, dont l'affichage est ensuite réalisé sur l'EDT. La
+ * lecture de la socket n'attend ainsi jamais le rendu.
+ * <p>
+ * Les snapshots, qui peuvent créer un chat, sont appliqués sur l'EDT de façon
+ * synchrone après distribution des lignes qui les précèdent, afin que les
+ * messages suivants trouvent leur chat. Les accusés de réception sont
+ * transmis à la {@link ClientOutbox}, et les annonces de présence des membres
+ * sont appliquées à la liste des utilisateurs du chat sur l'EDT, dans leur
+ * ordre d'arrivée. Chaque message reçu est conservé dans
+ * le {@link LocalHistory} du contrôleur ; les messages d'un snapshot déjà
+ * présents dans ce cache ne sont pas affichés une seconde fois. Les demandes
+ * d'historique sont suivies page par page : le serveur termine chaque page par
+ * une trame de fin de page, et la page suivante est demandée à partir du
+ * dernier message reçu tant que le chat n'est pas rattrapé. Les messages
+ * manquants au cache sont redemandés de la même façon, sans être affichés.
+ * <p>
+ * Pour un message suivi, la durée entre sa réception sur la socket et son
+ * affichage dans le chat est remontée au serveur via la {@link ClientOutbox}.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class InboundDispatcher implements EthernetEvent, Runnable {
+
+	private static final int MAX_BATCH = 512;
+
+	private final Logger logger;
+	private final ApplicationController controller;
+	private final ApplicationModel model;
+	private final ClientOutbox outbox;
+	private final LinkedBlockingQueue<byte[]> queue;
+	private final Map<String, List<ChatLine>> buffers;
+	private final Map<Long, Long> receptions;
+	private final List<TracedMessage> traced;
+	private final Map<String, HistoryPage> pages;
+	private final int pageLines;
+	private Thread ownThread;
+
+	/**
+	 * Permet d'instancier l'étage de distribution. Il est ensuite nécessaire
+	 * de lancer son thread via la méthode <code>start()</code>.
+	 * 
+	 * @param controller
+	 *            Contrôleur principal de l'application.
+	 * @param model
+	 *            Modèle de données de l'application.
+	 * @param outbox
+	 *            File d'envoi des messages de l'utilisateur.
+	 */
+	public InboundDispatcher (final ApplicationController controller, final ApplicationModel model,
+			final ClientOutbox outbox) {
+		this.logger = Logger.getLogger(getClass());
+		this.controller = controller;
+		this.model = model;
+		this.outbox = outbox;
+		this.queue = new LinkedBlockingQueue<>();
+		this.buffers = new HashMap<>();
+		this.receptions = new ConcurrentHashMap<>();
+		this.traced = new ArrayList<>();
+		this.pages = new ConcurrentHashMap<>();
+		this.pageLines = ResourceManager.getInstance().getInt("banzaichat.chat.pageLines");
+		this.ownThread = null;
+	}
+
+	@Override
+	public void onReceive (byte[] msg) {
+		if (ChatFrame.peekType(msg) == ChatFrame.TYPE_TRACE) {
+			this.receptions.put(ChatFrame.peekTraceId(msg), System.nanoTime());
+		}
+		this.queue.offer(msg);
+	}
+
+	@Override
+	public void onError (int errorCode, String errorDesc) {
+		this.controller.onConnectionError(errorCode, errorDesc);
+	}
+
+	@Override
+	public void run () {
+		List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				batch.add(this.queue.take());
+				this.queue.drainTo(batch, MAX_BATCH - 1);
+				for (byte[] frame : batch) {
+					// Une trame invalide ne doit pas arrêter la distribution
+					try {
+						dispatch(frame);
+					} catch (RuntimeException e) {
+						this.logger.error("Cannot dispatch frame (Length=" + frame.length + ")", e);
+					}
+				}
+				batch.clear();
+				try {
+					flushBuffers();
+				} catch (RuntimeException e) {
+					this.logger.error("Cannot display received messages", e);
+					for (List<ChatLine> lines : this.buffers.values()) {
+						lines.clear();
+					}
+					this.traced.clear();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		this.logger.debug("Inbound dispatcher stopped");
+	}
+
+	/**
+	 * Permet de lancer le thread de distribution.
+	 */
+	public synchronized void start () {
+		if (this.ownThread == null) {
+			this.ownThread = new Thread(this, "InboundDispatcher");
+			this.ownThread.setDaemon(true);
+			this.ownThread.start();
+		}
+	}
+
+	/**
+	 * Permet de stopper le thread de distribution. Les trames encore en
+	 * attente sont abandonnées.
+	 */
+	public synchronized void stop () {
+		if (this.ownThread != null) {
+			this.ownThread.interrupt();
+			this.ownThread = null;
+			this.queue.clear();
+			this.receptions.clear();
+			this.pages.clear();
+		}
+	}
+
+	/**
+	 * Permet de demander au serveur l'historique d'un chat à partir du numéro
+	 * de séquence spécifié. Les pages suivantes sont demandées à la fin de
+	 * chaque page, jusqu'au dernier message du chat.
+	 * 
+	 * @param client
+	 *            Client connecté au serveur.
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param fromSequence
+	 *            Numéro de séquence du premier message souhaité.
+	 * @param count
+	 *            Nombre de messages par page.
+	 */
+	public void requestHistory (TcpClient client, String chatId, long fromSequence, int count) {
+		requestPage(client, new HistoryPage(chatId, fromSequence, count, Long.MAX_VALUE, false));
+	}
+
+	/**
+	 * Permet de demander au serveur une page d'historique.
+	 * 
+	 * @param client
+	 *            Client connecté au serveur.
+	 * @param page
+	 *            Page demandée.
+	 */
+	private void requestPage (TcpClient client, HistoryPage page) {
+		this.pages.put(page.chatId, page);
+		if (!client.send(ChatFrame.encodeHistory(page.chatId, page.from, page.count))) {
+			this.pages.remove(page.chatId);
+		}
+	}
+
+	/**
+	 * Renvoie le nombre de trames en attente de distribution.
+	 * 
+	 * @return Nombre de trames en attente.
+	 */
+	public int getPendingCount () {
+		return this.queue.size();
+	}
+
+	/**
+	 * Permet de décoder une trame et de la router vers le tampon de son chat.
+	 * 
+	 * @param msg
+	 *            Trame reçue du serveur.
+	 * @throws InterruptedException
+	 *             Si le thread est interrompu pendant l'application d'un
+	 *             snapshot, une exception est lancée.
+	 */
+	private void dispatch (byte[] msg) throws InterruptedException {
+		long traceId = ChatFrame.peekTraceId(msg);
+		Long received = null;
+		if (traceId != 0) {
+			received = this.receptions.remove(traceId);
+			msg = ChatFrame.unwrapTrace(msg);
+		}
+		try {
+			switch (ChatFrame.peekType(msg)) {
+				case ChatFrame.TYPE_SNAPSHOT:
+					// Les lignes précédentes doivent être affichées avant
+					flushBuffers();
+					syncSnapshot(JoinSnapshot.decode(msg));
+					break;
+				case ChatFrame.TYPE_HISTORY:
+					ChatFrame end = ChatFrame.decode(msg);
+					onHistoryEnd(end.getChatId(), end.getSequence(), end.getCount());
+					break;
+				case ChatFrame.TYPE_STATUS:
+				case ChatFrame.TYPE_LEAVE:
+					applyPresence(ChatFrame.decode(msg));
+					break;
+				case ChatFrame.TYPE_ACK:
+					ChatFrame ack = ChatFrame.decode(msg);
+					this.outbox.acknowledge(ack.getChatId(), ack.getClientId(), ack.getSequence());
+					break;
+				case ChatFrame.TYPE_MESSAGE:
+					ChatFrame frame = ChatFrame.decode(msg);
+					if (this.model.getChatPanel(frame.getChatId()) == null) {
+						// Le serveur envoie le snapshot avant tout message du
+						// salon : le message n'est pas conservé, afin qu'un
+						// snapshot ultérieur puisse encore le fournir
+						this.logger.warn("Dropping message for chat not joined : " + frame.getChatId());
+						break;
+					}
+					boolean fresh = this.controller.getHistory().store(frame.getChatId(), frame.getSequence(), msg);
+					boolean backfill = onHistoryMessage(frame.getChatId(), frame.getSequence());
+					requestGap(frame.getChatId());
+					if (!fresh || backfill) {
+						// Message déjà connu, ou plus ancien que ceux affichés
+						break;
+					}
+					if (this.outbox.consumeEcho(frame.getChatId(), frame.getSequence())) {
+						// Message de l'utilisateur, déjà affiché
+						break;
+					}
+					List<ChatLine> lines = this.buffers.get(frame.getChatId());
+					if (lines == null) {
+						lines = new ArrayList<>();
+						this.buffers.put(frame.getChatId(), lines);
+					}
+					lines.add(ApplicationController.createLine(frame));
+					if (received != null) {
+						this.traced.add(new TracedMessage(frame.getChatId(), traceId, received));
+					}
+					break;
+				default:
+					this.logger.warn("Unexpected frame type : " + ChatFrame.peekType(msg));
+					break;
+			}
+		} catch (IOException e) {
+			this.logger.error("Cannot decode frame (Length=" + msg.length + ")", e);
+		}
+	}
+
+	/**
+	 * Permet de relever un message reçu pour la page d'historique en cours de
+	 * son chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param sequence
+	 *            Numéro de séquence du message reçu.
+	 * @return <code>true</code> si le message appartient à une page demandée
+	 *         pour combler un trou du cache.
+	 */
+	private boolean onHistoryMessage (String chatId, long sequence) {
+		HistoryPage page = this.pages.get(chatId);
+		if (page != null && sequence >= page.from && sequence <= page.until) {
+			page.lastReceived = Math.max(page.lastReceived, sequence);
+			return page.backfill;
+		}
+		return false;
+	}
+
+	/**
+	 * Permet de traiter la fin d'une page d'historique : la page suivante est
+	 * demandée à partir du dernier message reçu tant que la fin souhaitée
+	 * n'est pas atteinte. Un trou du cache que le serveur n'a pas pu combler
+	 * (page vide ou messages supprimés par la rétention) est abandonné.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param lastSequence
+	 *            Numéro de séquence du dernier message du chat.
+	 * @param count
+	 *            Nombre de messages envoyés dans la page.
+	 */
+	private void onHistoryEnd (String chatId, long lastSequence, int count) {
+		HistoryPage page = this.pages.get(chatId);
+		if (page == null) {
+			return;
+		}
+		long target = Math.min(page.until, lastSequence);
+		boolean more = count > 0 && page.lastReceived >= page.from && page.lastReceived < target;
+		// Le serveur a renvoyé tout ce qu'il possède jusqu'à cette limite
+		long covered = more ? page.lastReceived : target;
+		LocalHistory history = this.controller.getHistory();
+		long missing = history.getLastSequence(chatId) + 1;
+		if (history.getGapEnd(chatId) > 0 && missing >= page.from && missing <= covered) {
+			history.skipGap(chatId);
+		}
+		TcpClient client = this.model.getTcpClient();
+		if (more && client != null && client.isRunning()) {
+			requestPage(client, new HistoryPage(chatId, page.lastReceived + 1, page.count, page.until, page.backfill));
+		} else {
+			this.pages.remove(chatId);
+			requestGap(chatId);
+		}
+	}
+
+	/**
+	 * Permet de redemander au serveur les messages manquants au cache d'un
+	 * chat, si aucune page d'historique n'est déjà en cours pour ce chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 */
+	private void requestGap (String chatId) {
+		if (this.pages.containsKey(chatId)) {
+			return;
+		}
+		LocalHistory history = this.controller.getHistory();
+		long gapEnd = history.getGapEnd(chatId);
+		TcpClient client = this.model.getTcpClient();
+		if (gapEnd > 0 && client != null && client.isRunning()) {
+			long from = history.getLastSequence(chatId) + 1;
+			requestPage(client, new HistoryPage(chatId, from, this.pageLines, gapEnd, true));
+		}
+	}
+
+	/**
+	 * Permet d'appliquer sur l'EDT une annonce de présence d'un membre. Les
+	 * annonces sont appliquées dans l'ordre, après le snapshot du chat qui
+	 * les précède.
+	 * 
+	 * @param presence
+	 *            Annonce décodée.
+	 */
+	private void applyPresence (final ChatFrame presence) {
+		if (presence.getPseudo() == null) {
+			this.logger.warn("Dropping status frame without member for chat " + presence.getChatId());
+			return;
+		}
+		SwingUtilities.invokeLater(new Runnable() {
+
+			@Override
+			public void run () {
+				if (presence.getType() == ChatFrame.TYPE_LEAVE) {
+					InboundDispatcher.this.controller.onUserLeft(presence.getChatId(), presence.getPseudo());
+				} else {
+					InboundDispatcher.this.controller.onUserStatus(presence.getChatId(), presence.getPseudo(),
+							presence.getStatus());
+				}
+			}
+		});
+	}
+
+	/**
+	 * Permet de transmettre à chaque chat les lignes accumulées pour lui.
+	 */
+	private void flushBuffers () {
+		for (Map.Entry<String, List<ChatLine>> entry : this.buffers.entrySet()) {
+			List<ChatLine> lines = entry.getValue();
+			if (!lines.isEmpty()) {
+				ChatPanel chat = this.model.getChatPanel(entry.getKey());
+				if (chat != null) {
+					chat.append(lines);
+				} else {
+					this.logger.warn(lines.size() + " messages dropped for unknown chat " + entry.getKey());
+				}
+				lines.clear();
+			}
+		}
+		for (TracedMessage msg : this.traced) {
+			ChatPanel chat = this.model.getChatPanel(msg.chatId);
+			if (chat != null) {
+				chat.whenDisplayed(msg);
+			}
+		}
+		this.traced.clear();
+	}
+
+	/**
+	 * Permet de conserver dans le cache local les messages d'un snapshot qui
+	 * n'y figurent pas encore, puis d'appliquer le snapshot avec ces seuls
+	 * messages.
+	 * 
+	 * @param snapshot
+	 *            Snapshot reçu du serveur.
+	 * @throws InterruptedException
+	 *             Si le thread est interrompu pendant l'application du
+	 *             snapshot, une exception est lancée.
+	 */
+	private void syncSnapshot (JoinSnapshot snapshot) throws InterruptedException {
+		LocalHistory history = this.controller.getHistory();
+		long known = history.getLastSequence(snapshot.getChatId());
+		List<ChatFrame> fresh = new ArrayList<>(snapshot.getMessages().size());
+		for (ChatFrame frame : snapshot.getMessages()) {
+			if (frame.getSequence() > known && history.store(frame.getChatId(), frame.getSequence(), frame.getFrame())) {
+				fresh.add(frame);
+			}
+		}
+		applySnapshot(snapshot, fresh, known);
+		requestGap(snapshot.getChatId());
+	}
+
+	/**
+	 * Permet d'appliquer un snapshot sur l'EDT et d'attendre qu'il soit
+	 * appliqué.
+	 * 
+	 * @param snapshot
+	 *            Snapshot reçu du serveur.
+	 * @param messages
+	 *            Messages du snapshot à afficher.
+	 * @param knownSequence
+	 *            Numéro de séquence du dernier message déjà affiché.
+	 * @throws InterruptedException
+	 *             Si le thread est interrompu pendant l'attente, une exception
+	 *             est lancée.
+	 */
+	private void applySnapshot (final JoinSnapshot snapshot, final List<ChatFrame> messages, final long knownSequence)
+			throws InterruptedException {
+		try {
+			SwingUtilities.invokeAndWait(new Runnable() {
+
+				@Override
+				public void run () {
+					InboundDispatcher.this.controller.createChat(snapshot, messages, knownSequence);
+				}
+			});
+		} catch (InvocationTargetException e) {
+			this.logger.error("Cannot apply snapshot of " + snapshot.getChatId(), e.getCause());
+		}
+	}
+
+	/**
+	 * Message suivi en attente d'affichage, dont la durée de rendu est
+	 * remontée au serveur une fois affiché.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private class TracedMessage implements Runnable {
+
+		private final String chatId;
+		private final long traceId;
+		private final long received;
+
+		private TracedMessage (String chatId, long traceId, long received) {
+			this.chatId = chatId;
+			this.traceId = traceId;
+			this.received = received;
+		}
+
+		@Override
+		public void run () {
+			InboundDispatcher.this.outbox.report(this.chatId, this.traceId, TraceStage.CLIENT_RENDER,
+					System.nanoTime() - this.received);
+		}
+	}
+
+	/**
+	 * Page d'historique demandée au serveur, dont le dernier message reçu est
+	 * relevé par le thread de distribution.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class HistoryPage {
+
+		private final String chatId;
+		private final long from;
+		private final int count;
+		private final long until;
+		private final boolean backfill;
+		private long lastReceived;
+
+		private HistoryPage (String chatId, long from, int count, long until, boolean backfill) {
+			this.chatId = chatId;
+			this.from = from;
+			this.count = count;
+			this.until = until;
+			this.backfill = backfill;
+			this.lastReceived = from - 1;
+		}
+	}
+}
\ No newline at end of file
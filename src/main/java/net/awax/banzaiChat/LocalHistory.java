@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.history.MessageLog;
+import net.awax.banzaiChat.history.RetentionPolicy;
+import net.awax.banzaiChat.history.RoomLog;
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.storage.MessageStore;
+import net.awax.banzaiChat.storage.StorageSelector;
+import net.awax.banzaiChat.storage.StorageType;
+import net.awax.banzaiChat.util.ResourceManager;
+
+/**
+ * Cache local des messages reçus par le client. Les trames de messages sont
+ * conservées telles quelles, chat par chat, dans un journal segmenté
+ * ({@link RoomLog}) placé dans le répertoire de l'utilisateur, avec un
+ * répertoire par serveur. Au lancement, la dernière page de chaque chat est
+ * affichée depuis ce cache sans attendre le serveur ; lors de l'entrée dans
+ * un salon, seul le numéro de séquence du dernier message en cache est
+ * transmis, et le serveur ne renvoie que les messages plus récents.
+ * <p>
+ * Le cache est borné par une politique de rétention ({@link RetentionPolicy})
+ * appliquée à chaque chat à l'ouverture du cache puis à chaque nouveau
+ * segment : les segments les plus anciens sont supprimés lorsqu'ils ont
+ * expiré ou que le chat dépasse la taille maximale.
+ * <p>
+ * Le journal n'accepte que des messages croissants : un message reçu après un
+ * trou dans la numérotation est retenu en mémoire, le temps que les messages
+ * manquants soient redemandés au serveur. Les messages retenus sont ajoutés
+ * au journal dès que le trou est comblé, ou lorsque le serveur ne peut plus
+ * le combler.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LocalHistory {
+
+	/** Nombre maximal de messages retenus par chat derrière un trou */
+	public static final int MAX_PENDING_FRAMES = 4096;
+
+	private final Logger logger;
+	private final String server;
+	private final MessageLog log;
+	private final RetentionPolicy retention;
+	private final Map<String, TreeMap<Long, byte[]>> pending;
+
+	/**
+	 * Permet d'ouvrir le cache local des messages du serveur spécifié.
+	 * 
+	 * @param address
+	 *            Adresse du serveur.
+	 * @param port
+	 *            Port du serveur.
+	 */
+	public LocalHistory (String address, int port) {
+		ResourceManager props = ResourceManager.getInstance();
+		File root = new File(System.getProperty("user.home"), props.getString("banzaichat.cache.dir"));
+		this.logger = Logger.getLogger(getClass());
+		this.server = address + ":" + port;
+		this.log = new MessageLog(new File(root, address + "_" + port), new StorageSelector() {
+
+			@Override
+			public StorageType getStorageType (String roomId) {
+				return StorageType.LOG;
+			}
+		}, props.getLong("banzaichat.cache.segmentBytes"), 0, 0);
+		this.retention = new RetentionPolicy(props.getLong("banzaichat.cache.maxAgeSeconds") * 1000,
+				props.getLong("banzaichat.cache.maxBytes"));
+		this.pending = new HashMap<>();
+		for (String chatId : this.log.listRooms()) {
+			applyRetention(chatId, true);
+		}
+	}
+
+	/**
+	 * Indique si ce cache est celui du serveur spécifié.
+	 * 
+	 * @param address
+	 *            Adresse du serveur.
+	 * @param port
+	 *            Port du serveur.
+	 * @return <code>true</code> si le cache correspond au serveur.
+	 */
+	public boolean isFor (String address, int port) {
+		return this.server.equals(address + ":" + port);
+	}
+
+	/**
+	 * Permet de conserver une trame de message reçue. Une trame qui ne suit
+	 * pas immédiatement le dernier message en cache est retenue jusqu'à ce que
+	 * le trou qui la précède soit comblé ou abandonné. Au-delà de
+	 * {@link #MAX_PENDING_FRAMES} messages retenus, le trou est abandonné.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param sequence
+	 *            Numéro de séquence du message.
+	 * @param frame
+	 *            Trame de message encodée.
+	 * @return <code>false</code> si le message est déjà connu du cache.
+	 */
+	public synchronized boolean store (String chatId, long sequence, byte[] frame) {
+		long last = getLastSequence(chatId);
+		TreeMap<Long, byte[]> held = this.pending.get(chatId);
+		if (sequence <= last || (held != null && held.containsKey(sequence))) {
+			return false;
+		}
+		if (last > 0 && sequence > last + 1) {
+			if (held == null) {
+				held = new TreeMap<>();
+				this.pending.put(chatId, held);
+			}
+			held.put(sequence, frame);
+			if (held.size() > MAX_PENDING_FRAMES) {
+				skipGap(chatId);
+			}
+			return true;
+		}
+		append(chatId, sequence, frame);
+		if (held != null) {
+			// Le message peut combler le trou devant les messages retenus
+			long next = sequence + 1;
+			while (!held.isEmpty() && held.firstKey() == next) {
+				append(chatId, next, held.pollFirstEntry().getValue());
+				next++;
+			}
+			if (held.isEmpty()) {
+				this.pending.remove(chatId);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Renvoie la fin du trou qui précède les messages retenus d'un chat. Le
+	 * trou commence au message qui suit le dernier message en cache.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @return Numéro de séquence du dernier message manquant, ou
+	 *         <code>0</code> si aucun message n'est retenu.
+	 */
+	public synchronized long getGapEnd (String chatId) {
+		TreeMap<Long, byte[]> held = this.pending.get(chatId);
+		return held == null || held.isEmpty() ? 0 : held.firstKey() - 1;
+	}
+
+	/**
+	 * Permet d'abandonner les messages manquants d'un chat : les messages
+	 * retenus sont ajoutés au cache, en y laissant un trou.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 */
+	public synchronized void skipGap (String chatId) {
+		TreeMap<Long, byte[]> held = this.pending.remove(chatId);
+		if (held != null && !held.isEmpty()) {
+			long missing = held.firstKey() - getLastSequence(chatId) - 1;
+			this.logger.info("Cache of " + chatId + " : " + missing + " messages missing");
+			for (Map.Entry<Long, byte[]> entry : held.entrySet()) {
+				append(chatId, entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Permet d'ajouter une trame au journal d'un chat, puis d'appliquer la
+	 * politique de rétention si un nouveau segment a été ouvert.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param sequence
+	 *            Numéro de séquence du message.
+	 * @param frame
+	 *            Trame de message encodée.
+	 */
+	private void append (String chatId, long sequence, byte[] frame) {
+		try {
+			MessageStore store = this.log.getStore(chatId);
+			int segments = store instanceof RoomLog ? ((RoomLog) store).getSegmentCount() : 0;
+			this.log.append(chatId, sequence, frame);
+			if (store instanceof RoomLog && ((RoomLog) store).getSegmentCount() > segments) {
+				applyRetention(chatId, false);
+			}
+		} catch (IOException e) {
+			this.logger.error("Cannot cache message " + sequence + " of " + chatId, e);
+		}
+	}
+
+	/**
+	 * Renvoie les derniers messages en cache du chat spécifié.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param maxFrames
+	 *            Nombre maximum de messages souhaités.
+	 * @return Messages décodés, du plus ancien au plus récent.
+	 */
+	public List<ChatFrame> tail (String chatId, int maxFrames) {
+		long last = getLastSequence(chatId);
+		if (last <= 0) {
+			return Collections.emptyList();
+		}
+		try {
+			List<byte[]> frames = this.log.read(chatId, Math.max(1, last - maxFrames + 1), maxFrames);
+			List<ChatFrame> messages = new ArrayList<>(frames.size());
+			for (byte[] frame : frames) {
+				messages.add(ChatFrame.decode(frame));
+			}
+			return messages;
+		} catch (IOException e) {
+			this.logger.error("Cannot read cached messages of " + chatId, e);
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Renvoie le numéro de séquence du dernier message en cache du chat
+	 * spécifié.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @return Dernier numéro de séquence, ou <code>0</code> si aucun message
+	 *         n'est en cache ou si le cache ne peut être lu.
+	 */
+	public long getLastSequence (String chatId) {
+		try {
+			return this.log.getStore(chatId).getLastSequence();
+		} catch (IOException e) {
+			this.logger.error("Cannot open cache of " + chatId, e);
+			return 0;
+		}
+	}
+
+	/**
+	 * Permet d'appliquer la politique de rétention du cache à un chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param seal
+	 *            <code>true</code> pour sceller au préalable le segment actif
+	 *            s'il a expiré, afin qu'il puisse être supprimé.
+	 */
+	private void applyRetention (String chatId, boolean seal) {
+		try {
+			MessageStore store = this.log.getStore(chatId);
+			if (!(store instanceof RoomLog)) {
+				return;
+			}
+			RoomLog roomLog = (RoomLog) store;
+			long now = System.currentTimeMillis();
+			if (seal && this.retention.getMaxAgeMillis() > 0) {
+				roomLog.sealIfIdle(this.retention.getMaxAgeMillis(), now);
+			}
+			int dropped = roomLog.applyRetention(this.retention, now);
+			if (dropped > 0) {
+				this.logger.info("Cache of " + chatId + " trimmed : " + dropped + " segments dropped");
+			}
+		} catch (IOException e) {
+			this.logger.error("Cannot apply retention to cache of " + chatId, e);
+		}
+	}
+
+	/**
+	 * Renvoie les identifiants des chats présents dans le cache.
+	 * 
+	 * @return Identifiants des chats.
+	 */
+	public List<String> getChatIds () {
+		return this.log.listRooms();
+	}
+
+	/**
+	 * Permet de fermer le cache.
+	 */
+	public void close () {
+		this.log.close();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+
+/**
+ * Document de chat permettant d'insérer plusieurs portions de texte stylées
+ * en une seule modification : la structure des paragraphes est construite
+ * directement, ce qui ne déclenche qu'un seul événement de modification et
+ * une seule mise en page pour tout le lot.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ChatDocument extends DefaultStyledDocument {
+
+	private static final long serialVersionUID = 3170462289358361207L;
+	private static final char[] EOL = { '\n' };
+
+	/**
+	 * Permet d'instancier un document de chat vide.
+	 */
+	public ChatDocument () {
+		super();
+	}
+
+	/**
+	 * Permet d'insérer un lot de portions de texte à la position spécifiée.
+	 * Chaque portion contient au plus un retour à la ligne, en dernière
+	 * position.
+	 * 
+	 * @param offset
+	 *            Position d'insertion dans le document.
+	 * @param texts
+	 *            Portions de texte à insérer.
+	 * @param styles
+	 *            Style de chaque portion.
+	 * @throws BadLocationException
+	 *             Si la position est invalide, une exception est lancée.
+	 */
+	public void insertRuns (int offset, List<CharSequence> texts, List<AttributeSet> styles)
+			throws BadLocationException {
+		if (texts.isEmpty()) {
+			return;
+		}
+		AttributeSet paragraph = getParagraphElement(offset).getAttributes();
+		List<ElementSpec> specs = new ArrayList<>(texts.size() + texts.size() / 2);
+		for (int i = 0; i < texts.size(); i++) {
+			// Décodage éventuel du texte, au moment de son affichage
+			char[] text = texts.get(i).toString().toCharArray();
+			AttributeSet style = styles.get(i);
+			boolean endOfLine = text.length > 0 && text[text.length - 1] == '\n';
+			int length = endOfLine ? text.length - 1 : text.length;
+			if (length > 0) {
+				specs.add(new ElementSpec(style, ElementSpec.ContentType, text, 0, length));
+			}
+			if (endOfLine) {
+				specs.add(new ElementSpec(style, ElementSpec.ContentType, EOL, 0, 1));
+				specs.add(new ElementSpec(null, ElementSpec.EndTagType));
+				specs.add(new ElementSpec(paragraph, ElementSpec.StartTagType));
+			}
+		}
+		if (!specs.isEmpty()) {
+			insert(offset, specs.toArray(new ElementSpec[specs.size()]));
+		}
+	}
+
+	/**
+	 * Permet d'insérer un lot de lignes à la position spécifiée.
+	 * 
+	 * @param offset
+	 *            Position d'insertion dans le document.
+	 * @param lines
+	 *            Lignes à insérer.
+	 * @return Nombre de caractères insérés.
+	 * @throws BadLocationException
+	 *             Si la position est invalide, une exception est lancée.
+	 */
+	public int insertLines (int offset, List<ChatLine> lines) throws BadLocationException {
+		List<CharSequence> texts = new ArrayList<>(lines.size() * 4);
+		List<AttributeSet> styles = new ArrayList<>(lines.size() * 4);
+		int length = 0;
+		for (ChatLine line : lines) {
+			for (int i = 0; i < line.getRunCount(); i++) {
+				texts.add(line.getText(i));
+				styles.add(line.getStyle(i));
+			}
+			length += line.length();
+		}
+		insertRuns(offset, texts, styles);
+		return length;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,375 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.awax.banzaiChat.util.Utf8Text;
+
+/**
+ * Index inversé des mots d'un chat, construit au fil de l'ajout du texte.
+ * Chaque mot (suite de lettres et de chiffres, en minuscules) est associé à
+ * la liste croissante des indices absolus des lignes qui le contiennent ; les
+ * lignes sont numérotées dans l'ordre d'arrivée du texte, comme dans le
+ * {@link LineStore} du chat. Seules les dernières lignes, dans la limite de
+ * la capacité du tampon, sont conservées : les entrées plus anciennes sont
+ * purgées par lots.
+ * <p>
+ * Une recherche renvoie les lignes contenant tous les mots de la requête, le
+ * dernier mot pouvant n'être qu'un préfixe, sans parcourir le texte des
+ * lignes. Les méthodes de cette classe sont synchronisées : le texte est
+ * indexé par le thread qui l'ajoute au chat, hors de l'EDT.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ChatIndex {
+
+	/** Longueur maximale d'un mot indexé, les mots plus longs étant tronqués */
+	private static final int MAX_TOKEN_LENGTH = 32;
+
+	private final int capacity;
+	private final TreeMap<String, Postings> tokens;
+	private final StringBuilder token;
+	private long lineCount;
+	private long first;
+
+	/**
+	 * Permet d'instancier un index vide.
+	 * 
+	 * @param capacity
+	 *            Nombre de lignes conservées par le tampon du chat.
+	 */
+	public ChatIndex (int capacity) {
+		this.capacity = capacity;
+		this.tokens = new TreeMap<>();
+		this.token = new StringBuilder(MAX_TOKEN_LENGTH);
+		this.lineCount = 0;
+		this.first = 0;
+	}
+
+	/**
+	 * Permet d'indexer une portion de texte ajoutée au chat. Un retour à la
+	 * ligne termine la ligne en cours. Un texte encodé (voir {@link Utf8Text})
+	 * est parcouru directement sur ses octets, sans être décodé.
+	 * 
+	 * @param text
+	 *            Texte ajouté.
+	 */
+	public synchronized void add (CharSequence text) {
+		if (text instanceof Utf8Text) {
+			Utf8Text utf8 = (Utf8Text) text;
+			int i = 0;
+			while (i < utf8.getByteLength()) {
+				byte b = utf8.byteAt(i);
+				if (b >= 0) {
+					accept((char) b);
+					i++;
+				} else {
+					// Les caractères hors du plan de base sont des séparateurs
+					int codePoint = utf8.codePointAt(i);
+					accept(codePoint <= Character.MAX_VALUE ? (char) codePoint : ' ');
+					i += Utf8Text.sequenceLength(b);
+				}
+			}
+		} else {
+			for (int i = 0; i < text.length(); i++) {
+				accept(text.charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Renvoie les indices des lignes contenant tous les mots de la requête,
+	 * le dernier mot étant recherché comme préfixe.
+	 * 
+	 * @param query
+	 *            Texte recherché.
+	 * @return Indices absolus des lignes trouvées, par ordre croissant.
+	 */
+	public synchronized long[] search (String query) {
+		List<String> words = tokenize(query);
+		if (words.isEmpty()) {
+			return new long[0];
+		}
+		long from = Math.max(this.first, this.lineCount - this.capacity);
+		List<long[]> lists = new ArrayList<>(words.size());
+		for (int i = 0; i < words.size() - 1; i++) {
+			Postings postings = this.tokens.get(words.get(i));
+			if (postings == null) {
+				return new long[0];
+			}
+			lists.add(postings.copy(from));
+		}
+		lists.add(prefix(words.get(words.size() - 1), from));
+		// Intersection en partant de la liste la plus courte
+		Collections.sort(lists, new Comparator<long[]>() {
+
+			@Override
+			public int compare (long[] a, long[] b) {
+				return Integer.compare(a.length, b.length);
+			}
+		});
+		long[] result = lists.get(0);
+		for (int i = 1; i < lists.size(); i++) {
+			result = intersect(result, lists.get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Renvoie le nombre de lignes terminées indexées depuis la création du
+	 * chat.
+	 * 
+	 * @return Nombre de lignes indexées.
+	 */
+	public synchronized long getLineCount () {
+		return this.lineCount;
+	}
+
+	/**
+	 * Renvoie le nombre de mots distincts actuellement indexés.
+	 * 
+	 * @return Nombre de mots indexés.
+	 */
+	public synchronized int getTokenCount () {
+		return this.tokens.size();
+	}
+
+	/**
+	 * Permet de découper une requête en mots, normalisés comme le texte
+	 * indexé.
+	 * 
+	 * @param query
+	 *            Texte recherché.
+	 * @return Mots de la requête.
+	 */
+	public static List<String> tokenize (String query) {
+		List<String> words = new ArrayList<>();
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i <= query.length(); i++) {
+			char c = i < query.length() ? query.charAt(i) : ' ';
+			if (Character.isLetterOrDigit(c)) {
+				if (sb.length() < MAX_TOKEN_LENGTH) {
+					sb.append(Character.toLowerCase(c));
+				}
+			} else if (sb.length() > 0) {
+				words.add(sb.toString());
+				sb.setLength(0);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Permet de traiter un caractère du texte indexé.
+	 * 
+	 * @param c
+	 *            Caractère à traiter.
+	 */
+	private void accept (char c) {
+		if (Character.isLetterOrDigit(c)) {
+			if (this.token.length() < MAX_TOKEN_LENGTH) {
+				this.token.append(Character.toLowerCase(c));
+			}
+		} else {
+			endToken();
+			if (c == '\n') {
+				this.lineCount++;
+				if (this.lineCount - this.first > this.capacity + this.capacity / 2) {
+					purge(this.lineCount - this.capacity);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Permet d'ajouter le mot en cours à l'index, pour la ligne en cours.
+	 */
+	private void endToken () {
+		if (this.token.length() > 0) {
+			String word = this.token.toString();
+			Postings postings = this.tokens.get(word);
+			if (postings == null) {
+				postings = new Postings();
+				this.tokens.put(word, postings);
+			}
+			postings.add(this.lineCount);
+			this.token.setLength(0);
+		}
+	}
+
+	/**
+	 * Permet de retirer de l'index les lignes évincées du tampon.
+	 * 
+	 * @param firstLine
+	 *            Indice de la plus ancienne ligne conservée.
+	 */
+	private void purge (long firstLine) {
+		Iterator<Postings> it = this.tokens.values().iterator();
+		while (it.hasNext()) {
+			if (it.next().purge(firstLine) == 0) {
+				it.remove();
+			}
+		}
+		this.first = firstLine;
+	}
+
+	/**
+	 * Renvoie les lignes contenant un mot commençant par le préfixe spécifié.
+	 * 
+	 * @param prefix
+	 *            Préfixe recherché.
+	 * @param from
+	 *            Indice de la plus ancienne ligne conservée.
+	 * @return Indices des lignes, par ordre croissant et sans doublon.
+	 */
+	private long[] prefix (String prefix, long from) {
+		Map<String, Postings> matching = this.tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+		if (matching.size() == 1) {
+			return matching.values().iterator().next().copy(from);
+		}
+		int total = 0;
+		for (Postings postings : matching.values()) {
+			total += postings.size - postings.start;
+		}
+		long[] lines = new long[total];
+		int count = 0;
+		for (Postings postings : matching.values()) {
+			for (int i = postings.start; i < postings.size; i++) {
+				if (postings.lines[i] >= from) {
+					lines[count++] = postings.lines[i];
+				}
+			}
+		}
+		Arrays.sort(lines, 0, count);
+		int unique = 0;
+		for (int i = 0; i < count; i++) {
+			if (unique == 0 || lines[unique - 1] != lines[i]) {
+				lines[unique++] = lines[i];
+			}
+		}
+		return Arrays.copyOf(lines, unique);
+	}
+
+	/**
+	 * Renvoie l'intersection de deux listes croissantes d'indices.
+	 * 
+	 * @param a
+	 *            Première liste.
+	 * @param b
+	 *            Seconde liste.
+	 * @return Indices présents dans les deux listes.
+	 */
+	private static long[] intersect (long[] a, long[] b) {
+		long[] result = new long[Math.min(a.length, b.length)];
+		int count = 0;
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i] < b[j]) {
+				i++;
+			} else if (a[i] > b[j]) {
+				j++;
+			} else {
+				result[count++] = a[i];
+				i++;
+				j++;
+			}
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Liste croissante des lignes contenant un mot. Les entrées purgées sont
+	 * simplement sautées, le tableau n'étant compacté que lorsqu'elles en
+	 * occupent la moitié.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Postings {
+
+		private long[] lines = new long[2];
+		private int start;
+		private int size;
+
+		/**
+		 * Permet d'ajouter une ligne, une ligne déjà présente en fin de liste
+		 * étant ignorée.
+		 * 
+		 * @param line
+		 *            Indice absolu de la ligne.
+		 */
+		private void add (long line) {
+			if (this.size > this.start && this.lines[this.size - 1] == line) {
+				return;
+			}
+			if (this.size == this.lines.length) {
+				if (this.start > this.size / 2) {
+					System.arraycopy(this.lines, this.start, this.lines, 0, this.size - this.start);
+					this.size -= this.start;
+					this.start = 0;
+				} else {
+					this.lines = Arrays.copyOf(this.lines, this.size * 2);
+				}
+			}
+			this.lines[this.size++] = line;
+		}
+
+		/**
+		 * Permet de sauter les lignes antérieures à l'indice spécifié.
+		 * 
+		 * @param firstLine
+		 *            Indice de la plus ancienne ligne conservée.
+		 * @return Nombre de lignes restantes.
+		 */
+		private int purge (long firstLine) {
+			int index = Arrays.binarySearch(this.lines, this.start, this.size, firstLine);
+			this.start = index >= 0 ? index : -index - 1;
+			return this.size - this.start;
+		}
+
+		/**
+		 * Renvoie une copie des lignes à partir de l'indice spécifié.
+		 * 
+		 * @param from
+		 *            Indice de la plus ancienne ligne souhaitée.
+		 * @return Indices des lignes.
+		 */
+		private long[] copy (long from) {
+			int index = Arrays.binarySearch(this.lines, this.start, this.size, from);
+			return Arrays.copyOfRange(this.lines, index >= 0 ? index : -index - 1, this.size);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.util.Arrays;
+
+import javax.swing.text.AttributeSet;
+
+import net.awax.banzaiChat.util.Utf8Text;
+
+/**
+ * Ligne de chat composée de portions de texte ayant chacune leur propre
+ * style. Une ligne est conservée hors du document Swing et n'y est insérée que
+ * lorsqu'elle fait partie de la fenêtre affichée.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ChatLine {
+
+	private CharSequence[] texts;
+	private AttributeSet[] styles;
+	private int count;
+	private int length;
+
+	/**
+	 * Permet d'instancier une ligne vide.
+	 */
+	public ChatLine () {
+		this.texts = new CharSequence[4];
+		this.styles = new AttributeSet[4];
+		this.count = 0;
+		this.length = 0;
+	}
+
+	/**
+	 * Permet d'ajouter une portion de texte en fin de ligne. Le texte peut
+	 * être conservé encodé (voir {@link Utf8Text}), il n'est alors décodé que
+	 * lors de son affichage.
+	 * 
+	 * @param text
+	 *            Texte à ajouter.
+	 * @param style
+	 *            Style du texte.
+	 */
+	public void add (CharSequence text, AttributeSet style) {
+		if (this.count == this.texts.length) {
+			this.texts = Arrays.copyOf(this.texts, this.count * 2);
+			this.styles = Arrays.copyOf(this.styles, this.count * 2);
+		}
+		this.texts[this.count] = text;
+		this.styles[this.count] = style;
+		this.count++;
+		this.length += text.length();
+	}
+
+	/**
+	 * Renvoie le nombre de portions de texte de la ligne.
+	 * 
+	 * @return Nombre de portions.
+	 */
+	public int getRunCount () {
+		return this.count;
+	}
+
+	/**
+	 * Renvoie le texte de la portion spécifiée.
+	 * 
+	 * @param index
+	 *            Indice de la portion.
+	 * @return Texte de la portion.
+	 */
+	public CharSequence getText (int index) {
+		return this.texts[index];
+	}
+
+	/**
+	 * Renvoie le style de la portion spécifiée.
+	 * 
+	 * @param index
+	 *            Indice de la portion.
+	 * @return Style de la portion.
+	 */
+	public AttributeSet getStyle (int index) {
+		return this.styles[index];
+	}
+
+	/**
+	 * Permet de modifier le style de la portion spécifiée.
+	 * 
+	 * @param index
+	 *            Indice de la portion.
+	 * @param style
+	 *            Nouveau style de la portion.
+	 */
+	public void setStyle (int index, AttributeSet style) {
+		this.styles[index] = style;
+	}
+
+	/**
+	 * Renvoie le nombre de caractères de la ligne.
+	 * 
+	 * @return Longueur de la ligne.
+	 */
+	public int length () {
+		return this.length;
+	}
+
+	@Override
+	public String toString () {
+		StringBuilder sb = new StringBuilder(this.length);
+		for (int i = 0; i < this.count; i++) {
+			// Décodage en une fois plutôt que caractère par caractère
+			sb.append(this.texts[i].toString());
+		}
+		return sb.toString();
+	}
+}
\ No newline at end of file
@@ -1,165 +1,977 @@
-/*******************************************************************************
- * MIT License
- *
- * Copyright (c) 2017 Julien Le Sauce
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- *******************************************************************************/
-package net.awax.banzaiChat.gui;
-
-import java.awt.Color;
-import java.awt.Font;
-
-import javax.swing.JTextPane;
-import javax.swing.text.SimpleAttributeSet;
-import javax.swing.text.StyleConstants;
-import javax.swing.text.StyledDocument;
-
-import org.apache.log4j.Logger;
-
-/**
- * Permet de créer une console de chat permettant d'afficher à l'utilisateur
- * tous les messages entrant et sortant.
- * 
- * @author AwaX
- * @created 28 avr. 2014
- * @version 1.0
- */
-public class ChatPanel extends JTextPane {
-	
-	public static final Font DEFAULT_FONT = new Font("Arial", Font.PLAIN, 12);
-	public static final Color DEFAULT_TEXT_COLOR = Color.black;
-	public static final Color DEFAULT_BACKGROUND_COLOR = Color.white;
-
-	private static final long serialVersionUID = -5756191661208385436L;
-
-	private final Logger logger;
-
-	private String id;
-	private Font font;
-
-	/**
-	 * Permet d'instancier un panneau de chat.
-	 * 
-	 * @param chatId
-	 *            Identifiant de la fenêtre de chat.
-	 */
-	public ChatPanel (String chatId) {
-		super();
-		this.logger = Logger.getLogger(ChatPanel.class);
-		this.id = chatId;
-		this.font = new Font("Arial", Font.PLAIN, 14);
-		setFont(this.font);
-		setBackground(Color.BLUE);
-		setForeground(Color.BLACK);
-		setEditable(false);
-	}
-
-	/**
-	 * Permet d'afficher du texte dans la console.
-	 * 
-	 * @param text
-	 *            Texte à afficher dans la console.
-	 */
-	public void append (String text) {
-		append(text, DEFAULT_FONT, DEFAULT_TEXT_COLOR, DEFAULT_BACKGROUND_COLOR);
-	}
-
-	/**
-	 * Permet d'afficher du texte dans la console.
-	 * 
-	 * @param text
-	 *            Texte à afficher dans la console.
-	 * @param color
-	 *            Couleur du texte à afficher.
-	 */
-	public void append (String text, Color color) {
-		append(text, DEFAULT_FONT, color, DEFAULT_BACKGROUND_COLOR);
-	}
-
-	/**
-	 * Permet d'afficher du texte dans la console.
-	 * 
-	 * @param text
-	 *            Texte à afficher.
-	 * @param font
-	 *            Style du texte à afficher.
-	 * @param color
-	 *            Couleur du texte à afficher.
-	 */
-	public void append (String text, Font font, Color color) {
-		append(text, font, color, DEFAULT_BACKGROUND_COLOR);
-	}
-
-	/**
-	 * Permet d'afficher du texte dans la console.
-	 * 
-	 * @param text
-	 *            Texte à afficher.
-	 * @param fontStyle
-	 *            Style du texte à afficher, voir {@link Font}.
-	 * @param color
-	 *            Couleur du texte à afficher.
-	 */
-	public void append (String text, int fontStyle, Color color) {
-		Font font = new Font(DEFAULT_FONT.getName(), fontStyle, DEFAULT_FONT.getSize());
-		append(text, font, color, DEFAULT_BACKGROUND_COLOR);
-	}
-
-	/**
-	 * Permet d'afficher du texte dans la console.
-	 * 
-	 * @param text
-	 *            Texte à afficher.
-	 * @param font
-	 *            Style du texte à afficher.
-	 * @param textColor
-	 *            Couleur du texte à afficher.
-	 * @param foreground
-	 *            Couleur de fond du texte à afficher.
-	 */
-	public void append (String text, Font font, Color textColor, Color foreground) {
-		StyledDocument doc = getStyledDocument();
-		SimpleAttributeSet style = new SimpleAttributeSet();
-		StyleConstants.setFontFamily(style, font.getFamily());
-		StyleConstants.setFontSize(style, font.getSize());
-		StyleConstants.setForeground(style, textColor);
-		StyleConstants.setBackground(style, foreground);
-		if (font.isBold()) {
-			StyleConstants.setBold(style, true);
-		}
-		if (font.isItalic()) {
-			StyleConstants.setItalic(style, true);
-		}
-		try {
-			doc.insertString(doc.getLength(), text, style);
-		} catch (Exception e) {
-			this.logger.error("Cannot append text into " + this.id, e);
-		}
-	}
-
-	/**
-	 * Renvoie l'identifiant de la fenêtre de chat.
-	 * 
-	 * @return Identifiant de la fenêtre de chat.
-	 */
-	public String getChatId () {
-		return this.id;
-	}
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.awt.Color;
+import java.awt.Container;
+import java.awt.Font;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.swing.JTextPane;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultCaret;
+import javax.swing.text.DefaultHighlighter;
+import javax.swing.text.Highlighter;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.Utf8Text;
+
+/**
+ * Permet de créer une console de chat permettant d'afficher à l'utilisateur
+ * tous les messages entrant et sortant.
+ * <p>
+ * Les méthodes <code>append</code> peuvent être appelées depuis n'importe
+ * quel thread : le texte est placé dans une file, vidée sur l'EDT au plus
+ * {@value #MAX_FLUSH_PER_SECOND} fois par seconde, et toutes les lignes en
+ * attente sont insérées dans le document en une seule modification.
+ * <p>
+ * Les lignes sont conservées dans un {@link LineStore} de capacité bornée et
+ * seule une fenêtre de lignes est matérialisée dans le document Swing. Tant
+ * que la fenêtre suit la fin du chat, les nouvelles lignes y sont ajoutées et
+ * les plus anciennes retirées page par page ; lorsque l'utilisateur atteint
+ * le haut (ou le bas) de la zone affichée, les lignes précédentes (ou
+ * suivantes) sont rechargées depuis le tampon par pages. Un chat dont
+ * l'onglet n'est pas affiché peut être déchargé : son document est alors
+ * libéré et reconstruit depuis le tampon lors du rechargement.
+ * <p>
+ * Le texte ajouté est indexé par un {@link ChatIndex} dans le thread
+ * appelant : la recherche dans le chat obtient directement les lignes
+ * correspondantes, puis la fenêtre est déplacée sur la ligne trouvée, dont
+ * les mots recherchés sont surlignés.
+ * 
+ * @author AwaX
+ * @created 28 avr. 2014
+ * @version 1.0
+ */
+public class ChatPanel extends JTextPane implements ChangeListener {
+	
+	public static final Font DEFAULT_FONT = new Font("Arial", Font.PLAIN, 12);
+	public static final Color DEFAULT_TEXT_COLOR = Color.black;
+	public static final Color DEFAULT_BACKGROUND_COLOR = Color.white;
+
+	private static final long serialVersionUID = -5756191661208385436L;
+	private static final int MAX_FLUSH_PER_SECOND = 60;
+	private static final long FLUSH_PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1) / MAX_FLUSH_PER_SECOND;
+	private static final Highlighter.HighlightPainter MATCH_PAINTER =
+			new DefaultHighlighter.DefaultHighlightPainter(Color.orange);
+
+	private final Logger logger;
+	private final LineStore store;
+	private final ChatIndex index;
+	private final List<Object> highlights;
+	private final int windowLines;
+	private final int pageLines;
+	private final ConcurrentLinkedQueue<Run> pending;
+	private final ConcurrentLinkedQueue<Runnable> displayTasks;
+	private final AtomicBoolean scheduled;
+	private final Runnable flushTask;
+	private final Timer flushTimer;
+
+	private String id;
+	private Font font;
+	private ChatLine current;
+	private long windowStart;
+	private long windowEnd;
+	private long lastFlush;
+	private JViewport viewport;
+	private boolean paging;
+	private boolean loaded;
+	private String findQuery;
+	private long[] matches;
+	private long matchLines;
+	private int matchCursor;
+
+	/**
+	 * Permet d'instancier un panneau de chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant de la fenêtre de chat.
+	 */
+	public ChatPanel (String chatId) {
+		super(new ChatDocument());
+		ResourceManager props = ResourceManager.getInstance();
+		this.logger = Logger.getLogger(ChatPanel.class);
+		this.windowLines = props.getInt("banzaichat.chat.windowLines");
+		this.pageLines = props.getInt("banzaichat.chat.pageLines");
+		this.store = new LineStore(Math.max(props.getInt("banzaichat.chat.maxLines"), this.windowLines + this.pageLines));
+		this.index = new ChatIndex(this.store.getCapacity());
+		this.highlights = new ArrayList<>();
+		this.pending = new ConcurrentLinkedQueue<>();
+		this.displayTasks = new ConcurrentLinkedQueue<>();
+		this.scheduled = new AtomicBoolean(false);
+		this.flushTask = new Runnable() {
+
+			@Override
+			public void run () {
+				scheduledFlush();
+			}
+		};
+		this.flushTimer = new Timer(0, new ActionListener() {
+
+			@Override
+			public void actionPerformed (ActionEvent e) {
+				scheduledFlush();
+			}
+		});
+		this.flushTimer.setRepeats(false);
+		this.id = chatId;
+		this.font = new Font("Arial", Font.PLAIN, 14);
+		this.current = null;
+		this.windowStart = 0;
+		this.windowEnd = 0;
+		this.lastFlush = 0;
+		this.viewport = null;
+		this.paging = false;
+		this.loaded = true;
+		this.findQuery = "";
+		this.matches = new long[0];
+		this.matchLines = 0;
+		this.matchCursor = -1;
+		setFont(this.font);
+		setBackground(Color.BLUE);
+		setForeground(Color.BLACK);
+		setEditable(false);
+		// Le défilement est piloté par le panneau
+		((DefaultCaret) getCaret()).setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
+	}
+
+	/**
+	 * Permet d'afficher du texte dans la console.
+	 * 
+	 * @param text
+	 *            Texte à afficher dans la console.
+	 */
+	public void append (String text) {
+		append(text, DEFAULT_FONT, DEFAULT_TEXT_COLOR, DEFAULT_BACKGROUND_COLOR);
+	}
+
+	/**
+	 * Permet d'afficher du texte dans la console.
+	 * 
+	 * @param text
+	 *            Texte à afficher dans la console.
+	 * @param color
+	 *            Couleur du texte à afficher.
+	 */
+	public void append (String text, Color color) {
+		append(text, DEFAULT_FONT, color, DEFAULT_BACKGROUND_COLOR);
+	}
+
+	/**
+	 * Permet d'afficher du texte dans la console.
+	 * 
+	 * @param text
+	 *            Texte à afficher.
+	 * @param font
+	 *            Style du texte à afficher.
+	 * @param color
+	 *            Couleur du texte à afficher.
+	 */
+	public void append (String text, Font font, Color color) {
+		append(text, font, color, DEFAULT_BACKGROUND_COLOR);
+	}
+
+	/**
+	 * Permet d'afficher du texte dans la console.
+	 * 
+	 * @param text
+	 *            Texte à afficher.
+	 * @param fontStyle
+	 *            Style du texte à afficher, voir {@link Font}.
+	 * @param color
+	 *            Couleur du texte à afficher.
+	 */
+	public void append (String text, int fontStyle, Color color) {
+		AttributeSet style = StyleCache.get(fontStyle, color);
+		synchronized (this.pending) {
+			enqueue(text, style);
+		}
+		schedule();
+	}
+
+	/**
+	 * Permet d'afficher du texte dans la console. Le texte est découpé en
+	 * lignes placées dans la file d'attente ; il sera affiché lors du prochain
+	 * vidage de la file sur l'EDT.
+	 * 
+	 * @param text
+	 *            Texte à afficher.
+	 * @param font
+	 *            Style du texte à afficher.
+	 * @param textColor
+	 *            Couleur du texte à afficher.
+	 * @param foreground
+	 *            Couleur de fond du texte à afficher.
+	 */
+	public void append (String text, Font font, Color textColor, Color foreground) {
+		AttributeSet style = StyleCache.get(font, textColor, foreground);
+		synchronized (this.pending) {
+			enqueue(text, style);
+		}
+		schedule();
+	}
+
+	/**
+	 * Permet d'afficher une ligne complète dans la console. Les portions de la
+	 * ligne sont placées ensemble dans la file d'attente, sans pouvoir être
+	 * entrecoupées par du texte ajouté depuis un autre thread.
+	 * 
+	 * @param line
+	 *            Ligne à afficher, terminée par un retour à la ligne.
+	 */
+	public void append (ChatLine line) {
+		synchronized (this.pending) {
+			for (int i = 0; i < line.getRunCount(); i++) {
+				enqueue(line.getText(i), line.getStyle(i));
+			}
+		}
+		schedule();
+	}
+
+	/**
+	 * Permet d'afficher plusieurs lignes complètes dans la console. Les lignes
+	 * sont placées dans la file d'attente en une seule fois, dans l'ordre de
+	 * la liste.
+	 * 
+	 * @param lines
+	 *            Lignes à afficher, chacune terminée par un retour à la ligne.
+	 */
+	public void append (List<ChatLine> lines) {
+		synchronized (this.pending) {
+			for (ChatLine line : lines) {
+				for (int i = 0; i < line.getRunCount(); i++) {
+					enqueue(line.getText(i), line.getStyle(i));
+				}
+			}
+		}
+		schedule();
+	}
+
+	/**
+	 * Permet d'exécuter une tâche sur l'EDT dès que les lignes déjà placées
+	 * dans la file d'attente ont été insérées dans le chat, sans avancer le
+	 * prochain rafraîchissement.
+	 * 
+	 * @param task
+	 *            Tâche à exécuter après l'affichage.
+	 */
+	public void whenDisplayed (Runnable task) {
+		this.displayTasks.add(task);
+		schedule();
+	}
+
+	/**
+	 * Permet d'insérer immédiatement dans le document tout le texte en
+	 * attente, puis d'exécuter les tâches qui attendaient cet affichage. Cette
+	 * méthode doit être appelée depuis l'EDT.
+	 */
+	public void flush () {
+		// Seules les tâches déjà en file portent sur des lignes en attente
+		List<Runnable> tasks = new ArrayList<>();
+		Runnable task;
+		while ((task = this.displayTasks.poll()) != null) {
+			tasks.add(task);
+		}
+		flushPending();
+		for (Runnable displayed : tasks) {
+			displayed.run();
+		}
+	}
+
+	/**
+	 * Permet d'insérer dans le document tout le texte en attente.
+	 */
+	private void flushPending () {
+		this.lastFlush = System.nanoTime();
+		List<CharSequence> texts = new ArrayList<>();
+		List<AttributeSet> styles = new ArrayList<>();
+		long docEnd = this.windowEnd;
+		int removed = 0;
+		boolean rebuild = false;
+		Run run;
+		if (!this.loaded) {
+			// Onglet déchargé : les lignes ne sont conservées que dans le tampon
+			while ((run = this.pending.poll()) != null) {
+				store(run);
+			}
+			this.windowStart = this.store.getEnd();
+			this.windowEnd = this.windowStart;
+			return;
+		}
+		while ((run = this.pending.poll()) != null) {
+			boolean following = isFollowing();
+			boolean newLine = this.current == null;
+			ChatLine evicted = store(run);
+			if (newLine) {
+				if (following) {
+					this.windowEnd++;
+				}
+				// Ligne évincée du tampon encore affichée
+				if (evicted != null && this.windowStart < this.store.getFirst()) {
+					if (this.windowStart < docEnd - 1) {
+						removed += evicted.length();
+					} else {
+						rebuild = true;
+					}
+					this.windowStart++;
+				}
+			}
+			if (following) {
+				texts.add(run.text);
+				styles.add(run.style);
+			}
+		}
+		if (this.windowStart >= this.windowEnd && this.store.size() > 0) {
+			rebuild = true;
+		}
+		ChatDocument doc = getChatDocument();
+		try {
+			if (rebuild) {
+				rebuildWindow();
+			} else {
+				if (removed > 0) {
+					doc.remove(0, removed);
+				}
+				doc.insertRuns(doc.getLength(), texts, styles);
+			}
+			if (isFollowing()) {
+				// Retrait par pages : le coût d'une suppression en tête de
+				// document dépend peu du nombre de lignes retirées
+				if (this.windowEnd - this.windowStart > this.windowLines + this.pageLines) {
+					trimTop();
+				}
+				setCaretPosition(doc.getLength());
+			}
+		} catch (BadLocationException e) {
+			this.logger.error("Cannot append text into " + this.id, e);
+		}
+	}
+
+	/**
+	 * Permet de remplacer un style par un autre dans les dernières lignes du
+	 * chat, par exemple pour marquer un message en attente comme distribué.
+	 * Le tampon est parcouru depuis la fin jusqu'aux lignes portant le style
+	 * recherché, qui sont mises à jour dans le tampon et, si elles sont
+	 * affichées, dans le document. Le remplacement est effectué sur l'EDT.
+	 * 
+	 * @param oldStyle
+	 *            Style à remplacer, comparé par identité.
+	 * @param newStyle
+	 *            Nouveau style.
+	 */
+	public void replaceStyle (final AttributeSet oldStyle, final AttributeSet newStyle) {
+		SwingUtilities.invokeLater(new Runnable() {
+
+			@Override
+			public void run () {
+				// Les portions encore en file doivent être dans le tampon
+				flush();
+				int docEnd = getDocument().getLength();
+				boolean found = false;
+				LineStore lines = ChatPanel.this.store;
+				for (long i = lines.getEnd() - 1; i >= lines.getFirst(); i--) {
+					ChatLine line = lines.get(i);
+					if (i < ChatPanel.this.windowEnd) {
+						docEnd -= line.length();
+					}
+					if (!restyle(line, i, docEnd, oldStyle, newStyle)) {
+						if (found) {
+							break;
+						}
+					} else {
+						found = true;
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Permet de rechercher du texte dans le chat et d'afficher le résultat
+	 * suivant ou précédent. Une nouvelle requête affiche la correspondance la
+	 * plus récente ; les appels suivants avec la même requête parcourent les
+	 * correspondances, de façon circulaire. Cette méthode doit être appelée
+	 * depuis l'EDT.
+	 * 
+	 * @param query
+	 *            Texte recherché.
+	 * @param backward
+	 *            <code>true</code> pour aller vers les lignes plus anciennes.
+	 * @return Nombre de lignes correspondant à la requête.
+	 */
+	public int find (String query, boolean backward) {
+		flush();
+		String normalized = query.trim();
+		long current = this.matchCursor >= 0 ? this.matches[this.matchCursor] : -1;
+		if (!normalized.equals(this.findQuery)) {
+			this.findQuery = normalized;
+			current = -1;
+		}
+		// Correspondances recalculées si des lignes ont été ajoutées
+		if (current < 0 || this.matchLines != this.index.getLineCount()) {
+			this.matches = this.index.search(normalized);
+			this.matchLines = this.index.getLineCount();
+			this.matchCursor = -1;
+			if (current >= 0) {
+				int position = Arrays.binarySearch(this.matches, current);
+				this.matchCursor = position >= 0 ? position : Math.min(-position - 1, this.matches.length - 1);
+			}
+		}
+		int count = this.matches.length;
+		if (count == 0) {
+			this.matchCursor = -1;
+			clearHighlights();
+		} else {
+			if (current < 0) {
+				this.matchCursor = count - 1;
+			} else {
+				this.matchCursor = (this.matchCursor + (backward ? count - 1 : 1)) % count;
+			}
+			showMatch(this.matches[this.matchCursor]);
+		}
+		return count;
+	}
+
+	/**
+	 * Permet d'abandonner la recherche en cours et de retirer le surlignage.
+	 * Cette méthode doit être appelée depuis l'EDT.
+	 */
+	public void clearFind () {
+		this.findQuery = "";
+		this.matches = new long[0];
+		this.matchCursor = -1;
+		clearHighlights();
+	}
+
+	/**
+	 * Renvoie la position de la correspondance affichée parmi les résultats de
+	 * la dernière recherche.
+	 * 
+	 * @return Position de la correspondance, ou <code>-1</code> si aucune.
+	 */
+	public int getMatchPosition () {
+		return this.matchCursor;
+	}
+
+	/**
+	 * Renvoie l'index des mots du chat.
+	 * 
+	 * @return Index des mots.
+	 */
+	public ChatIndex getIndex () {
+		return this.index;
+	}
+
+	/**
+	 * Permet de libérer le document Swing du chat, par exemple lorsque son
+	 * onglet n'est plus affiché. Seules les lignes du tampon sont conservées,
+	 * les nouvelles lignes continuant d'y être ajoutées. Cette méthode doit
+	 * être appelée depuis l'EDT.
+	 */
+	public void unload () {
+		if (this.loaded) {
+			this.loaded = false;
+			clearHighlights();
+			setDocument(new ChatDocument());
+			this.windowStart = this.store.getEnd();
+			this.windowEnd = this.windowStart;
+		}
+	}
+
+	/**
+	 * Permet de reconstruire le document Swing du chat à partir des dernières
+	 * lignes du tampon, par exemple lorsque son onglet est de nouveau affiché.
+	 * Cette méthode doit être appelée depuis l'EDT.
+	 */
+	public void load () {
+		if (!this.loaded) {
+			this.loaded = true;
+			try {
+				rebuildWindow();
+				setCaretPosition(getDocument().getLength());
+			} catch (BadLocationException e) {
+				this.logger.error("Cannot rebuild document of " + this.id, e);
+			}
+		}
+	}
+
+	/**
+	 * Indique si le document Swing du chat est actuellement construit.
+	 * 
+	 * @return <code>true</code> si le chat est chargé.
+	 */
+	public boolean isLoaded () {
+		return this.loaded;
+	}
+
+	/**
+	 * Renvoie l'identifiant de la fenêtre de chat.
+	 * 
+	 * @return Identifiant de la fenêtre de chat.
+	 */
+	public String getChatId () {
+		return this.id;
+	}
+
+	/**
+	 * Renvoie le tampon des lignes du chat.
+	 * 
+	 * @return Tampon des lignes.
+	 */
+	public LineStore getLineStore () {
+		return this.store;
+	}
+
+	/**
+	 * Renvoie le nombre de lignes actuellement matérialisées dans le document.
+	 * 
+	 * @return Nombre de lignes affichées.
+	 */
+	public int getWindowSize () {
+		return (int) (this.windowEnd - this.windowStart);
+	}
+
+	/**
+	 * Renvoie le nombre de portions de texte en attente d'affichage.
+	 * 
+	 * @return Taille de la file d'attente.
+	 */
+	public int getPendingCount () {
+		return this.pending.size();
+	}
+
+	@Override
+	public void addNotify () {
+		super.addNotify();
+		Container parent = getParent();
+		if (parent instanceof JViewport && parent != this.viewport) {
+			this.viewport = (JViewport) parent;
+			this.viewport.addChangeListener(this);
+		}
+	}
+
+	@Override
+	public void removeNotify () {
+		if (this.viewport != null) {
+			this.viewport.removeChangeListener(this);
+			this.viewport = null;
+		}
+		super.removeNotify();
+	}
+
+	@Override
+	public void stateChanged (ChangeEvent e) {
+		if (this.paging || this.viewport == null || !this.loaded) {
+			return;
+		}
+		Rectangle view = this.viewport.getViewRect();
+		if (view.y <= 0 && this.windowStart > this.store.getFirst()) {
+			page(true);
+		} else if (view.y + view.height >= getHeight() - 1 && this.windowEnd < this.store.getEnd()) {
+			page(false);
+		}
+	}
+
+	/**
+	 * Permet de découper un texte en portions d'au plus une ligne et de les
+	 * placer dans la file d'attente. Un texte encodé est découpé sur ses
+	 * octets, sans être décodé.
+	 * 
+	 * @param text
+	 *            Texte à afficher.
+	 * @param style
+	 *            Style du texte.
+	 */
+	private void enqueue (CharSequence text, AttributeSet style) {
+		this.index.add(text);
+		if (text instanceof Utf8Text) {
+			Utf8Text utf8 = (Utf8Text) text;
+			int start = 0;
+			while (start < utf8.getByteLength()) {
+				int newLine = utf8.indexOf((byte) '\n', start);
+				int end = newLine < 0 ? utf8.getByteLength() : newLine + 1;
+				this.pending.add(new Run(utf8.slice(start, end), style, newLine >= 0));
+				start = end;
+			}
+			return;
+		}
+		String str = text.toString();
+		int start = 0;
+		while (start < str.length()) {
+			int newLine = str.indexOf('\n', start);
+			int end = newLine < 0 ? str.length() : newLine + 1;
+			this.pending.add(new Run(str.substring(start, end), style, newLine >= 0));
+			start = end;
+		}
+	}
+
+	/**
+	 * Permet de remplacer un style dans une ligne du tampon et, si la ligne
+	 * est affichée, dans le document.
+	 * 
+	 * @param line
+	 *            Ligne à mettre à jour.
+	 * @param index
+	 *            Indice absolu de la ligne.
+	 * @param offset
+	 *            Position de la ligne dans le document si elle est affichée.
+	 * @param oldStyle
+	 *            Style à remplacer.
+	 * @param newStyle
+	 *            Nouveau style.
+	 * @return <code>true</code> si la ligne portait le style à remplacer.
+	 */
+	private boolean restyle (ChatLine line, long index, int offset, AttributeSet oldStyle, AttributeSet newStyle) {
+		boolean displayed = this.loaded && index >= this.windowStart && index < this.windowEnd;
+		boolean found = false;
+		int position = offset;
+		for (int run = 0; run < line.getRunCount(); run++) {
+			int length = line.getText(run).length();
+			if (line.getStyle(run) == oldStyle) {
+				line.setStyle(run, newStyle);
+				if (displayed) {
+					getChatDocument().setCharacterAttributes(position, length, newStyle, true);
+				}
+				found = true;
+			}
+			position += length;
+		}
+		return found;
+	}
+
+	/**
+	 * Permet d'ajouter une portion de texte à la ligne en cours du tampon, en
+	 * démarrant une nouvelle ligne si nécessaire.
+	 * 
+	 * @param run
+	 *            Portion de texte à ajouter.
+	 * @return Ligne évincée du tampon par l'ajout d'une nouvelle ligne, ou
+	 *         <code>null</code>.
+	 */
+	private ChatLine store (Run run) {
+		ChatLine evicted = null;
+		if (this.current == null) {
+			this.current = new ChatLine();
+			evicted = this.store.add(this.current);
+		}
+		this.current.add(run.text, run.style);
+		if (run.endOfLine) {
+			this.current = null;
+		}
+		return evicted;
+	}
+
+	/**
+	 * Permet de programmer le vidage de la file d'attente sur l'EDT s'il ne
+	 * l'est pas déjà.
+	 */
+	private void schedule () {
+		if (this.scheduled.compareAndSet(false, true)) {
+			SwingUtilities.invokeLater(this.flushTask);
+		}
+	}
+
+	/**
+	 * Permet de vider la file d'attente sur l'EDT en respectant la fréquence
+	 * maximale de rafraîchissement : si le dernier vidage est trop récent, il
+	 * est reporté à la fin de la période.
+	 */
+	private void scheduledFlush () {
+		long wait = this.lastFlush + FLUSH_PERIOD_NANOS - System.nanoTime();
+		if (wait > 0) {
+			this.flushTimer.setInitialDelay((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+			this.flushTimer.restart();
+			return;
+		}
+		// Les ajouts suivants programmeront un nouveau vidage
+		this.scheduled.set(false);
+		flush();
+	}
+
+	/**
+	 * Indique si la fenêtre affichée suit la fin du chat.
+	 * 
+	 * @return <code>true</code> si la dernière ligne est affichée.
+	 */
+	private boolean isFollowing () {
+		return this.windowEnd == this.store.getEnd();
+	}
+
+	private ChatDocument getChatDocument () {
+		return (ChatDocument) getStyledDocument();
+	}
+
+	/**
+	 * Permet de reconstruire entièrement la fenêtre sur les dernières lignes
+	 * du tampon, lorsque les lignes affichées en ont été évincées.
+	 * 
+	 * @throws BadLocationException
+	 *             Si le document n'est pas dans l'état attendu, une exception
+	 *             est lancée.
+	 */
+	private void rebuildWindow () throws BadLocationException {
+		long end = this.store.getEnd();
+		rebuildWindow(Math.max(this.store.getFirst(), end - this.windowLines), end);
+	}
+
+	/**
+	 * Permet de reconstruire entièrement la fenêtre sur les lignes du tampon
+	 * comprises entre les indices spécifiés.
+	 * 
+	 * @param from
+	 *            Indice absolu de la première ligne.
+	 * @param to
+	 *            Indice absolu de fin (exclu).
+	 * @throws BadLocationException
+	 *             Si le document n'est pas dans l'état attendu, une exception
+	 *             est lancée.
+	 */
+	private void rebuildWindow (long from, long to) throws BadLocationException {
+		ChatDocument doc = getChatDocument();
+		clearHighlights();
+		doc.remove(0, doc.getLength());
+		this.windowStart = from;
+		this.windowEnd = to;
+		doc.insertLines(0, getLines(from, to));
+	}
+
+	/**
+	 * Permet d'afficher une ligne trouvée par la recherche : la fenêtre est
+	 * reconstruite autour de la ligne si elle n'y figure pas, puis les mots
+	 * recherchés sont surlignés et la ligne est amenée dans la zone visible.
+	 * 
+	 * @param line
+	 *            Indice absolu de la ligne.
+	 */
+	private void showMatch (long line) {
+		if (!this.loaded || line < this.store.getFirst() || line >= this.store.getEnd()) {
+			return;
+		}
+		try {
+			if (line < this.windowStart || line >= this.windowEnd) {
+				long end = Math.min(this.store.getEnd(), Math.max(line + 1, line + this.windowLines / 2));
+				rebuildWindow(Math.max(this.store.getFirst(), end - this.windowLines), end);
+			}
+			int offset = 0;
+			for (long i = this.windowStart; i < line; i++) {
+				offset += this.store.get(i).length();
+			}
+			clearHighlights();
+			String text = this.store.get(line).toString();
+			for (String word : ChatIndex.tokenize(this.findQuery)) {
+				for (int i = 0; i + word.length() <= text.length(); i++) {
+					if (text.regionMatches(true, i, word, 0, word.length())) {
+						this.highlights.add(getHighlighter().addHighlight(offset + i, offset + i + word.length(),
+								MATCH_PAINTER));
+					}
+				}
+			}
+			final int position = offset;
+			this.paging = true;
+			// Défilement une fois la mise en page effectuée
+			SwingUtilities.invokeLater(new Runnable() {
+
+				@Override
+				public void run () {
+					try {
+						Rectangle rect = modelToView(position);
+						if (rect != null) {
+							rect.height = Math.max(rect.height, getVisibleRect().height / 2);
+							scrollRectToVisible(rect);
+						}
+					} catch (BadLocationException e) {
+						ChatPanel.this.logger.error("Cannot show match in " + ChatPanel.this.id, e);
+					} finally {
+						ChatPanel.this.paging = false;
+					}
+				}
+			});
+		} catch (BadLocationException e) {
+			this.logger.error("Cannot show line " + line + " of " + this.id, e);
+		}
+	}
+
+	/**
+	 * Permet de retirer le surlignage des mots recherchés.
+	 */
+	private void clearHighlights () {
+		for (Object tag : this.highlights) {
+			getHighlighter().removeHighlight(tag);
+		}
+		this.highlights.clear();
+	}
+
+	/**
+	 * Renvoie les lignes du tampon comprises entre les indices spécifiés.
+	 * 
+	 * @param from
+	 *            Indice absolu de la première ligne.
+	 * @param to
+	 *            Indice absolu de fin (exclu).
+	 * @return Lignes correspondantes.
+	 */
+	private List<ChatLine> getLines (long from, long to) {
+		List<ChatLine> lines = new ArrayList<>((int) (to - from));
+		for (long i = from; i < to; i++) {
+			lines.add(this.store.get(i));
+		}
+		return lines;
+	}
+
+	/**
+	 * Permet de retirer du document les lignes les plus anciennes dépassant la
+	 * taille de la fenêtre.
+	 * 
+	 * @return Nombre de caractères retirés.
+	 * @throws BadLocationException
+	 *             Si le document n'est pas dans l'état attendu, une exception
+	 *             est lancée.
+	 */
+	private int trimTop () throws BadLocationException {
+		int removed = 0;
+		while (this.windowEnd - this.windowStart > this.windowLines) {
+			removed += this.store.get(this.windowStart).length();
+			this.windowStart++;
+		}
+		if (removed > 0) {
+			getStyledDocument().remove(0, removed);
+		}
+		return removed;
+	}
+
+	/**
+	 * Permet de retirer du document les lignes les plus récentes dépassant la
+	 * taille de la fenêtre.
+	 * 
+	 * @throws BadLocationException
+	 *             Si le document n'est pas dans l'état attendu, une exception
+	 *             est lancée.
+	 */
+	private void trimBottom () throws BadLocationException {
+		int removed = 0;
+		while (this.windowEnd - this.windowStart > this.windowLines) {
+			this.windowEnd--;
+			removed += this.store.get(this.windowEnd).length();
+		}
+		if (removed > 0) {
+			ChatDocument doc = getChatDocument();
+			doc.remove(doc.getLength() - removed, removed);
+		}
+	}
+
+	/**
+	 * Permet de recharger une page de lignes depuis le tampon, avant ou après
+	 * la fenêtre affichée, en conservant la position de lecture.
+	 * 
+	 * @param backward
+	 *            <code>true</code> pour recharger les lignes précédentes,
+	 *            <code>false</code> pour les lignes suivantes.
+	 */
+	private void page (final boolean backward) {
+		this.paging = true;
+		final Point position = this.viewport.getViewPosition();
+		int anchor = viewToModel(position);
+		ChatDocument doc = getChatDocument();
+		try {
+			if (backward) {
+				int count = (int) Math.min(this.pageLines, this.windowStart - this.store.getFirst());
+				anchor += doc.insertLines(0, getLines(this.windowStart - count, this.windowStart));
+				this.windowStart -= count;
+				trimBottom();
+			} else {
+				int count = (int) Math.min(this.pageLines, this.store.getEnd() - this.windowEnd);
+				doc.insertLines(doc.getLength(), getLines(this.windowEnd, this.windowEnd + count));
+				this.windowEnd += count;
+				anchor -= trimTop();
+			}
+		} catch (BadLocationException e) {
+			this.logger.error("Cannot page lines into " + this.id, e);
+		}
+		// Repositionnement une fois la mise en page effectuée
+		final int offset = Math.max(0, Math.min(anchor, doc.getLength()));
+		SwingUtilities.invokeLater(new Runnable() {
+
+			@Override
+			public void run () {
+				try {
+					Rectangle rect = modelToView(offset);
+					if (rect != null && viewport != null) {
+						viewport.setViewPosition(new Point(position.x, rect.y));
+					}
+				} catch (BadLocationException e) {
+					logger.error("Cannot restore view position of " + id, e);
+				} finally {
+					paging = false;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Portion de texte en attente d'affichage.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Run {
+
+		private final CharSequence text;
+		private final AttributeSet style;
+		private final boolean endOfLine;
+
+		/**
+		 * Permet d'instancier une portion de texte.
+		 * 
+		 * @param text
+		 *            Texte de la portion.
+		 * @param style
+		 *            Style de la portion.
+		 * @param endOfLine
+		 *            Indique si la portion termine la ligne.
+		 */
+		private Run (CharSequence text, AttributeSet style, boolean endOfLine) {
+			this.text = text;
+			this.style = style;
+			this.endOfLine = endOfLine;
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+/**
+ * Tampon circulaire de lignes de chat de capacité fixe. Chaque ligne reçoit un
+ * indice absolu croissant ; lorsque le tampon est plein, la ligne la plus
+ * ancienne est évincée pour faire place à la nouvelle.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LineStore {
+
+	private final ChatLine[] lines;
+	private long first;
+	private int size;
+
+	/**
+	 * Permet d'instancier un tampon de lignes.
+	 * 
+	 * @param capacity
+	 *            Nombre maximum de lignes conservées.
+	 */
+	public LineStore (int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive : " + capacity);
+		}
+		this.lines = new ChatLine[capacity];
+		this.first = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Permet d'ajouter une ligne en fin de tampon.
+	 * 
+	 * @param line
+	 *            Ligne à ajouter.
+	 * @return Ligne évincée, ou <code>null</code> si le tampon n'était pas
+	 *         plein.
+	 */
+	public ChatLine add (ChatLine line) {
+		ChatLine evicted = null;
+		if (this.size == this.lines.length) {
+			evicted = this.lines[(int) (this.first % this.lines.length)];
+			this.first++;
+			this.size--;
+		}
+		this.lines[(int) ((this.first + this.size) % this.lines.length)] = line;
+		this.size++;
+		return evicted;
+	}
+
+	/**
+	 * Renvoie la ligne d'indice absolu spécifié.
+	 * 
+	 * @param index
+	 *            Indice absolu de la ligne.
+	 * @return Ligne correspondante.
+	 */
+	public ChatLine get (long index) {
+		if (index < this.first || index >= this.first + this.size) {
+			throw new IndexOutOfBoundsException("Line " + index + " not in [" + this.first + ", " + getEnd() + "[");
+		}
+		return this.lines[(int) (index % this.lines.length)];
+	}
+
+	/**
+	 * Renvoie l'indice absolu de la plus ancienne ligne conservée.
+	 * 
+	 * @return Indice de la première ligne.
+	 */
+	public long getFirst () {
+		return this.first;
+	}
+
+	/**
+	 * Renvoie l'indice absolu suivant la ligne la plus récente.
+	 * 
+	 * @return Indice de fin (exclu).
+	 */
+	public long getEnd () {
+		return this.first + this.size;
+	}
+
+	public int size () {
+		return this.size;
+	}
+
+	public int getCapacity () {
+		return this.lines.length;
+	}
+}
\ No newline at end of file
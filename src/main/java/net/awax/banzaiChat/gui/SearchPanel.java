@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.util.ArrayList;
+
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+
+import net.awax.banzaiChat.util.ResourceManager;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Barre de recherche dans le chat affiché. La touche "ENTREE" (ou le bouton
+ * suivant) affiche la correspondance suivante, "MAJ + ENTREE" (ou le bouton
+ * précédent) la correspondance précédente et "ECHAP" abandonne la recherche.
+ * Les écouteurs sont notifiés par les commandes <code>FindNext</code>,
+ * <code>FindPrevious</code> et <code>FindClear</code>.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class SearchPanel extends JPanel implements ActionListener, KeyListener {
+
+	private static final long serialVersionUID = 3580142793261147250L;
+
+	private final ResourceManager props;
+	private final ArrayList<ActionListener> searchListeners;
+
+	private JTextField tfQuery;
+	private JButton btnPrevious;
+	private JButton btnNext;
+	private JLabel lblResult;
+
+	/**
+	 * Permet d'instancier la barre de recherche.
+	 */
+	public SearchPanel () {
+		super();
+		this.props = ResourceManager.getInstance();
+		this.searchListeners = new ArrayList<>();
+		createComponents();
+		createGui();
+		addListeners();
+	}
+
+	/**
+	 * Permet d'afficher le résultat de la dernière recherche.
+	 * 
+	 * @param position
+	 *            Position de la correspondance affichée, ou <code>-1</code>.
+	 * @param count
+	 *            Nombre de correspondances.
+	 */
+	public void setResult (int position, int count) {
+		if (getQuery().isEmpty()) {
+			this.lblResult.setText("");
+		} else if (count == 0) {
+			this.lblResult.setText(this.props.getString("banzaichat.mainview.panel.search.label.noMatch"));
+		} else {
+			this.lblResult.setText((position + 1) + " / " + count);
+		}
+	}
+
+	/**
+	 * Permet de donner le focus au champ de recherche.
+	 */
+	public void focusQuery () {
+		this.tfQuery.requestFocusInWindow();
+		this.tfQuery.selectAll();
+	}
+
+	/**
+	 * Renvoie le texte recherché.
+	 * 
+	 * @return Texte recherché.
+	 */
+	public String getQuery () {
+		return this.tfQuery.getText().trim();
+	}
+
+	/**
+	 * Permet d'ajouter un écouteur sur les commandes de recherche.
+	 * 
+	 * @param listener
+	 *            Ecouteur à ajouter.
+	 */
+	public void addSearchListener (ActionListener listener) {
+		if (!this.searchListeners.contains(listener)) {
+			this.searchListeners.add(listener);
+		}
+	}
+
+	/**
+	 * Permet d'instancier les différents éléments qui composent l'interface
+	 * graphique.
+	 */
+	private void createComponents () {
+		this.tfQuery = new JTextField();
+		this.tfQuery.setToolTipText(this.props.getString("banzaichat.mainview.panel.search.tooltip"));
+		this.btnPrevious = new JButton(this.props.getString("banzaichat.mainview.panel.search.button.label.previous"));
+		this.btnNext = new JButton(this.props.getString("banzaichat.mainview.panel.search.button.label.next"));
+		this.lblResult = new JLabel();
+	}
+
+	/**
+	 * Permet de créer l'interface graphique à partir de tous les éléments qui
+	 * la compose.
+	 */
+	private void createGui () {
+		setLayout(new MigLayout("insets 0", "[grow][][][100px]"));
+		add(this.tfQuery, "growx");
+		add(this.btnPrevious);
+		add(this.btnNext);
+		add(this.lblResult);
+	}
+
+	/**
+	 * Permet d'ajouter les différents écouteurs aux composants de l'interface
+	 * graphique.
+	 */
+	private void addListeners () {
+		this.btnPrevious.addActionListener(this);
+		this.btnNext.addActionListener(this);
+		this.tfQuery.addKeyListener(this);
+	}
+
+	/**
+	 * Permet de notifier les écouteurs d'une commande de recherche.
+	 * 
+	 * @param command
+	 *            Commande de recherche.
+	 */
+	private void fireSearch (String command) {
+		for (ActionListener l : this.searchListeners) {
+			l.actionPerformed(new ActionEvent(this, ActionEvent.ACTION_PERFORMED, command));
+		}
+	}
+
+	@Override
+	public void actionPerformed (ActionEvent e) {
+		/*
+		 * JButton
+		 */
+		if (e.getSource() instanceof JButton) {
+			JButton btn = (JButton) e.getSource();
+
+			// Previous
+			if (this.btnPrevious.equals(btn)) {
+				fireSearch("FindPrevious");
+			}
+			// Next
+			else if (this.btnNext.equals(btn)) {
+				fireSearch("FindNext");
+			}
+		}
+	}
+
+	@Override
+	public void keyPressed (KeyEvent e) {
+		// Appuie sur "ENTREE"
+		if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+			fireSearch(e.isShiftDown() ? "FindPrevious" : "FindNext");
+		}
+		// Appuie sur "ECHAP"
+		else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
+			this.tfQuery.setText("");
+			fireSearch("FindClear");
+		}
+	}
+
+	@Override
+	public void keyReleased (KeyEvent e) {
+		//
+	}
+
+	@Override
+	public void keyTyped (KeyEvent e) {
+		//
+	}
+}
\ No newline at end of file
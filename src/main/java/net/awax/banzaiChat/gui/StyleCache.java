@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.SimpleAttributeSet;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyleContext;
+
+import net.awax.banzaiChat.util.LogStatus;
+
+/**
+ * Cache des styles de texte utilisés par les consoles de chat. Chaque
+ * combinaison de police et de couleurs n'est construite qu'une seule fois ;
+ * les styles renvoyés sont immuables et peuvent donc être partagés entre
+ * toutes les lignes et tous les threads. Les polices et couleurs provenant
+ * des messages reçus étant arbitraires, le cache est limité aux styles les
+ * plus récemment utilisés.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public final class StyleCache {
+
+	/** Nombre maximum de styles conservés en cache */
+	public static final int MAX_STYLES = 1024;
+
+	private static final Map<Key, AttributeSet> CACHE = new LinkedHashMap<Key, AttributeSet>(MAX_STYLES * 2, 0.75f,
+			true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry (Map.Entry<Key, AttributeSet> eldest) {
+			return size() > MAX_STYLES;
+		}
+	};
+	private static final String DEFAULT_FAMILY = ChatPanel.DEFAULT_FONT.getFamily();
+
+	/** Style de l'horodatage placé en début de ligne */
+	public static final AttributeSet TIMESTAMP = get(Font.BOLD, Color.blue);
+	/** Style du pseudo de l'auteur d'un message */
+	public static final AttributeSet PSEUDO = get(Font.BOLD, Color.black);
+	/** Style du texte brut */
+	public static final AttributeSet TEXT = get(Font.PLAIN, ChatPanel.DEFAULT_TEXT_COLOR);
+
+	private static final Map<LogStatus, AttributeSet> STATUS_STYLES = createStatusStyles();
+
+	private StyleCache () {
+	}
+
+	/**
+	 * Renvoie le style correspondant au style de police et à la couleur
+	 * spécifiés, avec la police et la couleur de fond par défaut.
+	 * 
+	 * @param fontStyle
+	 *            Style du texte, voir {@link Font}.
+	 * @param color
+	 *            Couleur du texte.
+	 * @return Style du texte.
+	 */
+	public static AttributeSet get (int fontStyle, Color color) {
+		return get(DEFAULT_FAMILY, fontStyle, ChatPanel.DEFAULT_FONT.getSize(), color, ChatPanel.DEFAULT_BACKGROUND_COLOR);
+	}
+
+	/**
+	 * Renvoie le style correspondant à la police et aux couleurs spécifiées.
+	 * 
+	 * @param font
+	 *            Police du texte.
+	 * @param textColor
+	 *            Couleur du texte.
+	 * @param background
+	 *            Couleur de fond du texte.
+	 * @return Style du texte.
+	 */
+	public static AttributeSet get (Font font, Color textColor, Color background) {
+		return get(font.getFamily(), font.getStyle(), font.getSize(), textColor, background);
+	}
+
+	/**
+	 * Renvoie le style du texte d'un message du type spécifié.
+	 * 
+	 * @param status
+	 *            Type de message.
+	 * @return Style du texte.
+	 */
+	public static AttributeSet get (LogStatus status) {
+		AttributeSet style = STATUS_STYLES.get(status);
+		return style != null ? style : TEXT;
+	}
+
+	/**
+	 * Renvoie le nombre de styles actuellement en cache.
+	 * 
+	 * @return Nombre de styles en cache.
+	 */
+	public static int size () {
+		synchronized (CACHE) {
+			return CACHE.size();
+		}
+	}
+
+	/**
+	 * Renvoie le style en cache correspondant aux attributs spécifiés, en le
+	 * construisant lors du premier appel.
+	 * 
+	 * @param family
+	 *            Famille de la police.
+	 * @param fontStyle
+	 *            Style du texte, voir {@link Font}.
+	 * @param size
+	 *            Taille de la police.
+	 * @param textColor
+	 *            Couleur du texte.
+	 * @param background
+	 *            Couleur de fond du texte.
+	 * @return Style du texte.
+	 */
+	private static AttributeSet get (String family, int fontStyle, int size, Color textColor, Color background) {
+		Key key = new Key(family, fontStyle, size, textColor.getRGB(), background.getRGB());
+		AttributeSet style;
+		synchronized (CACHE) {
+			style = CACHE.get(key);
+		}
+		if (style == null) {
+			SimpleAttributeSet attributes = new SimpleAttributeSet();
+			StyleConstants.setFontFamily(attributes, family);
+			StyleConstants.setFontSize(attributes, size);
+			StyleConstants.setForeground(attributes, textColor);
+			StyleConstants.setBackground(attributes, background);
+			if ((fontStyle & Font.BOLD) != 0) {
+				StyleConstants.setBold(attributes, true);
+			}
+			if ((fontStyle & Font.ITALIC) != 0) {
+				StyleConstants.setItalic(attributes, true);
+			}
+			// Version immuable partagée par le contexte de style par défaut
+			style = StyleContext.getDefaultStyleContext().addAttributes(SimpleAttributeSet.EMPTY, attributes);
+			synchronized (CACHE) {
+				AttributeSet previous = CACHE.get(key);
+				if (previous != null) {
+					style = previous;
+				} else {
+					CACHE.put(key, style);
+				}
+			}
+		}
+		return style;
+	}
+
+	/**
+	 * Permet de construire les styles associés à chaque type de message.
+	 * 
+	 * @return Styles indexés par type de message.
+	 */
+	private static Map<LogStatus, AttributeSet> createStatusStyles () {
+		Map<LogStatus, AttributeSet> styles = new EnumMap<>(LogStatus.class);
+		styles.put(LogStatus.SERVER_MESSAGE, get(Font.PLAIN, Color.blue));
+		styles.put(LogStatus.CLIENT_MESSAGE, get(Font.PLAIN, Color.green.darker()));
+		styles.put(LogStatus.ERROR, get(Font.BOLD, Color.red));
+		styles.put(LogStatus.WARNING, get(Font.PLAIN, Color.orange));
+		return styles;
+	}
+
+	/**
+	 * Clé identifiant un style dans le cache.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static final class Key {
+
+		private final String family;
+		private final int fontStyle;
+		private final int size;
+		private final int textColor;
+		private final int background;
+
+		private Key (String family, int fontStyle, int size, int textColor, int background) {
+			this.family = family;
+			this.fontStyle = fontStyle;
+			this.size = size;
+			this.textColor = textColor;
+			this.background = background;
+		}
+
+		@Override
+		public int hashCode () {
+			int hash = this.family.hashCode();
+			hash = 31 * hash + this.fontStyle;
+			hash = 31 * hash + this.size;
+			hash = 31 * hash + this.textColor;
+			return 31 * hash + this.background;
+		}
+
+		@Override
+		public boolean equals (Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.fontStyle == other.fontStyle && this.size == other.size && this.textColor == other.textColor
+					&& this.background == other.background && this.family.equals(other.family);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.gui;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.swing.AbstractListModel;
+
+import net.awax.banzaiChat.util.User;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Modèle de la liste des utilisateurs d'un salon, adapté aux salons de
+ * plusieurs dizaines de milliers de membres. Les utilisateurs sont regroupés
+ * par statut, chaque groupe étant précédé d'une ligne d'en-tête (l'élément
+ * correspondant est alors le {@link UserStatus} du groupe).
+ * <p>
+ * Chaque groupe est stocké dans deux tableaux parallèles (clés de tri en
+ * minuscules et utilisateurs) maintenus triés : la position d'un
+ * utilisateur est retrouvée par recherche dichotomique, et le filtrage par
+ * préfixe de pseudonyme se réduit à deux recherches dichotomiques par groupe,
+ * sans parcourir les utilisateurs. L'accès à une ligne se fait en temps
+ * constant, ce qui permet à la {@link javax.swing.JList} de ne rendre que les
+ * lignes visibles.
+ * <p>
+ * Ce modèle doit être utilisé depuis l'EDT.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class UserListModel extends AbstractListModel<Object> {
+
+	private static final long serialVersionUID = 3318290634137640873L;
+
+	/** Ordre d'affichage des groupes */
+	private static final UserStatus[] GROUP_ORDER = { UserStatus.CONNECTED, UserStatus.BUSY, UserStatus.ABSENT,
+			UserStatus.UNKNOWN };
+
+	private static final Comparator<User> PSEUDO_ORDER = new Comparator<User>() {
+
+		@Override
+		public int compare (User u1, User u2) {
+			return UserListModel.compare(toKey(u1.getPseudo()), u1.getPseudo(), toKey(u2.getPseudo()), u2.getPseudo());
+		}
+	};
+
+	private final Group[] groups;
+	private final Map<String, UserStatus> statuses;
+	private String filter;
+
+	/**
+	 * Permet d'instancier un modèle vide.
+	 */
+	public UserListModel () {
+		this.groups = new Group[UserStatus.values().length];
+		for (int i = 0; i < this.groups.length; i++) {
+			this.groups[i] = new Group();
+		}
+		this.statuses = new HashMap<>();
+		this.filter = "";
+	}
+
+	@Override
+	public int getSize () {
+		int size = 0;
+		for (UserStatus status : GROUP_ORDER) {
+			size += getGroup(status).getRowCount();
+		}
+		return size;
+	}
+
+	@Override
+	public Object getElementAt (int index) {
+		int row = index;
+		for (UserStatus status : GROUP_ORDER) {
+			Group group = getGroup(status);
+			int rows = group.getRowCount();
+			if (row < rows) {
+				return row == 0 ? status : group.users[group.low + row - 1];
+			}
+			row -= rows;
+		}
+		throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getSize());
+	}
+
+	/**
+	 * Permet de remplacer l'ensemble des utilisateurs de la liste.
+	 * 
+	 * @param users
+	 *            Nouveaux utilisateurs.
+	 */
+	public void setUsers (Collection<User> users) {
+		int oldSize = getSize();
+		for (Group group : this.groups) {
+			group.clear();
+		}
+		this.statuses.clear();
+		for (User user : users) {
+			// En cas de doublon, le premier utilisateur est conservé, dans le
+			// groupe comme dans les statuts
+			UserStatus status = getStatus(user);
+			if (this.statuses.putIfAbsent(user.getPseudo(), status) == null) {
+				getGroup(status).append(user);
+			}
+		}
+		for (Group group : this.groups) {
+			group.sort();
+			group.updateRange(this.filter);
+		}
+		fireReplaced(oldSize);
+	}
+
+	/**
+	 * Permet d'ajouter un utilisateur à la liste, ou de le déplacer dans le
+	 * groupe de son statut actuel s'il y figure déjà.
+	 * 
+	 * @param user
+	 *            Utilisateur à ajouter ou mettre à jour.
+	 */
+	public void add (User user) {
+		remove(user.getPseudo());
+		UserStatus status = getStatus(user);
+		Group group = getGroup(status);
+		int before = group.getVisibleCount();
+		int position = group.insert(user);
+		this.statuses.put(user.getPseudo(), status);
+		group.updateRange(this.filter);
+		if (position >= group.low && position < group.high) {
+			int header = getHeaderRow(status);
+			if (before == 0) {
+				fireIntervalAdded(this, header, header + 1);
+			} else {
+				int row = header + 1 + position - group.low;
+				fireIntervalAdded(this, row, row);
+				fireContentsChanged(this, header, header);
+			}
+		}
+	}
+
+	/**
+	 * Permet de retirer un utilisateur de la liste.
+	 * 
+	 * @param pseudo
+	 *            Pseudonyme de l'utilisateur.
+	 * @return <code>true</code> si l'utilisateur a été retiré,
+	 *         <code>false</code> s'il n'était pas dans la liste.
+	 */
+	public boolean remove (String pseudo) {
+		UserStatus status = this.statuses.remove(pseudo);
+		if (status == null) {
+			return false;
+		}
+		Group group = getGroup(status);
+		int position = group.indexOf(pseudo);
+		if (position < 0) {
+			return false;
+		}
+		int header = getHeaderRow(status);
+		int before = group.getVisibleCount();
+		int row = header + 1 + position - group.low;
+		boolean visible = position >= group.low && position < group.high;
+		group.delete(position);
+		group.updateRange(this.filter);
+		if (visible) {
+			if (before == 1) {
+				fireIntervalRemoved(this, header, header + 1);
+			} else {
+				fireIntervalRemoved(this, row, row);
+				fireContentsChanged(this, header, header);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Permet de restreindre la liste aux utilisateurs dont le pseudonyme
+	 * commence par le préfixe spécifié, sans tenir compte de la casse.
+	 * 
+	 * @param prefix
+	 *            Préfixe recherché, une chaîne vide affiche tous les
+	 *            utilisateurs.
+	 */
+	public void setFilter (String prefix) {
+		String key = prefix == null ? "" : toKey(prefix);
+		if (!key.equals(this.filter)) {
+			int oldSize = getSize();
+			this.filter = key;
+			for (Group group : this.groups) {
+				group.updateRange(key);
+			}
+			fireReplaced(oldSize);
+		}
+	}
+
+	public String getFilter () {
+		return this.filter;
+	}
+
+	/**
+	 * Renvoie le nombre d'utilisateurs du groupe spécifié correspondant au
+	 * filtre courant.
+	 * 
+	 * @param status
+	 *            Statut du groupe.
+	 * @return Nombre d'utilisateurs affichés dans le groupe.
+	 */
+	public int getVisibleCount (UserStatus status) {
+		return getGroup(status).getVisibleCount();
+	}
+
+	/**
+	 * Renvoie le nombre total d'utilisateurs de la liste, sans tenir compte du
+	 * filtre.
+	 * 
+	 * @return Nombre d'utilisateurs.
+	 */
+	public int getUserCount () {
+		return this.statuses.size();
+	}
+
+	/**
+	 * Permet de notifier le remplacement de tout le contenu de la liste.
+	 * 
+	 * @param oldSize
+	 *            Nombre de lignes avant le remplacement.
+	 */
+	private void fireReplaced (int oldSize) {
+		if (oldSize > 0) {
+			fireIntervalRemoved(this, 0, oldSize - 1);
+		}
+		int size = getSize();
+		if (size > 0) {
+			fireIntervalAdded(this, 0, size - 1);
+		}
+	}
+
+	/**
+	 * Renvoie l'indice de la ligne d'en-tête du groupe spécifié, calculé à
+	 * partir des groupes qui le précèdent.
+	 * 
+	 * @param status
+	 *            Statut du groupe.
+	 * @return Indice de la ligne d'en-tête.
+	 */
+	private int getHeaderRow (UserStatus status) {
+		int row = 0;
+		for (UserStatus s : GROUP_ORDER) {
+			if (s == status) {
+				break;
+			}
+			row += getGroup(s).getRowCount();
+		}
+		return row;
+	}
+
+	private Group getGroup (UserStatus status) {
+		return this.groups[status.ordinal()];
+	}
+
+	private static UserStatus getStatus (User user) {
+		return user.getStatus() != null ? user.getStatus() : UserStatus.UNKNOWN;
+	}
+
+	private static String toKey (String pseudo) {
+		return pseudo.toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Compare deux utilisateurs selon leur clé de tri, puis selon leur
+	 * pseudonyme exact pour départager les pseudonymes ne différant que par la
+	 * casse.
+	 * 
+	 * @param key1
+	 *            Clé de tri du premier utilisateur.
+	 * @param pseudo1
+	 *            Pseudonyme du premier utilisateur.
+	 * @param key2
+	 *            Clé de tri du second utilisateur.
+	 * @param pseudo2
+	 *            Pseudonyme du second utilisateur.
+	 * @return Résultat de la comparaison.
+	 */
+	private static int compare (String key1, String pseudo1, String key2, String pseudo2) {
+		int result = key1.compareTo(key2);
+		return result != 0 ? result : pseudo1.compareTo(pseudo2);
+	}
+
+	/**
+	 * Groupe d'utilisateurs de même statut, triés par pseudonyme.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Group {
+
+		private String[] keys;
+		private User[] users;
+		private int size;
+		/** Début de la plage correspondant au filtre (inclus) */
+		private int low;
+		/** Fin de la plage correspondant au filtre (exclue) */
+		private int high;
+
+		private Group () {
+			this.keys = new String[16];
+			this.users = new User[16];
+			clear();
+		}
+
+		private void clear () {
+			Arrays.fill(this.keys, 0, this.size, null);
+			Arrays.fill(this.users, 0, this.size, null);
+			this.size = 0;
+			this.low = 0;
+			this.high = 0;
+		}
+
+		private int getVisibleCount () {
+			return this.high - this.low;
+		}
+
+		private int getRowCount () {
+			int visible = getVisibleCount();
+			return visible > 0 ? visible + 1 : 0;
+		}
+
+		/**
+		 * Permet d'ajouter un utilisateur en fin de groupe, sans tri. Le
+		 * groupe doit ensuite être trié via la méthode <code>sort()</code>.
+		 * 
+		 * @param user
+		 *            Utilisateur à ajouter.
+		 */
+		private void append (User user) {
+			ensureCapacity(this.size + 1);
+			this.users[this.size++] = user;
+		}
+
+		/**
+		 * Permet de trier le groupe après des ajouts en fin de groupe.
+		 */
+		private void sort () {
+			Arrays.sort(this.users, 0, this.size, PSEUDO_ORDER);
+			for (int i = 0; i < this.size; i++) {
+				this.keys[i] = toKey(this.users[i].getPseudo());
+			}
+		}
+
+		/**
+		 * Permet d'insérer un utilisateur à sa position dans le groupe.
+		 * 
+		 * @param user
+		 *            Utilisateur à insérer.
+		 * @return Position de l'utilisateur.
+		 */
+		private int insert (User user) {
+			String key = toKey(user.getPseudo());
+			int position = search(key, user.getPseudo());
+			if (position < 0) {
+				position = -position - 1;
+			}
+			ensureCapacity(this.size + 1);
+			System.arraycopy(this.keys, position, this.keys, position + 1, this.size - position);
+			System.arraycopy(this.users, position, this.users, position + 1, this.size - position);
+			this.keys[position] = key;
+			this.users[position] = user;
+			this.size++;
+			return position;
+		}
+
+		/**
+		 * Permet de supprimer l'utilisateur à la position spécifiée.
+		 * 
+		 * @param position
+		 *            Position de l'utilisateur dans le groupe.
+		 */
+		private void delete (int position) {
+			System.arraycopy(this.keys, position + 1, this.keys, position, this.size - position - 1);
+			System.arraycopy(this.users, position + 1, this.users, position, this.size - position - 1);
+			this.size--;
+			this.keys[this.size] = null;
+			this.users[this.size] = null;
+		}
+
+		/**
+		 * Renvoie la position de l'utilisateur spécifié, ou -1 s'il n'est pas
+		 * dans le groupe.
+		 * 
+		 * @param pseudo
+		 *            Pseudonyme de l'utilisateur.
+		 * @return Position de l'utilisateur.
+		 */
+		private int indexOf (String pseudo) {
+			int position = search(toKey(pseudo), pseudo);
+			return position >= 0 ? position : -1;
+		}
+
+		/**
+		 * Recherche dichotomique d'un utilisateur.
+		 * 
+		 * @param key
+		 *            Clé de tri de l'utilisateur.
+		 * @param pseudo
+		 *            Pseudonyme de l'utilisateur.
+		 * @return Position de l'utilisateur s'il est présent, sinon
+		 *         <code>(-(point d'insertion) - 1)</code>.
+		 */
+		private int search (String key, String pseudo) {
+			int lo = 0;
+			int hi = this.size - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				int cmp = compare(this.keys[mid], this.users[mid].getPseudo(), key, pseudo);
+				if (cmp < 0) {
+					lo = mid + 1;
+				} else if (cmp > 0) {
+					hi = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -(lo + 1);
+		}
+
+		/**
+		 * Permet de recalculer la plage des utilisateurs dont la clé commence
+		 * par le préfixe spécifié.
+		 * 
+		 * @param prefix
+		 *            Préfixe recherché, en minuscules.
+		 */
+		private void updateRange (String prefix) {
+			if (prefix.isEmpty()) {
+				this.low = 0;
+				this.high = this.size;
+				return;
+			}
+			// Premier utilisateur dont la clé est supérieure ou égale au préfixe
+			int lo = 0;
+			int hi = this.size;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (this.keys[mid].compareTo(prefix) < 0) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			this.low = lo;
+			// Premier utilisateur suivant dont la clé ne commence plus par le
+			// préfixe
+			hi = this.size;
+			while (lo < hi) {
+				int mid = (lo + hi) >>> 1;
+				if (this.keys[mid].startsWith(prefix)) {
+					lo = mid + 1;
+				} else {
+					hi = mid;
+				}
+			}
+			this.high = lo;
+		}
+
+		private void ensureCapacity (int capacity) {
+			if (capacity > this.users.length) {
+				int length = Math.max(capacity, this.users.length * 2);
+				this.keys = Arrays.copyOf(this.keys, length);
+				this.users = Arrays.copyOf(this.users, length);
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,347 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Segment de journal compressé. Les enregistrements d'un segment scellé sont
+ * regroupés en blocs compressés indépendamment (Deflate), suivis d'un index
+ * donnant pour chaque bloc son premier numéro de séquence et sa position. Une
+ * lecture ne décompresse ainsi que les blocs contenant les séquences
+ * demandées.
+ * <p>
+ * Format : blocs compressés, puis l'index (nombre de blocs, puis pour chaque
+ * bloc la première séquence sur 8 octets, la position sur 8 octets, la taille
+ * compressée et la taille décompressée sur 4 octets chacune), puis la fin de
+ * fichier (position de l'index et dernière séquence sur 8 octets chacune,
+ * signature sur 4 octets). Le contenu décompressé d'un bloc reprend le format
+ * des enregistrements de {@link RoomLog}.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class CompressedSegment {
+
+	public static final String EXTENSION = ".dz";
+
+	private static final int MAGIC = 0x425A445A;
+	private static final int TRAILER = 20;
+	private static final int INDEX_ENTRY = 24;
+	private static final int BLOCK_BYTES = 64 * 1024;
+
+	private final long[] firstSequences;
+	private final long[] offsets;
+	private final int[] compressedSizes;
+	private final int[] rawSizes;
+	private final long lastSequence;
+
+	/**
+	 * Permet d'instancier l'index d'un segment compressé.
+	 * 
+	 * @param count
+	 *            Nombre de blocs du segment.
+	 * @param lastSequence
+	 *            Dernier numéro de séquence du segment.
+	 */
+	private CompressedSegment (int count, long lastSequence) {
+		this.firstSequences = new long[count];
+		this.offsets = new long[count];
+		this.compressedSizes = new int[count];
+		this.rawSizes = new int[count];
+		this.lastSequence = lastSequence;
+	}
+
+	/**
+	 * Permet de compresser un segment scellé du journal. Le fichier produit
+	 * est synchronisé sur disque avant d'être renvoyé, et supprimé si la
+	 * compression échoue.
+	 * 
+	 * @param source
+	 *            Segment brut à compresser.
+	 * @param target
+	 *            Fichier compressé à écrire.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture ou de l'écriture,
+	 *             une exception est lancée.
+	 */
+	public static void compress (File source, File target) throws IOException {
+		ByteArrayOutputStream index = new ByteArrayOutputStream(1024);
+		DataOutputStream indexOut = new DataOutputStream(index);
+		ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_BYTES + 4096);
+		DataOutputStream blockOut = new DataOutputStream(block);
+		long size = source.length();
+		long position = 0;
+		long offset = 0;
+		long blockFirst = -1;
+		long lastSequence = -1;
+		int count = 0;
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(source)));
+				FileOutputStream fos = new FileOutputStream(target);
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+			while (position + 12 <= size) {
+				long sequence = in.readLong();
+				int length = in.readInt();
+				if (length < 0 || position + 12 + length > size) {
+					break;
+				}
+				byte[] frame = new byte[length];
+				in.readFully(frame);
+				position += 12 + length;
+				if (blockFirst < 0) {
+					blockFirst = sequence;
+				}
+				blockOut.writeLong(sequence);
+				blockOut.writeInt(length);
+				blockOut.write(frame);
+				lastSequence = sequence;
+				if (block.size() >= BLOCK_BYTES) {
+					offset += writeBlock(deflater, block, blockFirst, offset, out, indexOut);
+					blockFirst = -1;
+					count++;
+				}
+			}
+			if (block.size() > 0) {
+				offset += writeBlock(deflater, block, blockFirst, offset, out, indexOut);
+				count++;
+			}
+			out.writeInt(count);
+			index.writeTo(out);
+			out.writeLong(offset);
+			out.writeLong(lastSequence);
+			out.writeInt(MAGIC);
+			out.flush();
+			fos.getFD().sync();
+		} catch (IOException | RuntimeException e) {
+			// Aucun fichier compressé incomplet n'est laissé sur disque
+			if (!target.delete() && target.exists()) {
+				e.addSuppressed(new IOException("Cannot delete " + target.getAbsolutePath()));
+			}
+			throw e;
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * Permet de lire l'index d'un segment compressé.
+	 * 
+	 * @param file
+	 *            Segment compressé.
+	 * @return Index du segment.
+	 * @throws IOException
+	 *             Si le segment est illisible ou corrompu, une exception est
+	 *             lancée.
+	 */
+	public static CompressedSegment open (File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			long length = raf.length();
+			if (length < TRAILER + 4) {
+				throw new IOException("Truncated compressed segment : " + file.getAbsolutePath());
+			}
+			raf.seek(length - TRAILER);
+			long indexOffset = raf.readLong();
+			long lastSequence = raf.readLong();
+			if (raf.readInt() != MAGIC || indexOffset < 0 || indexOffset > length - TRAILER - 4) {
+				throw new IOException("Invalid compressed segment : " + file.getAbsolutePath());
+			}
+			raf.seek(indexOffset);
+			int count = raf.readInt();
+			if (count < 0 || indexOffset + 4 + (long) count * INDEX_ENTRY != length - TRAILER) {
+				throw new IOException("Invalid compressed segment index : " + file.getAbsolutePath());
+			}
+			byte[] entries = new byte[count * INDEX_ENTRY];
+			raf.readFully(entries);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(entries));
+			CompressedSegment segment = new CompressedSegment(count, lastSequence);
+			for (int i = 0; i < count; i++) {
+				segment.firstSequences[i] = in.readLong();
+				segment.offsets[i] = in.readLong();
+				segment.compressedSizes[i] = in.readInt();
+				segment.rawSizes[i] = in.readInt();
+			}
+			return segment;
+		}
+	}
+
+	/**
+	 * Permet de lire les enregistrements d'un segment compressé. Seuls les
+	 * blocs à partir de celui contenant la séquence demandée sont
+	 * décompressés.
+	 * 
+	 * @param file
+	 *            Segment compressé.
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames au total.
+	 * @param result
+	 *            Liste dans laquelle ajouter les trames lues.
+	 * @throws IOException
+	 *             Si le segment est illisible ou corrompu, une exception est
+	 *             lancée.
+	 */
+	public static void read (File file, long fromSequence, int maxFrames, List<byte[]> result) throws IOException {
+		CompressedSegment segment = open(file);
+		if (segment.lastSequence < fromSequence) {
+			return;
+		}
+		Inflater inflater = new Inflater();
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			for (int i = segment.findBlock(fromSequence); i < segment.offsets.length
+					&& result.size() < maxFrames; i++) {
+				byte[] compressed = new byte[segment.compressedSizes[i]];
+				raf.seek(segment.offsets[i]);
+				raf.readFully(compressed);
+				byte[] raw = new byte[segment.rawSizes[i]];
+				inflater.reset();
+				inflater.setInput(compressed);
+				try {
+					int n = 0;
+					while (n < raw.length) {
+						int read = inflater.inflate(raw, n, raw.length - n);
+						if (read == 0 && (inflater.finished() || inflater.needsInput())) {
+							break;
+						}
+						n += read;
+					}
+					if (n != raw.length) {
+						throw new IOException("Truncated block " + i + " in " + file.getAbsolutePath());
+					}
+				} catch (DataFormatException e) {
+					throw new IOException("Corrupted block " + i + " in " + file.getAbsolutePath(), e);
+				}
+				DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+				try {
+					while (result.size() < maxFrames && in.available() > 0) {
+						long sequence = in.readLong();
+						int length = in.readInt();
+						if (sequence >= fromSequence) {
+							byte[] frame = new byte[length];
+							in.readFully(frame);
+							result.add(frame);
+						} else {
+							RoomLog.skipFully(in, length);
+						}
+					}
+				} catch (EOFException e) {
+					throw new IOException("Corrupted block " + i + " in " + file.getAbsolutePath(), e);
+				}
+			}
+		} finally {
+			inflater.end();
+		}
+	}
+
+	public long getLastSequence () {
+		return this.lastSequence;
+	}
+
+	public int getBlockCount () {
+		return this.offsets.length;
+	}
+
+	/**
+	 * Renvoie l'indice du dernier bloc dont la première séquence est
+	 * inférieure ou égale à la séquence spécifiée.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence recherché.
+	 * @return Indice du bloc à lire en premier.
+	 */
+	private int findBlock (long sequence) {
+		int low = 0;
+		int high = this.firstSequences.length - 1;
+		int found = 0;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (this.firstSequences[mid] <= sequence) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Permet de compresser et d'écrire un bloc, puis d'ajouter son entrée à
+	 * l'index.
+	 * 
+	 * @param deflater
+	 *            Compresseur réutilisé d'un bloc à l'autre.
+	 * @param block
+	 *            Contenu brut du bloc, vidé après compression.
+	 * @param firstSequence
+	 *            Premier numéro de séquence du bloc.
+	 * @param offset
+	 *            Position du bloc dans le segment compressé.
+	 * @param out
+	 *            Flux de sortie du segment compressé.
+	 * @param index
+	 *            Flux de sortie de l'index.
+	 * @return Taille compressée du bloc en octets.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'écriture, une exception est
+	 *             lancée.
+	 */
+	private static int writeBlock (Deflater deflater, ByteArrayOutputStream block, long firstSequence, long offset,
+			DataOutputStream out, DataOutputStream index) throws IOException {
+		byte[] raw = block.toByteArray();
+		block.reset();
+		deflater.reset();
+		deflater.setInput(raw);
+		deflater.finish();
+		byte[] buffer = new byte[8192];
+		int written = 0;
+		while (!deflater.finished()) {
+			int n = deflater.deflate(buffer);
+			out.write(buffer, 0, n);
+			written += n;
+		}
+		index.writeLong(firstSequence);
+		index.writeLong(offset);
+		index.writeInt(written);
+		index.writeInt(raw.length);
+		return written;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tampon circulaire des dernières trames d'un salon, borné en nombre d'octets
+ * et non en nombre de messages. Les trames sont conservées sous leur forme
+ * encodée afin de pouvoir être renvoyées telles quelles sur la socket, sans
+ * aucun décodage. Lorsque le budget est dépassé, les trames les plus anciennes
+ * sont évincées.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class FrameRing {
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private final long maxBytes;
+
+	private byte[][] frames;
+	private long[] sequences;
+	private int head;
+	private int size;
+	private long bytes;
+
+	/**
+	 * Permet d'instancier un tampon circulaire vide.
+	 * 
+	 * @param maxBytes
+	 *            Nombre maximum d'octets de trames conservés.
+	 */
+	public FrameRing (long maxBytes) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("Ring budget must be positive : " + maxBytes);
+		}
+		this.maxBytes = maxBytes;
+		this.frames = new byte[INITIAL_CAPACITY][];
+		this.sequences = new long[INITIAL_CAPACITY];
+		this.head = 0;
+		this.size = 0;
+		this.bytes = 0;
+	}
+
+	/**
+	 * Permet d'ajouter une trame en fin de tampon. Les numéros de séquence
+	 * doivent être strictement croissants.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence de la trame.
+	 * @param frame
+	 *            Trame encodée.
+	 */
+	public synchronized void append (long sequence, byte[] frame) {
+		if (this.size > 0 && sequence <= this.sequences[index(this.size - 1)]) {
+			throw new IllegalArgumentException("Sequence must be increasing : " + sequence);
+		}
+		// Une trame plus grande que le budget n'est jamais conservée
+		if (frame.length > this.maxBytes) {
+			clear();
+			return;
+		}
+		if (this.size == this.frames.length) {
+			grow();
+		}
+		int tail = index(this.size);
+		this.frames[tail] = frame;
+		this.sequences[tail] = sequence;
+		this.size++;
+		this.bytes += frame.length;
+		// Eviction des trames les plus anciennes
+		while (this.bytes > this.maxBytes) {
+			this.bytes -= this.frames[this.head].length;
+			this.frames[this.head] = null;
+			this.head = (this.head + 1) % this.frames.length;
+			this.size--;
+		}
+	}
+
+	/**
+	 * Renvoie les dernières trames du tampon, de la plus ancienne à la plus
+	 * récente.
+	 * 
+	 * @param maxFrames
+	 *            Nombre maximum de trames souhaitées.
+	 * @return Liste des dernières trames.
+	 */
+	public synchronized List<byte[]> tail (int maxFrames) {
+		int count = Math.min(maxFrames, this.size);
+		List<byte[]> result = new ArrayList<>(count);
+		for (int i = this.size - count; i < this.size; i++) {
+			result.add(this.frames[index(i)]);
+		}
+		return result;
+	}
+
+	/**
+	 * Renvoie les trames dont le numéro de séquence est supérieur ou égal à
+	 * celui spécifié, de la plus ancienne à la plus récente.
+	 * 
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames souhaitées.
+	 * @return Liste des trames trouvées dans le tampon.
+	 */
+	public synchronized List<byte[]> range (long fromSequence, int maxFrames) {
+		int first = search(fromSequence);
+		int count = Math.min(maxFrames, this.size - first);
+		List<byte[]> result = new ArrayList<>(Math.max(count, 0));
+		for (int i = first; i < first + count; i++) {
+			result.add(this.frames[index(i)]);
+		}
+		return result;
+	}
+
+	/**
+	 * Permet de vider le tampon.
+	 */
+	public synchronized void clear () {
+		for (int i = 0; i < this.size; i++) {
+			this.frames[index(i)] = null;
+		}
+		this.head = 0;
+		this.size = 0;
+		this.bytes = 0;
+	}
+
+	/**
+	 * Renvoie le numéro de séquence de la plus ancienne trame conservée.
+	 * 
+	 * @return Numéro de séquence de la plus ancienne trame, ou
+	 *         <code>-1</code> si le tampon est vide.
+	 */
+	public synchronized long getFirstSequence () {
+		return this.size > 0 ? this.sequences[this.head] : -1;
+	}
+
+	/**
+	 * Renvoie le numéro de séquence de la trame la plus récente.
+	 * 
+	 * @return Numéro de séquence de la trame la plus récente, ou
+	 *         <code>-1</code> si le tampon est vide.
+	 */
+	public synchronized long getLastSequence () {
+		return this.size > 0 ? this.sequences[index(this.size - 1)] : -1;
+	}
+
+	public synchronized int size () {
+		return this.size;
+	}
+
+	public synchronized long getBytes () {
+		return this.bytes;
+	}
+
+	public long getMaxBytes () {
+		return this.maxBytes;
+	}
+
+	/**
+	 * Renvoie la position logique de la première trame dont le numéro de
+	 * séquence est supérieur ou égal à celui spécifié (recherche
+	 * dichotomique).
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence recherché.
+	 * @return Position logique dans le tampon, ou la taille du tampon si
+	 *         aucune trame ne correspond.
+	 */
+	private int search (long sequence) {
+		int low = 0;
+		int high = this.size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (this.sequences[index(mid)] < sequence) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Convertit une position logique en index dans les tableaux circulaires.
+	 * 
+	 * @param position
+	 *            Position logique depuis la plus ancienne trame.
+	 * @return Index physique.
+	 */
+	private int index (int position) {
+		return (this.head + position) % this.frames.length;
+	}
+
+	/**
+	 * Permet de doubler la capacité des tableaux circulaires.
+	 */
+	private void grow () {
+		int capacity = this.frames.length * 2;
+		byte[][] newFrames = new byte[capacity][];
+		long[] newSequences = new long[capacity];
+		for (int i = 0; i < this.size; i++) {
+			newFrames[i] = this.frames[index(i)];
+			newSequences[i] = this.sequences[index(i)];
+		}
+		this.frames = newFrames;
+		this.sequences = newSequences;
+		this.head = 0;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.storage.MappedMessageStore;
+import net.awax.banzaiChat.storage.MemoryMessageStore;
+import net.awax.banzaiChat.storage.MessageStore;
+import net.awax.banzaiChat.storage.StorageSelector;
+
+/**
+ * Journal des messages du serveur. Chaque salon dispose de son propre
+ * {@link MessageStore}, dont le support est choisi salon par salon par un
+ * {@link StorageSelector} ; les supports sur disque sont placés dans un
+ * sous-répertoire dont le nom est l'identifiant du salon encodé.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MessageLog {
+
+	private final Logger logger;
+	private final File dir;
+	private final StorageSelector selector;
+	private final long segmentBytes;
+	private final int mappedBytes;
+	private final long memoryBytes;
+	private final ConcurrentHashMap<String, MessageStore> logs;
+
+	/**
+	 * Permet d'instancier le journal des messages.
+	 * 
+	 * @param dir
+	 *            Répertoire racine du journal.
+	 * @param selector
+	 *            Choix du support de stockage de chaque salon.
+	 * @param segmentBytes
+	 *            Taille maximale d'un segment de {@link RoomLog} en octets.
+	 * @param mappedBytes
+	 *            Capacité d'un segment de {@link MappedMessageStore} en
+	 *            octets.
+	 * @param memoryBytes
+	 *            Budget en octets d'un {@link MemoryMessageStore}.
+	 */
+	public MessageLog (File dir, StorageSelector selector, long segmentBytes, int mappedBytes, long memoryBytes) {
+		this.logger = Logger.getLogger(getClass());
+		this.dir = dir;
+		this.selector = selector;
+		this.segmentBytes = segmentBytes;
+		this.mappedBytes = mappedBytes;
+		this.memoryBytes = memoryBytes;
+		this.logs = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Renvoie le stockage du salon spécifié, en l'ouvrant si nécessaire.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Stockage des messages du salon.
+	 * @throws IOException
+	 *             Si le stockage ne peut être ouvert, une exception est lancée.
+	 */
+	public MessageStore getStore (String roomId) throws IOException {
+		MessageStore store = this.logs.get(roomId);
+		if (store == null) {
+			synchronized (this.logs) {
+				store = this.logs.get(roomId);
+				if (store == null) {
+					store = createStore(roomId);
+					this.logs.put(roomId, store);
+				}
+			}
+		}
+		return store;
+	}
+
+	/**
+	 * Permet d'ajouter une trame au journal d'un salon.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @param sequence
+	 *            Numéro de séquence de la trame.
+	 * @param frame
+	 *            Trame encodée.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'écriture, une exception est
+	 *             lancée.
+	 */
+	public void append (String roomId, long sequence, byte[] frame) throws IOException {
+		getStore(roomId).append(sequence, frame);
+	}
+
+	/**
+	 * Permet de relire les trames d'un salon à partir d'un numéro de séquence.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames souhaitées.
+	 * @return Trames lues, de la plus ancienne à la plus récente.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	public List<byte[]> read (String roomId, long fromSequence, int maxFrames) throws IOException {
+		return getStore(roomId).read(fromSequence, maxFrames);
+	}
+
+	/**
+	 * Renvoie les identifiants des salons présents sur disque. Les salons
+	 * stockés en mémoire n'y figurent pas.
+	 * 
+	 * @return Identifiants des salons journalisés.
+	 */
+	public List<String> listRooms () {
+		List<String> rooms = new ArrayList<>();
+		File[] files = this.dir.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					rooms.add(decode(file.getName()));
+				}
+			}
+		}
+		return rooms;
+	}
+
+	/**
+	 * Permet de forcer l'écriture sur disque de tous les stockages ouverts.
+	 * 
+	 * @throws IOException
+	 *             Si une erreur survient lors de la synchronisation, une
+	 *             exception est lancée.
+	 */
+	public void force () throws IOException {
+		for (MessageStore store : this.logs.values()) {
+			store.force();
+		}
+	}
+
+	/**
+	 * Permet de fermer tous les stockages ouverts.
+	 */
+	public void close () {
+		for (Map.Entry<String, MessageStore> entry : this.logs.entrySet()) {
+			try {
+				entry.getValue().close();
+			} catch (IOException e) {
+				this.logger.error("Cannot close storage of " + entry.getKey(), e);
+			}
+		}
+		this.logs.clear();
+	}
+
+	public File getDirectory () {
+		return this.dir;
+	}
+
+	/**
+	 * Permet de créer le stockage d'un salon selon le support qui lui est
+	 * attribué.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Nouveau stockage du salon.
+	 * @throws IOException
+	 *             Si le stockage ne peut être ouvert ou si l'identifiant du
+	 *             salon ne désigne pas un sous-répertoire du journal, une
+	 *             exception est lancée.
+	 */
+	private MessageStore createStore (String roomId) throws IOException {
+		File roomDir = getRoomDir(roomId);
+		switch (this.selector.getStorageType(roomId)) {
+			case MEMORY:
+				return new MemoryMessageStore(this.memoryBytes);
+			case MAPPED:
+				return new MappedMessageStore(roomDir, this.mappedBytes);
+			case LOG:
+			default:
+				return new RoomLog(roomDir, this.segmentBytes);
+		}
+	}
+
+	/**
+	 * Renvoie le répertoire d'un salon. Les identifiants dont l'encodage ne
+	 * désigne pas un sous-répertoire du journal (vide, <code>.</code> ou
+	 * <code>..</code>) sont refusés, l'identifiant pouvant provenir d'un pair
+	 * distant.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Répertoire du salon.
+	 * @throws IOException
+	 *             Si l'identifiant est refusé ou si le répertoire ne peut être
+	 *             résolu, une exception est lancée.
+	 */
+	private File getRoomDir (String roomId) throws IOException {
+		String name = encode(roomId);
+		if (name.isEmpty() || ".".equals(name) || "..".equals(name)) {
+			throw new IOException("Invalid room id : \"" + roomId + "\"");
+		}
+		File roomDir = new File(this.dir, name);
+		File root = this.dir.getCanonicalFile();
+		if (!root.equals(roomDir.getCanonicalFile().getParentFile())) {
+			throw new IOException("Room directory is outside of the log directory : " + roomId);
+		}
+		return roomDir;
+	}
+
+	/**
+	 * Encode un identifiant de salon en nom de répertoire.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Nom de répertoire.
+	 */
+	private static String encode (String roomId) {
+		try {
+			return URLEncoder.encode(roomId, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Décode un nom de répertoire en identifiant de salon.
+	 * 
+	 * @param name
+	 *            Nom de répertoire.
+	 * @return Identifiant du salon.
+	 */
+	private static String decode (String name) {
+		try {
+			return URLDecoder.decode(name, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
\ No newline at end of file
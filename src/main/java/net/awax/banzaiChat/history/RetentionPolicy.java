@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+/**
+ * Politique de rétention du journal d'un salon. Une valeur nulle ou négative
+ * désactive la limite correspondante.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class RetentionPolicy {
+
+	private final long maxAgeMillis;
+	private final long maxBytes;
+
+	/**
+	 * Permet d'instancier une politique de rétention.
+	 * 
+	 * @param maxAgeMillis
+	 *            Age maximum d'un segment en millisecondes.
+	 * @param maxBytes
+	 *            Taille maximale du journal en octets.
+	 */
+	public RetentionPolicy (long maxAgeMillis, long maxBytes) {
+		this.maxAgeMillis = maxAgeMillis;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Indique si un segment dont la dernière modification date de l'instant
+	 * spécifié a expiré.
+	 * 
+	 * @param lastModified
+	 *            Date de dernière modification du segment en millisecondes.
+	 * @param now
+	 *            Date courante en millisecondes.
+	 * @return <code>true</code> si le segment a expiré.
+	 */
+	public boolean isExpired (long lastModified, long now) {
+		return this.maxAgeMillis > 0 && lastModified < now - this.maxAgeMillis;
+	}
+
+	/**
+	 * Indique si la taille spécifiée dépasse le maximum autorisé.
+	 * 
+	 * @param bytes
+	 *            Taille du journal en octets.
+	 * @return <code>true</code> si la taille dépasse le maximum.
+	 */
+	public boolean isOversized (long bytes) {
+		return this.maxBytes > 0 && bytes > this.maxBytes;
+	}
+
+	public long getMaxAgeMillis () {
+		return this.maxAgeMillis;
+	}
+
+	public long getMaxBytes () {
+		return this.maxBytes;
+	}
+
+	@Override
+	public String toString () {
+		return "RetentionPolicy [maxAgeMillis=" + this.maxAgeMillis + ", maxBytes=" + this.maxBytes + "]";
+	}
+}
\ No newline at end of file
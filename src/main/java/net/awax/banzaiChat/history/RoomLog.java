@@ -0,0 +1,552 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.storage.MessageStore;
+
+/**
+ * Journal des messages d'un salon, écrit en ajout seul et découpé en
+ * segments. Chaque segment est nommé d'après le numéro de séquence de son
+ * premier message, ce qui permet de retrouver directement le segment contenant
+ * une séquence donnée.
+ * <p>
+ * Format d'un enregistrement : numéro de séquence (8 octets), taille de la
+ * trame (4 octets), puis la trame encodée.
+ * <p>
+ * Les segments scellés peuvent être supprimés selon une politique de
+ * rétention ou recompressés en {@link CompressedSegment}, le segment actif
+ * restant toujours au format brut.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class RoomLog implements MessageStore {
+
+	public static final String SEGMENT_EXTENSION = ".log";
+
+	private static final int RECORD_HEADER = 12;
+
+	private final Logger logger;
+	private final File dir;
+	private final long segmentBytes;
+	private final TreeMap<Long, File> segments;
+
+	private FileChannel active;
+	private long activeSize;
+	private long lastSequence;
+
+	/**
+	 * Permet d'ouvrir le journal d'un salon. Le dernier segment est relu afin
+	 * de retrouver le dernier numéro de séquence écrit ; un éventuel
+	 * enregistrement incomplet en fin de segment (arrêt brutal) est tronqué.
+	 * Si un segment existe à la fois au format brut et compressé (arrêt
+	 * pendant une compression), seule la version compressée est conservée.
+	 * 
+	 * @param dir
+	 *            Répertoire du journal.
+	 * @param segmentBytes
+	 *            Taille à partir de laquelle un nouveau segment est créé.
+	 * @throws IOException
+	 *             Si le répertoire ne peut être créé ou lu, une exception est
+	 *             lancée.
+	 */
+	public RoomLog (File dir, long segmentBytes) throws IOException {
+		this.logger = Logger.getLogger(getClass());
+		this.dir = dir;
+		this.segmentBytes = segmentBytes;
+		this.segments = new TreeMap<>();
+		this.active = null;
+		this.activeSize = 0;
+		this.lastSequence = 0;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create log directory : " + dir.getAbsolutePath());
+		}
+		File[] files = dir.listFiles(new FilenameFilter() {
+
+			@Override
+			public boolean accept (File d, String name) {
+				return name.endsWith(SEGMENT_EXTENSION) || name.endsWith(CompressedSegment.EXTENSION);
+			}
+		});
+		for (File file : files) {
+			String name = file.getName();
+			try {
+				Long first = Long.parseLong(name.substring(0, name.lastIndexOf('.')));
+				File other = this.segments.put(first, file);
+				if (other != null) {
+					// Le segment compressé est complet puisqu'il est renommé
+					// en fin de compression
+					File raw = isCompressed(file) ? other : file;
+					this.segments.put(first, isCompressed(file) ? file : other);
+					if (!raw.delete()) {
+						this.logger.warn("Cannot delete compressed segment source : " + raw.getAbsolutePath());
+					}
+				}
+			} catch (NumberFormatException e) {
+				this.logger.warn("Ignoring unexpected file in log directory : " + file.getAbsolutePath());
+			}
+		}
+		if (!this.segments.isEmpty()) {
+			File last = this.segments.lastEntry().getValue();
+			if (isCompressed(last)) {
+				this.lastSequence = CompressedSegment.open(last).getLastSequence();
+			} else {
+				recoverLastSegment(last);
+			}
+		}
+	}
+
+	/**
+	 * Permet d'ajouter une trame en fin de journal.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence de la trame, strictement croissant.
+	 * @param frame
+	 *            Trame encodée.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'écriture, une exception est
+	 *             lancée.
+	 */
+	@Override
+	public synchronized void append (long sequence, byte[] frame) throws IOException {
+		if (sequence <= this.lastSequence) {
+			throw new IllegalArgumentException("Sequence must be increasing : " + sequence);
+		}
+		if (this.active == null || this.activeSize >= this.segmentBytes) {
+			roll(sequence);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + frame.length);
+		buffer.putLong(sequence).putInt(frame.length).put(frame).flip();
+		while (buffer.hasRemaining()) {
+			this.active.write(buffer);
+		}
+		this.activeSize += RECORD_HEADER + frame.length;
+		this.lastSequence = sequence;
+	}
+
+	/**
+	 * Permet de relire les trames du journal à partir d'un numéro de séquence.
+	 * La lecture part directement du segment contenant la séquence demandée.
+	 * 
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames souhaitées.
+	 * @return Trames lues, de la plus ancienne à la plus récente.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	@Override
+	public List<byte[]> read (long fromSequence, int maxFrames) throws IOException {
+		// Copie de l'état sous verrou, la lecture se fait ensuite sans bloquer
+		// les écritures
+		List<Long> keys = new ArrayList<>();
+		List<File> files = new ArrayList<>();
+		File activeFile;
+		long limit;
+		synchronized (this) {
+			Long first = this.segments.floorKey(fromSequence);
+			Map<Long, File> tail = first != null ? this.segments.tailMap(first, true) : this.segments;
+			keys.addAll(tail.keySet());
+			files.addAll(tail.values());
+			activeFile = this.active != null ? this.segments.lastEntry().getValue() : null;
+			limit = this.activeSize;
+		}
+		List<byte[]> result = new ArrayList<>();
+		for (int i = 0; i < files.size() && result.size() < maxFrames; i++) {
+			File file = files.get(i);
+			try {
+				readFile(file, activeFile, limit, fromSequence, maxFrames, result);
+			} catch (FileNotFoundException e) {
+				// Segment compressé ou supprimé depuis la copie de l'état
+				File current;
+				synchronized (this) {
+					current = this.segments.get(keys.get(i));
+				}
+				if (current != null && !current.equals(file)) {
+					readFile(current, activeFile, limit, fromSequence, maxFrames, result);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Permet de sceller le segment actif s'il n'a pas été modifié depuis la
+	 * durée spécifiée, afin qu'il puisse être compressé ou supprimé. Le
+	 * prochain message ouvrira un nouveau segment.
+	 * 
+	 * @param idleMillis
+	 *            Durée d'inactivité en millisecondes.
+	 * @param now
+	 *            Date courante en millisecondes.
+	 * @return <code>true</code> si le segment actif a été scellé.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la fermeture, une exception
+	 *             est lancée.
+	 */
+	public synchronized boolean sealIfIdle (long idleMillis, long now) throws IOException {
+		if (this.active != null && this.activeSize > 0
+				&& this.segments.lastEntry().getValue().lastModified() < now - idleMillis) {
+			this.active.force(false);
+			close();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Permet d'appliquer une politique de rétention : les segments scellés les
+	 * plus anciens sont supprimés tant qu'ils ont expiré ou que la taille totale
+	 * du journal dépasse le maximum autorisé. Le segment actif n'est jamais
+	 * supprimé.
+	 * 
+	 * @param policy
+	 *            Politique de rétention du salon.
+	 * @param now
+	 *            Date courante en millisecondes.
+	 * @return Nombre de segments supprimés.
+	 */
+	public synchronized int applyRetention (RetentionPolicy policy, long now) {
+		long total = 0;
+		for (File file : this.segments.values()) {
+			total += file.length();
+		}
+		int dropped = 0;
+		int sealed = this.active != null ? this.segments.size() - 1 : this.segments.size();
+		while (dropped < sealed) {
+			Map.Entry<Long, File> oldest = this.segments.firstEntry();
+			File file = oldest.getValue();
+			long length = file.length();
+			if (!policy.isExpired(file.lastModified(), now) && !policy.isOversized(total)) {
+				break;
+			}
+			if (!file.delete() && file.exists()) {
+				this.logger.warn("Cannot delete expired segment : " + file.getAbsolutePath());
+				break;
+			}
+			this.segments.remove(oldest.getKey());
+			total -= length;
+			dropped++;
+		}
+		return dropped;
+	}
+
+	/**
+	 * Permet de compresser les segments scellés non modifiés depuis la durée
+	 * spécifiée. La compression se fait hors verrou ; le segment compressé ne
+	 * remplace le segment brut qu'une fois écrit et synchronisé sur disque.
+	 * 
+	 * @param idleMillis
+	 *            Durée d'inactivité en millisecondes.
+	 * @param now
+	 *            Date courante en millisecondes.
+	 * @return Nombre de segments compressés.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la compression, une exception
+	 *             est lancée.
+	 */
+	public int compressSealed (long idleMillis, long now) throws IOException {
+		TreeSet<Long> candidates = new TreeSet<>();
+		synchronized (this) {
+			Long activeKey = this.active != null ? this.segments.lastKey() : null;
+			for (Map.Entry<Long, File> entry : this.segments.entrySet()) {
+				File file = entry.getValue();
+				if (!entry.getKey().equals(activeKey) && !isCompressed(file)
+						&& file.lastModified() < now - idleMillis) {
+					candidates.add(entry.getKey());
+				}
+			}
+		}
+		int compressed = 0;
+		for (Long key : candidates) {
+			File source;
+			synchronized (this) {
+				source = this.segments.get(key);
+			}
+			if (source == null || isCompressed(source)) {
+				continue;
+			}
+			String name = String.format("%020d", key) + CompressedSegment.EXTENSION;
+			File tmp = new File(this.dir, name + ".tmp");
+			File target = new File(this.dir, name);
+			long modified = source.lastModified();
+			CompressedSegment.compress(source, tmp);
+			if (!tmp.renameTo(target)) {
+				tmp.delete();
+				throw new IOException("Cannot rename compressed segment : " + tmp.getAbsolutePath());
+			}
+			// La date de modification sert au calcul de l'expiration
+			target.setLastModified(modified);
+			synchronized (this) {
+				if (source.equals(this.segments.get(key))) {
+					this.segments.put(key, target);
+					source.delete();
+					compressed++;
+				} else {
+					// Segment supprimé pendant la compression
+					target.delete();
+				}
+			}
+		}
+		return compressed;
+	}
+
+	/**
+	 * Renvoie la taille totale des segments du journal sur disque.
+	 * 
+	 * @return Taille du journal en octets.
+	 */
+	public synchronized long getDiskBytes () {
+		long total = 0;
+		for (File file : this.segments.values()) {
+			total += file.length();
+		}
+		return total;
+	}
+
+	public synchronized int getSegmentCount () {
+		return this.segments.size();
+	}
+
+	/**
+	 * Permet de forcer l'écriture sur disque du segment actif.
+	 * 
+	 * @throws IOException
+	 *             Si une erreur survient lors de la synchronisation, une
+	 *             exception est lancée.
+	 */
+	@Override
+	public synchronized void force () throws IOException {
+		if (this.active != null) {
+			this.active.force(false);
+		}
+	}
+
+	/**
+	 * Permet de fermer le segment actif.
+	 * 
+	 * @throws IOException
+	 *             Si une erreur survient lors de la fermeture, une exception
+	 *             est lancée.
+	 */
+	@Override
+	public synchronized void close () throws IOException {
+		if (this.active != null) {
+			this.active.close();
+			this.active = null;
+		}
+	}
+
+	@Override
+	public synchronized long getLastSequence () {
+		return this.lastSequence;
+	}
+
+	public File getDirectory () {
+		return this.dir;
+	}
+
+	/**
+	 * Permet de créer un nouveau segment commençant au numéro de séquence
+	 * spécifié.
+	 * 
+	 * @param firstSequence
+	 *            Numéro de séquence du premier message du segment.
+	 * @throws IOException
+	 *             Si le segment ne peut être créé, une exception est lancée.
+	 */
+	@SuppressWarnings("resource")
+	private void roll (long firstSequence) throws IOException {
+		close();
+		File file = new File(this.dir, String.format("%020d", firstSequence) + SEGMENT_EXTENSION);
+		this.active = new RandomAccessFile(file, "rw").getChannel();
+		this.active.position(this.active.size());
+		this.activeSize = this.active.size();
+		this.segments.put(firstSequence, file);
+	}
+
+	/**
+	 * Permet de relire le dernier segment à l'ouverture du journal pour
+	 * retrouver la dernière séquence et tronquer un enregistrement incomplet.
+	 * Le segment devient le segment actif.
+	 * 
+	 * @param file
+	 *            Dernier segment du journal.
+	 * @throws IOException
+	 *             Si le segment ne peut être lu, une exception est lancée.
+	 */
+	@SuppressWarnings("resource")
+	private void recoverLastSegment (File file) throws IOException {
+		long valid = 0;
+		long size = file.length();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (valid + RECORD_HEADER <= size) {
+				long sequence = in.readLong();
+				int length = in.readInt();
+				if (length < 0 || valid + RECORD_HEADER + length > size) {
+					break;
+				}
+				skipFully(in, length);
+				valid += RECORD_HEADER + length;
+				this.lastSequence = sequence;
+			}
+		}
+		this.active = new RandomAccessFile(file, "rw").getChannel();
+		if (valid < this.active.size()) {
+			this.logger.warn("Truncating incomplete record at " + valid + " in " + file.getAbsolutePath());
+			this.active.truncate(valid);
+		}
+		this.active.position(valid);
+		this.activeSize = valid;
+	}
+
+	/**
+	 * Permet de lire les enregistrements d'un segment, brut ou compressé.
+	 * 
+	 * @param file
+	 *            Segment à lire.
+	 * @param activeFile
+	 *            Segment actif au moment de la lecture, ou <code>null</code>.
+	 * @param limit
+	 *            Taille connue du segment actif.
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames au total.
+	 * @param result
+	 *            Liste dans laquelle ajouter les trames lues.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	private void readFile (File file, File activeFile, long limit, long fromSequence, int maxFrames,
+			List<byte[]> result) throws IOException {
+		if (isCompressed(file)) {
+			CompressedSegment.read(file, fromSequence, maxFrames, result);
+		} else {
+			// Le segment actif n'est lu que jusqu'à la taille connue
+			readSegment(file, file.equals(activeFile) ? limit : file.length(), fromSequence, maxFrames, result);
+		}
+	}
+
+	/**
+	 * Permet de lire les enregistrements d'un segment brut.
+	 * 
+	 * @param file
+	 *            Segment à lire.
+	 * @param limit
+	 *            Nombre maximum d'octets à lire dans le segment.
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames au total.
+	 * @param result
+	 *            Liste dans laquelle ajouter les trames lues.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	private void readSegment (File file, long limit, long fromSequence, int maxFrames, List<byte[]> result)
+			throws IOException {
+		long position = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			while (result.size() < maxFrames && position + RECORD_HEADER <= limit) {
+				long sequence = in.readLong();
+				int length = in.readInt();
+				if (position + RECORD_HEADER + length > limit) {
+					break;
+				}
+				if (sequence >= fromSequence) {
+					byte[] frame = new byte[length];
+					in.readFully(frame);
+					result.add(frame);
+				} else {
+					skipFully(in, length);
+				}
+				position += RECORD_HEADER + length;
+			}
+		} catch (EOFException e) {
+			// Fin du segment
+		}
+	}
+
+	/**
+	 * Indique si le fichier spécifié est un segment compressé.
+	 * 
+	 * @param file
+	 *            Segment du journal.
+	 * @return <code>true</code> si le segment est compressé.
+	 */
+	private static boolean isCompressed (File file) {
+		return file.getName().endsWith(CompressedSegment.EXTENSION);
+	}
+
+	/**
+	 * Permet de sauter le nombre d'octets spécifié dans un flux.
+	 * 
+	 * @param in
+	 *            Flux d'entrée.
+	 * @param length
+	 *            Nombre d'octets à sauter.
+	 * @throws IOException
+	 *             Si la fin du flux est atteinte avant, une exception est
+	 *             lancée.
+	 */
+	static void skipFully (InputStream in, long length) throws IOException {
+		long remaining = length;
+		while (remaining > 0) {
+			long skipped = in.skip(remaining);
+			if (skipped <= 0) {
+				if (in.read() < 0) {
+					throw new EOFException();
+				}
+				skipped = 1;
+			}
+			remaining -= skipped;
+		}
+	}
+}
\ No newline at end of file
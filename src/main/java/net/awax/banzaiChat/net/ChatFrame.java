@@ -0,0 +1,603 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import net.awax.banzaiChat.util.TraceStage;
+import net.awax.banzaiChat.util.UserStatus;
+import net.awax.banzaiChat.util.Utf8Text;
+
+/**
+ * Représente une trame applicative échangée entre les clients et le serveur de
+ * chat. Les trames sont transportées telles quelles dans le format préfixé par
+ * la taille de {@link TcpClient} et {@link TcpServerClient}, le premier octet
+ * indiquant le type de la trame.
+ * <p>
+ * Format d'un message : type (1 octet), identifiant du chat (UTF modifié),
+ * numéro de séquence (8 octets), timestamp (8 octets), pseudonyme (UTF
+ * modifié), puis le texte encodé en UTF-8 jusqu'à la fin de la trame. Dans un
+ * message envoyé par un client, le numéro de séquence porte l'identifiant
+ * local du message, que le serveur renvoie dans l'accusé de réception
+ * accompagné du numéro de séquence attribué. Une demande d'entrée dans un
+ * chat peut porter le numéro de séquence du dernier message connu du client.
+ * Un changement de statut porte le nouveau statut de l'utilisateur dans le
+ * chat (1 octet) ; envoyé par le serveur aux membres du chat, il porte en
+ * outre le pseudonyme du membre concerné (UTF modifié) et annonce aussi
+ * l'entrée d'un membre. Le départ d'un membre est annoncé par une trame
+ * portant son pseudonyme (UTF modifié).
+ * <p>
+ * Une demande d'historique porte le premier numéro de séquence souhaité (8
+ * octets) et le nombre de messages souhaités (4 octets). Le serveur y répond
+ * par les messages de la page, suivis d'une trame de fin de page au même
+ * format portant le numéro de séquence du dernier message du chat et le
+ * nombre de messages envoyés.
+ * <p>
+ * Une trame peut être enveloppée pour être suivie ({@link #TYPE_TRACE}) :
+ * type (1 octet), identifiant de suivi (8 octets), puis la trame d'origine.
+ * Les étapes mesurées hors du serveur lui sont remontées par des rapports de
+ * suivi : type (1 octet), identifiant du chat (UTF modifié), identifiant de
+ * suivi (8 octets), étape (1 octet) et durée en nanosecondes (8 octets).
+ * <p>
+ * Le texte d'un message décodé n'est pas converti lors du décodage : la
+ * trame est conservée et le texte n'est décodé qu'à la demande.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ChatFrame {
+
+	public static final byte TYPE_MESSAGE = 1;
+	public static final byte TYPE_JOIN = 2;
+	public static final byte TYPE_HISTORY = 3;
+	public static final byte TYPE_SNAPSHOT = 4;
+	public static final byte TYPE_ACK = 5;
+	public static final byte TYPE_STATUS = 6;
+	public static final byte TYPE_TRACE = 7;
+	public static final byte TYPE_TRACE_REPORT = 8;
+	public static final byte TYPE_LEAVE = 9;
+
+	/** Taille de l'en-tête d'une trame suivie */
+	private static final int TRACE_HEADER_LENGTH = 9;
+
+	public static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final byte type;
+	private final String chatId;
+	private final long sequence;
+	private final long timestamp;
+	private final String pseudo;
+	private final byte[] frame;
+	private final int textOffset;
+	private final int count;
+
+	/**
+	 * Permet d'instancier une trame décodée.
+	 * 
+	 * @param type
+	 *            Type de la trame.
+	 * @param chatId
+	 *            Identifiant du chat concerné.
+	 * @param sequence
+	 *            Numéro de séquence du message dans le chat.
+	 * @param timestamp
+	 *            Date d'émission du message en millisecondes.
+	 * @param pseudo
+	 *            Pseudonyme de l'émetteur.
+	 * @param frame
+	 *            Trame encodée d'un message, ou <code>null</code>.
+	 * @param textOffset
+	 *            Position du texte du message dans la trame.
+	 * @param count
+	 *            Nombre de messages demandés (trame d'historique).
+	 */
+	private ChatFrame (byte type, String chatId, long sequence, long timestamp, String pseudo, byte[] frame,
+			int textOffset, int count) {
+		this.type = type;
+		this.chatId = chatId;
+		this.sequence = sequence;
+		this.timestamp = timestamp;
+		this.pseudo = pseudo;
+		this.frame = frame;
+		this.textOffset = textOffset;
+		this.count = count;
+	}
+
+	/**
+	 * Permet d'encoder un message de chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param sequence
+	 *            Numéro de séquence attribué par le serveur, ou identifiant
+	 *            local du message côté client (0 si aucun accusé de réception
+	 *            n'est attendu).
+	 * @param timestamp
+	 *            Date d'émission du message en millisecondes.
+	 * @param pseudo
+	 *            Pseudonyme de l'émetteur.
+	 * @param text
+	 *            Texte du message.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeMessage (String chatId, long sequence, long timestamp, String pseudo, String text) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + text.length());
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_MESSAGE);
+			out.writeUTF(chatId);
+			out.writeLong(sequence);
+			out.writeLong(timestamp);
+			out.writeUTF(pseudo);
+			out.write(text.getBytes(UTF8));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode message", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'encoder l'accusé de réception d'un message envoyé par un
+	 * client.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param clientId
+	 *            Identifiant local du message attribué par le client.
+	 * @param sequence
+	 *            Numéro de séquence attribué au message par le serveur.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeAck (String chatId, long clientId, long sequence) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_ACK);
+			out.writeUTF(chatId);
+			out.writeLong(clientId);
+			out.writeLong(sequence);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode acknowledgement", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'encoder une demande d'entrée dans un chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat à rejoindre.
+	 * @param pseudo
+	 *            Pseudonyme de l'utilisateur.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeJoin (String chatId, String pseudo) {
+		return encodeJoin(chatId, pseudo, 0);
+	}
+
+	/**
+	 * Permet d'encoder une demande d'entrée dans un chat en indiquant le
+	 * dernier message déjà connu du client : le snapshot renvoyé par le
+	 * serveur ne contient alors que les messages plus récents.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat à rejoindre.
+	 * @param pseudo
+	 *            Pseudonyme de l'utilisateur.
+	 * @param lastSequence
+	 *            Numéro de séquence du dernier message connu, ou
+	 *            <code>0</code> si aucun.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeJoin (String chatId, String pseudo, long lastSequence) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_JOIN);
+			out.writeUTF(chatId);
+			out.writeUTF(pseudo);
+			if (lastSequence > 0) {
+				out.writeLong(lastSequence);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode join request", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'encoder une demande d'historique.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param count
+	 *            Nombre maximum de messages souhaités.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeHistory (String chatId, long fromSequence, int count) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_HISTORY);
+			out.writeUTF(chatId);
+			out.writeLong(fromSequence);
+			out.writeInt(count);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode history request", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'encoder la fin d'une page d'historique envoyée par le serveur.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param lastSequence
+	 *            Numéro de séquence du dernier message du chat.
+	 * @param count
+	 *            Nombre de messages envoyés dans la page.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeHistoryEnd (String chatId, long lastSequence, int count) {
+		return encodeHistory(chatId, lastSequence, count);
+	}
+
+	/**
+	 * Permet d'encoder un changement de statut de l'utilisateur dans un chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param status
+	 *            Nouveau statut de l'utilisateur.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeStatus (String chatId, UserStatus status) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_STATUS);
+			out.writeUTF(chatId);
+			out.writeByte(status.ordinal());
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode status", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'encoder l'annonce, par le serveur, de l'entrée d'un membre dans
+	 * un chat ou de son changement de statut.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param pseudo
+	 *            Pseudonyme du membre.
+	 * @param status
+	 *            Statut du membre.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeStatus (String chatId, String pseudo, UserStatus status) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_STATUS);
+			out.writeUTF(chatId);
+			out.writeByte(status.ordinal());
+			out.writeUTF(pseudo);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode status", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'encoder l'annonce, par le serveur, du départ d'un membre d'un
+	 * chat.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param pseudo
+	 *            Pseudonyme du membre.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeLeave (String chatId, String pseudo) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_LEAVE);
+			out.writeUTF(chatId);
+			out.writeUTF(pseudo);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode leave", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet d'envelopper une trame dans une trame suivie.
+	 * 
+	 * @param traceId
+	 *            Identifiant de suivi, non nul.
+	 * @param frame
+	 *            Trame encodée à suivre.
+	 * @return Trame suivie.
+	 */
+	public static byte[] encodeTrace (long traceId, byte[] frame) {
+		ByteBuffer buffer = ByteBuffer.allocate(TRACE_HEADER_LENGTH + frame.length);
+		buffer.put(TYPE_TRACE);
+		buffer.putLong(traceId);
+		buffer.put(frame);
+		return buffer.array();
+	}
+
+	/**
+	 * Permet d'encoder le rapport d'une étape mesurée sur un message suivi.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat du message.
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @param stage
+	 *            Etape mesurée.
+	 * @param nanos
+	 *            Durée de l'étape en nanosecondes.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encodeTraceReport (String chatId, long traceId, TraceStage stage, long nanos) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(TYPE_TRACE_REPORT);
+			out.writeUTF(chatId);
+			out.writeLong(traceId);
+			out.writeByte(stage.ordinal());
+			out.writeLong(nanos);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode trace report", e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Permet de décoder une trame reçue.
+	 * 
+	 * @param frame
+	 *            Trame à décoder.
+	 * @return Trame décodée.
+	 * @throws IOException
+	 *             Si la trame est tronquée ou de type inconnu, une exception
+	 *             est lancée.
+	 */
+	public static ChatFrame decode (byte[] frame) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+		byte type = in.readByte();
+		String chatId = in.readUTF();
+		switch (type) {
+			case TYPE_MESSAGE:
+				long sequence = in.readLong();
+				long timestamp = in.readLong();
+				String pseudo = in.readUTF();
+				// Le texte reste encodé jusqu'à sa lecture
+				return new ChatFrame(type, chatId, sequence, timestamp, pseudo, frame, frame.length - in.available(), 0);
+			case TYPE_JOIN:
+				String member = in.readUTF();
+				// Dernier message connu du client, optionnel
+				long known = in.available() >= 8 ? in.readLong() : 0;
+				return new ChatFrame(type, chatId, known, 0, member, null, 0, 0);
+			case TYPE_HISTORY:
+				long from = in.readLong();
+				return new ChatFrame(type, chatId, from, 0, null, null, 0, in.readInt());
+			case TYPE_ACK:
+				long clientId = in.readLong();
+				return new ChatFrame(type, chatId, in.readLong(), clientId, null, null, 0, 0);
+			case TYPE_STATUS:
+				byte status = in.readByte();
+				// Membre concerné, présent dans les annonces du serveur
+				String subject = in.available() > 0 ? in.readUTF() : null;
+				return new ChatFrame(type, chatId, 0, 0, subject, null, 0, status);
+			case TYPE_LEAVE:
+				return new ChatFrame(type, chatId, 0, 0, in.readUTF(), null, 0, 0);
+			case TYPE_TRACE_REPORT:
+				long traceId = in.readLong();
+				byte stage = in.readByte();
+				return new ChatFrame(type, chatId, traceId, in.readLong(), null, null, 0, stage);
+			default:
+				throw new IOException("Unknown frame type : " + type);
+		}
+	}
+
+	/**
+	 * Renvoie le type de la trame spécifiée sans la décoder.
+	 * 
+	 * @param frame
+	 *            Trame encodée.
+	 * @return Type de la trame, ou <code>-1</code> si la trame est vide.
+	 */
+	public static byte peekType (byte[] frame) {
+		return frame.length > 0 ? frame[0] : -1;
+	}
+
+	/**
+	 * Renvoie l'identifiant de suivi d'une trame suivie.
+	 * 
+	 * @param frame
+	 *            Trame encodée.
+	 * @return Identifiant de suivi, ou <code>0</code> si la trame n'est pas
+	 *         suivie.
+	 */
+	public static long peekTraceId (byte[] frame) {
+		if (peekType(frame) != TYPE_TRACE || frame.length < TRACE_HEADER_LENGTH) {
+			return 0;
+		}
+		return ByteBuffer.wrap(frame, 1, 8).getLong();
+	}
+
+	/**
+	 * Renvoie la trame d'origine d'une trame suivie.
+	 * 
+	 * @param frame
+	 *            Trame suivie.
+	 * @return Copie de la trame d'origine.
+	 */
+	public static byte[] unwrapTrace (byte[] frame) {
+		return Arrays.copyOfRange(frame, TRACE_HEADER_LENGTH, frame.length);
+	}
+
+	/**
+	 * Renvoie le numéro de séquence d'une trame de message sans la décoder
+	 * entièrement.
+	 * 
+	 * @param frame
+	 *            Trame de message encodée.
+	 * @return Numéro de séquence du message.
+	 */
+	public static long peekSequence (byte[] frame) {
+		int offset = 3 + (((frame[1] & 0xFF) << 8) | (frame[2] & 0xFF));
+		return ByteBuffer.wrap(frame, offset, 8).getLong();
+	}
+
+	public byte getType () {
+		return this.type;
+	}
+
+	public String getChatId () {
+		return this.chatId;
+	}
+
+	public long getSequence () {
+		return this.sequence;
+	}
+
+	public long getTimestamp () {
+		return this.timestamp;
+	}
+
+	/**
+	 * Renvoie l'identifiant local du message acquitté (trame d'accusé de
+	 * réception).
+	 * 
+	 * @return Identifiant local du message attribué par le client.
+	 */
+	public long getClientId () {
+		return this.type == TYPE_ACK ? this.timestamp : 0;
+	}
+
+	/**
+	 * Renvoie l'identifiant de suivi porté par un rapport de suivi.
+	 * 
+	 * @return Identifiant de suivi, ou <code>0</code> si la trame n'est pas un
+	 *         rapport de suivi.
+	 */
+	public long getTraceId () {
+		return this.type == TYPE_TRACE_REPORT ? this.sequence : 0;
+	}
+
+	/**
+	 * Renvoie l'étape mesurée par un rapport de suivi.
+	 * 
+	 * @return Etape mesurée, ou <code>null</code> si la trame n'est pas un
+	 *         rapport de suivi ou si l'étape est inconnue.
+	 */
+	public TraceStage getTraceStage () {
+		TraceStage[] stages = TraceStage.values();
+		if (this.type != TYPE_TRACE_REPORT || this.count < 0 || this.count >= stages.length) {
+			return null;
+		}
+		return stages[this.count];
+	}
+
+	/**
+	 * Renvoie la durée portée par un rapport de suivi.
+	 * 
+	 * @return Durée de l'étape en nanosecondes, ou <code>0</code> si la trame
+	 *         n'est pas un rapport de suivi.
+	 */
+	public long getDuration () {
+		return this.type == TYPE_TRACE_REPORT ? this.timestamp : 0;
+	}
+
+	public String getPseudo () {
+		return this.pseudo;
+	}
+
+	/**
+	 * Renvoie le texte du message, décodé à chaque appel.
+	 * 
+	 * @return Texte du message, ou <code>null</code> si la trame n'est pas un
+	 *         message.
+	 */
+	public String getText () {
+		return this.frame != null ? new String(this.frame, this.textOffset, this.frame.length - this.textOffset, UTF8)
+				: null;
+	}
+
+	/**
+	 * Renvoie le texte du message sans le décoder.
+	 * 
+	 * @return Texte encodé du message, ou <code>null</code> si la trame n'est
+	 *         pas un message.
+	 */
+	public Utf8Text getRawText () {
+		return this.frame != null ? new Utf8Text(this.frame, this.textOffset, this.frame.length - this.textOffset) : null;
+	}
+
+	/**
+	 * Renvoie la trame encodée d'un message, telle que reçue.
+	 * 
+	 * @return Trame encodée, ou <code>null</code> si la trame n'est pas un
+	 *         message.
+	 */
+	public byte[] getFrame () {
+		return this.frame;
+	}
+
+	public int getCount () {
+		return this.count;
+	}
+
+	/**
+	 * Renvoie le statut porté par une trame de changement de statut.
+	 * 
+	 * @return Nouveau statut, ou <code>null</code> si la trame n'est pas un
+	 *         changement de statut.
+	 */
+	public UserStatus getStatus () {
+		if (this.type != TYPE_STATUS) {
+			return null;
+		}
+		UserStatus[] statuses = UserStatus.values();
+		return this.count >= 0 && this.count < statuses.length ? statuses[this.count] : UserStatus.UNKNOWN;
+	}
+}
\ No newline at end of file
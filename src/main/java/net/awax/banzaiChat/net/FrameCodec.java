@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Découpage des trames échangées sur une liaison TCP. Chaque trame est
+ * précédée de sa taille en octets sur 4 octets (format BigEndian), ce qui
+ * permet au receveur de reconstituer une trame découpée en plusieurs segments.
+ * Ce découpage est commun au client et au serveur, et peut être utilisé sur
+ * n'importe quel flux (par exemple en mémoire pour les mesures de
+ * performances).
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public final class FrameCodec {
+
+	/** Taille de l'en-tête précédant chaque trame */
+	public static final int HEADER_LENGTH = 4;
+	/** Taille maximale d'une trame, au-delà de laquelle elle est refusée */
+	public static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+	private FrameCodec () {
+	}
+
+	/**
+	 * Permet d'écrire une trame précédée de sa taille. Le flux n'est pas vidé,
+	 * ce qui reste à la charge de l'appelant. Une trame dépassant la taille
+	 * maximale n'est pas écrite, le receveur la refuserait.
+	 * 
+	 * @param out
+	 *            Flux de sortie.
+	 * @param frame
+	 *            Trame à écrire.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'écriture ou si la trame est
+	 *             trop grande, une exception est lancée.
+	 */
+	public static void write (DataOutputStream out, byte[] frame) throws IOException {
+		if (frame.length > MAX_FRAME_LENGTH) {
+			throw new IOException("Frame too large : " + frame.length + " bytes");
+		}
+		out.writeInt(frame.length);
+		out.write(frame);
+	}
+
+	/**
+	 * Permet de lire une trame complète. On lit en premier lieu sa taille sur 4
+	 * octets, puis on boucle jusqu'à avoir reçu le nombre d'octets annoncé. La
+	 * taille annoncée est vérifiée avant toute allocation, afin qu'un en-tête
+	 * invalide ou malveillant ne puisse réserver plus de
+	 * {@link #MAX_FRAME_LENGTH} octets.
+	 * 
+	 * @param in
+	 *            Flux d'entrée.
+	 * @return Trame lue, ou <code>null</code> si le flux est terminé ou si la
+	 *         taille lue est invalide.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	public static byte[] read (InputStream in) throws IOException {
+		byte[] header = new byte[HEADER_LENGTH];
+		if (!readFully(in, header)) {
+			return null;
+		}
+		int size = (header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16 | (header[2] & 0xFF) << 8 | header[3] & 0xFF;
+		if (size < 0 || size > MAX_FRAME_LENGTH) {
+			return null;
+		}
+		byte[] frame = new byte[size];
+		if (!readFully(in, frame)) {
+			return null;
+		}
+		return frame;
+	}
+
+	/**
+	 * Permet de remplir un tableau depuis le flux, en bouclant tant que les
+	 * données arrivent segmentées.
+	 * 
+	 * @param in
+	 *            Flux d'entrée.
+	 * @param buffer
+	 *            Tableau à remplir.
+	 * @return <code>false</code> si le flux s'est terminé avant la fin.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	private static boolean readFully (InputStream in, byte[] buffer) throws IOException {
+		int count = 0;
+		while (count < buffer.length) {
+			int read = in.read(buffer, count, buffer.length - count);
+			if (read <= 0) {
+				return false;
+			}
+			count += read;
+		}
+		return true;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import net.awax.banzaiChat.util.User;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Trame envoyée par le serveur en réponse à l'entrée dans un salon. Elle
+ * regroupe en un seul bloc compressé la liste des membres du salon et ses
+ * derniers messages, afin que le client puisse initialiser le chat en une
+ * seule lecture.
+ * <p>
+ * Format : type (1 octet), identifiant du chat (UTF modifié), taille du bloc
+ * décompressé (4 octets), puis le bloc compressé (Deflate) contenant le nombre
+ * de membres, chaque membre (pseudonyme UTF modifié, statut sur 1 octet), le
+ * nombre de messages et chaque trame de message préfixée par sa taille.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class JoinSnapshot {
+
+	private final String chatId;
+	private final List<User> users;
+	private final List<ChatFrame> messages;
+
+	/**
+	 * Permet d'instancier un snapshot décodé.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param users
+	 *            Membres du chat.
+	 * @param messages
+	 *            Derniers messages du chat, du plus ancien au plus récent.
+	 */
+	private JoinSnapshot (String chatId, List<User> users, List<ChatFrame> messages) {
+		this.chatId = chatId;
+		this.users = users;
+		this.messages = messages;
+	}
+
+	/**
+	 * Permet d'encoder un snapshot d'entrée dans un salon. Les trames de
+	 * messages sont recopiées telles quelles avant compression.
+	 * 
+	 * @param chatId
+	 *            Identifiant du chat.
+	 * @param users
+	 *            Membres du chat.
+	 * @param frames
+	 *            Trames encodées des derniers messages.
+	 * @return Trame encodée.
+	 */
+	public static byte[] encode (String chatId, List<User> users, List<byte[]> frames) {
+		try {
+			// Bloc à compresser
+			ByteArrayOutputStream raw = new ByteArrayOutputStream(256);
+			DataOutputStream block = new DataOutputStream(raw);
+			block.writeInt(users.size());
+			for (User user : users) {
+				block.writeUTF(user.getPseudo());
+				block.writeByte(user.getStatus().ordinal());
+			}
+			block.writeInt(frames.size());
+			for (byte[] frame : frames) {
+				block.writeInt(frame.length);
+				block.write(frame);
+			}
+			byte[] data = raw.toByteArray();
+
+			// En-tête puis bloc compressé
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + data.length / 2);
+			DataOutputStream out = new DataOutputStream(bytes);
+			out.writeByte(ChatFrame.TYPE_SNAPSHOT);
+			out.writeUTF(chatId);
+			out.writeInt(data.length);
+			Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+			try {
+				deflater.setInput(data);
+				deflater.finish();
+				byte[] buffer = new byte[4096];
+				while (!deflater.finished()) {
+					int n = deflater.deflate(buffer);
+					out.write(buffer, 0, n);
+				}
+			} finally {
+				deflater.end();
+			}
+			return bytes.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode join snapshot", e);
+		}
+	}
+
+	/**
+	 * Permet de décoder une trame de snapshot. Les tailles et nombres
+	 * d'éléments lus sont vérifiés avant toute allocation, afin qu'une trame
+	 * corrompue ou malveillante ne puisse réserver plus de mémoire que ce
+	 * qu'elle contient réellement.
+	 * 
+	 * @param frame
+	 *            Trame reçue.
+	 * @return Snapshot décodé.
+	 * @throws IOException
+	 *             Si la trame est tronquée ou corrompue, une exception est
+	 *             lancée.
+	 */
+	public static JoinSnapshot decode (byte[] frame) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+		if (in.readByte() != ChatFrame.TYPE_SNAPSHOT) {
+			throw new IOException("Not a snapshot frame");
+		}
+		String chatId = in.readUTF();
+		int rawLength = in.readInt();
+		if (rawLength < 0 || rawLength > FrameCodec.MAX_FRAME_LENGTH) {
+			throw new IOException("Invalid snapshot block length : " + rawLength);
+		}
+		int offset = frame.length - in.available();
+
+		// Décompression du bloc
+		byte[] data = new byte[rawLength];
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(frame, offset, frame.length - offset);
+			int n = 0;
+			while (n < rawLength && !inflater.finished()) {
+				int read = inflater.inflate(data, n, rawLength - n);
+				if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				n += read;
+			}
+			if (n != rawLength) {
+				throw new IOException("Truncated snapshot block (" + n + "/" + rawLength + ")");
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupted snapshot block", e);
+		} finally {
+			inflater.end();
+		}
+
+		// Lecture du bloc
+		DataInputStream block = new DataInputStream(new ByteArrayInputStream(data));
+		UserStatus[] statuses = UserStatus.values();
+		// Un membre occupe au moins 3 octets (taille du pseudonyme et statut)
+		int userCount = checkCount(block.readInt(), 3, block.available());
+		List<User> users = new ArrayList<>(userCount);
+		for (int i = 0; i < userCount; i++) {
+			String pseudo = block.readUTF();
+			int status = block.readByte();
+			users.add(new User(pseudo, status >= 0 && status < statuses.length ? statuses[status] : UserStatus.UNKNOWN));
+		}
+		// Une trame occupe au moins les 4 octets de sa taille
+		int frameCount = checkCount(block.readInt(), 4, block.available());
+		List<ChatFrame> messages = new ArrayList<>(frameCount);
+		for (int i = 0; i < frameCount; i++) {
+			byte[] message = new byte[checkCount(block.readInt(), 1, block.available())];
+			block.readFully(message);
+			messages.add(ChatFrame.decode(message));
+		}
+		return new JoinSnapshot(chatId, users, messages);
+	}
+
+	/**
+	 * Permet de vérifier qu'un nombre d'éléments lu depuis le bloc est
+	 * compatible avec le nombre d'octets restant à lire.
+	 * 
+	 * @param count
+	 *            Nombre d'éléments lu.
+	 * @param minBytes
+	 *            Taille minimale d'un élément en octets.
+	 * @param available
+	 *            Nombre d'octets restant dans le bloc.
+	 * @return Nombre d'éléments vérifié.
+	 * @throws IOException
+	 *             Si le nombre est négatif ou dépasse ce que le bloc peut
+	 *             contenir, une exception est lancée.
+	 */
+	private static int checkCount (int count, int minBytes, int available) throws IOException {
+		if (count < 0 || count > available / minBytes) {
+			throw new IOException("Invalid snapshot count : " + count + " (" + available + " bytes left)");
+		}
+		return count;
+	}
+
+	public String getChatId () {
+		return this.chatId;
+	}
+
+	public List<User> getUsers () {
+		return this.users;
+	}
+
+	public List<ChatFrame> getMessages () {
+		return this.messages;
+	}
+}
\ No newline at end of file
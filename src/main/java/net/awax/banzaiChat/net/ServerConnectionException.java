@@ -1,66 +1,66 @@
-/*******************************************************************************
- * MIT License
- *
- * Copyright (c) 2017 Julien Le Sauce
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- *******************************************************************************/
-package net.awax.banzaiChat.net;
-
-/**
- * Exception pouvant être lancée par la partie serveur lorsqu'une erreur est
- * détectée.
- * 
- * @author AwaX
- * @created 2 mai 2014
- * @version 1.0
- */
-public class ServerConnectionException extends Exception {
-
-	private static final long serialVersionUID = -6981637894983287089L;
-
-	/**
-	 * Permet d'instancier une exception par défaut.
-	 */
-	public ServerConnectionException () {
-		super();
-	}
-
-	/**
-	 * Permet d'instancier une exception avec un message associé.
-	 * 
-	 * @param messsage
-	 *            Message associé à l'exception.
-	 */
-	public ServerConnectionException (String messsage) {
-		super(messsage);
-	}
-
-	/**
-	 * Permet d'instancier une exception avec un message et une cause associés.
-	 * 
-	 * @param message
-	 *            Message associé à l'exception.
-	 * @param cause
-	 *            Cause de l'exception.
-	 */
-	public ServerConnectionException (String message, Throwable cause) {
-		super(message, cause);
-	}
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net;
+
+/**
+ * Exception pouvant être lancée par la partie serveur lorsqu'une erreur est
+ * détectée.
+ * 
+ * @author AwaX
+ * @created 2 mai 2014
+ * @version 1.0
+ */
+public class ServerConnectionException extends Exception {
+
+	private static final long serialVersionUID = -6981637894983287089L;
+
+	/**
+	 * Permet d'instancier une exception par défaut.
+	 */
+	public ServerConnectionException () {
+		super();
+	}
+
+	/**
+	 * Permet d'instancier une exception avec un message associé.
+	 * 
+	 * @param messsage
+	 *            Message associé à l'exception.
+	 */
+	public ServerConnectionException (String messsage) {
+		super(messsage);
+	}
+
+	/**
+	 * Permet d'instancier une exception avec un message et une cause associés.
+	 * 
+	 * @param message
+	 *            Message associé à l'exception.
+	 * @param cause
+	 *            Cause de l'exception.
+	 */
+	public ServerConnectionException (String message, Throwable cause) {
+		super(message, cause);
+	}
 }
\ No newline at end of file
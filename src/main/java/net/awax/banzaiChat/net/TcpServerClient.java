@@ -1,173 +1,399 @@
-/*******************************************************************************
- * MIT License
- *
- * Copyright (c) 2017 Julien Le Sauce
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- *******************************************************************************/
-package net.awax.banzaiChat.net;
-
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.Socket;
-import java.net.SocketTimeoutException;
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-
-import org.apache.log4j.Logger;
-
-/**
- * Thread client instancié par le serveur pour pouvoir interagir avec le client
- * distant.
- * 
- * @author AwaX
- * @created 1 mai 2014
- * @version 1.0
- */
-public class TcpServerClient implements Runnable {
-
-	private static final int MAX_ERRORS = 10;
-
-	private final Logger logger;
-	private final Thread currentThread;
-	private final Socket socket;
-	private InputStream socketIn;
-	private int watchdog;
-
-	/**
-	 * Permet de créer un thread client.
-	 * 
-	 * @param clientSocket
-	 *            Socket client.
-	 */
-	public TcpServerClient (final Socket clientSocket) {
-		this.logger = Logger.getLogger(getClass());
-		this.socket = clientSocket;
-		try {
-			this.socketIn = clientSocket.getInputStream();
-		} catch (IOException e) {
-			this.logger.error("An error occurred while getting the socket input stream", e);
-		}
-		this.currentThread = new Thread(this);
-		this.currentThread.start();
-		this.watchdog = 0;
-	}
-
-	@Override
-	public void run () {
-		this.logger.info("Client thread from " + this.socket.getInetAddress() + "/" + this.socket.getLocalPort()
-				+ "is now running");
-		while (!this.currentThread.isInterrupted()) {
-			try {
-				byte[] msg = receive();
-				if (msg != null) {
-					// Notifications des abonnés
-					// ...
-					this.watchdog = 0;
-				} else {
-					this.logger.warn("Decoding error : message null");
-					this.watchdog++;
-				}
-			} catch (SocketTimeoutException e) {
-				this.logger.error("Timeout occurred on " + this.socket.getInetAddress() + "/" + this.socket.getPort(),
-						e);
-				this.watchdog++;
-			} catch (IOException e) {
-				this.logger.error("An error occurred on " + this.socket.getInetAddress() + "/" + this.socket.getPort(),
-						e);
-				this.watchdog++;
-			} catch (Exception e) {
-				this.logger.error("An error occurred on " + this.socket.getInetAddress() + "/" + this.socket.getPort(),
-						e);
-				this.watchdog++;
-			}
-			// S'il y a trop d'erreurs on coupe la liaison
-			if (this.watchdog > MAX_ERRORS) {
-				this.logger.error("Broken Link (Max error limit reached)");
-				try {
-					stop();
-				} catch (IOException e) {
-					this.logger.error("Cannot stop server client", e);
-				}
-			}
-		}
-		this.logger.info("Client thread finished");
-	}
-
-	/**
-	 * Permet de stopper le thread et de libérer la socket client.
-	 * 
-	 * @throws IOException
-	 *             Si une erreur survient lors de la fermeture de la socket
-	 *             client, une exception est lancée.
-	 */
-	public synchronized void stop () throws IOException {
-		// Si le thread existe
-		if (this.currentThread != null) {
-			this.currentThread.interrupt();
-			this.logger.info("Client thread stopped");
-		}
-		// Si un serveur a été instancié
-		if (this.socket != null) {
-			this.socket.close();
-			this.logger.info("Client socket closed");
-		}
-	}
-
-	/**
-	 * Permet de recevoir les messages TCP depuis le client distant. On s'attend
-	 * à recevoir en premier lieu la taille du message sur 4 octets (formattée
-	 * en BigEndian), puis on attend de lire la taille spécifiée avant de
-	 * remonter le message complet (utile lorsque le message est découpé en
-	 * plusieurs segments).
-	 * 
-	 * @return Tableau de bytes lu depuis la socket.
-	 * @throws IOException
-	 *             Si une erreur survient lors de la lecture de la socket, une
-	 *             exception est lancée.
-	 * @throws SocketTimeoutException
-	 *             Si le temps de timeout est atteint sur la socket avant de
-	 *             lire de nouveau des données, une exception est levée.
-	 */
-	public synchronized byte[] receive () throws IOException, SocketTimeoutException {
-		byte[] byteSize = new byte[4];
-
-		// Acquisition de la taille du message (4 octets obligatoires en début de message)
-		int cpt = 0;
-		cpt = this.socketIn.read(byteSize);
-		int size = ByteBuffer.wrap(byteSize).order(ByteOrder.BIG_ENDIAN).getInt();
-		if (cpt <= 0) {
-			this.logger.error("Invalid size");
-			return null;
-		}
-		// Création du buffer de message à partir de la taille lue
-		byte[] recvData = new byte[size];
-		// Tant que l'on n'a pas reçu toutes les données on boucle (cas où le message est segmenté)
-		cpt = 0;
-		while (cpt < size) {
-			int recvSize = this.socketIn.read(recvData, cpt, size - cpt);
-			if (recvSize <= 0) {
-				return null;
-			}
-			cpt += recvSize;
-		}
-		// On renvoie un seul buffer représentant le message complet
-		return recvData;
-	}
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.net.jfr.ConnectionErrorEvent;
+import net.awax.banzaiChat.net.jfr.FrameReceivedEvent;
+import net.awax.banzaiChat.server.metrics.ConnectionAccounting;
+import net.awax.banzaiChat.server.metrics.ServerMetrics;
+import net.awax.banzaiChat.server.metrics.TraceStats;
+import net.awax.banzaiChat.util.TraceStage;
+
+/**
+ * Thread client instancié par le serveur pour pouvoir interagir avec le client
+ * distant.
+ * <p>
+ * Les trames à envoyer sont déposées dans une file bornée, vidée par un thread
+ * d'écriture propre à la connexion : l'ordre des trames est celui de leur
+ * dépôt, et un thread de lecture ne bloque jamais sur la socket d'un autre
+ * client. Un client trop lent dont la file est pleine est déconnecté.
+ * 
+ * @author AwaX
+ * @created 1 mai 2014
+ * @version 1.0
+ */
+public class TcpServerClient implements Runnable {
+
+	private static final int MAX_ERRORS = 10;
+	/** Nombre maximum de trames en attente d'envoi vers un client */
+	public static final int MAX_PENDING_FRAMES = 4096;
+	private static final AtomicLong SESSIONS = new AtomicLong();
+
+	private final Logger logger;
+	private final long sessionId;
+	private final Thread currentThread;
+	private final Thread writerThread;
+	private final BlockingQueue<Outbound> outbox;
+	private final Socket socket;
+	private final List<ServerEthernetEvent> listeners;
+	private final ServerMetrics metrics;
+	private final ConnectionAccounting.Usage usage;
+	private InputStream socketIn;
+	private DataOutputStream socketOut;
+	private int watchdog;
+
+	/**
+	 * Permet de créer un thread client.
+	 * 
+	 * @param clientSocket
+	 *            Socket client.
+	 * @param listeners
+	 *            Abonnés aux notifications du client, partagés avec le serveur.
+	 * @param metrics
+	 *            Registre des mesures du serveur.
+	 */
+	public TcpServerClient (final Socket clientSocket, final List<ServerEthernetEvent> listeners,
+			final ServerMetrics metrics) {
+		this.logger = Logger.getLogger(getClass());
+		this.sessionId = SESSIONS.incrementAndGet();
+		this.socket = clientSocket;
+		this.listeners = listeners;
+		this.outbox = new ArrayBlockingQueue<>(MAX_PENDING_FRAMES);
+		this.metrics = metrics;
+		this.usage = metrics.getAccounting().open(this.sessionId,
+				clientSocket.getInetAddress().getHostAddress() + ":" + clientSocket.getPort());
+		try {
+			this.socketIn = clientSocket.getInputStream();
+			this.socketOut = new DataOutputStream(new BufferedOutputStream(clientSocket.getOutputStream()));
+		} catch (IOException e) {
+			this.logger.error("An error occurred while getting the socket streams", e);
+		}
+		this.watchdog = 0;
+		this.writerThread = new Thread(new Runnable() {
+
+			@Override
+			public void run () {
+				write();
+			}
+		}, "TcpServerClient-" + this.sessionId + "-writer");
+		this.writerThread.setDaemon(true);
+		this.writerThread.start();
+		this.currentThread = new Thread(this);
+		this.currentThread.start();
+	}
+
+	@Override
+	public void run () {
+		this.logger.info("Client thread from " + this.socket.getInetAddress() + "/" + this.socket.getLocalPort()
+				+ "is now running");
+		while (!this.currentThread.isInterrupted() && !this.socket.isClosed()) {
+			try {
+				byte[] msg = receive();
+				if (msg != null) {
+					this.metrics.onFrameReceived(msg.length);
+					FrameReceivedEvent event = new FrameReceivedEvent();
+					event.begin();
+					// Notifications des abonnés, dont le coût est attribué à la connexion
+					this.usage.begin();
+					try {
+						for (ServerEthernetEvent listener : this.listeners) {
+							listener.onReceive(this, msg);
+						}
+					} finally {
+						this.usage.end();
+					}
+					if (event.shouldCommit()) {
+						event.setSessionId(this.sessionId);
+						event.setRemotePort(this.socket.getPort());
+						event.setSize(msg.length);
+						event.commit();
+					}
+					this.watchdog = 0;
+				} else {
+					this.logger.warn("Decoding error : message null");
+					onReceiveError("Invalid frame size");
+				}
+			} catch (SocketTimeoutException e) {
+				this.logger.error("Timeout occurred on " + this.socket.getInetAddress() + "/" + this.socket.getPort(),
+						e);
+				onReceiveError(e.toString());
+			} catch (IOException e) {
+				this.logger.error("An error occurred on " + this.socket.getInetAddress() + "/" + this.socket.getPort(),
+						e);
+				onReceiveError(e.toString());
+			} catch (Exception e) {
+				this.logger.error("An error occurred on " + this.socket.getInetAddress() + "/" + this.socket.getPort(),
+						e);
+				onReceiveError(e.toString());
+			}
+			// S'il y a trop d'erreurs on coupe la liaison
+			if (this.watchdog > MAX_ERRORS) {
+				this.logger.error("Broken Link (Max error limit reached)");
+				this.metrics.onWatchdogTrip();
+				try {
+					stop();
+				} catch (IOException e) {
+					this.logger.error("Cannot stop server client", e);
+				}
+			}
+		}
+		for (ServerEthernetEvent listener : this.listeners) {
+			listener.onClose(this);
+		}
+		this.metrics.onConnectionClosed();
+		this.metrics.getAccounting().close(this.usage);
+		this.logger.info("Client thread finished");
+	}
+
+	/**
+	 * Permet de comptabiliser une erreur de réception auprès du chien de garde,
+	 * des mesures du serveur et de l'enregistreur JFR.
+	 * 
+	 * @param message
+	 *            Description de l'erreur.
+	 */
+	private void onReceiveError (String message) {
+		this.metrics.onReceiveError();
+		this.watchdog++;
+		ConnectionErrorEvent event = new ConnectionErrorEvent();
+		if (event.shouldCommit()) {
+			event.setSessionId(this.sessionId);
+			event.setRemotePort(this.socket.getPort());
+			event.setMessage(message);
+			event.setErrors(this.watchdog);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Permet de stopper le thread et de libérer la socket client.
+	 * 
+	 * @throws IOException
+	 *             Si une erreur survient lors de la fermeture de la socket
+	 *             client, une exception est lancée.
+	 */
+	public synchronized void stop () throws IOException {
+		// Si le thread existe
+		if (this.currentThread != null) {
+			this.currentThread.interrupt();
+			this.logger.info("Client thread stopped");
+		}
+		this.writerThread.interrupt();
+		// Si un serveur a été instancié
+		if (this.socket != null) {
+			this.socket.close();
+			this.logger.info("Client socket closed");
+		}
+	}
+
+	/**
+	 * Permet de déposer une trame dans la file d'envoi vers le client distant.
+	 * Cette méthode ne bloque jamais et peut être appelée depuis n'importe
+	 * quel thread ; les trames sont écrites dans l'ordre de leur dépôt.
+	 * 
+	 * @param frame
+	 *            Trame à envoyer.
+	 * @return <code>true</code> si la trame a été déposée, <code>false</code>
+	 *         si la connexion est fermée ou si le client ne suit pas.
+	 */
+	public boolean send (byte[] frame) {
+		return send(frame, null, 0);
+	}
+
+	/**
+	 * Permet de déposer une trame dans la file d'envoi vers le client distant
+	 * en mesurant, pour un message suivi, son attente dans la file puis son
+	 * écriture sur la socket. Si la file est pleine, le client est considéré
+	 * comme bloqué et la connexion est fermée.
+	 * 
+	 * @param frame
+	 *            Trame à envoyer.
+	 * @param traces
+	 *            Agrégation des messages suivis, ou <code>null</code> si la
+	 *            trame n'est pas suivie.
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @return <code>true</code> si la trame a été déposée, <code>false</code>
+	 *         si la connexion est fermée ou si le client ne suit pas.
+	 */
+	public boolean send (byte[] frame, TraceStats traces, long traceId) {
+		if (this.socket.isClosed()) {
+			return false;
+		}
+		this.metrics.onSendQueued();
+		if (this.outbox.offer(new Outbound(frame, traces, traceId))) {
+			if (this.socket.isClosed()) {
+				// Fermeture concurrente, le thread d'écriture a pu s'arrêter
+				discardPending();
+				return false;
+			}
+			return true;
+		}
+		this.metrics.onSendDone();
+		this.metrics.onSendError();
+		this.logger.warn("Send queue of " + this.socket.getInetAddress() + "/" + this.socket.getPort()
+				+ " is full, closing slow connection");
+		disconnect();
+		return false;
+	}
+
+	/**
+	 * Permet de fermer la connexion depuis un autre thread que celui de
+	 * lecture. Contrairement à {@link #stop()}, cette méthode ne prend pas le
+	 * verrou détenu par le thread de lecture pendant qu'il attend une trame :
+	 * la fermeture de la socket le débloque, et il se termine de lui-même.
+	 */
+	private void disconnect () {
+		this.writerThread.interrupt();
+		try {
+			this.socket.close();
+		} catch (IOException e) {
+			this.logger.error("Cannot close client socket", e);
+		}
+	}
+
+	/**
+	 * Boucle du thread d'écriture : les trames sont écrites dans l'ordre de la
+	 * file, et le flux n'est vidé que lorsque la file est vide afin de
+	 * regrouper les écritures. Une erreur d'écriture ferme la connexion.
+	 */
+	private void write () {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				Outbound outbound = this.outbox.take();
+				try {
+					long start = System.nanoTime();
+					FrameCodec.write(this.socketOut, outbound.frame);
+					if (this.outbox.isEmpty()) {
+						this.socketOut.flush();
+					}
+					long written = System.nanoTime();
+					this.metrics.onFrameSent(outbound.frame.length, written - start);
+					if (outbound.traces != null) {
+						outbound.traces.record(outbound.traceId, TraceStage.ENQUEUE, start - outbound.queued);
+						outbound.traces.record(outbound.traceId, TraceStage.WRITE, written - start);
+					}
+				} finally {
+					this.metrics.onSendDone();
+				}
+			}
+		} catch (InterruptedException e) {
+			// Arrêt de la connexion
+		} catch (IOException e) {
+			this.metrics.onSendError();
+			if (!this.socket.isClosed()) {
+				this.logger.error("Cannot write to " + this.socket.getInetAddress() + "/" + this.socket.getPort(), e);
+				disconnect();
+			}
+		} finally {
+			discardPending();
+		}
+	}
+
+	/**
+	 * Permet d'abandonner les trames restant dans la file d'envoi, qui ne
+	 * seront jamais écrites.
+	 */
+	private void discardPending () {
+		while (this.outbox.poll() != null) {
+			this.metrics.onSendDone();
+		}
+	}
+
+	/**
+	 * Permet de recevoir les messages TCP depuis le client distant. On s'attend
+	 * à recevoir en premier lieu la taille du message sur 4 octets (formattée
+	 * en BigEndian), puis on attend de lire la taille spécifiée avant de
+	 * remonter le message complet (utile lorsque le message est découpé en
+	 * plusieurs segments).
+	 * 
+	 * @return Tableau de bytes lu depuis la socket.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture de la socket, une
+	 *             exception est lancée.
+	 * @throws SocketTimeoutException
+	 *             Si le temps de timeout est atteint sur la socket avant de
+	 *             lire de nouveau des données, une exception est levée.
+	 */
+	public synchronized byte[] receive () throws IOException, SocketTimeoutException {
+		byte[] msg = FrameCodec.read(this.socketIn);
+		if (msg == null) {
+			this.logger.error("Invalid size");
+		}
+		return msg;
+	}
+
+	public long getSessionId () {
+		return this.sessionId;
+	}
+
+	public Socket getSocket () {
+		return this.socket;
+	}
+
+	/**
+	 * Trame en attente d'envoi.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Outbound {
+
+		private final byte[] frame;
+		private final TraceStats traces;
+		private final long traceId;
+		private final long queued;
+
+		/**
+		 * Permet d'instancier une trame en attente d'envoi.
+		 * 
+		 * @param frame
+		 *            Trame à envoyer.
+		 * @param traces
+		 *            Agrégation des messages suivis, ou <code>null</code>.
+		 * @param traceId
+		 *            Identifiant de suivi du message.
+		 */
+		private Outbound (byte[] frame, TraceStats traces, long traceId) {
+			this.frame = frame;
+			this.traces = traces;
+			this.traceId = traceId;
+			this.queued = System.nanoTime();
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evénement JFR émis par le serveur à l'acceptation d'une connexion client.
+ * Sa durée couvre la mise en place de la session, de la sortie de
+ * <code>accept()</code> au lancement du thread client.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+@Name("net.awax.banzaiChat.ConnectionAccepted")
+@Label("Connection Accepted")
+@Category({ "BanzaiChat", "Server" })
+@Description("Client connection accepted by the chat server")
+@StackTrace(false)
+public class ConnectionAcceptedEvent extends Event {
+
+	@Label("Session Id")
+	private long sessionId;
+
+	@Label("Remote Address")
+	private String remoteAddress;
+
+	@Label("Remote Port")
+	private int remotePort;
+
+	public void setSessionId (long sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	public void setRemoteAddress (String remoteAddress) {
+		this.remoteAddress = remoteAddress;
+	}
+
+	public void setRemotePort (int remotePort) {
+		this.remotePort = remotePort;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evénement JFR émis par le serveur pour chaque erreur de réception sur une
+ * connexion client. La pile d'appels est conservée pour localiser l'erreur.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+@Name("net.awax.banzaiChat.ConnectionError")
+@Label("Connection Error")
+@Category({ "BanzaiChat", "Server" })
+@Description("Receive error on a client connection")
+public class ConnectionErrorEvent extends Event {
+
+	@Label("Session Id")
+	private long sessionId;
+
+	@Label("Remote Port")
+	private int remotePort;
+
+	@Label("Message")
+	private String message;
+
+	@Label("Consecutive Errors")
+	@Description("Consecutive errors counted by the watchdog, including this one")
+	private int errors;
+
+	public void setSessionId (long sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	public void setRemotePort (int remotePort) {
+		this.remotePort = remotePort;
+	}
+
+	public void setMessage (String message) {
+		this.message = message;
+	}
+
+	public void setErrors (int errors) {
+		this.errors = errors;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.net.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Evénement JFR émis par le serveur pour chaque trame décodée. Sa durée
+ * couvre uniquement le décodage ; une trame invalide est signalée avec le
+ * type <code>0</code>.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+@Name("net.awax.banzaiChat.FrameDecoded")
+@Label("Frame Decoded")
+@Category({ "BanzaiChat", "Server" })
+@Description("Chat frame decoded by the server")
+@StackTrace(false)
+@Threshold("1 ms")
+public class FrameDecodedEvent extends Event {
+
+	@Label("Session Id")
+	private long sessionId;
+
+	@Label("Frame Size")
+	@DataAmount
+	private int size;
+
+	@Label("Frame Type")
+	private int frameType;
+
+	public void setSessionId (long sessionId) {
+		this.sessionId = sessionId;
+	}
+
+	public void setSize (int size) {
+		this.size = size;
+	}
+
+	public void setFrameType (int frameType) {
+		this.frameType = frameType;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,340 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.JoinSnapshot;
+import net.awax.banzaiChat.net.TcpServerClient;
+import net.awax.banzaiChat.server.history.RoomHistory;
+import net.awax.banzaiChat.server.metrics.TraceStats;
+import net.awax.banzaiChat.util.User;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Salon de discussion côté serveur : membres connectés, membres inscrits
+ * (conservés entre deux redémarrages), numérotation des messages et
+ * historique.
+ * <p>
+ * Les trames destinées aux membres sont déposées dans leur file d'envoi sous
+ * le verrou du salon, dans la même section critique que l'attribution du
+ * numéro de séquence : chaque membre reçoit ainsi les messages dans l'ordre
+ * de leur numérotation, sans qu'aucune écriture sur une socket n'ait lieu
+ * sous ce verrou. Les entrées, départs et changements de statut des membres
+ * sont annoncés aux autres membres de la même façon.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ChatRoom {
+
+	private final String id;
+	private final RoomHistory history;
+	private final TraceStats traces;
+	private final LinkedHashMap<TcpServerClient, User> members;
+	private final LinkedHashSet<String> subscribers;
+	private long lastSequence;
+
+	/**
+	 * Permet d'instancier un salon vide.
+	 * 
+	 * @param id
+	 *            Identifiant du salon.
+	 * @param history
+	 *            Historique des messages du salon.
+	 * @param traces
+	 *            Agrégation des messages suivis.
+	 */
+	public ChatRoom (String id, RoomHistory history, TraceStats traces) {
+		this.id = id;
+		this.history = history;
+		this.traces = traces;
+		this.members = new LinkedHashMap<>();
+		this.subscribers = new LinkedHashSet<>();
+		this.lastSequence = 0;
+	}
+
+	/**
+	 * Permet de publier un message dans le salon. Le message reçoit le numéro
+	 * de séquence suivant, est ajouté à l'historique puis déposé dans la file
+	 * d'envoi de chaque membre. Il est signé du pseudonyme sous lequel
+	 * l'émetteur a rejoint le salon, et l'accusé de réception éventuel est
+	 * déposé avant la diffusion. Un message suivi est diffusé enveloppé, afin
+	 * que les destinataires puissent mesurer son affichage.
+	 * 
+	 * @param sender
+	 *            Connexion de l'émetteur.
+	 * @param text
+	 *            Texte du message.
+	 * @param clientSequence
+	 *            Numéro attribué au message par l'émetteur, ou <code>0</code>
+	 *            si aucun accusé de réception n'est attendu.
+	 * @param traceId
+	 *            Identifiant de suivi du message, ou <code>0</code> s'il n'est
+	 *            pas suivi.
+	 * @return Trame encodée du message, ou <code>null</code> si l'émetteur
+	 *         n'est pas membre du salon.
+	 */
+	public synchronized byte[] publish (TcpServerClient sender, String text, long clientSequence, long traceId) {
+		User user = this.members.get(sender);
+		if (user == null) {
+			return null;
+		}
+		long sequence = ++this.lastSequence;
+		byte[] frame = ChatFrame.encodeMessage(this.id, sequence, System.currentTimeMillis(), user.getPseudo(), text);
+		this.history.append(sequence, frame);
+		if (clientSequence > 0) {
+			sender.send(ChatFrame.encodeAck(this.id, clientSequence, sequence));
+		}
+		byte[] traced = traceId != 0 ? ChatFrame.encodeTrace(traceId, frame) : null;
+		for (TcpServerClient member : this.members.keySet()) {
+			if (traced != null) {
+				member.send(traced, this.traces, traceId);
+			} else {
+				member.send(frame);
+			}
+		}
+		return frame;
+	}
+
+	/**
+	 * Permet d'ajouter un membre au salon et de déposer dans sa file d'envoi
+	 * le snapshot du salon. L'inscription et la construction du snapshot ont
+	 * lieu sous le verrou du salon : le snapshot précède ainsi toute diffusion
+	 * ultérieure à ce membre, et aucun message n'est reçu à la fois dans le
+	 * snapshot et en direct. L'entrée du membre est annoncée aux autres
+	 * membres.
+	 * 
+	 * @param client
+	 *            Connexion du membre.
+	 * @param user
+	 *            Utilisateur associé.
+	 * @param knownSequence
+	 *            Numéro de séquence du dernier message connu du client, ou
+	 *            <code>0</code> si aucun.
+	 * @param maxFrames
+	 *            Nombre maximal de messages inclus dans le snapshot.
+	 * @return <code>true</code> si le snapshot a été déposé dans la file
+	 *         d'envoi du membre.
+	 */
+	public synchronized boolean join (TcpServerClient client, User user, long knownSequence, int maxFrames) {
+		this.members.put(client, user);
+		this.subscribers.add(user.getPseudo());
+		List<User> users = new ArrayList<>(this.members.values());
+		announce(ChatFrame.encodeStatus(this.id, user.getPseudo(), user.getStatus()), client);
+		return client.send(JoinSnapshot.encode(this.id, users, snapshotFrames(knownSequence, maxFrames)));
+	}
+
+	/**
+	 * Permet de déposer dans la file d'envoi d'un client une page de
+	 * l'historique du salon, suivie d'une trame de fin de page. La page est
+	 * déposée sous le verrou du salon, sans diffusion intercalée.
+	 * 
+	 * @param client
+	 *            Connexion du client.
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximal de messages de la page.
+	 * @return <code>true</code> si la page a été déposée dans la file d'envoi
+	 *         du client.
+	 */
+	public synchronized boolean sendHistory (TcpServerClient client, long fromSequence, int maxFrames) {
+		List<byte[]> frames = this.history.read(fromSequence, maxFrames);
+		for (byte[] frame : frames) {
+			if (!client.send(frame)) {
+				return false;
+			}
+		}
+		return client.send(ChatFrame.encodeHistoryEnd(this.id, this.lastSequence, frames.size()));
+	}
+
+	/**
+	 * Renvoie les messages à inclure dans le snapshot d'entrée dans le salon :
+	 * les derniers messages du salon, limités à ceux que le client ne possède
+	 * pas encore.
+	 * 
+	 * @param knownSequence
+	 *            Numéro de séquence du dernier message connu du client, ou
+	 *            <code>0</code> si aucun.
+	 * @param maxFrames
+	 *            Nombre maximal de messages renvoyés.
+	 * @return Trames des messages, de la plus ancienne à la plus récente.
+	 */
+	private List<byte[]> snapshotFrames (long knownSequence, int maxFrames) {
+		long last = this.lastSequence;
+		if (knownSequence > 0 && knownSequence <= last && last - knownSequence <= maxFrames) {
+			if (knownSequence == last) {
+				return Collections.emptyList();
+			}
+			return this.history.read(knownSequence + 1, maxFrames);
+		}
+		// Client sans cache, trop en retard, ou dont le cache dépasse le salon
+		return this.history.recent(maxFrames, last);
+	}
+
+	/**
+	 * Permet de restaurer l'état du salon depuis un snapshot du serveur.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence du dernier message couvert par le
+	 *            snapshot.
+	 * @param pseudos
+	 *            Pseudonymes des membres inscrits.
+	 */
+	public synchronized void restore (long sequence, Collection<String> pseudos) {
+		this.lastSequence = Math.max(this.lastSequence, sequence);
+		this.subscribers.addAll(pseudos);
+	}
+
+	/**
+	 * Permet de rejouer un message relu depuis le journal au redémarrage du
+	 * serveur.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence du message.
+	 * @param frame
+	 *            Trame encodée du message.
+	 */
+	public synchronized void replay (long sequence, byte[] frame) {
+		if (sequence > this.lastSequence) {
+			this.history.restore(sequence, frame);
+			this.lastSequence = sequence;
+		}
+	}
+
+	/**
+	 * Permet de modifier le statut d'un membre du salon et de l'annoncer à
+	 * tous les membres.
+	 * 
+	 * @param client
+	 *            Connexion du membre.
+	 * @param status
+	 *            Nouveau statut du membre.
+	 * @return <code>true</code> si le client est membre du salon.
+	 */
+	public synchronized boolean setStatus (TcpServerClient client, UserStatus status) {
+		User user = this.members.get(client);
+		if (user == null) {
+			return false;
+		}
+		user.setStatus(status);
+		announce(ChatFrame.encodeStatus(this.id, user.getPseudo(), status), null);
+		return true;
+	}
+
+	/**
+	 * Permet de savoir si une connexion est membre du salon.
+	 * 
+	 * @param client
+	 *            Connexion à tester.
+	 * @return <code>true</code> si la connexion a rejoint le salon.
+	 */
+	public synchronized boolean isMember (TcpServerClient client) {
+		return this.members.containsKey(client);
+	}
+
+	/**
+	 * Permet de retirer un membre du salon. Son départ est annoncé aux autres
+	 * membres, sauf si son pseudonyme reste utilisé par une autre connexion.
+	 * 
+	 * @param client
+	 *            Connexion du membre.
+	 * @return Utilisateur retiré, ou <code>null</code> s'il n'était pas membre.
+	 */
+	public synchronized User leave (TcpServerClient client) {
+		User user = this.members.remove(client);
+		if (user != null) {
+			for (User member : this.members.values()) {
+				if (member.getPseudo().equals(user.getPseudo())) {
+					return user;
+				}
+			}
+			announce(ChatFrame.encodeLeave(this.id, user.getPseudo()), null);
+		}
+		return user;
+	}
+
+	/**
+	 * Permet de déposer une annonce dans la file d'envoi des membres du salon.
+	 * 
+	 * @param frame
+	 *            Trame encodée de l'annonce.
+	 * @param except
+	 *            Membre à ne pas prévenir, ou <code>null</code>.
+	 */
+	private void announce (byte[] frame, TcpServerClient except) {
+		for (TcpServerClient member : this.members.keySet()) {
+			if (member != except) {
+				member.send(frame);
+			}
+		}
+	}
+
+	/**
+	 * Renvoie une copie des connexions des membres.
+	 * 
+	 * @return Connexions des membres du salon.
+	 */
+	public synchronized List<TcpServerClient> getClients () {
+		return new ArrayList<>(this.members.keySet());
+	}
+
+	/**
+	 * Renvoie une copie des utilisateurs membres du salon.
+	 * 
+	 * @return Utilisateurs membres du salon.
+	 */
+	public synchronized List<User> getUsers () {
+		return new ArrayList<>(this.members.values());
+	}
+
+	public String getId () {
+		return this.id;
+	}
+
+	public RoomHistory getHistory () {
+		return this.history;
+	}
+
+	/**
+	 * Renvoie une copie des pseudonymes des membres inscrits.
+	 * 
+	 * @return Pseudonymes des membres inscrits.
+	 */
+	public synchronized List<String> getSubscribers () {
+		return new ArrayList<>(this.subscribers);
+	}
+
+	public synchronized long getLastSequence () {
+		return this.lastSequence;
+	}
+}
\ No newline at end of file
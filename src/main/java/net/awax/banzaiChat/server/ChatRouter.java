@@ -0,0 +1,230 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.net.ChatFrame;
+import net.awax.banzaiChat.net.ServerEthernetEvent;
+import net.awax.banzaiChat.net.TcpServerClient;
+import net.awax.banzaiChat.net.jfr.FrameDecodedEvent;
+import net.awax.banzaiChat.server.metrics.ServerMetrics;
+import net.awax.banzaiChat.server.metrics.TraceStats;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.TraceStage;
+import net.awax.banzaiChat.util.User;
+import net.awax.banzaiChat.util.UserStatus;
+
+/**
+ * Permet d'aiguiller les trames reçues par le serveur vers les salons
+ * concernés : publication et diffusion des messages, entrée dans un salon,
+ * changements de statut, demandes d'historique et rapports de suivi des
+ * messages.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ChatRouter implements ServerEthernetEvent {
+
+	/** Durée maximale acceptée dans un rapport de suivi, en nanosecondes */
+	public static final long MAX_REPORTED_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+	private final Logger logger;
+	private final ServerModel model;
+	private final ServerMetrics metrics;
+	private final TraceStats traces;
+	private final int joinFrames;
+
+	/**
+	 * Permet d'instancier le routeur du serveur.
+	 * 
+	 * @param model
+	 *            Modèle de données du serveur.
+	 */
+	public ChatRouter (final ServerModel model) {
+		this.logger = Logger.getLogger(getClass());
+		this.model = model;
+		this.metrics = model.getMetrics();
+		this.traces = this.metrics.getTraces();
+		this.joinFrames = ResourceManager.getInstance().getInt("server.history.joinFrames");
+	}
+
+	@Override
+	public void onReceive (TcpServerClient client, byte[] msg) {
+		FrameDecodedEvent event = new FrameDecodedEvent();
+		event.begin();
+		long start = System.nanoTime();
+		long traceId = ChatFrame.peekTraceId(msg);
+		ChatFrame frame;
+		try {
+			frame = ChatFrame.decode(traceId != 0 ? ChatFrame.unwrapTrace(msg) : msg);
+		} catch (IOException e) {
+			this.metrics.onDecodeError();
+			commitDecoded(event, client, msg, 0);
+			this.logger.warn("Dropping invalid frame (Length=" + msg.length + ")", e);
+			return;
+		}
+		long decoded = System.nanoTime();
+		commitDecoded(event, client, msg, frame.getType());
+		this.metrics.getDecodeTime().record(decoded - start);
+		if (traceId != 0 && frame.getType() == ChatFrame.TYPE_MESSAGE) {
+			this.traces.begin(traceId, frame.getChatId());
+			this.traces.record(traceId, TraceStage.DECODE, decoded - start);
+		}
+		route(client, frame, traceId, start);
+	}
+
+	/**
+	 * Permet de terminer l'événement JFR de décodage d'une trame, s'il est
+	 * enregistré.
+	 * 
+	 * @param event
+	 *            Evénement démarré avant le décodage.
+	 * @param client
+	 *            Client à l'origine de la trame.
+	 * @param msg
+	 *            Trame brute.
+	 * @param type
+	 *            Type de la trame décodée, ou <code>0</code> si elle est
+	 *            invalide.
+	 */
+	private static void commitDecoded (FrameDecodedEvent event, TcpServerClient client, byte[] msg, int type) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.setSessionId(client.getSessionId());
+			event.setSize(msg.length);
+			event.setFrameType(type);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Permet de traiter une trame décodée selon son type. Seule l'entrée dans
+	 * un salon peut créer ce salon ; les autres trames portant sur un salon
+	 * inconnu sont ignorées, et seuls les membres d'un salon peuvent y publier.
+	 * 
+	 * @param client
+	 *            Client à l'origine de la trame.
+	 * @param frame
+	 *            Trame décodée.
+	 * @param traceId
+	 *            Identifiant de suivi de la trame, ou <code>0</code> si elle
+	 *            n'est pas suivie.
+	 * @param received
+	 *            Date de réception de la trame en nanosecondes.
+	 */
+	private void route (TcpServerClient client, ChatFrame frame, long traceId, long received) {
+		if (frame.getType() == ChatFrame.TYPE_TRACE_REPORT) {
+			onTraceReport(frame);
+			return;
+		}
+		ChatRoom room;
+		if (frame.getType() == ChatFrame.TYPE_JOIN) {
+			room = this.model.getOrCreateRoom(frame.getChatId());
+		} else {
+			room = this.model.getRooms().get(frame.getChatId());
+		}
+		if (room == null) {
+			this.logger.debug("Dropping frame of type " + frame.getType() + " for unknown room " + frame.getChatId());
+			return;
+		}
+		switch (frame.getType()) {
+			case ChatFrame.TYPE_MESSAGE:
+				long routed = System.nanoTime();
+				// Le pseudonyme porté par la trame est ignoré au profit de
+				// celui enregistré à l'entrée dans le salon ; l'accusé de
+				// réception et la diffusion sont déposés dans l'ordre des
+				// numéros de séquence
+				byte[] published = room.publish(client, frame.getText(), frame.getSequence(), traceId);
+				if (published == null) {
+					this.logger.warn("Dropping message from a client which has not joined " + room.getId());
+					break;
+				}
+				// Le temps de routage couvre la publication et le dépôt dans
+				// les files d'envoi, les écritures sur les sockets relevant
+				// du temps d'écriture
+				long now = System.nanoTime();
+				this.metrics.getRouteTime().record(now - routed);
+				this.metrics.onMessagePublished();
+				if (traceId != 0) {
+					this.traces.record(traceId, TraceStage.ROUTE, now - routed);
+					if (frame.getSequence() > 0) {
+						this.traces.setResidence(traceId, now - received);
+					}
+				}
+				break;
+			case ChatFrame.TYPE_JOIN:
+				if (!room.join(client, new User(frame.getPseudo(), UserStatus.CONNECTED), frame.getSequence(),
+						this.joinFrames)) {
+					this.logger.debug("Cannot send snapshot of " + room.getId() + " to a closed connection");
+				}
+				break;
+			case ChatFrame.TYPE_HISTORY:
+				// La taille d'une page d'historique est bornée par le serveur
+				if (frame.getSequence() >= 0 && frame.getCount() > 0
+						&& !room.sendHistory(client, frame.getSequence(), Math.min(frame.getCount(), this.joinFrames))) {
+					this.logger.debug("Cannot send history of " + room.getId() + " to a closed connection");
+				}
+				break;
+			case ChatFrame.TYPE_STATUS:
+				room.setStatus(client, frame.getStatus());
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Override
+	public void onClose (TcpServerClient client) {
+		for (ChatRoom room : this.model.getRooms().values()) {
+			room.leave(client);
+		}
+	}
+
+	/**
+	 * Permet d'enregistrer une étape mesurée par un client sur un message
+	 * suivi. Seules les étapes propres aux clients sont acceptées, pour un
+	 * message effectivement suivi par le serveur et avec une durée bornée.
+	 * 
+	 * @param report
+	 *            Rapport de suivi reçu.
+	 */
+	private void onTraceReport (ChatFrame report) {
+		TraceStage stage = report.getTraceStage();
+		long duration = report.getDuration();
+		if (stage != TraceStage.CLIENT_SEND && stage != TraceStage.CLIENT_RENDER && stage != TraceStage.ROUND_TRIP) {
+			this.logger.warn("Unexpected trace stage from client : " + stage);
+		} else if (duration < 0 || duration > MAX_REPORTED_NANOS) {
+			this.logger.debug("Dropping trace report with out of range duration : " + duration);
+		} else if (!this.traces.isTracing(report.getTraceId(), report.getChatId())) {
+			this.logger.debug("Dropping trace report for unknown trace : " + report.getTraceId());
+		} else {
+			this.traces.record(report.getTraceId(), stage, duration);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import net.awax.banzaiChat.server.metrics.ConnectionAccounting;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Panneau d'affichage de la consommation des connexions : connexions ayant
+ * consommé le plus de temps CPU, puis celles ayant alloué le plus de mémoire,
+ * parmi les connexions ouvertes et fermées récemment. Le panneau est
+ * rafraîchi une fois par seconde sur l'EDT, à partir de copies de
+ * {@link ConnectionAccounting}.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ConnectionsPanel extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int REFRESH_PERIOD = 1000;
+	private static final int TOP_CONNECTIONS = 20;
+
+	private final ConnectionAccounting accounting;
+	private final UsageModel cpuModel;
+	private final UsageModel allocationModel;
+	private final Timer refreshTimer;
+
+	/**
+	 * Permet d'instancier le panneau de consommation des connexions.
+	 * 
+	 * @param accounting
+	 *            Comptabilité des connexions du serveur.
+	 */
+	public ConnectionsPanel (final ConnectionAccounting accounting) {
+		super(new MigLayout("fill, wrap 1", "[grow]", "[grow][grow]"));
+		ResourceManager props = ResourceManager.getInstance();
+		this.accounting = accounting;
+		this.cpuModel = new UsageModel();
+		this.allocationModel = new UsageModel();
+		JTable cpuTable = new JTable(this.cpuModel);
+		JTable allocationTable = new JTable(this.allocationModel);
+		cpuTable.setFillsViewportHeight(true);
+		allocationTable.setFillsViewportHeight(true);
+		JScrollPane cpuScroll = new JScrollPane(cpuTable);
+		cpuScroll.setBorder(BorderFactory.createTitledBorder(props.getString("serverView.connections.cpu")));
+		JScrollPane allocationScroll = new JScrollPane(allocationTable);
+		allocationScroll.setBorder(BorderFactory.createTitledBorder(props.getString("serverView.connections.allocation")));
+		add(cpuScroll, "grow");
+		add(allocationScroll, "grow");
+		this.refreshTimer = new Timer(REFRESH_PERIOD, new ActionListener() {
+
+			@Override
+			public void actionPerformed (ActionEvent e) {
+				refresh();
+			}
+		});
+	}
+
+	@Override
+	public void addNotify () {
+		super.addNotify();
+		refresh();
+		this.refreshTimer.start();
+	}
+
+	@Override
+	public void removeNotify () {
+		this.refreshTimer.stop();
+		super.removeNotify();
+	}
+
+	/**
+	 * Permet de recharger les tableaux depuis la comptabilité des connexions.
+	 */
+	private void refresh () {
+		this.cpuModel.update(this.accounting.getTopByCpu(TOP_CONNECTIONS));
+		this.allocationModel.update(this.accounting.getTopByAllocation(TOP_CONNECTIONS));
+	}
+
+	/**
+	 * Modèle d'un tableau de consommation des connexions.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class UsageModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 1L;
+		private static final String[] COLUMNS = { "Session", "Remote", "State", "Frames", "CPU (ms)",
+				"Allocated (MB)", "CPU/frame (us)", "Allocated/frame (B)" };
+
+		private List<ConnectionAccounting.Usage> usages = new ArrayList<>();
+
+		/**
+		 * Permet de remplacer les connexions affichées.
+		 * 
+		 * @param usages
+		 *            Copies des compteurs des connexions, dans l'ordre
+		 *            d'affichage.
+		 */
+		private void update (List<ConnectionAccounting.Usage> usages) {
+			this.usages = usages;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount () {
+			return this.usages.size();
+		}
+
+		@Override
+		public int getColumnCount () {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName (int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Object getValueAt (int row, int column) {
+			ConnectionAccounting.Usage usage = this.usages.get(row);
+			long frames = Math.max(1, usage.getFrames());
+			switch (column) {
+				case 0:
+					return usage.getSessionId();
+				case 1:
+					return usage.getRemote();
+				case 2:
+					return usage.isClosed() ? "closed" : "open";
+				case 3:
+					return usage.getFrames();
+				case 4:
+					return String.format("%.1f", usage.getCpuNanos() / 1e6);
+				case 5:
+					return String.format("%.2f", usage.getAllocatedBytes() / (double) (1 << 20));
+				case 6:
+					return String.format("%.1f", usage.getCpuNanos() / 1e3 / frames);
+				default:
+					return usage.getAllocatedBytes() / frames;
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.swing.Timer;
+
+import net.awax.banzaiChat.gui.ChatLine;
+import net.awax.banzaiChat.gui.ChatPanel;
+import net.awax.banzaiChat.gui.StyleCache;
+import net.awax.banzaiChat.util.LogStatus;
+import net.awax.banzaiChat.util.TimestampFormat;
+
+/**
+ * Tampon des lignes de la console du serveur. Les lignes peuvent être
+ * ajoutées depuis n'importe quel thread, sans verrou, dans un tampon
+ * circulaire de capacité fixe : si la console ne suit pas, les lignes les
+ * plus anciennes sont écrasées et leur nombre est signalé. Le tampon est vidé
+ * sur l'EDT à fréquence fixe, en une seule insertion dans la console, et les
+ * lignes identiques successives y sont regroupées en une ligne suivie de leur
+ * nombre de répétitions.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ConsoleLog {
+
+	private final ChatPanel console;
+	private final int mask;
+	private final AtomicReferenceArray<Entry> slots;
+	private final AtomicLong head;
+	private final Timer drainTimer;
+
+	private long tail;
+	private Entry last;
+	private long repeats;
+
+	/**
+	 * Permet d'instancier le tampon d'une console.
+	 * 
+	 * @param console
+	 *            Console dans laquelle les lignes sont affichées.
+	 * @param capacity
+	 *            Nombre maximum de lignes en attente d'affichage, arrondi à
+	 *            la puissance de deux supérieure.
+	 * @param refreshMillis
+	 *            Période de vidage du tampon en millisecondes.
+	 */
+	public ConsoleLog (final ChatPanel console, int capacity, int refreshMillis) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		this.console = console;
+		this.mask = size - 1;
+		this.slots = new AtomicReferenceArray<>(size);
+		this.head = new AtomicLong(0);
+		this.drainTimer = new Timer(refreshMillis, new ActionListener() {
+
+			@Override
+			public void actionPerformed (ActionEvent e) {
+				drain();
+			}
+		});
+		this.tail = 0;
+		this.last = null;
+		this.repeats = 0;
+	}
+
+	/**
+	 * Permet de lancer le vidage périodique du tampon.
+	 */
+	public void start () {
+		this.drainTimer.start();
+	}
+
+	/**
+	 * Permet d'arrêter le vidage périodique du tampon.
+	 */
+	public void stop () {
+		this.drainTimer.stop();
+	}
+
+	/**
+	 * Permet d'ajouter une ligne à la console. Cette méthode peut être
+	 * appelée depuis n'importe quel thread et ne bloque jamais.
+	 * 
+	 * @param text
+	 *            Texte de la ligne.
+	 * @param status
+	 *            Type de message, ou <code>null</code> pour du texte brut.
+	 */
+	public void append (String text, LogStatus status) {
+		long seq = this.head.getAndIncrement();
+		this.slots.set((int) (seq & this.mask), new Entry(seq, System.currentTimeMillis(), text, status));
+	}
+
+	/**
+	 * Permet de vider le tampon dans la console. Les lignes écrasées avant
+	 * d'avoir été lues sont comptées, et une ligne réservée mais pas encore
+	 * écrite interrompt le vidage jusqu'à la période suivante. Cette méthode
+	 * doit être appelée depuis l'EDT.
+	 */
+	private void drain () {
+		long end = this.head.get();
+		long dropped = 0;
+		if (end - this.tail > this.mask + 1) {
+			dropped = end - this.tail - (this.mask + 1);
+			this.tail = end - (this.mask + 1);
+		}
+		List<ChatLine> lines = new ArrayList<>();
+		while (this.tail < end) {
+			Entry entry = this.slots.get((int) (this.tail & this.mask));
+			if (entry == null || entry.seq < this.tail) {
+				break;
+			}
+			if (entry.seq > this.tail) {
+				dropped++;
+			} else if (entry.isRepeatOf(this.last)) {
+				this.repeats++;
+				this.last = entry;
+			} else {
+				addRepeats(lines);
+				lines.add(toLine(entry, entry.text));
+				this.last = entry;
+			}
+			this.tail++;
+		}
+		addRepeats(lines);
+		if (dropped > 0) {
+			Entry warning = new Entry(-1, System.currentTimeMillis(), dropped + " console lines dropped", LogStatus.WARNING);
+			lines.add(toLine(warning, warning.text));
+		}
+		if (!lines.isEmpty()) {
+			this.console.append(lines);
+		}
+	}
+
+	/**
+	 * Permet d'ajouter la ligne regroupant les répétitions de la dernière
+	 * ligne affichée, s'il y en a eu. La dernière ligne est conservée afin de
+	 * continuer le regroupement lors du vidage suivant.
+	 * 
+	 * @param lines
+	 *            Lignes à afficher.
+	 */
+	private void addRepeats (List<ChatLine> lines) {
+		if (this.repeats > 0) {
+			lines.add(toLine(this.last, this.last.text + "  (x " + String.format("%,d", this.repeats) + ")"));
+			this.repeats = 0;
+		}
+	}
+
+	/**
+	 * Permet de construire la ligne de console d'une entrée.
+	 * 
+	 * @param entry
+	 *            Entrée du tampon.
+	 * @param text
+	 *            Texte à afficher.
+	 * @return Ligne horodatée terminée par un retour à la ligne.
+	 */
+	private static ChatLine toLine (Entry entry, String text) {
+		ChatLine line = new ChatLine();
+		line.add(TimestampFormat.format(entry.time) + "  ", StyleCache.TIMESTAMP);
+		line.add(text + "\n", entry.status == null ? StyleCache.TEXT : StyleCache.get(entry.status));
+		return line;
+	}
+
+	/**
+	 * Ligne en attente d'affichage.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Entry {
+
+		private final long seq;
+		private final long time;
+		private final String text;
+		private final LogStatus status;
+
+		/**
+		 * Permet d'instancier une ligne en attente.
+		 * 
+		 * @param seq
+		 *            Numéro de la ligne dans le tampon.
+		 * @param time
+		 *            Date d'ajout en millisecondes.
+		 * @param text
+		 *            Texte de la ligne.
+		 * @param status
+		 *            Type de message, ou <code>null</code> pour du texte brut.
+		 */
+		private Entry (long seq, long time, String text, LogStatus status) {
+			this.seq = seq;
+			this.time = time;
+			this.text = text;
+			this.status = status;
+		}
+
+		/**
+		 * Permet de savoir si la ligne répète une autre ligne.
+		 * 
+		 * @param other
+		 *            Ligne précédente, éventuellement <code>null</code>.
+		 * @return <code>true</code> si les deux lignes ont le même texte et le
+		 *         même type.
+		 */
+		private boolean isRepeatOf (Entry other) {
+			return other != null && this.status == other.status && this.text.equals(other.text);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2017 Julien Le Sauce
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+import net.awax.banzaiChat.server.metrics.MetricsHistory;
+import net.awax.banzaiChat.server.metrics.MetricsHistory.Series;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Tableau de bord du serveur : graphiques des connexions, des débits de
+ * messages, de trames et d'octets, de la file d'envoi et des latences, sur
+ * les dernières minutes. Les graphiques sont alimentés par l'historique
+ * échantillonné chaque seconde ({@link MetricsHistory}) et redessinés à
+ * fréquence fixe sur l'EDT, sans aucun travail sur les threads
+ * d'entrées/sorties.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class DashboardPanel extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int REFRESH_PERIOD = 1000;
+
+	private final MetricsHistory history;
+	private final LineChart connections;
+	private final LineChart messages;
+	private final LineChart frames;
+	private final LineChart bytes;
+	private final LineChart sendQueue;
+	private final LineChart latency;
+	private final Timer refreshTimer;
+
+	/**
+	 * Permet d'instancier le tableau de bord.
+	 * 
+	 * @param history
+	 *            Historique des mesures du serveur.
+	 */
+	public DashboardPanel (final MetricsHistory history) {
+		super(new MigLayout("fill, wrap 2", "[grow, fill][grow, fill]", "[grow, fill][grow, fill][grow, fill]"));
+		int capacity = history.getCapacity();
+		this.history = history;
+		this.connections = new LineChart("Connections", LineChart.Unit.COUNT, capacity, "open");
+		this.messages = new LineChart("Messages/s", LineChart.Unit.COUNT, capacity, "published");
+		this.frames = new LineChart("Frames/s", LineChart.Unit.COUNT, capacity, "in", "out");
+		this.bytes = new LineChart("Bytes/s", LineChart.Unit.BYTES, capacity, "in", "out");
+		this.sendQueue = new LineChart("Send queue", LineChart.Unit.COUNT, capacity, "depth");
+		this.latency = new LineChart("p99 latency", LineChart.Unit.NANOS, capacity, "route", "write");
+		add(this.connections);
+		add(this.messages);
+		add(this.frames);
+		add(this.bytes);
+		add(this.sendQueue);
+		add(this.latency);
+		this.refreshTimer = new Timer(REFRESH_PERIOD, new ActionListener() {
+
+			@Override
+			public void actionPerformed (ActionEvent e) {
+				refresh();
+			}
+		});
+	}
+
+	@Override
+	public void addNotify () {
+		super.addNotify();
+		this.refreshTimer.start();
+	}
+
+	@Override
+	public void removeNotify () {
+		this.refreshTimer.stop();
+		super.removeNotify();
+	}
+
+	/**
+	 * Permet de recopier l'historique dans les graphiques, uniquement si le
+	 * tableau de bord est visible.
+	 */
+	private void refresh () {
+		if (!isShowing()) {
+			return;
+		}
+		update(this.connections, Series.CONNECTIONS);
+		update(this.messages, Series.MESSAGES);
+		update(this.frames, Series.FRAMES_IN, Series.FRAMES_OUT);
+		update(this.bytes, Series.BYTES_IN, Series.BYTES_OUT);
+		update(this.sendQueue, Series.SEND_QUEUE);
+		update(this.latency, Series.ROUTE_P99, Series.WRITE_P99);
+	}
+
+	/**
+	 * Permet de recopier des séries de l'historique dans un graphique.
+	 * 
+	 * @param chart
+	 *            Graphique à mettre à jour.
+	 * @param series
+	 *            Séries affichées par le graphique, dans l'ordre de ses
+	 *            libellés.
+	 */
+	private void update (LineChart chart, Series... series) {
+		int count = 0;
+		for (int i = 0; i < series.length; i++) {
+			count = this.history.copy(series[i], chart.getValues(i));
+		}
+		chart.setCount(count);
+	}
+}
\ No newline at end of file
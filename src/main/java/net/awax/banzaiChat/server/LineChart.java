@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2017 Julien Le Sauce
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+import javax.swing.JComponent;
+
+/**
+ * Graphique linéaire minimal affichant une ou plusieurs séries de valeurs
+ * échantillonnées à intervalle régulier, la plus récente à droite. Les
+ * tableaux de points sont alloués une fois pour toutes et l'échelle verticale
+ * s'adapte au maximum affiché.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LineChart extends JComponent {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final Color BACKGROUND = new Color(250, 250, 250);
+	private static final Color GRID = new Color(225, 225, 225);
+	private static final Color[] COLORS = { new Color(31, 119, 180), new Color(214, 39, 40) };
+	private static final int MARGIN = 6;
+	private static final int GRID_LINES = 4;
+
+	/**
+	 * Unités d'affichage des valeurs.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	public enum Unit {
+		COUNT, BYTES, NANOS;
+	}
+
+	private final String title;
+	private final Unit unit;
+	private final String[] labels;
+	private final long[][] values;
+	private final int[] xPoints;
+	private final int[] yPoints;
+	private int count;
+
+	/**
+	 * Permet d'instancier un graphique vide.
+	 * 
+	 * @param title
+	 *            Titre du graphique.
+	 * @param unit
+	 *            Unité des valeurs.
+	 * @param capacity
+	 *            Nombre maximum de points par série.
+	 * @param labels
+	 *            Libellés des séries affichées.
+	 */
+	public LineChart (String title, Unit unit, int capacity, String... labels) {
+		this.title = title;
+		this.unit = unit;
+		this.labels = labels;
+		this.values = new long[labels.length][capacity];
+		this.xPoints = new int[capacity];
+		this.yPoints = new int[capacity];
+		this.count = 0;
+		setPreferredSize(new Dimension(260, 150));
+		setFont(new Font("Arial", Font.PLAIN, 11));
+	}
+
+	/**
+	 * Renvoie le tableau de points d'une série, à remplir avant d'appeler
+	 * {@link #setCount(int)}.
+	 * 
+	 * @param series
+	 *            Rang de la série.
+	 * @return Tableau de points de la série.
+	 */
+	public long[] getValues (int series) {
+		return this.values[series];
+	}
+
+	/**
+	 * Permet d'indiquer le nombre de points à afficher et de redessiner le
+	 * graphique.
+	 * 
+	 * @param count
+	 *            Nombre de points renseignés dans chaque série.
+	 */
+	public void setCount (int count) {
+		this.count = count;
+		repaint();
+	}
+
+	@Override
+	protected void paintComponent (Graphics graphics) {
+		Graphics2D g = (Graphics2D) graphics.create();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			int width = getWidth();
+			int height = getHeight();
+			g.setColor(BACKGROUND);
+			g.fillRect(0, 0, width, height);
+			FontMetrics fm = g.getFontMetrics();
+			int top = MARGIN + fm.getHeight() + 2;
+			int bottom = height - MARGIN;
+			int left = MARGIN;
+			int right = width - MARGIN;
+			long max = 1;
+			for (long[] series : this.values) {
+				for (int i = 0; i < this.count; i++) {
+					max = Math.max(max, series[i]);
+				}
+			}
+			// Grille horizontale et valeur maximale de l'échelle
+			g.setColor(GRID);
+			for (int i = 0; i <= GRID_LINES; i++) {
+				int y = top + (bottom - top) * i / GRID_LINES;
+				g.drawLine(left, y, right, y);
+			}
+			g.setColor(Color.GRAY);
+			String scale = format(max);
+			g.drawString(scale, right - fm.stringWidth(scale), top + fm.getAscent());
+			// Séries, la plus récente valeur étant au bord droit
+			int capacity = this.xPoints.length;
+			for (int s = 0; s < this.values.length; s++) {
+				long[] series = this.values[s];
+				for (int i = 0; i < this.count; i++) {
+					int slot = capacity - this.count + i;
+					this.xPoints[i] = left + (int) ((long) (right - left) * slot / Math.max(1, capacity - 1));
+					this.yPoints[i] = bottom - (int) ((bottom - top) * series[i] / max);
+				}
+				g.setColor(COLORS[s % COLORS.length]);
+				g.drawPolyline(this.xPoints, this.yPoints, this.count);
+			}
+			// Titre et dernières valeurs
+			StringBuilder header = new StringBuilder(this.title);
+			for (int s = 0; s < this.values.length; s++) {
+				header.append("   ").append(this.labels[s]).append(' ');
+				header.append(this.count > 0 ? format(this.values[s][this.count - 1]) : "-");
+			}
+			g.setColor(Color.DARK_GRAY);
+			g.drawString(header.toString(), left, MARGIN + fm.getAscent());
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Permet de formater une valeur selon l'unité du graphique.
+	 * 
+	 * @param value
+	 *            Valeur à formater.
+	 * @return Valeur formatée.
+	 */
+	private String format (long value) {
+		switch (this.unit) {
+			case BYTES:
+				if (value >= 1 << 20) {
+					return String.format("%.1f MB", value / (double) (1 << 20));
+				}
+				return value >= 1 << 10 ? String.format("%.1f KB", value / 1024.0) : value + " B";
+			case NANOS:
+				if (value >= 1000000) {
+					return String.format("%.1f ms", value / 1e6);
+				}
+				return String.format("%d us", value / 1000);
+			default:
+				return Long.toString(value);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.history.MessageLog;
+import net.awax.banzaiChat.history.RoomLog;
+import net.awax.banzaiChat.storage.MessageStore;
+
+/**
+ * Tâche de fond appliquant la politique de rétention de chaque salon à son
+ * journal segmenté ({@link RoomLog}) : les segments expirés ou dépassant la
+ * taille maximale sont supprimés, puis les segments restés inactifs sont
+ * recompressés par blocs afin de limiter l'espace disque sans perdre l'accès
+ * direct à l'historique.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LogCompactor implements Runnable {
+
+	private final Logger logger;
+	private final ServerModel model;
+	private final long compressAfterMillis;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Permet d'instancier la tâche de compaction des journaux.
+	 * 
+	 * @param model
+	 *            Modèle de données du serveur.
+	 * @param compressAfterSeconds
+	 *            Durée d'inactivité en secondes au-delà de laquelle un segment
+	 *            est scellé puis compressé.
+	 */
+	public LogCompactor (final ServerModel model, long compressAfterSeconds) {
+		this.logger = Logger.getLogger(getClass());
+		this.model = model;
+		this.compressAfterMillis = compressAfterSeconds * 1000;
+		this.scheduler = null;
+	}
+
+	@Override
+	public void run () {
+		MessageLog log = this.model.getMessageLog();
+		long now = System.currentTimeMillis();
+		for (String roomId : log.listRooms()) {
+			try {
+				MessageStore store = log.getStore(roomId);
+				if (!(store instanceof RoomLog)) {
+					// Seul le journal segmenté est compacté
+					continue;
+				}
+				RoomLog roomLog = (RoomLog) store;
+				roomLog.sealIfIdle(this.compressAfterMillis, now);
+				int dropped = roomLog.applyRetention(this.model.getRetentionPolicy(roomId), now);
+				int compressed = roomLog.compressSealed(this.compressAfterMillis, now);
+				if (dropped > 0 || compressed > 0) {
+					this.logger.info("Log of " + roomId + " compacted : " + dropped + " segments dropped, " + compressed
+							+ " segments compressed, " + roomLog.getDiskBytes() + " bytes on disk");
+				}
+			} catch (IOException | RuntimeException e) {
+				this.logger.error("Cannot compact log of " + roomId, e);
+			}
+		}
+	}
+
+	/**
+	 * Permet de lancer l'exécution périodique de la compaction.
+	 * 
+	 * @param periodSeconds
+	 *            Période d'exécution en secondes.
+	 */
+	public synchronized void start (long periodSeconds) {
+		if (this.scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread (Runnable r) {
+					Thread thread = new Thread(r, "LogCompactor");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+			this.scheduler.scheduleWithFixedDelay(this, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Permet de stopper l'exécution périodique de la compaction.
+	 */
+	public synchronized void stop () {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+	}
+}
\ No newline at end of file
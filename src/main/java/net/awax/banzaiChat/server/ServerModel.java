@@ -1,69 +1,181 @@
-/*******************************************************************************
- * MIT License
- *
- * Copyright (c) 2017 Julien Le Sauce
- *
- * Permission is hereby granted, free of charge, to any person obtaining a copy
- * of this software and associated documentation files (the "Software"), to deal
- * in the Software without restriction, including without limitation the rights
- * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
- * copies of the Software, and to permit persons to whom the Software is
- * furnished to do so, subject to the following conditions:
- *
- * The above copyright notice and this permission notice shall be included in all
- * copies or substantial portions of the Software.
- *
- * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
- * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
- * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
- * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
- * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
- * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
- * SOFTWARE.
- *******************************************************************************/
-package net.awax.banzaiChat.server;
-
-import net.awax.banzaiChat.net.TcpServer;
-import net.awax.banzaiChat.util.ResourceManager;
-
-/**
- * Modèle de données du serveur.
- * 
- * @author AwaX
- * @created 1 mai 2014
- * @version 1.0
- */
-public class ServerModel {
-
-	private final ResourceManager props;
-	private final String appName;
-	private final String appVersion;
-
-	private TcpServer server;
-
-	/**
-	 * Permet d'instancier un modèle de données par défaut.
-	 */
-	public ServerModel () {
-		this.props = ResourceManager.getInstance();
-		this.appName = this.props.getString("banzaichat.server.application.name");
-		this.appVersion = this.props.getString("banzaichat.server.application.version");
-		this.server = null;
-	}
-
-	public String getAppName () {
-		return this.appName;
-	}
-
-	public String getAppVersion () {
-		return this.appVersion;
-	}
-
-	public TcpServer getServer () {
-		return this.server;
-	}
-
-	public void setServer (TcpServer server) {
-		this.server = server;
-	}
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.awax.banzaiChat.history.MessageLog;
+import net.awax.banzaiChat.history.RetentionPolicy;
+import net.awax.banzaiChat.net.TcpServer;
+import net.awax.banzaiChat.server.history.RoomHistory;
+import net.awax.banzaiChat.server.metrics.ServerMetrics;
+import net.awax.banzaiChat.storage.StorageSelector;
+import net.awax.banzaiChat.storage.StorageType;
+import net.awax.banzaiChat.util.ResourceManager;
+
+/**
+ * Modèle de données du serveur.
+ * 
+ * @author AwaX
+ * @created 1 mai 2014
+ * @version 1.0
+ */
+public class ServerModel {
+
+	private final ResourceManager props;
+	private final String appName;
+	private final String appVersion;
+	private final File dataDir;
+	private final ConcurrentHashMap<String, ChatRoom> rooms;
+	private final MessageLog messageLog;
+	private final long ringBytes;
+	private final ServerMetrics metrics;
+
+	private TcpServer server;
+
+	/**
+	 * Permet d'instancier un modèle de données par défaut.
+	 */
+	public ServerModel () {
+		this.props = ResourceManager.getInstance();
+		this.appName = this.props.getString("banzaichat.server.application.name");
+		this.appVersion = this.props.getString("banzaichat.server.application.version");
+		this.dataDir = new File(ResourceManager.USER_DIR, this.props.getString("server.data.dir"));
+		this.rooms = new ConcurrentHashMap<>();
+		this.messageLog = new MessageLog(new File(this.dataDir, "log"), new StorageSelector() {
+
+			@Override
+			public StorageType getStorageType (String roomId) {
+				return ServerModel.this.getStorageType(roomId);
+			}
+		}, this.props.getInt("server.log.segmentBytes"), this.props.getInt("server.storage.mappedBytes"),
+				this.props.getLong("server.storage.memoryBytes"));
+		this.ringBytes = this.props.getInt("server.history.ringBytes");
+		this.metrics = new ServerMetrics();
+		this.server = null;
+	}
+
+	/**
+	 * Renvoie le salon associé à l'identifiant spécifié, en le créant s'il
+	 * n'existe pas encore.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Instance du salon.
+	 */
+	public ChatRoom getOrCreateRoom (String roomId) {
+		ChatRoom room = this.rooms.get(roomId);
+		if (room == null) {
+			ChatRoom newRoom = new ChatRoom(roomId, new RoomHistory(roomId, this.ringBytes, this.messageLog),
+					this.metrics.getTraces());
+			room = this.rooms.putIfAbsent(roomId, newRoom);
+			if (room == null) {
+				room = newRoom;
+			}
+		}
+		return room;
+	}
+
+	/**
+	 * Renvoie le support de stockage des messages du salon spécifié. La clé
+	 * <code>server.room.&lt;salon&gt;.storage</code> prime sur la valeur par
+	 * défaut <code>server.storage</code> ; les valeurs possibles sont
+	 * <code>log</code>, <code>memory</code> et <code>mapped</code>.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Support de stockage du salon.
+	 */
+	public StorageType getStorageType (String roomId) {
+		String type = this.props.getString(getRoomKey(roomId, "storage"));
+		try {
+			return StorageType.valueOf(type.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown storage type for room " + roomId + " : " + type, e);
+		}
+	}
+
+	/**
+	 * Renvoie la politique de rétention du salon spécifié. Les clés
+	 * <code>server.room.&lt;salon&gt;.retention.*</code> priment sur les
+	 * valeurs par défaut <code>server.retention.*</code>.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @return Politique de rétention du salon.
+	 */
+	public RetentionPolicy getRetentionPolicy (String roomId) {
+		long maxAge = this.props.getLong(getRoomKey(roomId, "retention.maxAgeSeconds"));
+		long maxBytes = this.props.getLong(getRoomKey(roomId, "retention.maxBytes"));
+		return new RetentionPolicy(maxAge * 1000, maxBytes);
+	}
+
+	/**
+	 * Renvoie la clé d'une propriété de salon si le salon la redéfinit, sinon
+	 * la clé de sa valeur par défaut.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @param key
+	 *            Clé de propriété relative au serveur.
+	 * @return Clé de propriété à lire.
+	 */
+	private String getRoomKey (String roomId, String key) {
+		String roomKey = "server.room." + roomId + "." + key;
+		return this.props.containsKey(roomKey) ? roomKey : "server." + key;
+	}
+
+	public String getAppName () {
+		return this.appName;
+	}
+
+	public String getAppVersion () {
+		return this.appVersion;
+	}
+
+	public File getDataDir () {
+		return this.dataDir;
+	}
+
+	public ConcurrentHashMap<String, ChatRoom> getRooms () {
+		return this.rooms;
+	}
+
+	public ServerMetrics getMetrics () {
+		return this.metrics;
+	}
+
+	public MessageLog getMessageLog () {
+		return this.messageLog;
+	}
+
+	public TcpServer getServer () {
+		return this.server;
+	}
+
+	public void setServer (TcpServer server) {
+		this.server = server;
+	}
 }
\ No newline at end of file
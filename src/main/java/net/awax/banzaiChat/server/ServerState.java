@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.history.MessageLog;
+import net.awax.banzaiChat.net.ChatFrame;
+
+/**
+ * Permet de sauvegarder périodiquement l'état du serveur (salons, membres
+ * inscrits et dernier numéro de séquence de chaque salon) et de le restaurer
+ * au démarrage. Le numéro de séquence enregistré pour chaque salon représente
+ * la position du journal couverte par le snapshot : au redémarrage, seule la
+ * fin du journal au-delà de cette position est rejouée.
+ * <p>
+ * Le snapshot est écrit dans un fichier temporaire, synchronisé sur disque
+ * puis renommé atomiquement, de sorte qu'un arrêt brutal laisse toujours le
+ * snapshot précédent intact.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ServerState {
+
+	private static final int MAGIC = 0x425A5353;
+	private static final int VERSION = 1;
+	private static final int REPLAY_BATCH = 1024;
+
+	private final Logger logger;
+	private final ServerModel model;
+	private final File file;
+	private final Runnable saveTask;
+	private final Thread shutdownHook;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Permet d'instancier le gestionnaire d'état du serveur.
+	 * 
+	 * @param model
+	 *            Modèle de données du serveur.
+	 */
+	public ServerState (final ServerModel model) {
+		this.logger = Logger.getLogger(getClass());
+		this.model = model;
+		this.file = new File(model.getDataDir(), "state.snap");
+		this.saveTask = new Runnable() {
+
+			@Override
+			public void run () {
+				try {
+					save();
+				} catch (IOException e) {
+					ServerState.this.logger.error("Cannot write server snapshot", e);
+				}
+			}
+		};
+		this.shutdownHook = new Thread(this.saveTask, "ServerStateShutdown");
+		this.scheduler = null;
+	}
+
+	/**
+	 * Permet de restaurer l'état du serveur : le dernier snapshot est chargé
+	 * puis seuls les messages journalisés après celui-ci sont rejoués.
+	 * 
+	 * @return Nombre de messages rejoués depuis le journal.
+	 * @throws IOException
+	 *             Si le journal ne peut être relu, une exception est lancée.
+	 */
+	public int recover () throws IOException {
+		if (this.file.exists()) {
+			try {
+				load();
+			} catch (IOException e) {
+				this.logger.error("Ignoring unreadable snapshot " + this.file.getAbsolutePath(), e);
+			}
+		}
+		// Rejeu de la fin du journal
+		MessageLog log = this.model.getMessageLog();
+		int replayed = 0;
+		for (String roomId : log.listRooms()) {
+			ChatRoom room = this.model.getOrCreateRoom(roomId);
+			List<byte[]> frames;
+			do {
+				frames = log.read(roomId, room.getLastSequence() + 1, REPLAY_BATCH);
+				for (byte[] frame : frames) {
+					room.replay(ChatFrame.peekSequence(frame), frame);
+				}
+				replayed += frames.size();
+			} while (frames.size() == REPLAY_BATCH);
+		}
+		return replayed;
+	}
+
+	/**
+	 * Permet d'écrire un snapshot de l'état courant du serveur. Les journaux
+	 * sont synchronisés sur disque après la lecture des positions et avant
+	 * l'écriture, afin que les positions enregistrées ne dépassent jamais le
+	 * contenu durable du journal.
+	 * 
+	 * @throws IOException
+	 *             Si le snapshot ne peut être écrit, une exception est lancée.
+	 */
+	public synchronized void save () throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+		DataOutputStream out = new DataOutputStream(bytes);
+		List<ChatRoom> rooms = new ArrayList<>(this.model.getRooms().values());
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(System.currentTimeMillis());
+		out.writeInt(rooms.size());
+		for (ChatRoom room : rooms) {
+			List<String> subscribers;
+			long sequence;
+			synchronized (room) {
+				sequence = room.getLastSequence();
+				subscribers = room.getSubscribers();
+			}
+			out.writeUTF(room.getId());
+			out.writeLong(sequence);
+			out.writeInt(subscribers.size());
+			for (String pseudo : subscribers) {
+				out.writeUTF(pseudo);
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		out.writeLong(crc.getValue());
+		this.model.getMessageLog().force();
+
+		// Ecriture atomique
+		File dir = this.file.getParentFile();
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create data directory : " + dir.getAbsolutePath());
+		}
+		File tmp = new File(dir, this.file.getName() + ".tmp");
+		try (FileOutputStream fos = new FileOutputStream(tmp)) {
+			bytes.writeTo(fos);
+			fos.getFD().sync();
+		}
+		try {
+			Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		this.logger.debug("Server snapshot written (" + rooms.size() + " rooms, " + bytes.size() + " bytes)");
+	}
+
+	/**
+	 * Permet de lancer l'écriture périodique des snapshots. Un dernier
+	 * snapshot est également écrit à l'arrêt de la JVM.
+	 * 
+	 * @param periodSeconds
+	 *            Période d'écriture en secondes.
+	 */
+	public synchronized void start (long periodSeconds) {
+		if (this.scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread (Runnable r) {
+					Thread thread = new Thread(r, "ServerState");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			this.scheduler.scheduleWithFixedDelay(this.saveTask, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+			Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+		}
+	}
+
+	/**
+	 * Permet de stopper l'écriture périodique des snapshots, y compris celle
+	 * du dernier snapshot à l'arrêt de la JVM.
+	 */
+	public synchronized void stop () {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+			try {
+				Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+			} catch (IllegalStateException e) {
+				// Arrêt de la JVM déjà en cours, le snapshot final est écrit
+			}
+		}
+	}
+
+	/**
+	 * Permet de charger le dernier snapshot dans le modèle.
+	 * 
+	 * @throws IOException
+	 *             Si le snapshot est illisible ou corrompu, une exception est
+	 *             lancée.
+	 */
+	private void load () throws IOException {
+		byte[] data = Files.readAllBytes(this.file.toPath());
+		if (data.length < 8) {
+			throw new IOException("Truncated snapshot");
+		}
+		// Le snapshot n'est appliqué que s'il est complet et valide
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length - 8);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		in.skipBytes(data.length - 8);
+		if (in.readLong() != crc.getValue()) {
+			throw new IOException("Snapshot checksum mismatch");
+		}
+		in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 8));
+		if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("Unknown snapshot format");
+		}
+		in.readLong();
+		int roomCount = in.readInt();
+		for (int i = 0; i < roomCount; i++) {
+			String roomId = in.readUTF();
+			long sequence = in.readLong();
+			int count = in.readInt();
+			List<String> subscribers = new ArrayList<>(count);
+			for (int j = 0; j < count; j++) {
+				subscribers.add(in.readUTF());
+			}
+			this.model.getOrCreateRoom(roomId).restore(sequence, subscribers);
+		}
+	}
+}
\ No newline at end of file
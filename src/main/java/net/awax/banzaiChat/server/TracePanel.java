@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.swing.BorderFactory;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+
+import net.awax.banzaiChat.server.metrics.LatencyHistogram;
+import net.awax.banzaiChat.server.metrics.TraceStats;
+import net.awax.banzaiChat.util.ResourceManager;
+import net.awax.banzaiChat.util.TraceStage;
+import net.miginfocom.swing.MigLayout;
+
+/**
+ * Panneau d'affichage du suivi des messages : répartition par étape des
+ * durées mesurées sur les messages suivis, puis détail des derniers messages
+ * suivis, du plus récent au plus ancien. Le panneau est rafraîchi une fois
+ * par seconde sur l'EDT, à partir de copies de {@link TraceStats}.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class TracePanel extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int REFRESH_PERIOD = 1000;
+	private static final TraceStage[] STAGES = TraceStage.values();
+
+	private final TraceStats traces;
+	private final StageModel stageModel;
+	private final TraceModel traceModel;
+	private final Timer refreshTimer;
+
+	/**
+	 * Permet d'instancier le panneau de suivi des messages.
+	 * 
+	 * @param traces
+	 *            Agrégation des messages suivis par le serveur.
+	 */
+	public TracePanel (final TraceStats traces) {
+		super(new MigLayout("fill, wrap 1", "[grow]", "[][grow]"));
+		ResourceManager props = ResourceManager.getInstance();
+		this.traces = traces;
+		this.stageModel = new StageModel();
+		this.traceModel = new TraceModel();
+		JTable stageTable = new JTable(this.stageModel);
+		JTable traceTable = new JTable(this.traceModel);
+		stageTable.setFillsViewportHeight(true);
+		traceTable.setFillsViewportHeight(true);
+		JScrollPane stageScroll = new JScrollPane(stageTable);
+		stageScroll.setBorder(BorderFactory.createTitledBorder(props.getString("serverView.traces.stages")));
+		JScrollPane traceScroll = new JScrollPane(traceTable);
+		traceScroll.setBorder(BorderFactory.createTitledBorder(props.getString("serverView.traces.recent")));
+		add(stageScroll, "growx, h 220!");
+		add(traceScroll, "grow");
+		this.refreshTimer = new Timer(REFRESH_PERIOD, new ActionListener() {
+
+			@Override
+			public void actionPerformed (ActionEvent e) {
+				refresh();
+			}
+		});
+	}
+
+	@Override
+	public void addNotify () {
+		super.addNotify();
+		refresh();
+		this.refreshTimer.start();
+	}
+
+	@Override
+	public void removeNotify () {
+		this.refreshTimer.stop();
+		super.removeNotify();
+	}
+
+	/**
+	 * Permet de recharger les tableaux depuis l'agrégation des messages
+	 * suivis.
+	 */
+	private void refresh () {
+		this.stageModel.update(this.traces.snapshot());
+		List<TraceStats.Trace> recent = this.traces.getRecentTraces();
+		Collections.reverse(recent);
+		this.traceModel.update(recent);
+	}
+
+	/**
+	 * Permet de formater une durée en millisecondes.
+	 * 
+	 * @param nanos
+	 *            Durée en nanosecondes.
+	 * @return Durée formatée, ou une chaîne vide si elle n'a pas été mesurée.
+	 */
+	private static String toMillis (long nanos) {
+		return nanos < 0 ? "" : String.format("%.3f", nanos / 1e6);
+	}
+
+	/**
+	 * Modèle du tableau de répartition des durées par étape.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class StageModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 1L;
+		private static final String[] COLUMNS = { "Stage", "Count", "Mean (ms)", "p50 (ms)", "p99 (ms)", "Max (ms)" };
+
+		private LatencyHistogram.Snapshot[] stages = new LatencyHistogram.Snapshot[0];
+
+		/**
+		 * Permet de remplacer les copies affichées.
+		 * 
+		 * @param stages
+		 *            Copies des histogrammes de chaque étape.
+		 */
+		private void update (LatencyHistogram.Snapshot[] stages) {
+			this.stages = stages;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount () {
+			return this.stages.length;
+		}
+
+		@Override
+		public int getColumnCount () {
+			return COLUMNS.length;
+		}
+
+		@Override
+		public String getColumnName (int column) {
+			return COLUMNS[column];
+		}
+
+		@Override
+		public Object getValueAt (int row, int column) {
+			LatencyHistogram.Snapshot stage = this.stages[row];
+			switch (column) {
+				case 0:
+					return STAGES[row];
+				case 1:
+					return stage.getCount();
+				case 2:
+					return toMillis((long) stage.getMean());
+				case 3:
+					return toMillis(stage.getPercentile(50));
+				case 4:
+					return toMillis(stage.getPercentile(99));
+				default:
+					return toMillis(stage.getMax());
+			}
+		}
+	}
+
+	/**
+	 * Modèle du tableau de détail des derniers messages suivis.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class TraceModel extends AbstractTableModel {
+
+		private static final long serialVersionUID = 1L;
+		private static final int FIXED_COLUMNS = 3;
+
+		private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS");
+		private List<TraceStats.Trace> traces = new ArrayList<>();
+
+		/**
+		 * Permet de remplacer les messages affichés.
+		 * 
+		 * @param traces
+		 *            Messages suivis, du plus récent au plus ancien.
+		 */
+		private void update (List<TraceStats.Trace> traces) {
+			this.traces = traces;
+			fireTableDataChanged();
+		}
+
+		@Override
+		public int getRowCount () {
+			return this.traces.size();
+		}
+
+		@Override
+		public int getColumnCount () {
+			return FIXED_COLUMNS + STAGES.length;
+		}
+
+		@Override
+		public String getColumnName (int column) {
+			switch (column) {
+				case 0:
+					return "Time";
+				case 1:
+					return "Chat";
+				case 2:
+					return "Trace";
+				default:
+					return STAGES[column - FIXED_COLUMNS] + " (ms)";
+			}
+		}
+
+		@Override
+		public Object getValueAt (int row, int column) {
+			TraceStats.Trace trace = this.traces.get(row);
+			switch (column) {
+				case 0:
+					return this.timeFormat.format(new Date(trace.getTime()));
+				case 1:
+					return trace.getChatId();
+				case 2:
+					return Long.toHexString(trace.getTraceId());
+				default:
+					return toMillis(trace.getDuration(STAGES[column - FIXED_COLUMNS]));
+			}
+		}
+	}
+}
\ No newline at end of file
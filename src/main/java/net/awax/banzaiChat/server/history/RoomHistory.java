@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.history;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.history.FrameRing;
+import net.awax.banzaiChat.history.MessageLog;
+
+/**
+ * Historique des messages d'un salon. Les messages récents sont servis depuis
+ * un {@link FrameRing} sans décodage ; seules les demandes remontant au-delà
+ * du tampon sont déléguées au journal persistant, qui reçoit par ailleurs
+ * chaque nouveau message.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class RoomHistory {
+
+	private final Logger logger;
+	private final String roomId;
+	private final FrameRing ring;
+	private final MessageLog log;
+
+	/**
+	 * Permet d'instancier l'historique d'un salon.
+	 * 
+	 * @param roomId
+	 *            Identifiant du salon.
+	 * @param ringBytes
+	 *            Budget en octets du tampon des messages récents.
+	 * @param log
+	 *            Journal des messages, peut être <code>null</code> pour un
+	 *            salon sans historique au-delà du tampon.
+	 */
+	public RoomHistory (String roomId, long ringBytes, MessageLog log) {
+		this.logger = Logger.getLogger(getClass());
+		this.roomId = roomId;
+		this.ring = new FrameRing(ringBytes);
+		this.log = log;
+	}
+
+	/**
+	 * Permet d'ajouter un nouveau message encodé à l'historique et au
+	 * journal.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence du message.
+	 * @param frame
+	 *            Trame encodée du message.
+	 */
+	public void append (long sequence, byte[] frame) {
+		if (this.log != null) {
+			try {
+				this.log.append(this.roomId, sequence, frame);
+			} catch (IOException e) {
+				this.logger.error("Cannot write message " + sequence + " of " + this.roomId + " to log", e);
+			}
+		}
+		this.ring.append(sequence, frame);
+	}
+
+	/**
+	 * Permet de réinjecter un message relu depuis le journal lors du
+	 * redémarrage du serveur. Le message n'est ajouté qu'au tampon mémoire.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence du message.
+	 * @param frame
+	 *            Trame encodée du message.
+	 */
+	public void restore (long sequence, byte[] frame) {
+		this.ring.append(sequence, frame);
+	}
+
+	/**
+	 * Renvoie les derniers messages du salon. Ils sont servis depuis le tampon
+	 * mémoire, le journal n'étant relu que si le tampon en contient moins que
+	 * demandé (par exemple juste après un redémarrage).
+	 * 
+	 * @param maxFrames
+	 *            Nombre maximum de messages souhaités.
+	 * @param lastSequence
+	 *            Numéro de séquence du dernier message du salon.
+	 * @return Trames des derniers messages, de la plus ancienne à la plus
+	 *         récente.
+	 */
+	public List<byte[]> recent (int maxFrames, long lastSequence) {
+		List<byte[]> frames = this.ring.tail(maxFrames);
+		if (frames.size() < maxFrames && this.log != null && lastSequence > frames.size()) {
+			return read(Math.max(1, lastSequence - maxFrames + 1), maxFrames);
+		}
+		return frames;
+	}
+
+	/**
+	 * Renvoie les messages du salon à partir du numéro de séquence spécifié.
+	 * La partie couverte par le tampon mémoire est servie directement, le
+	 * reste est relu depuis le journal s'il existe.
+	 * 
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de messages souhaités.
+	 * @return Trames des messages, de la plus ancienne à la plus récente.
+	 */
+	public List<byte[]> read (long fromSequence, int maxFrames) {
+		long firstInRing = this.ring.getFirstSequence();
+		if (firstInRing >= 0 && fromSequence >= firstInRing) {
+			return this.ring.range(fromSequence, maxFrames);
+		}
+		List<byte[]> result = new ArrayList<>();
+		if (this.log != null) {
+			int fromDisk = firstInRing >= 0 ? (int) Math.min(maxFrames, firstInRing - fromSequence) : maxFrames;
+			try {
+				result.addAll(this.log.read(this.roomId, fromSequence, fromDisk));
+			} catch (IOException e) {
+				this.logger.error("Cannot read history of " + this.roomId + " from " + fromSequence, e);
+			}
+		}
+		if (firstInRing >= 0 && result.size() < maxFrames) {
+			result.addAll(this.ring.range(firstInRing, maxFrames - result.size()));
+		}
+		return result;
+	}
+
+	public String getRoomId () {
+		return this.roomId;
+	}
+
+	public FrameRing getRing () {
+		return this.ring;
+	}
+}
\ No newline at end of file
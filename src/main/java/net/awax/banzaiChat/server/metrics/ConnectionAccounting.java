@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Comptabilité du temps CPU et de la mémoire allouée par le traitement des
+ * trames de chaque connexion. Chaque connexion étant servie par son propre
+ * thread, les compteurs du thread sont relevés via {@link ThreadMXBean} avant
+ * et après la notification des abonnés, aiguillage et envois aux
+ * destinataires compris : la différence est attribuée à la connexion
+ * émettrice. Les connexions fermées récemment restent consultables afin de
+ * retrouver un client qui se serait déconnecté après une rafale.
+ * <p>
+ * La mesure de la mémoire allouée dépend de l'extension
+ * <code>com.sun.management.ThreadMXBean</code> de la JVM ; si elle ou la
+ * mesure du temps CPU ne sont pas disponibles, la valeur correspondante reste
+ * à zéro.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ConnectionAccounting {
+
+	/** Nombre de connexions fermées conservées */
+	public static final int MAX_CLOSED = 64;
+
+	private final Logger logger;
+	private final ThreadMXBean threads;
+	private final com.sun.management.ThreadMXBean allocations;
+	private final ConcurrentHashMap<Long, Usage> open;
+	private final LinkedHashMap<Long, Usage> closed;
+	private volatile boolean cpuEnabled;
+	private volatile boolean allocationEnabled;
+
+	/**
+	 * Permet d'instancier la comptabilité des connexions, activée si la JVM le
+	 * permet.
+	 */
+	public ConnectionAccounting () {
+		this.logger = Logger.getLogger(getClass());
+		this.threads = ManagementFactory.getThreadMXBean();
+		this.allocations = this.threads instanceof com.sun.management.ThreadMXBean
+				? (com.sun.management.ThreadMXBean) this.threads : null;
+		this.open = new ConcurrentHashMap<>();
+		this.closed = new LinkedHashMap<Long, Usage>(MAX_CLOSED * 2) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<Long, Usage> eldest) {
+				return size() > MAX_CLOSED;
+			}
+		};
+		setEnabled(true);
+	}
+
+	/**
+	 * Permet d'activer ou de désactiver les mesures, y compris leur relevé par
+	 * la JVM. Les mesures non supportées par la JVM restent désactivées.
+	 * 
+	 * @param enabled
+	 *            <code>true</code> pour relever les compteurs des threads.
+	 */
+	public void setEnabled (boolean enabled) {
+		this.cpuEnabled = false;
+		this.allocationEnabled = false;
+		try {
+			if (this.threads.isCurrentThreadCpuTimeSupported()) {
+				this.threads.setThreadCpuTimeEnabled(enabled);
+				this.cpuEnabled = enabled;
+			}
+			if (this.allocations != null && this.allocations.isThreadAllocatedMemorySupported()) {
+				this.allocations.setThreadAllocatedMemoryEnabled(enabled);
+				this.allocationEnabled = enabled;
+			}
+		} catch (UnsupportedOperationException | SecurityException e) {
+			this.logger.warn("Thread CPU or allocation accounting is not available", e);
+		}
+	}
+
+	/**
+	 * Permet d'enregistrer une nouvelle connexion.
+	 * 
+	 * @param sessionId
+	 *            Identifiant de session de la connexion.
+	 * @param remote
+	 *            Adresse et port du client distant.
+	 * @return Compteurs de la connexion.
+	 */
+	public Usage open (long sessionId, String remote) {
+		Usage usage = new Usage(sessionId, remote);
+		this.open.put(sessionId, usage);
+		return usage;
+	}
+
+	/**
+	 * Permet de signaler la fermeture d'une connexion. Ses compteurs sont
+	 * conservés parmi les dernières connexions fermées.
+	 * 
+	 * @param usage
+	 *            Compteurs de la connexion.
+	 */
+	public void close (Usage usage) {
+		usage.closed = true;
+		this.open.remove(usage.sessionId);
+		synchronized (this.closed) {
+			this.closed.put(usage.sessionId, usage);
+		}
+	}
+
+	/**
+	 * Renvoie les connexions ayant consommé le plus de temps CPU.
+	 * 
+	 * @param limit
+	 *            Nombre maximum de connexions renvoyées.
+	 * @return Connexions ouvertes ou fermées récemment, par temps CPU
+	 *         décroissant.
+	 */
+	public List<Usage> getTopByCpu (int limit) {
+		return getTop(new Comparator<Usage>() {
+
+			@Override
+			public int compare (Usage u1, Usage u2) {
+				return Long.compare(u2.cpuNanos, u1.cpuNanos);
+			}
+		}, limit);
+	}
+
+	/**
+	 * Renvoie les connexions ayant alloué le plus de mémoire.
+	 * 
+	 * @param limit
+	 *            Nombre maximum de connexions renvoyées.
+	 * @return Connexions ouvertes ou fermées récemment, par mémoire allouée
+	 *         décroissante.
+	 */
+	public List<Usage> getTopByAllocation (int limit) {
+		return getTop(new Comparator<Usage>() {
+
+			@Override
+			public int compare (Usage u1, Usage u2) {
+				return Long.compare(u2.allocatedBytes, u1.allocatedBytes);
+			}
+		}, limit);
+	}
+
+	/**
+	 * Permet de trier les connexions ouvertes et fermées récemment.
+	 * 
+	 * @param order
+	 *            Ordre de tri.
+	 * @param limit
+	 *            Nombre maximum de connexions renvoyées.
+	 * @return Copies des premières connexions dans l'ordre demandé.
+	 */
+	private List<Usage> getTop (Comparator<Usage> order, int limit) {
+		// Les compteurs sont copiés afin de trier des valeurs figées
+		List<Usage> all = new ArrayList<>();
+		for (Usage usage : this.open.values()) {
+			all.add(new Usage(usage));
+		}
+		synchronized (this.closed) {
+			for (Usage usage : this.closed.values()) {
+				all.add(new Usage(usage));
+			}
+		}
+		Collections.sort(all, order);
+		return all.size() > limit ? new ArrayList<>(all.subList(0, limit)) : all;
+	}
+
+	/**
+	 * Compteurs d'une connexion. Ils ne sont modifiés que par le thread de la
+	 * connexion, entre {@link #begin()} et {@link #end()}, et peuvent être lus
+	 * depuis n'importe quel thread.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	public class Usage {
+
+		private final long sessionId;
+		private final String remote;
+		private final long opened;
+		private volatile long frames;
+		private volatile long cpuNanos;
+		private volatile long allocatedBytes;
+		private volatile boolean closed;
+		private long startCpu;
+		private long startAllocated;
+
+		/**
+		 * Permet d'instancier les compteurs à zéro d'une connexion.
+		 * 
+		 * @param sessionId
+		 *            Identifiant de session de la connexion.
+		 * @param remote
+		 *            Adresse et port du client distant.
+		 */
+		private Usage (long sessionId, String remote) {
+			this.sessionId = sessionId;
+			this.remote = remote;
+			this.opened = System.currentTimeMillis();
+			this.frames = 0;
+			this.cpuNanos = 0;
+			this.allocatedBytes = 0;
+			this.closed = false;
+		}
+
+		/**
+		 * Permet de copier les compteurs d'une connexion.
+		 * 
+		 * @param usage
+		 *            Compteurs à copier.
+		 */
+		private Usage (Usage usage) {
+			this.sessionId = usage.sessionId;
+			this.remote = usage.remote;
+			this.opened = usage.opened;
+			this.frames = usage.frames;
+			this.cpuNanos = usage.cpuNanos;
+			this.allocatedBytes = usage.allocatedBytes;
+			this.closed = usage.closed;
+		}
+
+		/**
+		 * Permet de relever les compteurs du thread courant avant le
+		 * traitement d'une trame.
+		 */
+		public void begin () {
+			ConnectionAccounting accounting = ConnectionAccounting.this;
+			this.startCpu = accounting.cpuEnabled ? accounting.threads.getCurrentThreadCpuTime() : -1;
+			this.startAllocated = accounting.allocationEnabled
+					? accounting.allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+		}
+
+		/**
+		 * Permet d'attribuer à la connexion le temps CPU et la mémoire
+		 * consommés par le thread courant depuis {@link #begin()}.
+		 */
+		public void end () {
+			ConnectionAccounting accounting = ConnectionAccounting.this;
+			this.frames++;
+			if (this.startCpu >= 0 && accounting.cpuEnabled) {
+				long cpu = accounting.threads.getCurrentThreadCpuTime();
+				if (cpu >= this.startCpu) {
+					this.cpuNanos += cpu - this.startCpu;
+				}
+			}
+			if (this.startAllocated >= 0 && accounting.allocationEnabled) {
+				long allocated = accounting.allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+				if (allocated >= this.startAllocated) {
+					this.allocatedBytes += allocated - this.startAllocated;
+				}
+			}
+		}
+
+		public long getSessionId () {
+			return this.sessionId;
+		}
+
+		public String getRemote () {
+			return this.remote;
+		}
+
+		public long getOpened () {
+			return this.opened;
+		}
+
+		public long getFrames () {
+			return this.frames;
+		}
+
+		public long getCpuNanos () {
+			return this.cpuNanos;
+		}
+
+		public long getAllocatedBytes () {
+			return this.allocatedBytes;
+		}
+
+		public boolean isClosed () {
+			return this.closed;
+		}
+	}
+}
\ No newline at end of file
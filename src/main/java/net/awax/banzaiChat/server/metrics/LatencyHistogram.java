@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées en nanosecondes à intervalles log-linéaires : chaque
+ * puissance de deux est découpée en {@value #SUB_BUCKETS} intervalles de même
+ * largeur, ce qui borne l'erreur relative d'un percentile à 12,5 % pour une
+ * mémoire fixe. Les durées d'au moins 2^{@value #MAX_EXPONENT} ns (environ
+ * 73 minutes) sont comptées dans le dernier intervalle.
+ * <p>
+ * L'enregistrement est sans verrou et peut être appelé depuis n'importe quel
+ * thread ; la lecture se fait par copie ({@link #snapshot()}).
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class LatencyHistogram {
+
+	/** Nombre de bits de précision sous chaque puissance de deux */
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int MAX_EXPONENT = 42;
+
+	/** Nombre total d'intervalles de l'histogramme */
+	public static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts;
+	private final LongAdder sum;
+	private final AtomicLong max;
+
+	/**
+	 * Permet d'instancier un histogramme vide.
+	 */
+	public LatencyHistogram () {
+		this.counts = new AtomicLongArray(BUCKETS);
+		this.sum = new LongAdder();
+		this.max = new AtomicLong();
+	}
+
+	/**
+	 * Permet d'enregistrer une durée.
+	 * 
+	 * @param nanos
+	 *            Durée en nanosecondes, les valeurs négatives comptant pour 0.
+	 */
+	public void record (long nanos) {
+		long value = Math.max(0, nanos);
+		this.counts.incrementAndGet(getBucket(value));
+		this.sum.add(value);
+		long current = this.max.get();
+		while (value > current && !this.max.compareAndSet(current, value)) {
+			current = this.max.get();
+		}
+	}
+
+	/**
+	 * Renvoie une copie de l'état actuel de l'histogramme. Les
+	 * enregistrements concurrents pouvant se poursuivre pendant la copie, le
+	 * total peut différer de quelques unités de la somme des intervalles.
+	 * 
+	 * @return Copie de l'histogramme.
+	 */
+	public Snapshot snapshot () {
+		long[] buckets = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = this.counts.get(i);
+			total += buckets[i];
+		}
+		return new Snapshot(buckets, total, this.sum.sum(), this.max.get());
+	}
+
+	/**
+	 * Renvoie l'indice de l'intervalle contenant la durée spécifiée.
+	 * 
+	 * @param value
+	 *            Durée positive en nanosecondes.
+	 * @return Indice de l'intervalle.
+	 */
+	public static int getBucket (long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return Math.min(BUCKETS - 1, (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub);
+	}
+
+	/**
+	 * Renvoie la plus grande durée comprise dans l'intervalle spécifié.
+	 * 
+	 * @param bucket
+	 *            Indice de l'intervalle.
+	 * @return Borne supérieure incluse, en nanosecondes.
+	 */
+	public static long getUpperBound (int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+	/**
+	 * Copie figée d'un histogramme.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	public static class Snapshot {
+
+		private final long[] buckets;
+		private final long count;
+		private final long sum;
+		private final long max;
+
+		/**
+		 * Permet d'instancier une copie d'histogramme.
+		 * 
+		 * @param buckets
+		 *            Nombre de durées par intervalle.
+		 * @param count
+		 *            Nombre total de durées.
+		 * @param sum
+		 *            Somme des durées en nanosecondes.
+		 * @param max
+		 *            Plus grande durée enregistrée.
+		 */
+		private Snapshot (long[] buckets, long count, long sum, long max) {
+			this.buckets = buckets;
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+		}
+
+		/**
+		 * Renvoie le percentile spécifié, arrondi à la borne supérieure de son
+		 * intervalle.
+		 * 
+		 * @param percentile
+		 *            Percentile souhaité, entre 0 et 100.
+		 * @return Valeur du percentile en nanosecondes, ou <code>0</code> si
+		 *         l'histogramme est vide.
+		 */
+		public long getPercentile (double percentile) {
+			if (this.count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * this.count));
+			long seen = 0;
+			for (int i = 0; i < this.buckets.length; i++) {
+				seen += this.buckets[i];
+				if (seen >= rank) {
+					return Math.min(getUpperBound(i), this.max);
+				}
+			}
+			return this.max;
+		}
+
+		/**
+		 * Renvoie l'histogramme des seules durées enregistrées depuis une
+		 * copie précédente du même histogramme. La plus grande durée de
+		 * l'intervalle n'étant pas connue, elle est estimée par la borne
+		 * supérieure du dernier intervalle non vide.
+		 * 
+		 * @param previous
+		 *            Copie précédente du même histogramme.
+		 * @return Différence entre les deux copies.
+		 */
+		public Snapshot since (Snapshot previous) {
+			long[] delta = new long[this.buckets.length];
+			long total = 0;
+			long highest = 0;
+			for (int i = 0; i < delta.length; i++) {
+				delta[i] = Math.max(0, this.buckets[i] - previous.buckets[i]);
+				total += delta[i];
+				if (delta[i] > 0) {
+					highest = Math.min(getUpperBound(i), this.max);
+				}
+			}
+			return new Snapshot(delta, total, Math.max(0, this.sum - previous.sum), highest);
+		}
+
+		/**
+		 * Renvoie la durée moyenne.
+		 * 
+		 * @return Durée moyenne en nanosecondes.
+		 */
+		public double getMean () {
+			return this.count > 0 ? (double) this.sum / this.count : 0;
+		}
+
+		/**
+		 * Renvoie le nombre de durées comprises dans l'intervalle spécifié.
+		 * 
+		 * @param bucket
+		 *            Indice de l'intervalle.
+		 * @return Nombre de durées.
+		 */
+		public long getBucketCount (int bucket) {
+			return this.buckets[bucket];
+		}
+
+		public long getCount () {
+			return this.count;
+		}
+
+		public long getSum () {
+			return this.sum;
+		}
+
+		public long getMax () {
+			return this.max;
+		}
+	}
+}
\ No newline at end of file
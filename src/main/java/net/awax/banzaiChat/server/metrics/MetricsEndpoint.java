@@ -0,0 +1,272 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Point d'accès HTTP exposant les mesures du serveur au format texte de
+ * Prometheus sur <code>/metrics</code>. Les requêtes sont traitées par un
+ * unique thread de faible priorité qui lit une copie du registre sans verrou :
+ * une collecte n'interrompt jamais les threads d'entrées/sorties du chat.
+ * <p>
+ * Les histogrammes sont exportés en secondes sur une échelle fixe d'une borne
+ * par puissance de deux, de 1 µs à 17 s, afin que la série de bornes reste la
+ * même d'une collecte à l'autre.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MetricsEndpoint implements HttpHandler {
+
+	/** Type de contenu du format texte de Prometheus */
+	public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final String PREFIX = "banzaichat_";
+	/** Exposants extrêmes des bornes exportées, en nanosecondes */
+	private static final int MIN_EXPONENT = 10;
+	private static final int MAX_EXPONENT = 34;
+
+	private final Logger logger;
+	private final ServerMetrics metrics;
+	private HttpServer server;
+	private ExecutorService executor;
+
+	/**
+	 * Permet d'instancier le point d'accès aux mesures.
+	 * 
+	 * @param metrics
+	 *            Registre des mesures du serveur.
+	 */
+	public MetricsEndpoint (final ServerMetrics metrics) {
+		this.logger = Logger.getLogger(getClass());
+		this.metrics = metrics;
+		this.server = null;
+		this.executor = null;
+	}
+
+	/**
+	 * Permet d'ouvrir le point d'accès HTTP.
+	 * 
+	 * @param address
+	 *            Adresse d'écoute, par exemple <code>127.0.0.1</code> pour
+	 *            limiter l'accès à la machine locale.
+	 * @param port
+	 *            Port d'écoute.
+	 * @throws IOException
+	 *             Si le port ne peut être ouvert, une exception est lancée.
+	 */
+	public synchronized void start (String address, int port) throws IOException {
+		if (this.server == null) {
+			HttpServer server = HttpServer.create(new InetSocketAddress(address, port), 0);
+			this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread (Runnable r) {
+					Thread thread = new Thread(r, "MetricsEndpoint");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+			server.createContext("/metrics", this);
+			server.setExecutor(this.executor);
+			server.start();
+			this.server = server;
+		}
+	}
+
+	/**
+	 * Permet de fermer le point d'accès HTTP.
+	 */
+	public synchronized void stop () {
+		if (this.server != null) {
+			this.server.stop(0);
+			this.executor.shutdownNow();
+			this.server = null;
+			this.executor = null;
+		}
+	}
+
+	@Override
+	public void handle (HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod()) && !"HEAD".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = format(this.metrics.snapshot()).getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+			if ("HEAD".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			OutputStream out = exchange.getResponseBody();
+			out.write(body);
+			out.flush();
+		} catch (IOException e) {
+			this.logger.debug("Cannot send metrics to " + exchange.getRemoteAddress(), e);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Permet de mettre en forme une copie des mesures au format texte de
+	 * Prometheus.
+	 * 
+	 * @param snapshot
+	 *            Copie des mesures du serveur.
+	 * @return Texte à renvoyer au collecteur.
+	 */
+	public static String format (MetricsSnapshot snapshot) {
+		StringBuilder sb = new StringBuilder(8192);
+		appendGauge(sb, "connections_active", "Client connections currently open", snapshot.getActiveConnections());
+		appendCounter(sb, "connections_opened_total", "Client connections accepted", snapshot.getConnectionsOpened());
+		appendCounter(sb, "connections_closed_total", "Client connections closed", snapshot.getConnectionsClosed());
+		appendCounter(sb, "messages_published_total", "Chat messages published in a room", snapshot.getMessagesPublished());
+		appendGauge(sb, "send_queue_depth", "Frames waiting for or being written to a client socket", snapshot.getPendingSends());
+		appendCounter(sb, "frames_received_total", "Frames received from clients", snapshot.getFramesIn());
+		appendCounter(sb, "frames_sent_total", "Frames sent to clients", snapshot.getFramesOut());
+		appendCounter(sb, "received_bytes_total", "Bytes received from clients, frame headers included", snapshot.getBytesIn());
+		appendCounter(sb, "sent_bytes_total", "Bytes sent to clients, frame headers included", snapshot.getBytesOut());
+		appendCounter(sb, "receive_errors_total", "Errors while reading from a client", snapshot.getReceiveErrors());
+		appendCounter(sb, "decode_errors_total", "Received frames that could not be decoded", snapshot.getDecodeErrors());
+		appendCounter(sb, "send_errors_total", "Errors while writing to a client", snapshot.getSendErrors());
+		appendCounter(sb, "watchdog_trips_total", "Connections closed by the error watchdog", snapshot.getWatchdogTrips());
+		appendHistogram(sb, "decode_seconds", "Time spent decoding a received frame", snapshot.getDecodeTime());
+		appendHistogram(sb, "route_seconds", "Time spent publishing a message to its room", snapshot.getRouteTime());
+		appendHistogram(sb, "write_seconds", "Time spent writing a frame to a client socket", snapshot.getWriteTime());
+		return sb.toString();
+	}
+
+	/**
+	 * Permet d'ajouter un compteur cumulatif.
+	 * 
+	 * @param sb
+	 *            Texte en cours de construction.
+	 * @param name
+	 *            Nom de la mesure, sans préfixe.
+	 * @param help
+	 *            Description de la mesure.
+	 * @param value
+	 *            Valeur du compteur.
+	 */
+	private static void appendCounter (StringBuilder sb, String name, String help, long value) {
+		appendHeader(sb, name, help, "counter");
+		sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+	}
+
+	/**
+	 * Permet d'ajouter une valeur instantanée.
+	 * 
+	 * @param sb
+	 *            Texte en cours de construction.
+	 * @param name
+	 *            Nom de la mesure, sans préfixe.
+	 * @param help
+	 *            Description de la mesure.
+	 * @param value
+	 *            Valeur de la mesure.
+	 */
+	private static void appendGauge (StringBuilder sb, String name, String help, long value) {
+		appendHeader(sb, name, help, "gauge");
+		sb.append(PREFIX).append(name).append(' ').append(value).append('\n');
+	}
+
+	/**
+	 * Permet d'ajouter un histogramme de durées converti en secondes. Chaque
+	 * borne exportée correspond à la fin d'une puissance de deux de
+	 * l'histogramme d'origine, les comptes y sont donc exacts.
+	 * 
+	 * @param sb
+	 *            Texte en cours de construction.
+	 * @param name
+	 *            Nom de la mesure, sans préfixe.
+	 * @param help
+	 *            Description de la mesure.
+	 * @param histogram
+	 *            Copie de l'histogramme en nanosecondes.
+	 */
+	private static void appendHistogram (StringBuilder sb, String name, String help, LatencyHistogram.Snapshot histogram) {
+		appendHeader(sb, name, help, "histogram");
+		long cumulative = 0;
+		int bucket = 0;
+		for (int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++) {
+			// Dernier intervalle dont la borne supérieure reste sous 2^exponent
+			int last = LatencyHistogram.getBucket((1L << exponent) - 1);
+			for (; bucket <= last; bucket++) {
+				cumulative += histogram.getBucketCount(bucket);
+			}
+			sb.append(PREFIX).append(name).append("_bucket{le=\"").append(toSeconds(1L << exponent)).append("\"} ")
+					.append(cumulative).append('\n');
+		}
+		sb.append(PREFIX).append(name).append("_bucket{le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+		sb.append(PREFIX).append(name).append("_sum ").append(toSeconds(histogram.getSum())).append('\n');
+		sb.append(PREFIX).append(name).append("_count ").append(histogram.getCount()).append('\n');
+	}
+
+	/**
+	 * Permet d'ajouter les lignes de description et de type d'une mesure.
+	 * 
+	 * @param sb
+	 *            Texte en cours de construction.
+	 * @param name
+	 *            Nom de la mesure, sans préfixe.
+	 * @param help
+	 *            Description de la mesure.
+	 * @param type
+	 *            Type Prometheus de la mesure.
+	 */
+	private static void appendHeader (StringBuilder sb, String name, String help, String type) {
+		sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+	}
+
+	/**
+	 * Permet de convertir une durée en secondes.
+	 * 
+	 * @param nanos
+	 *            Durée en nanosecondes.
+	 * @return Durée exacte en secondes.
+	 */
+	private static String toSeconds (long nanos) {
+		return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+/**
+ * Historique glissant des mesures du serveur, échantillonnées chaque seconde
+ * dans un tampon circulaire de taille fixe : chaque série est un tableau
+ * alloué une fois pour toutes, l'échantillon le plus ancien étant écrasé par
+ * le plus récent. Les débits et les percentiles sont calculés sur l'intervalle
+ * écoulé depuis l'échantillon précédent.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MetricsHistory {
+
+	/**
+	 * Séries échantillonnées.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	public enum Series {
+		/** Connexions ouvertes */
+		CONNECTIONS,
+		/** Messages publiés par seconde */
+		MESSAGES,
+		/** Trames reçues par seconde */
+		FRAMES_IN,
+		/** Trames envoyées par seconde */
+		FRAMES_OUT,
+		/** Octets reçus par seconde */
+		BYTES_IN,
+		/** Octets envoyés par seconde */
+		BYTES_OUT,
+		/** Envois en attente ou en cours d'écriture */
+		SEND_QUEUE,
+		/** 99e percentile de la durée d'aiguillage, en nanosecondes */
+		ROUTE_P99,
+		/** 99e percentile de la durée d'écriture, en nanosecondes */
+		WRITE_P99;
+	}
+
+	private final int capacity;
+	private final long[] times;
+	private final long[][] values;
+	private MetricsSnapshot previous;
+	private int next;
+	private int size;
+
+	/**
+	 * Permet d'instancier un historique vide.
+	 * 
+	 * @param capacity
+	 *            Nombre d'échantillons conservés.
+	 */
+	public MetricsHistory (int capacity) {
+		this.capacity = capacity;
+		this.times = new long[capacity];
+		this.values = new long[Series.values().length][capacity];
+		this.previous = null;
+		this.next = 0;
+		this.size = 0;
+	}
+
+	/**
+	 * Permet d'ajouter un échantillon calculé depuis la copie précédente des
+	 * mesures. La première copie sert uniquement de référence.
+	 * 
+	 * @param current
+	 *            Copie actuelle des mesures du serveur.
+	 */
+	public synchronized void add (MetricsSnapshot current) {
+		MetricsSnapshot last = this.previous;
+		this.previous = current;
+		if (last == null) {
+			return;
+		}
+		long elapsed = Math.max(1, current.getTime() - last.getTime());
+		int i = this.next;
+		this.times[i] = current.getTime();
+		set(Series.CONNECTIONS, i, current.getActiveConnections());
+		set(Series.MESSAGES, i, rate(current.getMessagesPublished() - last.getMessagesPublished(), elapsed));
+		set(Series.FRAMES_IN, i, rate(current.getFramesIn() - last.getFramesIn(), elapsed));
+		set(Series.FRAMES_OUT, i, rate(current.getFramesOut() - last.getFramesOut(), elapsed));
+		set(Series.BYTES_IN, i, rate(current.getBytesIn() - last.getBytesIn(), elapsed));
+		set(Series.BYTES_OUT, i, rate(current.getBytesOut() - last.getBytesOut(), elapsed));
+		set(Series.SEND_QUEUE, i, current.getPendingSends());
+		set(Series.ROUTE_P99, i, current.getRouteTime().since(last.getRouteTime()).getPercentile(99));
+		set(Series.WRITE_P99, i, current.getWriteTime().since(last.getWriteTime()).getPercentile(99));
+		this.next = (i + 1) % this.capacity;
+		this.size = Math.min(this.size + 1, this.capacity);
+	}
+
+	/**
+	 * Permet de copier les valeurs d'une série, de la plus ancienne à la plus
+	 * récente.
+	 * 
+	 * @param series
+	 *            Série souhaitée.
+	 * @param dest
+	 *            Tableau de destination, d'au moins {@link #getCapacity()}
+	 *            éléments.
+	 * @return Nombre de valeurs copiées.
+	 */
+	public synchronized int copy (Series series, long[] dest) {
+		long[] source = this.values[series.ordinal()];
+		int first = (this.next - this.size + this.capacity) % this.capacity;
+		for (int n = 0; n < this.size; n++) {
+			dest[n] = source[(first + n) % this.capacity];
+		}
+		return this.size;
+	}
+
+	/**
+	 * Renvoie la valeur la plus récente d'une série.
+	 * 
+	 * @param series
+	 *            Série souhaitée.
+	 * @return Dernière valeur, ou <code>0</code> si l'historique est vide.
+	 */
+	public synchronized long getLast (Series series) {
+		if (this.size == 0) {
+			return 0;
+		}
+		return this.values[series.ordinal()][(this.next - 1 + this.capacity) % this.capacity];
+	}
+
+	/**
+	 * Renvoie la date de l'échantillon le plus récent.
+	 * 
+	 * @return Date en millisecondes, ou <code>0</code> si l'historique est
+	 *         vide.
+	 */
+	public synchronized long getLastTime () {
+		return this.size > 0 ? this.times[(this.next - 1 + this.capacity) % this.capacity] : 0;
+	}
+
+	/**
+	 * Permet de ramener une différence de compteurs à un débit par seconde.
+	 * 
+	 * @param delta
+	 *            Différence entre deux copies.
+	 * @param elapsed
+	 *            Durée écoulée en millisecondes.
+	 * @return Débit par seconde.
+	 */
+	private static long rate (long delta, long elapsed) {
+		return delta * 1000 / elapsed;
+	}
+
+	/**
+	 * Permet d'affecter une valeur d'échantillon.
+	 * 
+	 * @param series
+	 *            Série concernée.
+	 * @param index
+	 *            Position de l'échantillon dans le tampon.
+	 * @param value
+	 *            Valeur de l'échantillon.
+	 */
+	private void set (Series series, int index, long value) {
+		this.values[series.ordinal()][index] = value;
+	}
+
+	public int getCapacity () {
+		return this.capacity;
+	}
+
+	public synchronized int getSize () {
+		return this.size;
+	}
+}
\ No newline at end of file
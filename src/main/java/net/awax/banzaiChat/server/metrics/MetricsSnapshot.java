@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+/**
+ * Copie figée des mesures du serveur à un instant donné. Les compteurs sont
+ * cumulés depuis le lancement du serveur ; un débit s'obtient par différence
+ * entre deux copies.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MetricsSnapshot {
+
+	private final long time;
+	private final long connectionsOpened;
+	private final long connectionsClosed;
+	private final long framesIn;
+	private final long framesOut;
+	private final long bytesIn;
+	private final long bytesOut;
+	private final long receiveErrors;
+	private final long decodeErrors;
+	private final long sendErrors;
+	private final long watchdogTrips;
+	private final long messagesPublished;
+	private final long pendingSends;
+	private final LatencyHistogram.Snapshot decodeTime;
+	private final LatencyHistogram.Snapshot routeTime;
+	private final LatencyHistogram.Snapshot writeTime;
+
+	/**
+	 * Permet de copier l'état actuel d'un registre de mesures.
+	 * 
+	 * @param metrics
+	 *            Registre de mesures du serveur.
+	 */
+	MetricsSnapshot (ServerMetrics metrics) {
+		this.time = System.currentTimeMillis();
+		this.connectionsOpened = metrics.getConnectionsOpened();
+		this.connectionsClosed = metrics.getConnectionsClosed();
+		this.framesIn = metrics.getFramesIn();
+		this.framesOut = metrics.getFramesOut();
+		this.bytesIn = metrics.getBytesIn();
+		this.bytesOut = metrics.getBytesOut();
+		this.receiveErrors = metrics.getReceiveErrors();
+		this.decodeErrors = metrics.getDecodeErrors();
+		this.sendErrors = metrics.getSendErrors();
+		this.watchdogTrips = metrics.getWatchdogTrips();
+		this.messagesPublished = metrics.getMessagesPublished();
+		this.pendingSends = metrics.getPendingSends();
+		this.decodeTime = metrics.getDecodeTime().snapshot();
+		this.routeTime = metrics.getRouteTime().snapshot();
+		this.writeTime = metrics.getWriteTime().snapshot();
+	}
+
+	/**
+	 * Renvoie le nombre de connexions ouvertes au moment de la copie.
+	 * 
+	 * @return Nombre de connexions actives.
+	 */
+	public long getActiveConnections () {
+		return this.connectionsOpened - this.connectionsClosed;
+	}
+
+	/**
+	 * Renvoie le nombre total d'erreurs de réception, de décodage et
+	 * d'écriture.
+	 * 
+	 * @return Nombre total d'erreurs.
+	 */
+	public long getErrors () {
+		return this.receiveErrors + this.decodeErrors + this.sendErrors;
+	}
+
+	public long getTime () {
+		return this.time;
+	}
+
+	public long getConnectionsOpened () {
+		return this.connectionsOpened;
+	}
+
+	public long getConnectionsClosed () {
+		return this.connectionsClosed;
+	}
+
+	public long getFramesIn () {
+		return this.framesIn;
+	}
+
+	public long getFramesOut () {
+		return this.framesOut;
+	}
+
+	public long getBytesIn () {
+		return this.bytesIn;
+	}
+
+	public long getBytesOut () {
+		return this.bytesOut;
+	}
+
+	public long getReceiveErrors () {
+		return this.receiveErrors;
+	}
+
+	public long getDecodeErrors () {
+		return this.decodeErrors;
+	}
+
+	public long getSendErrors () {
+		return this.sendErrors;
+	}
+
+	public long getWatchdogTrips () {
+		return this.watchdogTrips;
+	}
+
+	public long getMessagesPublished () {
+		return this.messagesPublished;
+	}
+
+	public long getPendingSends () {
+		return this.pendingSends;
+	}
+
+	public LatencyHistogram.Snapshot getDecodeTime () {
+		return this.decodeTime;
+	}
+
+	public LatencyHistogram.Snapshot getRouteTime () {
+		return this.routeTime;
+	}
+
+	public LatencyHistogram.Snapshot getWriteTime () {
+		return this.writeTime;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,362 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+import net.awax.banzaiChat.net.FrameCodec;
+
+/**
+ * Registre des mesures du serveur : compteurs de connexions, de trames et
+ * d'octets échangés, d'erreurs et de coupures par le chien de garde, ainsi
+ * que les histogrammes des durées de décodage, d'aiguillage et d'écriture des
+ * trames, le détail des messages suivis ({@link TraceStats}) et la
+ * consommation de chaque connexion ({@link ConnectionAccounting}). Les
+ * compteurs sont des {@link LongAdder} et les histogrammes sont sans verrou :
+ * ils sont mis à jour directement par les threads clients sans les ralentir.
+ * <p>
+ * Les valeurs sont lisibles à tout moment via {@link #snapshot()} ; une copie
+ * est également prise périodiquement et résumée dans les traces, et un
+ * échantillon est ajouté chaque seconde à l'historique ({@link MetricsHistory}).
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class ServerMetrics {
+
+	/** Nombre de secondes conservées dans l'historique */
+	public static final int HISTORY_SECONDS = 300;
+
+	private final Logger logger;
+	private final LongAdder connectionsOpened;
+	private final LongAdder connectionsClosed;
+	private final LongAdder framesIn;
+	private final LongAdder framesOut;
+	private final LongAdder bytesIn;
+	private final LongAdder bytesOut;
+	private final LongAdder receiveErrors;
+	private final LongAdder decodeErrors;
+	private final LongAdder sendErrors;
+	private final LongAdder watchdogTrips;
+	private final LongAdder messagesPublished;
+	private final LongAdder pendingSends;
+	private final LatencyHistogram decodeTime;
+	private final LatencyHistogram routeTime;
+	private final LatencyHistogram writeTime;
+	private final TraceStats traces;
+	private final MetricsHistory history;
+	private final ConnectionAccounting accounting;
+	private volatile MetricsSnapshot lastSnapshot;
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * Permet d'instancier un registre vide.
+	 */
+	public ServerMetrics () {
+		this.logger = Logger.getLogger(getClass());
+		this.connectionsOpened = new LongAdder();
+		this.connectionsClosed = new LongAdder();
+		this.framesIn = new LongAdder();
+		this.framesOut = new LongAdder();
+		this.bytesIn = new LongAdder();
+		this.bytesOut = new LongAdder();
+		this.receiveErrors = new LongAdder();
+		this.decodeErrors = new LongAdder();
+		this.sendErrors = new LongAdder();
+		this.watchdogTrips = new LongAdder();
+		this.messagesPublished = new LongAdder();
+		this.pendingSends = new LongAdder();
+		this.decodeTime = new LatencyHistogram();
+		this.routeTime = new LatencyHistogram();
+		this.writeTime = new LatencyHistogram();
+		this.traces = new TraceStats();
+		this.history = new MetricsHistory(HISTORY_SECONDS);
+		this.accounting = new ConnectionAccounting();
+		this.lastSnapshot = null;
+		this.scheduler = null;
+	}
+
+	/**
+	 * Permet de compter une connexion client acceptée.
+	 */
+	public void onConnectionOpened () {
+		this.connectionsOpened.increment();
+	}
+
+	/**
+	 * Permet de compter une connexion client terminée.
+	 */
+	public void onConnectionClosed () {
+		this.connectionsClosed.increment();
+	}
+
+	/**
+	 * Permet de compter une trame reçue.
+	 * 
+	 * @param length
+	 *            Taille de la trame en octets, hors en-tête.
+	 */
+	public void onFrameReceived (int length) {
+		this.framesIn.increment();
+		this.bytesIn.add(FrameCodec.HEADER_LENGTH + length);
+	}
+
+	/**
+	 * Permet de compter une trame envoyée et d'enregistrer sa durée
+	 * d'écriture.
+	 * 
+	 * @param length
+	 *            Taille de la trame en octets, hors en-tête.
+	 * @param nanos
+	 *            Durée d'écriture sur la socket en nanosecondes.
+	 */
+	public void onFrameSent (int length, long nanos) {
+		this.framesOut.increment();
+		this.bytesOut.add(FrameCodec.HEADER_LENGTH + length);
+		this.writeTime.record(nanos);
+	}
+
+	/**
+	 * Permet de compter une erreur de réception sur une connexion.
+	 */
+	public void onReceiveError () {
+		this.receiveErrors.increment();
+	}
+
+	/**
+	 * Permet de compter une trame reçue qui n'a pu être décodée.
+	 */
+	public void onDecodeError () {
+		this.decodeErrors.increment();
+	}
+
+	/**
+	 * Permet de compter un envoi vers un client en attente d'écriture.
+	 */
+	public void onSendQueued () {
+		this.pendingSends.increment();
+	}
+
+	/**
+	 * Permet de décompter un envoi terminé, avec ou sans erreur.
+	 */
+	public void onSendDone () {
+		this.pendingSends.decrement();
+	}
+
+	/**
+	 * Permet de compter un message publié dans un salon.
+	 */
+	public void onMessagePublished () {
+		this.messagesPublished.increment();
+	}
+
+	/**
+	 * Permet de compter une erreur d'écriture vers un client.
+	 */
+	public void onSendError () {
+		this.sendErrors.increment();
+	}
+
+	/**
+	 * Permet de compter une connexion coupée par le chien de garde après trop
+	 * d'erreurs.
+	 */
+	public void onWatchdogTrip () {
+		this.watchdogTrips.increment();
+	}
+
+	/**
+	 * Renvoie l'état actuel des mesures.
+	 * 
+	 * @return Copie des compteurs et des histogrammes.
+	 */
+	public MetricsSnapshot snapshot () {
+		return new MetricsSnapshot(this);
+	}
+
+	/**
+	 * Permet de lancer la prise périodique d'une copie des mesures, résumée
+	 * dans les traces, ainsi que l'échantillonnage de l'historique chaque
+	 * seconde.
+	 * 
+	 * @param periodSeconds
+	 *            Période en secondes.
+	 */
+	public synchronized void start (long periodSeconds) {
+		if (this.scheduler == null) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+				@Override
+				public Thread newThread (Runnable r) {
+					Thread thread = new Thread(r, "ServerMetrics");
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+			this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+				@Override
+				public void run () {
+					takeSnapshot();
+				}
+			}, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+			this.scheduler.scheduleAtFixedRate(new Runnable() {
+
+				@Override
+				public void run () {
+					ServerMetrics.this.history.add(snapshot());
+				}
+			}, 0, 1, TimeUnit.SECONDS);
+		}
+	}
+
+	/**
+	 * Permet de stopper la prise périodique des copies.
+	 */
+	public synchronized void stop () {
+		if (this.scheduler != null) {
+			this.scheduler.shutdownNow();
+			this.scheduler = null;
+		}
+	}
+
+	/**
+	 * Permet de prendre une copie des mesures et d'en résumer l'évolution
+	 * depuis la copie précédente.
+	 */
+	private void takeSnapshot () {
+		MetricsSnapshot previous = this.lastSnapshot;
+		MetricsSnapshot current = snapshot();
+		this.lastSnapshot = current;
+		if (previous != null && this.logger.isInfoEnabled()) {
+			double seconds = Math.max(1, current.getTime() - previous.getTime()) / 1000.0;
+			// Les latences sont restreintes à la période, comme les débits
+			LatencyHistogram.Snapshot route = current.getRouteTime().since(previous.getRouteTime());
+			LatencyHistogram.Snapshot write = current.getWriteTime().since(previous.getWriteTime());
+			this.logger.info(String.format("%d connections, %.0f frames/s in, %.0f frames/s out, %.0f KB/s out, "
+					+ "%d errors, route p99 %d us, write p99 %d us", current.getActiveConnections(),
+					(current.getFramesIn() - previous.getFramesIn()) / seconds,
+					(current.getFramesOut() - previous.getFramesOut()) / seconds,
+					(current.getBytesOut() - previous.getBytesOut()) / seconds / 1024,
+					current.getErrors() - previous.getErrors(),
+					TimeUnit.NANOSECONDS.toMicros(route.getPercentile(99)),
+					TimeUnit.NANOSECONDS.toMicros(write.getPercentile(99))));
+		}
+	}
+
+	/*
+	 * Accesseurs
+	 */
+
+	/**
+	 * Renvoie la dernière copie périodique des mesures.
+	 * 
+	 * @return Dernière copie, ou <code>null</code> si aucune n'a encore été
+	 *         prise.
+	 */
+	public MetricsSnapshot getLastSnapshot () {
+		return this.lastSnapshot;
+	}
+
+	public long getConnectionsOpened () {
+		return this.connectionsOpened.sum();
+	}
+
+	public long getConnectionsClosed () {
+		return this.connectionsClosed.sum();
+	}
+
+	public long getFramesIn () {
+		return this.framesIn.sum();
+	}
+
+	public long getFramesOut () {
+		return this.framesOut.sum();
+	}
+
+	public long getBytesIn () {
+		return this.bytesIn.sum();
+	}
+
+	public long getBytesOut () {
+		return this.bytesOut.sum();
+	}
+
+	public long getReceiveErrors () {
+		return this.receiveErrors.sum();
+	}
+
+	public long getDecodeErrors () {
+		return this.decodeErrors.sum();
+	}
+
+	public long getSendErrors () {
+		return this.sendErrors.sum();
+	}
+
+	public long getWatchdogTrips () {
+		return this.watchdogTrips.sum();
+	}
+
+	public long getMessagesPublished () {
+		return this.messagesPublished.sum();
+	}
+
+	public long getPendingSends () {
+		return this.pendingSends.sum();
+	}
+
+	public LatencyHistogram getDecodeTime () {
+		return this.decodeTime;
+	}
+
+	public LatencyHistogram getRouteTime () {
+		return this.routeTime;
+	}
+
+	public LatencyHistogram getWriteTime () {
+		return this.writeTime;
+	}
+
+	public TraceStats getTraces () {
+		return this.traces;
+	}
+
+	public MetricsHistory getHistory () {
+		return this.history;
+	}
+
+	public ConnectionAccounting getAccounting () {
+		return this.accounting;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.server.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.awax.banzaiChat.util.TraceStage;
+
+/**
+ * Agrégation des durées mesurées sur les messages suivis, étape par étape.
+ * Chaque étape alimente un histogramme ; les derniers messages suivis sont
+ * également conservés avec le détail de leurs étapes, afin de retrouver où
+ * est passé le temps d'un message lent.
+ * <p>
+ * Les étapes propres aux destinataires (attente, écriture, affichage) sont
+ * mesurées une fois par destinataire : le détail d'un message en retient la
+ * plus longue. Le trajet réseau est déduit de l'aller-retour remonté par
+ * l'émetteur et du temps passé dans le serveur jusqu'à l'envoi de l'accusé de
+ * réception.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class TraceStats {
+
+	/** Nombre de messages suivis conservés en détail */
+	public static final int MAX_TRACES = 256;
+
+	private final LatencyHistogram[] stages;
+	private final LinkedHashMap<Long, Trace> traces;
+
+	/**
+	 * Permet d'instancier une agrégation vide.
+	 */
+	public TraceStats () {
+		this.stages = new LatencyHistogram[TraceStage.values().length];
+		for (int i = 0; i < this.stages.length; i++) {
+			this.stages[i] = new LatencyHistogram();
+		}
+		this.traces = new LinkedHashMap<Long, Trace>(MAX_TRACES * 2) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry (Map.Entry<Long, Trace> eldest) {
+				return size() > MAX_TRACES;
+			}
+		};
+	}
+
+	/**
+	 * Permet de commencer le suivi d'un message reçu par le serveur.
+	 * 
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @param chatId
+	 *            Identifiant du chat du message.
+	 */
+	public synchronized void begin (long traceId, String chatId) {
+		this.traces.put(traceId, new Trace(traceId, chatId, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Indique si un message du chat spécifié est en cours de suivi, c'est à
+	 * dire s'il a été reçu par le serveur et figure parmi les derniers
+	 * messages suivis.
+	 * 
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @param chatId
+	 *            Identifiant du chat du message.
+	 * @return <code>true</code> si le message est suivi.
+	 */
+	public synchronized boolean isTracing (long traceId, String chatId) {
+		Trace trace = this.traces.get(traceId);
+		return trace != null && trace.chatId.equals(chatId);
+	}
+
+	/**
+	 * Permet d'enregistrer la durée d'une étape d'un message suivi. Un
+	 * aller-retour permet en outre d'estimer le trajet réseau si le temps
+	 * passé dans le serveur est connu.
+	 * 
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @param stage
+	 *            Etape mesurée.
+	 * @param nanos
+	 *            Durée de l'étape en nanosecondes.
+	 */
+	public void record (long traceId, TraceStage stage, long nanos) {
+		this.stages[stage.ordinal()].record(nanos);
+		long residence = -1;
+		synchronized (this) {
+			Trace trace = this.traces.get(traceId);
+			if (trace != null) {
+				trace.set(stage, nanos);
+				residence = trace.residence;
+			}
+		}
+		if (stage == TraceStage.ROUND_TRIP && residence >= 0) {
+			record(traceId, TraceStage.NETWORK, Math.max(0, nanos - residence) / 2);
+		}
+	}
+
+	/**
+	 * Permet d'enregistrer le temps passé dans le serveur par un message
+	 * suivi, de sa réception à l'envoi de son accusé de réception.
+	 * 
+	 * @param traceId
+	 *            Identifiant de suivi du message.
+	 * @param nanos
+	 *            Durée en nanosecondes.
+	 */
+	public synchronized void setResidence (long traceId, long nanos) {
+		Trace trace = this.traces.get(traceId);
+		if (trace != null) {
+			trace.residence = nanos;
+		}
+	}
+
+	/**
+	 * Renvoie une copie des histogrammes de chaque étape.
+	 * 
+	 * @return Copies indexées par le rang de l'étape dans {@link TraceStage}.
+	 */
+	public LatencyHistogram.Snapshot[] snapshot () {
+		LatencyHistogram.Snapshot[] snapshots = new LatencyHistogram.Snapshot[this.stages.length];
+		for (int i = 0; i < this.stages.length; i++) {
+			snapshots[i] = this.stages[i].snapshot();
+		}
+		return snapshots;
+	}
+
+	/**
+	 * Renvoie une copie du détail des derniers messages suivis.
+	 * 
+	 * @return Messages suivis, du plus ancien au plus récent.
+	 */
+	public synchronized List<Trace> getRecentTraces () {
+		List<Trace> copy = new ArrayList<>(this.traces.size());
+		for (Trace trace : this.traces.values()) {
+			copy.add(new Trace(trace));
+		}
+		return copy;
+	}
+
+	public LatencyHistogram getHistogram (TraceStage stage) {
+		return this.stages[stage.ordinal()];
+	}
+
+	/**
+	 * Détail des étapes d'un message suivi.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	public static class Trace {
+
+		private final long traceId;
+		private final String chatId;
+		private final long time;
+		private final long[] durations;
+		private long residence;
+
+		/**
+		 * Permet d'instancier le détail d'un message dont aucune étape n'est
+		 * encore mesurée.
+		 * 
+		 * @param traceId
+		 *            Identifiant de suivi du message.
+		 * @param chatId
+		 *            Identifiant du chat du message.
+		 * @param time
+		 *            Date de réception par le serveur en millisecondes.
+		 */
+		private Trace (long traceId, String chatId, long time) {
+			this.traceId = traceId;
+			this.chatId = chatId;
+			this.time = time;
+			this.durations = new long[TraceStage.values().length];
+			this.residence = -1;
+			Arrays.fill(this.durations, -1);
+		}
+
+		/**
+		 * Permet de copier le détail d'un message.
+		 * 
+		 * @param trace
+		 *            Détail à copier.
+		 */
+		private Trace (Trace trace) {
+			this.traceId = trace.traceId;
+			this.chatId = trace.chatId;
+			this.time = trace.time;
+			this.durations = trace.durations.clone();
+			this.residence = trace.residence;
+		}
+
+		/**
+		 * Permet de conserver la durée d'une étape, ou la plus longue si
+		 * l'étape est mesurée pour plusieurs destinataires.
+		 * 
+		 * @param stage
+		 *            Etape mesurée.
+		 * @param nanos
+		 *            Durée en nanosecondes.
+		 */
+		private void set (TraceStage stage, long nanos) {
+			int i = stage.ordinal();
+			this.durations[i] = Math.max(this.durations[i], nanos);
+		}
+
+		/**
+		 * Renvoie la durée d'une étape du message.
+		 * 
+		 * @param stage
+		 *            Etape souhaitée.
+		 * @return Durée en nanosecondes, ou <code>-1</code> si l'étape n'a
+		 *         pas été mesurée.
+		 */
+		public long getDuration (TraceStage stage) {
+			return this.durations[stage.ordinal()];
+		}
+
+		public long getTraceId () {
+			return this.traceId;
+		}
+
+		public String getChatId () {
+			return this.chatId;
+		}
+
+		public long getTime () {
+			return this.time;
+		}
+	}
+}
\ No newline at end of file
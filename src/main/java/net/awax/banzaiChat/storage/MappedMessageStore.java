@@ -0,0 +1,335 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.storage;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Stockage des messages d'un salon dans des fichiers mappés en mémoire. Chaque
+ * segment est préalloué à sa capacité puis mappé en entier, les écritures et
+ * les lectures se faisant directement dans la mémoire mappée sans appel
+ * système. Un index creux (une entrée tous les {@value #INDEX_STRIDE}
+ * enregistrements) permet de retrouver rapidement la position d'une séquence.
+ * <p>
+ * Format d'un enregistrement : numéro de séquence (8 octets), taille de la
+ * trame (4 octets), puis la trame encodée. La séquence est écrite en dernier ;
+ * une séquence nulle marque la fin des données du segment.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MappedMessageStore implements MessageStore {
+
+	public static final String SEGMENT_EXTENSION = ".map";
+
+	private static final int RECORD_HEADER = 12;
+	private static final int INDEX_STRIDE = 64;
+
+	private final Logger logger;
+	private final File dir;
+	private final int segmentBytes;
+	private final TreeMap<Long, Segment> segments;
+
+	private Segment active;
+	private long lastSequence;
+
+	/**
+	 * Permet d'ouvrir le stockage mappé d'un salon. Les segments existants
+	 * sont mappés et parcourus pour reconstruire leur index.
+	 * 
+	 * @param dir
+	 *            Répertoire du stockage.
+	 * @param segmentBytes
+	 *            Capacité d'un segment en octets.
+	 * @throws IOException
+	 *             Si le répertoire ou un segment ne peut être ouvert, une
+	 *             exception est lancée.
+	 */
+	public MappedMessageStore (File dir, int segmentBytes) throws IOException {
+		this.logger = Logger.getLogger(getClass());
+		this.dir = dir;
+		this.segmentBytes = segmentBytes;
+		this.segments = new TreeMap<>();
+		this.active = null;
+		this.lastSequence = 0;
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create storage directory : " + dir.getAbsolutePath());
+		}
+		File[] files = dir.listFiles(new FilenameFilter() {
+
+			@Override
+			public boolean accept (File d, String name) {
+				return name.endsWith(SEGMENT_EXTENSION);
+			}
+		});
+		for (File file : files) {
+			String name = file.getName();
+			try {
+				long first = Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+				Segment segment = new Segment(file, file.length());
+				segment.recover();
+				this.segments.put(first, segment);
+			} catch (NumberFormatException e) {
+				this.logger.warn("Ignoring unexpected file in storage directory : " + file.getAbsolutePath());
+			}
+		}
+		if (!this.segments.isEmpty()) {
+			this.active = this.segments.lastEntry().getValue();
+			this.lastSequence = this.active.lastSequence;
+		}
+	}
+
+	@Override
+	public synchronized void append (long sequence, byte[] frame) throws IOException {
+		if (sequence <= this.lastSequence) {
+			throw new IllegalArgumentException("Sequence must be increasing : " + sequence);
+		}
+		int length = RECORD_HEADER + frame.length;
+		if (this.active == null || this.active.limit + length > this.active.capacity) {
+			File file = new File(this.dir, String.format("%020d", sequence) + SEGMENT_EXTENSION);
+			this.active = new Segment(file, Math.max(this.segmentBytes, length));
+			this.segments.put(sequence, this.active);
+		}
+		this.active.write(sequence, frame);
+		this.lastSequence = sequence;
+	}
+
+	@Override
+	public List<byte[]> read (long fromSequence, int maxFrames) {
+		// Copie de l'état sous verrou, la lecture se fait ensuite directement
+		// dans la mémoire mappée
+		List<Segment> list = new ArrayList<>();
+		List<Integer> limits = new ArrayList<>();
+		synchronized (this) {
+			Long first = this.segments.floorKey(fromSequence);
+			Map<Long, Segment> tail = first != null ? this.segments.tailMap(first, true) : this.segments;
+			for (Segment segment : tail.values()) {
+				list.add(segment);
+				limits.add(segment.limit);
+			}
+		}
+		List<byte[]> result = new ArrayList<>();
+		for (int i = 0; i < list.size() && result.size() < maxFrames; i++) {
+			list.get(i).read(limits.get(i), fromSequence, maxFrames, result);
+		}
+		return result;
+	}
+
+	@Override
+	public synchronized long getLastSequence () {
+		return this.lastSequence;
+	}
+
+	@Override
+	public synchronized void force () {
+		if (this.active != null) {
+			this.active.buffer.force();
+		}
+	}
+
+	@Override
+	public synchronized void close () throws IOException {
+		for (Segment segment : this.segments.values()) {
+			segment.channel.close();
+		}
+		this.segments.clear();
+		this.active = null;
+	}
+
+	public File getDirectory () {
+		return this.dir;
+	}
+
+	/**
+	 * Segment mappé en mémoire et son index creux.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static class Segment {
+
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private final int capacity;
+		private long[] indexSequences;
+		private int[] indexOffsets;
+		private int indexSize;
+		private int records;
+		private int limit;
+		private long lastSequence;
+
+		/**
+		 * Permet d'ouvrir ou de créer un segment et de le mapper en mémoire.
+		 * 
+		 * @param file
+		 *            Fichier du segment.
+		 * @param capacity
+		 *            Capacité du segment en octets.
+		 * @throws IOException
+		 *             Si le segment ne peut être mappé, une exception est
+		 *             lancée.
+		 */
+		@SuppressWarnings("resource")
+		private Segment (File file, long capacity) throws IOException {
+			if (capacity > Integer.MAX_VALUE) {
+				throw new IOException("Segment too large : " + file.getAbsolutePath());
+			}
+			this.channel = new RandomAccessFile(file, "rw").getChannel();
+			this.capacity = (int) capacity;
+			this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+			this.indexSequences = new long[16];
+			this.indexOffsets = new int[16];
+			this.indexSize = 0;
+			this.records = 0;
+			this.limit = 0;
+			this.lastSequence = 0;
+		}
+
+		/**
+		 * Permet de parcourir un segment existant pour retrouver la fin des
+		 * données et reconstruire l'index.
+		 */
+		private void recover () {
+			int position = 0;
+			while (position + RECORD_HEADER <= this.capacity) {
+				long sequence = this.buffer.getLong(position);
+				int length = this.buffer.getInt(position + 8);
+				if (sequence <= this.lastSequence || length < 0 || position + RECORD_HEADER + length > this.capacity) {
+					break;
+				}
+				addRecord(sequence, position);
+				position += RECORD_HEADER + length;
+			}
+			this.limit = position;
+		}
+
+		/**
+		 * Permet d'écrire un enregistrement en fin de segment.
+		 * 
+		 * @param sequence
+		 *            Numéro de séquence de la trame.
+		 * @param frame
+		 *            Trame encodée.
+		 */
+		private void write (long sequence, byte[] frame) {
+			ByteBuffer view = this.buffer.duplicate();
+			view.position(this.limit + RECORD_HEADER);
+			view.put(frame);
+			this.buffer.putInt(this.limit + 8, frame.length);
+			// La séquence valide l'enregistrement
+			this.buffer.putLong(this.limit, sequence);
+			addRecord(sequence, this.limit);
+			this.limit += RECORD_HEADER + frame.length;
+		}
+
+		/**
+		 * Permet de lire les enregistrements du segment.
+		 * 
+		 * @param end
+		 *            Fin des données connue au moment de la lecture.
+		 * @param fromSequence
+		 *            Premier numéro de séquence souhaité.
+		 * @param maxFrames
+		 *            Nombre maximum de trames au total.
+		 * @param result
+		 *            Liste dans laquelle ajouter les trames lues.
+		 */
+		private void read (int end, long fromSequence, int maxFrames, List<byte[]> result) {
+			ByteBuffer view = this.buffer.duplicate();
+			int position = findOffset(fromSequence);
+			while (result.size() < maxFrames && position + RECORD_HEADER <= end) {
+				long sequence = view.getLong(position);
+				int length = view.getInt(position + 8);
+				if (sequence >= fromSequence) {
+					byte[] frame = new byte[length];
+					view.position(position + RECORD_HEADER);
+					view.get(frame);
+					result.add(frame);
+				}
+				position += RECORD_HEADER + length;
+			}
+		}
+
+		/**
+		 * Permet d'ajouter un enregistrement à l'index creux.
+		 * 
+		 * @param sequence
+		 *            Numéro de séquence de l'enregistrement.
+		 * @param offset
+		 *            Position de l'enregistrement dans le segment.
+		 */
+		private synchronized void addRecord (long sequence, int offset) {
+			if (this.records % INDEX_STRIDE == 0) {
+				if (this.indexSize == this.indexSequences.length) {
+					this.indexSequences = Arrays.copyOf(this.indexSequences, this.indexSize * 2);
+					this.indexOffsets = Arrays.copyOf(this.indexOffsets, this.indexSize * 2);
+				}
+				this.indexSequences[this.indexSize] = sequence;
+				this.indexOffsets[this.indexSize] = offset;
+				this.indexSize++;
+			}
+			this.records++;
+			this.lastSequence = sequence;
+		}
+
+		/**
+		 * Renvoie la position de la dernière entrée d'index dont la séquence
+		 * est inférieure ou égale à celle spécifiée.
+		 * 
+		 * @param sequence
+		 *            Numéro de séquence recherché.
+		 * @return Position à partir de laquelle parcourir le segment.
+		 */
+		private synchronized int findOffset (long sequence) {
+			int low = 0;
+			int high = this.indexSize - 1;
+			int found = 0;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (this.indexSequences[mid] <= sequence) {
+					found = this.indexOffsets[mid];
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return found;
+		}
+	}
+}
\ No newline at end of file
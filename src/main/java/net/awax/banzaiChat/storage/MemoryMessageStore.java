@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.storage;
+
+import java.util.List;
+
+import net.awax.banzaiChat.history.FrameRing;
+
+/**
+ * Stockage des messages en mémoire, destiné aux salons éphémères et aux
+ * tests. Les trames sont conservées dans un {@link FrameRing} dont le budget
+ * en octets borne la mémoire utilisée ; les plus anciennes sont perdues au
+ * redémarrage ou lorsque le budget est dépassé.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MemoryMessageStore implements MessageStore {
+
+	private final FrameRing ring;
+	private long lastSequence;
+
+	/**
+	 * Permet d'instancier un stockage en mémoire.
+	 * 
+	 * @param maxBytes
+	 *            Budget en octets des trames conservées.
+	 */
+	public MemoryMessageStore (long maxBytes) {
+		this.ring = new FrameRing(maxBytes);
+		this.lastSequence = 0;
+	}
+
+	@Override
+	public synchronized void append (long sequence, byte[] frame) {
+		if (sequence <= this.lastSequence) {
+			throw new IllegalArgumentException("Sequence must be increasing : " + sequence);
+		}
+		this.ring.append(sequence, frame);
+		this.lastSequence = sequence;
+	}
+
+	@Override
+	public List<byte[]> read (long fromSequence, int maxFrames) {
+		return this.ring.range(fromSequence, maxFrames);
+	}
+
+	@Override
+	public synchronized long getLastSequence () {
+		return this.lastSequence;
+	}
+
+	@Override
+	public void force () {
+		// Rien à synchroniser
+	}
+
+	@Override
+	public void close () {
+		this.ring.clear();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.storage;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Interface d'un support de stockage des messages d'un salon. Les messages
+ * sont ajoutés dans l'ordre croissant de leur numéro de séquence et relus
+ * sous forme de trames encodées.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public interface MessageStore {
+
+	/**
+	 * Permet d'ajouter une trame au stockage.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence de la trame, strictement croissant.
+	 * @param frame
+	 *            Trame encodée.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'écriture, une exception est
+	 *             lancée.
+	 */
+	public void append (long sequence, byte[] frame) throws IOException;
+
+	/**
+	 * Permet de relire les trames à partir d'un numéro de séquence.
+	 * 
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames souhaitées.
+	 * @return Trames lues, de la plus ancienne à la plus récente.
+	 * @throws IOException
+	 *             Si une erreur survient lors de la lecture, une exception est
+	 *             lancée.
+	 */
+	public List<byte[]> read (long fromSequence, int maxFrames) throws IOException;
+
+	/**
+	 * Renvoie le numéro de séquence de la dernière trame stockée.
+	 * 
+	 * @return Dernier numéro de séquence, ou <code>0</code> si le stockage est
+	 *         vide.
+	 */
+	public long getLastSequence ();
+
+	/**
+	 * Permet de forcer l'écriture sur disque des trames ajoutées.
+	 * 
+	 * @throws IOException
+	 *             Si une erreur survient lors de la synchronisation, une
+	 *             exception est lancée.
+	 */
+	public void force () throws IOException;
+
+	/**
+	 * Permet de fermer le stockage.
+	 * 
+	 * @throws IOException
+	 *             Si une erreur survient lors de la fermeture, une exception
+	 *             est lancée.
+	 */
+	public void close () throws IOException;
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.util;
+
+import java.util.Calendar;
+
+/**
+ * Permet de formater des dates au format hh:mm:ss.SSS sans passer par
+ * {@link String#format(String, Object...)}. Chaque thread dispose de son
+ * propre tampon de caractères et de son propre calendrier ; la partie
+ * hh:mm:ss n'est recalculée que lorsque la seconde change, seules les
+ * millisecondes étant réécrites d'un appel à l'autre.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public final class TimestampFormat {
+
+	private static final ThreadLocal<State> STATE = new ThreadLocal<State>() {
+
+		@Override
+		protected State initialValue () {
+			return new State();
+		}
+	};
+
+	private TimestampFormat () {
+	}
+
+	/**
+	 * Renvoie la date actuelle au format hh:mm:ss.SSS.
+	 * 
+	 * @return Date actuelle au format hh:mm:ss.SSS.
+	 */
+	public static String now () {
+		return format(System.currentTimeMillis());
+	}
+
+	/**
+	 * Renvoie la date spécifiée au format hh:mm:ss.SSS.
+	 * 
+	 * @param time
+	 *            Date en millisecondes.
+	 * @return Date au format hh:mm:ss.SSS.
+	 */
+	public static String format (long time) {
+		State state = STATE.get();
+		char[] buffer = state.buffer;
+		long second = Math.floorDiv(time, 1000L);
+		if (second != state.second) {
+			Calendar calendar = state.calendar;
+			calendar.setTimeInMillis(second * 1000L);
+			write2(buffer, 0, calendar.get(Calendar.HOUR_OF_DAY));
+			write2(buffer, 3, calendar.get(Calendar.MINUTE));
+			write2(buffer, 6, calendar.get(Calendar.SECOND));
+			state.second = second;
+		}
+		int millis = (int) (time - second * 1000L);
+		buffer[9] = (char) ('0' + millis / 100);
+		buffer[10] = (char) ('0' + millis / 10 % 10);
+		buffer[11] = (char) ('0' + millis % 10);
+		return new String(buffer);
+	}
+
+	/**
+	 * Permet d'écrire une valeur sur deux chiffres dans le tampon.
+	 * 
+	 * @param buffer
+	 *            Tampon de caractères.
+	 * @param offset
+	 *            Position du premier chiffre.
+	 * @param value
+	 *            Valeur comprise entre 0 et 99.
+	 */
+	private static void write2 (char[] buffer, int offset, int value) {
+		buffer[offset] = (char) ('0' + value / 10);
+		buffer[offset + 1] = (char) ('0' + value % 10);
+	}
+
+	/**
+	 * État de formatage propre à un thread.
+	 * 
+	 * @author AwaX
+	 * @created 19 oct. 2026
+	 * @version 1.0
+	 */
+	private static final class State {
+
+		private final char[] buffer = "00:00:00.000".toCharArray();
+		private final Calendar calendar = Calendar.getInstance();
+		private long second = Long.MIN_VALUE;
+	}
+}
\ No newline at end of file
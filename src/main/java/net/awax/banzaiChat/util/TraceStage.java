@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.util;
+
+/**
+ * Etapes mesurées sur le parcours d'un message suivi, de sa saisie par
+ * l'émetteur jusqu'à son affichage chez les destinataires.
+ * <ul>
+ * <li>{@link #CLIENT_SEND} : file d'envoi et écriture sur la socket du
+ * client émetteur ;</li>
+ * <li>{@link #NETWORK} : trajet réseau aller, estimé par la moitié de
+ * l'aller-retour hors temps passé dans le serveur ;</li>
+ * <li>{@link #DECODE} : décodage de la trame par le serveur ;</li>
+ * <li>{@link #ROUTE} : numérotation du message et ajout à l'historique ;</li>
+ * <li>{@link #ENQUEUE} : attente de l'accès en écriture à la connexion d'un
+ * destinataire ;</li>
+ * <li>{@link #WRITE} : écriture sur la socket d'un destinataire ;</li>
+ * <li>{@link #CLIENT_RENDER} : de la réception par un destinataire à
+ * l'affichage du message dans son chat ;</li>
+ * <li>{@link #ROUND_TRIP} : de l'écriture par l'émetteur à la réception de
+ * son accusé de réception.</li>
+ * </ul>
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public enum TraceStage {
+	CLIENT_SEND, NETWORK, DECODE, ROUTE, ENQUEUE, WRITE, CLIENT_RENDER, ROUND_TRIP;
+}
\ No newline at end of file
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Texte conservé sous sa forme encodée en UTF-8, directement dans la trame
+ * reçue. Le texte n'est décodé que lorsqu'il est réellement lu, par exemple
+ * lors de son insertion dans le document d'un chat affiché : un message
+ * d'un salon en arrière-plan n'est ainsi jamais converti en {@link String}.
+ * <p>
+ * Sa longueur en caractères UTF-16 est calculée à partir des octets, sans
+ * décodage. Le texte est supposé être de l'UTF-8 valide, tel que produit par
+ * {@link String#getBytes(java.nio.charset.Charset)}. Le tableau d'octets
+ * n'est pas copié et ne doit donc plus être modifié.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public final class Utf8Text implements CharSequence {
+
+	private final byte[] bytes;
+	private final int offset;
+	private final int byteLength;
+	private int length;
+	private String decoded;
+
+	/**
+	 * Permet d'instancier un texte sur une portion d'un tableau d'octets.
+	 * 
+	 * @param bytes
+	 *            Tableau contenant le texte encodé.
+	 * @param offset
+	 *            Position du premier octet du texte.
+	 * @param byteLength
+	 *            Nombre d'octets du texte.
+	 */
+	public Utf8Text (byte[] bytes, int offset, int byteLength) {
+		this.bytes = bytes;
+		this.offset = offset;
+		this.byteLength = byteLength;
+		this.length = -1;
+		this.decoded = null;
+	}
+
+	@Override
+	public int length () {
+		if (this.length < 0) {
+			int count = 0;
+			for (int i = this.offset; i < this.offset + this.byteLength; i++) {
+				int b = this.bytes[i] & 0xFF;
+				// Octets de tête uniquement ; 4 octets donnent une paire
+				if ((b & 0xC0) != 0x80) {
+					count += b >= 0xF0 ? 2 : 1;
+				}
+			}
+			this.length = count;
+		}
+		return this.length;
+	}
+
+	@Override
+	public char charAt (int index) {
+		return decode().charAt(index);
+	}
+
+	@Override
+	public CharSequence subSequence (int start, int end) {
+		return decode().subSequence(start, end);
+	}
+
+	/**
+	 * Renvoie le texte décodé. Le résultat n'est pas conservé, sauf si le
+	 * texte a déjà été parcouru caractère par caractère.
+	 * 
+	 * @return Texte décodé.
+	 */
+	@Override
+	public String toString () {
+		String text = this.decoded;
+		return text != null ? text : new String(this.bytes, this.offset, this.byteLength, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Renvoie le texte décodé et le conserve, afin qu'un parcours caractère
+	 * par caractère (par exemple {@link StringBuilder#append(CharSequence)})
+	 * ne décode le texte qu'une seule fois.
+	 * 
+	 * @return Texte décodé.
+	 */
+	private String decode () {
+		String text = this.decoded;
+		if (text == null) {
+			text = new String(this.bytes, this.offset, this.byteLength, StandardCharsets.UTF_8);
+			this.decoded = text;
+		}
+		return text;
+	}
+
+	/**
+	 * Renvoie la position du premier octet égal à la valeur spécifiée, à
+	 * partir d'une position donnée. Un caractère ASCII ne pouvant apparaître
+	 * au sein d'une séquence multi-octets, cette méthode permet par exemple de
+	 * localiser les retours à la ligne sans décoder le texte.
+	 * 
+	 * @param value
+	 *            Octet recherché.
+	 * @param from
+	 *            Position de départ, en octets.
+	 * @return Position de l'octet, ou <code>-1</code> s'il est absent.
+	 */
+	public int indexOf (byte value, int from) {
+		for (int i = from; i < this.byteLength; i++) {
+			if (this.bytes[this.offset + i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Renvoie la portion du texte comprise entre deux positions en octets, qui
+	 * doivent correspondre à des limites de caractères. Les octets ne sont pas
+	 * copiés.
+	 * 
+	 * @param from
+	 *            Position du premier octet.
+	 * @param to
+	 *            Position de fin (exclue).
+	 * @return Portion du texte.
+	 */
+	public Utf8Text slice (int from, int to) {
+		return new Utf8Text(this.bytes, this.offset + from, to - from);
+	}
+
+	/**
+	 * Renvoie l'octet situé à la position spécifiée.
+	 * 
+	 * @param index
+	 *            Position de l'octet.
+	 * @return Valeur de l'octet.
+	 */
+	public byte byteAt (int index) {
+		return this.bytes[this.offset + index];
+	}
+
+	/**
+	 * Renvoie le point de code commençant à la position spécifiée.
+	 * 
+	 * @param index
+	 *            Position de l'octet de tête du caractère.
+	 * @return Point de code Unicode.
+	 */
+	public int codePointAt (int index) {
+		int i = this.offset + index;
+		int b = this.bytes[i] & 0xFF;
+		switch (sequenceLength(this.bytes[i])) {
+			case 2:
+				return (b & 0x1F) << 6 | this.bytes[i + 1] & 0x3F;
+			case 3:
+				return (b & 0x0F) << 12 | (this.bytes[i + 1] & 0x3F) << 6 | this.bytes[i + 2] & 0x3F;
+			case 4:
+				return (b & 0x07) << 18 | (this.bytes[i + 1] & 0x3F) << 12 | (this.bytes[i + 2] & 0x3F) << 6
+						| this.bytes[i + 3] & 0x3F;
+			default:
+				return b;
+		}
+	}
+
+	/**
+	 * Renvoie le nombre d'octets d'un caractère à partir de son octet de tête.
+	 * 
+	 * @param lead
+	 *            Octet de tête du caractère.
+	 * @return Nombre d'octets du caractère.
+	 */
+	public static int sequenceLength (byte lead) {
+		int b = lead & 0xFF;
+		if (b >= 0xF0) {
+			return 4;
+		} else if (b >= 0xE0) {
+			return 3;
+		} else if (b >= 0xC0) {
+			return 2;
+		}
+		return 1;
+	}
+
+	public int getByteLength () {
+		return this.byteLength;
+	}
+}
\ No newline at end of file
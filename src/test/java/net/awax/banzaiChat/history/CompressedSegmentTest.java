@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Compression d'un segment du journal puis relecture, sur un segment couvrant
+ * plusieurs blocs compressés.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class CompressedSegmentTest extends TestCase {
+
+	private static final int FRAMES = 400;
+
+	private File dir;
+	private File target;
+	private List<byte[]> frames;
+
+	@Override
+	protected void setUp () throws Exception {
+		this.dir = Files.createTempDirectory("banzaichat-segment").toFile();
+		// Trames peu compressibles, afin que le segment couvre plusieurs blocs
+		Random random = new Random(42);
+		this.frames = new ArrayList<>();
+		RoomLog log = new RoomLog(this.dir, Long.MAX_VALUE);
+		for (int sequence = 1; sequence <= FRAMES; sequence++) {
+			byte[] frame = new byte[500 + random.nextInt(2000)];
+			random.nextBytes(frame);
+			log.append(sequence, frame);
+			this.frames.add(frame);
+		}
+		log.close();
+		File source = new File(this.dir, String.format("%020d", 1) + RoomLog.SEGMENT_EXTENSION);
+		this.target = new File(this.dir, "segment" + CompressedSegment.EXTENSION);
+		CompressedSegment.compress(source, this.target);
+	}
+
+	@Override
+	protected void tearDown () throws Exception {
+		for (File file : this.dir.listFiles()) {
+			file.delete();
+		}
+		this.dir.delete();
+	}
+
+	public void testIndex () throws IOException {
+		CompressedSegment segment = CompressedSegment.open(this.target);
+		assertEquals(FRAMES, segment.getLastSequence());
+		assertTrue(segment.getBlockCount() > 5);
+	}
+
+	public void testReadAll () throws IOException {
+		assertFrames(this.frames, read(1, FRAMES + 10));
+	}
+
+	public void testReadAcrossBlocks () throws IOException {
+		// Les lectures partent de chaque position possible dans un bloc
+		for (int from = 1; from <= FRAMES; from += 7) {
+			int to = Math.min(FRAMES, from + 59);
+			assertFrames(this.frames.subList(from - 1, to), read(from, 60));
+		}
+	}
+
+	public void testReadPastEnd () throws IOException {
+		assertTrue(read(FRAMES + 1, 10).isEmpty());
+	}
+
+	/**
+	 * Permet de relire des trames du segment compressé.
+	 * 
+	 * @param fromSequence
+	 *            Premier numéro de séquence souhaité.
+	 * @param maxFrames
+	 *            Nombre maximum de trames souhaitées.
+	 * @return Trames lues.
+	 * @throws IOException
+	 *             Si le segment est illisible, une exception est lancée.
+	 */
+	private List<byte[]> read (long fromSequence, int maxFrames) throws IOException {
+		List<byte[]> result = new ArrayList<>();
+		CompressedSegment.read(this.target, fromSequence, maxFrames, result);
+		return result;
+	}
+
+	/**
+	 * Permet de vérifier que deux listes de trames sont identiques.
+	 * 
+	 * @param expected
+	 *            Trames attendues.
+	 * @param actual
+	 *            Trames lues.
+	 */
+	private static void assertFrames (List<byte[]> expected, List<byte[]> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertTrue("Frame " + i + " differs", Arrays.equals(expected.get(i), actual.get(i)));
+		}
+	}
+}
\ No newline at end of file
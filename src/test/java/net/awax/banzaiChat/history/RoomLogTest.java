@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import net.awax.banzaiChat.storage.MessageStore;
+import net.awax.banzaiChat.storage.MessageStoreContract;
+
+/**
+ * Contrat de {@link MessageStore} appliqué au journal segmenté, reprise après
+ * un arrêt brutal pendant une écriture et lecture des segments compressés.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class RoomLogTest extends MessageStoreContract {
+
+	@Override
+	protected MessageStore open (File dir) throws IOException {
+		return new RoomLog(dir, 1024);
+	}
+
+	public void testReopenKeepsFrames () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 300);
+		assertTrue(((RoomLog) getStore()).getSegmentCount() > 1);
+		reopen();
+		assertEquals(300, getStore().getLastSequence());
+		assertFrames(expected, getStore().read(1, 1000));
+	}
+
+	public void testRecoversTruncatedRecord () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 10);
+		getStore().close();
+		File segment = lastFile(getDirectory(), RoomLog.SEGMENT_EXTENSION);
+		truncate(segment, segment.length() - 3);
+		assertRecovered(segment, expected);
+	}
+
+	public void testRecoversTruncatedHeader () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 10);
+		getStore().close();
+		File segment = lastFile(getDirectory(), RoomLog.SEGMENT_EXTENSION);
+		truncate(segment, segment.length() - expected.get(9).length - 6);
+		assertRecovered(segment, expected);
+	}
+
+	public void testReadsCompressedSegments () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 300);
+		RoomLog log = (RoomLog) getStore();
+		assertTrue(log.compressSealed(0, System.currentTimeMillis() + 1000) > 0);
+		assertFrames(expected, log.read(1, 1000));
+		assertFrames(expected.subList(149, 199), log.read(150, 50));
+		reopen();
+		assertEquals(300, getStore().getLastSequence());
+		assertFrames(expected, getStore().read(1, 1000));
+	}
+
+	/**
+	 * Permet de vérifier qu'après réouverture l'enregistrement incomplet est
+	 * tronqué, puis qu'il peut être réécrit.
+	 * 
+	 * @param segment
+	 *            Segment tronqué.
+	 * @param expected
+	 *            Trames écrites avant l'arrêt.
+	 * @throws IOException
+	 *             Si le journal ne peut être rouvert, une exception est lancée.
+	 */
+	private void assertRecovered (File segment, List<byte[]> expected) throws IOException {
+		setStore(open(getDirectory()));
+		assertEquals(9, getStore().getLastSequence());
+		long valid = 0;
+		for (byte[] frame : expected.subList(0, 9)) {
+			valid += 12 + frame.length;
+		}
+		assertEquals(valid, segment.length());
+		assertFrames(expected.subList(0, 9), getStore().read(1, 100));
+		getStore().append(10, expected.get(9));
+		reopen();
+		assertEquals(10, getStore().getLastSequence());
+		assertFrames(expected, getStore().read(1, 100));
+	}
+
+	/**
+	 * Permet de fermer puis de rouvrir le journal.
+	 * 
+	 * @throws IOException
+	 *             Si le journal ne peut être rouvert, une exception est lancée.
+	 */
+	private void reopen () throws IOException {
+		getStore().close();
+		setStore(open(getDirectory()));
+	}
+
+	/**
+	 * Permet de tronquer un fichier à la taille spécifiée.
+	 * 
+	 * @param file
+	 *            Fichier à tronquer.
+	 * @param length
+	 *            Nouvelle taille du fichier.
+	 * @throws IOException
+	 *             Si le fichier ne peut être tronqué, une exception est
+	 *             lancée.
+	 */
+	private static void truncate (File file, long length) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(length);
+		}
+	}
+}
\ No newline at end of file
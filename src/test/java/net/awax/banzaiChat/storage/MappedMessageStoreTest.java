@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+/**
+ * Contrat de {@link MessageStore} appliqué au stockage mappé, et reprise
+ * après un arrêt brutal pendant une écriture.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public class MappedMessageStoreTest extends MessageStoreContract {
+
+	@Override
+	protected MessageStore open (File dir) throws IOException {
+		return new MappedMessageStore(dir, 4096);
+	}
+
+	public void testReopenKeepsFrames () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 300);
+		reopen();
+		assertEquals(300, getStore().getLastSequence());
+		assertFrames(expected, getStore().read(1, 1000));
+	}
+
+	public void testRecoversUnvalidatedRecord () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 10);
+		getStore().close();
+		// La séquence, écrite en dernier, manque à l'enregistrement
+		long offset = 0;
+		for (int i = 0; i < 9; i++) {
+			offset += 12 + expected.get(i).length;
+		}
+		File segment = lastFile(getDirectory(), MappedMessageStore.SEGMENT_EXTENSION);
+		try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+			raf.seek(offset);
+			raf.writeLong(0);
+		}
+		assertRecovered(expected);
+	}
+
+	public void testRecoversTruncatedTail () throws IOException {
+		List<byte[]> expected = appendRange(getStore(), 1, 10);
+		getStore().close();
+		long end = 0;
+		for (byte[] frame : expected) {
+			end += 12 + frame.length;
+		}
+		File segment = lastFile(getDirectory(), MappedMessageStore.SEGMENT_EXTENSION);
+		try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+			raf.setLength(end - 3);
+		}
+		assertRecovered(expected);
+	}
+
+	/**
+	 * Permet de vérifier qu'après réouverture seul le dernier enregistrement
+	 * est perdu, puis qu'il peut être réécrit.
+	 * 
+	 * @param expected
+	 *            Trames écrites avant l'arrêt.
+	 * @throws IOException
+	 *             Si le stockage ne peut être rouvert, une exception est
+	 *             lancée.
+	 */
+	private void assertRecovered (List<byte[]> expected) throws IOException {
+		setStore(open(getDirectory()));
+		assertEquals(9, getStore().getLastSequence());
+		assertFrames(expected.subList(0, 9), getStore().read(1, 100));
+		getStore().append(10, expected.get(9));
+		reopen();
+		assertEquals(10, getStore().getLastSequence());
+		assertFrames(expected, getStore().read(1, 100));
+	}
+
+	/**
+	 * Permet de fermer puis de rouvrir le stockage.
+	 * 
+	 * @throws IOException
+	 *             Si le stockage ne peut être rouvert, une exception est
+	 *             lancée.
+	 */
+	private void reopen () throws IOException {
+		getStore().close();
+		setStore(open(getDirectory()));
+	}
+}
\ No newline at end of file
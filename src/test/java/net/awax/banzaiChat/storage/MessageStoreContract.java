@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Julien Le Sauce
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package net.awax.banzaiChat.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Contrat commun des stockages de messages ({@link MessageStore}), exécuté
+ * par une classe de test pour chaque implémentation. Chaque test dispose d'un
+ * répertoire temporaire, supprimé à la fin du test.
+ * 
+ * @author AwaX
+ * @created 19 oct. 2026
+ * @version 1.0
+ */
+public abstract class MessageStoreContract extends TestCase {
+
+	private File dir;
+	private MessageStore store;
+
+	/**
+	 * Permet d'ouvrir le stockage à tester dans le répertoire spécifié.
+	 * 
+	 * @param dir
+	 *            Répertoire du stockage, vide au premier appel.
+	 * @return Stockage ouvert.
+	 * @throws IOException
+	 *             Si le stockage ne peut être ouvert, une exception est
+	 *             lancée.
+	 */
+	protected abstract MessageStore open (File dir) throws IOException;
+
+	@Override
+	protected void setUp () throws Exception {
+		this.dir = Files.createTempDirectory("banzaichat-store").toFile();
+		this.store = open(this.dir);
+	}
+
+	@Override
+	protected void tearDown () throws Exception {
+		this.store.close();
+		delete(this.dir);
+	}
+
+	public void testEmptyStore () throws IOException {
+		assertEquals(0, this.store.getLastSequence());
+		assertTrue(this.store.read(1, 10).isEmpty());
+	}
+
+	public void testAppendAndReadAll () throws IOException {
+		List<byte[]> expected = appendRange(this.store, 1, 200);
+		assertEquals(200, this.store.getLastSequence());
+		assertFrames(expected, this.store.read(1, 1000));
+	}
+
+	public void testReadFromMiddle () throws IOException {
+		List<byte[]> expected = appendRange(this.store, 1, 200);
+		assertFrames(expected.subList(99, 124), this.store.read(100, 25));
+	}
+
+	public void testReadPastEnd () throws IOException {
+		appendRange(this.store, 1, 20);
+		assertTrue(this.store.read(21, 10).isEmpty());
+	}
+
+	public void testReadSkipsGaps () throws IOException {
+		for (long sequence : new long[] { 1, 2, 5, 6, 9 }) {
+			this.store.append(sequence, frame(sequence));
+		}
+		List<byte[]> frames = this.store.read(3, 10);
+		assertFrames(Arrays.asList(frame(5), frame(6), frame(9)), frames);
+		assertEquals(9, this.store.getLastSequence());
+	}
+
+	public void testRejectsNonIncreasingSequence () throws IOException {
+		this.store.append(5, frame(5));
+		try {
+			this.store.append(5, frame(5));
+			fail("Duplicate sequence accepted");
+		} catch (IllegalArgumentException e) {
+			// Attendu
+		}
+		try {
+			this.store.append(4, frame(4));
+			fail("Decreasing sequence accepted");
+		} catch (IllegalArgumentException e) {
+			// Attendu
+		}
+		assertEquals(5, this.store.getLastSequence());
+	}
+
+	public void testForceKeepsFrames () throws IOException {
+		List<byte[]> expected = appendRange(this.store, 1, 10);
+		this.store.force();
+		assertFrames(expected, this.store.read(1, 10));
+	}
+
+	protected File getDirectory () {
+		return this.dir;
+	}
+
+	protected MessageStore getStore () {
+		return this.store;
+	}
+
+	protected void setStore (MessageStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Renvoie une trame de test dont le contenu et la taille dépendent de son
+	 * numéro de séquence.
+	 * 
+	 * @param sequence
+	 *            Numéro de séquence de la trame.
+	 * @return Trame de test.
+	 */
+	protected static byte[] frame (long sequence) {
+		StringBuilder sb = new StringBuilder("frame-").append(sequence).append('-');
+		for (int i = 0; i < sequence % 50; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		return sb.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Permet d'ajouter au stockage les trames d'une suite de séquences.
+	 * 
+	 * @param store
+	 *            Stockage à remplir.
+	 * @param first
+	 *            Première séquence.
+	 * @param last
+	 *            Dernière séquence.
+	 * @return Trames ajoutées.
+	 * @throws IOException
+	 *             Si une erreur survient lors de l'écriture, une exception est
+	 *             lancée.
+	 */
+	protected static List<byte[]> appendRange (MessageStore store, long first, long last) throws IOException {
+		List<byte[]> frames = new ArrayList<>();
+		for (long sequence = first; sequence <= last; sequence++) {
+			byte[] frame = frame(sequence);
+			store.append(sequence, frame);
+			frames.add(frame);
+		}
+		return frames;
+	}
+
+	/**
+	 * Permet de vérifier que deux listes de trames sont identiques.
+	 * 
+	 * @param expected
+	 *            Trames attendues.
+	 * @param actual
+	 *            Trames lues.
+	 */
+	protected static void assertFrames (List<byte[]> expected, List<byte[]> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertTrue("Frame " + i + " differs", Arrays.equals(expected.get(i), actual.get(i)));
+		}
+	}
+
+	/**
+	 * Renvoie le dernier fichier du répertoire portant l'extension spécifiée.
+	 * 
+	 * @param dir
+	 *            Répertoire à parcourir.
+	 * @param extension
+	 *            Extension des fichiers recherchés.
+	 * @return Dernier fichier par ordre de nom.
+	 */
+	protected static File lastFile (File dir, String extension) {
+		List<String> names = new ArrayList<>();
+		for (String name : dir.list()) {
+			if (name.endsWith(extension)) {
+				names.add(name);
+			}
+		}
+		assertFalse("No " + extension + " file in " + dir, names.isEmpty());
+		String[] sorted = names.toArray(new String[names.size()]);
+		Arrays.sort(sorted);
+		return new File(dir, sorted[sorted.length - 1]);
+	}
+
+	/**
+	 * Permet de supprimer un répertoire et son contenu.
+	 * 
+	 * @param file
+	 *            Fichier ou répertoire à supprimer.
+	 */
+	private static void delete (File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
\ No newline at end of file